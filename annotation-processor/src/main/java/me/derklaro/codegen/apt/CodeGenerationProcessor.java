@@ -0,0 +1,140 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import me.derklaro.codegen.annotations.Generate;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An annotation processor generating the classes of types annotated with {@code @Generate} as source code in
+ * the same javac pass, without parsing the sources a second time using spoon.
+ *
+ * <p>The generated sources can not modify classes which are already present in the sources. Factory methods
+ * are therefore always generated into a new class, and {@code @NonNull} checks are only added to the methods
+ * of the generated classes.</p>
+ */
+@SupportedOptions(CodeGenerationProcessor.ALLOW_FLUENT_METHODS_OPTION)
+public class CodeGenerationProcessor extends AbstractProcessor {
+
+  public static final String ALLOW_FLUENT_METHODS_OPTION = "codegen.allowFluentMethods";
+
+  protected final SourceGenerator sourceGenerator;
+  protected final Map<String, Set<GeneratedClass>> factoryClasses;
+  protected final Set<String> writtenFactoryClasses;
+  protected ElementTypeAnalyzer typeAnalyzer;
+
+  public CodeGenerationProcessor() {
+    this.sourceGenerator = new SourceGenerator();
+    this.factoryClasses = new LinkedHashMap<>();
+    this.writtenFactoryClasses = new HashSet<>();
+  }
+
+  @Override
+  public synchronized void init(@NotNull ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    // fluent methods are allowed by default, like in the spoon based generation
+    String allowFluentMethods = processingEnv.getOptions().get(ALLOW_FLUENT_METHODS_OPTION);
+    this.typeAnalyzer = new ElementTypeAnalyzer(processingEnv, !"false".equalsIgnoreCase(allowFluentMethods));
+  }
+
+  @Override
+  public @NotNull Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(Generate.class.getCanonicalName());
+  }
+
+  @Override
+  public @NotNull SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(@NotNull Set<? extends TypeElement> annotations, @NotNull RoundEnvironment roundEnv) {
+    Set<? extends Element> elements = roundEnv.getElementsAnnotatedWith(Generate.class);
+    for (Element element : elements) {
+      if (element.getKind() != ElementKind.INTERFACE && element.getKind() != ElementKind.CLASS) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Only classes and interfaces can be annotated with @Generate", element);
+        continue;
+      }
+      GeneratedClass generatedClass = this.typeAnalyzer.analyze((TypeElement) element);
+      if (generatedClass != null) {
+        this.writeSource(generatedClass.getQualifiedName(), this.sourceGenerator.generateClass(generatedClass), element);
+        // remember the factory methods, a factory class may contain the methods of multiple types
+        for (GeneratedClass.Constructor constructor : generatedClass.getConstructors()) {
+          if (constructor.getFactoryMethod() != null) {
+            this.factoryClasses.computeIfAbsent(constructor.getFactoryMethod().getLocation(), $ -> new LinkedHashSet<>())
+              .add(generatedClass);
+          }
+        }
+      }
+    }
+    // the factory classes are complete once a round has no new types to process, which is the round compiling the
+    // generated classes. Sources written in the last round are not processed by javac, which results in a warning
+    if (elements.isEmpty()) {
+      for (Map.Entry<String, Set<GeneratedClass>> entry : this.factoryClasses.entrySet()) {
+        if (!this.writtenFactoryClasses.add(entry.getKey())) {
+          // another processor generated a type with a factory method in a later round
+          this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+            String.format("Factory class %s was already generated in an earlier round", entry.getKey()),
+            entry.getValue().iterator().next().getType());
+          continue;
+        }
+        this.writeSource(entry.getKey(), this.sourceGenerator.generateFactoryClass(entry.getKey(), entry.getValue()),
+          entry.getValue().stream().map(GeneratedClass::getType).toArray(Element[]::new));
+      }
+      this.factoryClasses.clear();
+    }
+    // other processors might be interested in the annotation as well
+    return false;
+  }
+
+  protected void writeSource(@NotNull String className, @NotNull String source, @NotNull Element... originatingElements) {
+    try (Writer writer = this.processingEnv.getFiler().createSourceFile(className, originatingElements).openWriter()) {
+      writer.write(source);
+    } catch (IOException exception) {
+      this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+        String.format("Unable to write generated class %s: %s", className, exception.getMessage()),
+        originatingElements.length == 0 ? null : originatingElements[0]);
+    }
+  }
+}
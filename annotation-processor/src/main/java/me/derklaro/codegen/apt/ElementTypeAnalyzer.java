@@ -0,0 +1,590 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import me.derklaro.codegen.annotations.Equals;
+import me.derklaro.codegen.annotations.Factory;
+import me.derklaro.codegen.annotations.FieldName;
+import me.derklaro.codegen.annotations.Generate;
+import me.derklaro.codegen.annotations.HashCode;
+import me.derklaro.codegen.annotations.Invoke;
+import me.derklaro.codegen.annotations.NonNull;
+import me.derklaro.codegen.annotations.OptionalField;
+import me.derklaro.codegen.annotations.ToString;
+import me.derklaro.codegen.annotations.Wrap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the analysis of the {@code GenerationTypeProcessor} on the elements of javac instead of a spoon model.
+ */
+public class ElementTypeAnalyzer {
+
+  protected static final String INVOKE_ANNOTATION = Invoke.class.getCanonicalName();
+  protected static final String OPTIONAL_ANNOTATION = OptionalField.class.getCanonicalName();
+  protected static final String GENERATE_EXCLUDE_ANNOTATION = Generate.Exclude.class.getCanonicalName();
+  protected static final String TO_STRING_EXCLUDE_ANNOTATION = ToString.Exclude.class.getCanonicalName();
+  protected static final String EQUALS_EXCLUDE_ANNOTATION = Equals.Exclude.class.getCanonicalName();
+  protected static final String HASH_CODE_EXCLUDE_ANNOTATION = HashCode.Exclude.class.getCanonicalName();
+
+  protected static final List<Pattern> METHOD_NAMING_PATTERN = Arrays.asList(
+    Pattern.compile("^get([A-Z].*)"), // getter
+    Pattern.compile("^is([A-Z].*)"), // boolean getter
+    Pattern.compile("^(has[A-Z].*)"), // has getter
+    Pattern.compile("^keeps([A-Z].*)") // keeps getter
+  );
+  protected static final Pattern MUTATOR_PATTERN = Pattern.compile("^set([A-Z].*)");
+
+  protected final Types types;
+  protected final Elements elements;
+  protected final boolean allowFluentMethods;
+
+  public ElementTypeAnalyzer(@NotNull ProcessingEnvironment environment) {
+    this(environment, true);
+  }
+
+  public ElementTypeAnalyzer(@NotNull ProcessingEnvironment environment, boolean allowFluentMethods) {
+    this.types = environment.getTypeUtils();
+    this.elements = environment.getElementUtils();
+    this.allowFluentMethods = allowFluentMethods;
+  }
+
+  public @Nullable GeneratedClass analyze(@NotNull TypeElement type) {
+    Generate settings = type.getAnnotation(Generate.class);
+    if (settings == null) {
+      // The type is not a generation target
+      return null;
+    }
+    // read the settings from the annotation
+    String packageName = settings.targetPackage().isEmpty()
+      ? this.elements.getPackageOf(type).getQualifiedName().toString()
+      : settings.targetPackage();
+    String classSuffix = settings.classSuffix().isEmpty()
+      ? "Impl"
+      : settings.classSuffix();
+    GeneratedClass generatedClass = new GeneratedClass(type, packageName, type.getSimpleName() + classSuffix);
+    // processing data holders
+    DeclaredType declaredType = (DeclaredType) type.asType();
+    Set<String> methodDescriptors = new HashSet<>();
+    Deque<Property> processedGetterMethods = new ArrayDeque<>();
+
+    Deque<TypeElement> processingQueue = new ArrayDeque<>();
+    processingQueue.push(type);
+
+    while (!processingQueue.isEmpty()) {
+      TypeElement processingType = processingQueue.pop();
+      // process the methods in signature order like spoon does, this keeps the generated constructors the same
+      List<ExecutableElement> methods = ElementFilter.methodsIn(processingType.getEnclosedElements()).stream()
+        .sorted(Comparator.comparing(this::provideMethodSignature))
+        .collect(Collectors.toList());
+      for (ExecutableElement method : methods) {
+        ExecutableType methodType = (ExecutableType) this.types.asMemberOf(declaredType, method);
+        // get the method descriptor and check if we already processed the method
+        if (!methodDescriptors.add(this.provideMethodDescriptor(method, methodType))) {
+          continue;
+        }
+        if (!method.getModifiers().contains(Modifier.ABSTRACT) || this.isObjectMethod(method)) {
+          // ignore implemented methods
+          continue;
+        }
+        if (ElementUtility.isAnnotationPresent(method, GENERATE_EXCLUDE_ANNOTATION)) {
+          // excluded methods must still be implemented in source code
+          generatedClass.addMember(this.provideMethod(generatedClass, method, methodType, this.provideUnsupportedBody(method)));
+          continue;
+        }
+        // get the field name for the method name
+        String fieldName = this.associateSetterToFieldName(method);
+        if (fieldName != null) {
+          // it is a setter method
+          String body = String.format("this.%s = $1;", fieldName);
+          if (methodType.getReturnType().getKind() != TypeKind.VOID) {
+            // fluent setter, allow chaining calls
+            body += " return this;";
+          }
+          generatedClass.addField(fieldName, ElementUtility.typeName(methodType.getParameterTypes().get(0)),
+            ElementUtility.isAnnotationPresent(method, OPTIONAL_ANNOTATION), true);
+          generatedClass.addMember(this.provideMethod(generatedClass, method, methodType, body));
+          continue;
+        }
+        // try to associate the field name to a getter method
+        fieldName = this.associateGetterToFieldName(method);
+        boolean invokeAnnotationPresent = ElementUtility.isAnnotationPresent(method, INVOKE_ANNOTATION);
+        if (fieldName != null && !invokeAnnotationPresent && methodType.getReturnType().getKind() != TypeKind.VOID) {
+          // it is a getter method, check if the method call should be wrapped
+          String fieldType;
+          String body;
+          Wrap wrap = method.getAnnotation(Wrap.class);
+          if (wrap != null && !wrap.in().isEmpty() && !wrap.returnType().isEmpty()) {
+            // wrap the method call into the provided string pattern for the creation
+            fieldType = wrap.returnType();
+            body = String.format("return %s;", String.format(wrap.in(), fieldName));
+          } else {
+            // plain return call
+            fieldType = ElementUtility.typeName(methodType.getReturnType());
+            body = String.format("return this.%s;", fieldName);
+          }
+          boolean optional = ElementUtility.isAnnotationPresent(method, OPTIONAL_ANNOTATION);
+          generatedClass.addField(fieldName, fieldType, optional, false);
+          generatedClass.addMember(this.provideMethod(generatedClass, method, methodType, body));
+          // save the getter method for post processing
+          processedGetterMethods.push(new Property(method, fieldName, fieldType, optional));
+        } else if (invokeAnnotationPresent) {
+          // the method is generated just using @Invoke
+          Invoke invoke = method.getAnnotation(Invoke.class);
+          String body = this.formatBody(invoke, new ArrayDeque<>(Arrays.asList(invoke.invocations())));
+          generatedClass.addMember(this.provideMethod(generatedClass, method, methodType, body));
+        } else {
+          // the method can not be associated, but must be implemented in source code
+          generatedClass.addMember(this.provideMethod(generatedClass, method, methodType, this.provideUnsupportedBody(method)));
+        }
+      }
+      // push the superclasses and interfaces to the stack
+      if (processingType.getSuperclass().getKind() == TypeKind.DECLARED) {
+        processingQueue.push((TypeElement) this.types.asElement(processingType.getSuperclass()));
+      }
+      for (TypeMirror superInterface : processingType.getInterfaces()) {
+        processingQueue.push((TypeElement) this.types.asElement(superInterface));
+      }
+    }
+    // Generate the constructors if enabled
+    me.derklaro.codegen.annotations.Constructor constructor = type.getAnnotation(me.derklaro.codegen.annotations.Constructor.class);
+    if (constructor != null && constructor.types().length > 0) {
+      Collection<ExecutableElement> superConstructors = this.getSuperClassConstructors(type);
+      GeneratedClass.FactoryMethod factoryMethod = this.provideFactoryMethod(type);
+      for (me.derklaro.codegen.annotations.Constructor.Type constructorType : new LinkedHashSet<>(Arrays.asList(constructor.types()))) {
+        List<Property> properties;
+        switch (constructorType) {
+          case NO_ARGS:
+            properties = Collections.emptyList();
+            break;
+          case REQUIRED_ARGS:
+            properties = processedGetterMethods.stream().filter(property -> !property.optional).collect(Collectors.toList());
+            break;
+          case ALL_ARGS:
+            properties = new ArrayList<>(processedGetterMethods);
+            break;
+          default:
+            continue;
+        }
+        // one constructor for each of the super constructors, or just one if there are none
+        if (superConstructors.isEmpty()) {
+          generatedClass.addConstructor(this.provideConstructor(declaredType, properties, null, factoryMethod));
+        } else {
+          for (ExecutableElement superConstructor : superConstructors) {
+            generatedClass.addConstructor(this.provideConstructor(declaredType, properties, superConstructor, factoryMethod));
+          }
+        }
+      }
+    }
+    // Generate the toString method if enabled
+    ToString toString = type.getAnnotation(ToString.class);
+    if (toString != null) {
+      generatedClass.addMember(this.provideToString(generatedClass, toString, processedGetterMethods));
+    }
+    // Generate the equals method if enabled
+    Equals equals = type.getAnnotation(Equals.class);
+    if (equals != null) {
+      generatedClass.addMember(this.provideEquals(generatedClass, equals, processedGetterMethods));
+    }
+    // Generate the hashCode method if enabled
+    HashCode hashCode = type.getAnnotation(HashCode.class);
+    if (hashCode != null) {
+      generatedClass.addMember(this.provideHashCode(hashCode, processedGetterMethods));
+    }
+    // Success!
+    return generatedClass;
+  }
+
+  protected @NotNull Collection<ExecutableElement> getSuperClassConstructors(@NotNull TypeElement type) {
+    // the generated class extends the type directly if it is a class
+    if (type.getKind() != ElementKind.CLASS) {
+      return Collections.emptyList();
+    }
+    return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+      .filter(constructor -> !constructor.getModifiers().contains(Modifier.PRIVATE))
+      .collect(Collectors.toList());
+  }
+
+  protected @Nullable GeneratedClass.FactoryMethod provideFactoryMethod(@NotNull TypeElement type) {
+    Factory factory = type.getAnnotation(Factory.class);
+    return factory != null && !factory.location().isEmpty() && !factory.method().isEmpty()
+      ? new GeneratedClass.FactoryMethod(factory.location(), factory.method())
+      : null;
+  }
+
+  protected @NotNull GeneratedClass.Constructor provideConstructor(@NotNull DeclaredType declaredType,
+                                                                   @NotNull List<Property> properties,
+                                                                   @Nullable ExecutableElement superConstructor,
+                                                                   @Nullable GeneratedClass.FactoryMethod factoryMethod) {
+    List<String> parameterTypes = new ArrayList<>();
+    List<String> parameterNames = new ArrayList<>();
+    Set<String> assignedFields = new LinkedHashSet<>();
+    // process the getter methods
+    for (Property property : properties) {
+      parameterTypes.add(property.fieldType);
+      parameterNames.add(property.fieldName);
+      assignedFields.add(property.fieldName);
+    }
+    // add the parameters of the super constructor which are not covered by a field
+    List<String> superArguments = new ArrayList<>();
+    if (superConstructor != null) {
+      ExecutableType superType = (ExecutableType) this.types.asMemberOf(declaredType, superConstructor);
+      for (int i = 0; i < superType.getParameterTypes().size(); i++) {
+        String parameterType = ElementUtility.typeName(superType.getParameterTypes().get(i));
+        String parameterName = superConstructor.getParameters().get(i).getSimpleName().toString();
+
+        int index = this.getIndex(parameterTypes, parameterNames, parameterType, parameterName);
+        if (index == -1) {
+          // no such parameter yet, prevent a clash with a field parameter of another type
+          if (parameterNames.contains(parameterName)) {
+            parameterName = "super" + i;
+          }
+          parameterTypes.add(parameterType);
+          parameterNames.add(parameterName);
+          superArguments.add(parameterName);
+        } else {
+          // just pass the existing parameter
+          superArguments.add(parameterNames.get(index));
+        }
+      }
+    }
+    return new GeneratedClass.Constructor(parameterTypes, parameterNames, superArguments, assignedFields, factoryMethod);
+  }
+
+  protected int getIndex(@NotNull List<String> types, @NotNull List<String> names, @NotNull String type, @NotNull String name) {
+    // get the index of a parameter or -1
+    for (int i = 0; i < types.size(); i++) {
+      if (types.get(i).equals(type) && names.get(i).equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  protected @NotNull String provideToString(@NotNull GeneratedClass generatedClass, @NotNull ToString settings,
+                                            @NotNull Collection<Property> properties) {
+    StringBuilder builder = new StringBuilder("return ");
+    // add prefix if we use java StringBuilder or guava ToStringHelper
+    if (settings.useToStringHelper()) {
+      builder.append("com.google.common.base.MoreObjects.toStringHelper(this)");
+    } else {
+      builder.append(String.format("new java.lang.StringBuilder(\"%s{\")", generatedClass.getSimpleName()));
+    }
+    // append all non-excluded methods
+    boolean first = true;
+    for (Property property : properties) {
+      if (ElementUtility.isAnnotationPresent(property.method, TO_STRING_EXCLUDE_ANNOTATION)) {
+        continue;
+      }
+      if (settings.useToStringHelper()) {
+        builder.append(String.format(".add(\"%s\", this.%s())", property.fieldName, property.method.getSimpleName()));
+      } else {
+        builder
+          .append(first ? "" : ".append(\", \")")
+          .append(String.format(".append(\"%s=\").append(this.%s())", property.fieldName, property.method.getSimpleName()));
+      }
+      first = false;
+    }
+    // close the defining brackets
+    if (!settings.useToStringHelper()) {
+      builder.append(".append(\"}\")");
+      // include the super.toString result if enabled
+      if (settings.callSuper()) {
+        builder.append(".append(super.toString())");
+      }
+    }
+    return this.provideObjectMethod("public java.lang.String toString()", builder.append(".toString();").toString());
+  }
+
+  protected @NotNull String provideEquals(@NotNull GeneratedClass generatedClass, @NotNull Equals settings,
+                                          @NotNull Collection<Property> properties) {
+    // the type arguments of the other instance are unknown
+    int typeParameters = generatedClass.getType().getTypeParameters().size();
+    String className = typeParameters == 0
+      ? generatedClass.getSimpleName()
+      : generatedClass.getSimpleName() + '<' + String.join(", ", Collections.nCopies(typeParameters, "?")) + '>';
+    StringBuilder builder = new StringBuilder()
+      .append("if (o == this) return true; ")
+      .append("if (o == null || o.getClass() != this.getClass()) return false; ")
+      .append(className).append(" that = (").append(className).append(") o; ")
+      .append("return ");
+    // append all fields to the method
+    List<String> checks = new ArrayList<>();
+    for (Property property : properties) {
+      if (ElementUtility.isAnnotationPresent(property.method, EQUALS_EXCLUDE_ANNOTATION)) {
+        continue;
+      }
+      // format the actual equals check using Objects.equals when nullability issues should be prevented
+      checks.add(String.format(settings.preventNullabilityIssues()
+        ? "java.util.Objects.equals(this.%1$s(), that.%1$s())"
+        : "this.%1$s().equals(that.%1$s())", property.method.getSimpleName()));
+    }
+    if (checks.isEmpty()) {
+      // no fields to process, always equals
+      builder.append("true");
+    } else {
+      if (settings.callSuper()) {
+        checks.add("super.equals(o)");
+      }
+      builder.append(String.join(" && ", checks));
+    }
+    return this.provideObjectMethod("public boolean equals(java.lang.Object o)", builder.append(';').toString());
+  }
+
+  protected @NotNull String provideHashCode(@NotNull HashCode settings, @NotNull Collection<Property> properties) {
+    StringBuilder builder = new StringBuilder("int result = 1; ");
+    if (settings.callSuper()) {
+      builder.append("result = (result * 59) + super.hashCode(); ");
+    }
+    // append the hash code of the fields which are not excluded (if there are any)
+    List<String> values = properties.stream()
+      .filter(property -> !ElementUtility.isAnnotationPresent(property.method, HASH_CODE_EXCLUDE_ANNOTATION))
+      .map(property -> String.format("this.%s()", property.method.getSimpleName()))
+      .collect(Collectors.toList());
+    if (!values.isEmpty()) {
+      builder.append("result = (result * 59) + java.util.Objects.hash(").append(String.join(", ", values)).append("); ");
+    }
+    return this.provideObjectMethod("public int hashCode()", builder.append("return result;").toString());
+  }
+
+  protected @NotNull String provideObjectMethod(@NotNull String declaration, @NotNull String body) {
+    return String.format("  @java.lang.Override\n  %s {\n    %s\n  }\n", declaration, body);
+  }
+
+  protected @NotNull String provideMethod(@NotNull GeneratedClass generatedClass, @NotNull ExecutableElement method,
+                                          @NotNull ExecutableType methodType, @NotNull String body) {
+    StringBuilder builder = new StringBuilder("public ");
+    String typeParameters = ElementUtility.typeParameters(method.getTypeParameters());
+    if (!typeParameters.isEmpty()) {
+      builder.append(typeParameters).append(' ');
+    }
+    builder.append(ElementUtility.typeName(methodType.getReturnType())).append(' ').append(method.getSimpleName()).append('(');
+    // the parameters are named like in the javassist bodies of @Invoke ($1, $2, ...)
+    List<? extends TypeMirror> parameterTypes = methodType.getParameterTypes();
+    for (int i = 0; i < parameterTypes.size(); i++) {
+      if (method.isVarArgs() && i == parameterTypes.size() - 1) {
+        builder.append(ElementUtility.typeName(((ArrayType) parameterTypes.get(i)).getComponentType())).append("...");
+      } else {
+        builder.append(ElementUtility.typeName(parameterTypes.get(i)));
+      }
+      builder.append(" $").append(i + 1).append(i == parameterTypes.size() - 1 ? "" : ", ");
+    }
+    builder.append(')');
+    if (!methodType.getThrownTypes().isEmpty()) {
+      builder.append(" throws ").append(methodType.getThrownTypes().stream()
+        .map(ElementUtility::typeName)
+        .collect(Collectors.joining(", ")));
+    }
+    // $0 represents the this argument in the javassist bodies
+    String methodBody = this.provideNonNullChecks(method, methodType) + body;
+    if (methodBody.contains("$0")) {
+      methodBody = generatedClass.getSimpleName()
+        + ElementUtility.typeVariables(generatedClass.getType().getTypeParameters())
+        + " $0 = this; " + methodBody;
+    }
+    return this.provideObjectMethod(builder.toString(), methodBody);
+  }
+
+  protected @NotNull String provideNonNullChecks(@NotNull ExecutableElement method, @NotNull ExecutableType methodType) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < method.getParameters().size(); i++) {
+      NonNull nonNull = method.getParameters().get(i).getAnnotation(NonNull.class);
+      if (nonNull != null && !methodType.getParameterTypes().get(i).getKind().isPrimitive()) {
+        // the parameter is the index + 1
+        int location = i + 1;
+        String message = ElementUtility.stringLiteral(nonNull.message());
+        switch (nonNull.handler()) {
+          case CUSTOM:
+            builder.append(String.format("if ($%d == null) { throw new %s(java.text.MessageFormat.format(%s, \"%d\")); } ",
+              location, this.provideExceptionType(nonNull), message, location));
+            break;
+          case GUAVA_PRECONDITIONS:
+            builder.append(String.format("com.google.common.base.Preconditions.checkNotNull($%d, %s, \"%d\"); ",
+              location, message, location));
+            break;
+          case APACHE_VALIDATE:
+            builder.append(String.format("org.apache.commons.lang3.Validate.notNull($%d, %s, \"%d\"); ",
+              location, message, location));
+            break;
+          default:
+            throw new UnsupportedOperationException("Unsupported non-null handler " + nonNull.handler());
+        }
+      }
+    }
+    return builder.toString();
+  }
+
+  protected @NotNull String provideExceptionType(@NotNull NonNull nonNull) {
+    try {
+      return nonNull.exception().getCanonicalName();
+    } catch (MirroredTypeException exception) {
+      // the exception class is only available as a type mirror during the compilation
+      return ElementUtility.typeName(exception.getTypeMirror());
+    }
+  }
+
+  protected @NotNull String provideUnsupportedBody(@NotNull ExecutableElement method) {
+    return String.format("throw new java.lang.UnsupportedOperationException(\"%s\");", method.getSimpleName());
+  }
+
+  protected @NotNull String formatBody(@NotNull Invoke root, @NotNull Deque<Invoke.SingleInvoke> invocations) {
+    StringBuilder builder = new StringBuilder();
+    while (!invocations.isEmpty()) {
+      Invoke.SingleInvoke invoke = invocations.pop();
+      // handle the invoke return value in the last method call
+      if (invocations.isEmpty() && root.returns() == Invoke.ReturnValue.METHOD_CALL) {
+        builder.append("return ").append(invoke.method()).append(';');
+      } else {
+        builder.append(invoke.method()).append(';');
+        if (invocations.isEmpty() && root.returns() == Invoke.ReturnValue.SELF) {
+          builder.append(" return this;");
+        }
+      }
+    }
+    return builder.toString();
+  }
+
+  protected @NotNull String provideMethodSignature(@NotNull ExecutableElement method) {
+    return method.getSimpleName() + method.getParameters().stream()
+      .map(parameter -> ElementUtility.typeName(this.types.erasure(parameter.asType())))
+      .collect(Collectors.joining(",", "(", ")"));
+  }
+
+  protected @NotNull String provideMethodDescriptor(@NotNull ExecutableElement method, @NotNull ExecutableType methodType) {
+    // the descriptor uses the parameter types in the context of the generated type
+    return method.getSimpleName() + methodType.getParameterTypes().stream()
+      .map(parameter -> ElementUtility.typeName(this.types.erasure(parameter)))
+      .collect(Collectors.joining(",", "(", ")"));
+  }
+
+  protected boolean isObjectMethod(@NotNull ExecutableElement method) {
+    // re-declared methods of object are implemented by object itself
+    String name = method.getSimpleName().toString();
+    List<? extends TypeMirror> parameters = method.getParameters().stream()
+      .map(VariableElement::asType)
+      .collect(Collectors.toList());
+    if (parameters.isEmpty()) {
+      return name.equals("toString") || name.equals("hashCode");
+    }
+    return parameters.size() == 1 && name.equals("equals")
+      && ElementUtility.typeName(parameters.get(0)).equals("java.lang.Object");
+  }
+
+  protected @Nullable String associateGetterToFieldName(@NotNull ExecutableElement method) {
+    // check for overridden field name using @FieldName
+    FieldName fieldName = method.getAnnotation(FieldName.class);
+    if (fieldName != null && !fieldName.value().isEmpty()) {
+      return fieldName.value();
+    } else {
+      // get the field name by the name of the method
+      for (Pattern pattern : METHOD_NAMING_PATTERN) {
+        Matcher matcher = pattern.matcher(method.getSimpleName());
+        if (matcher.matches()) {
+          return this.extractFieldName(matcher.group(1));
+        }
+      }
+      // If fluent style naming is enabled we assume that the name of the field
+      // matches the name of the method.
+      if (this.allowFluentMethods) {
+        return method.getSimpleName().toString();
+      }
+    }
+    // If we are unable to find a field name we return null to skip the method.
+    return null;
+  }
+
+  protected @Nullable String associateSetterToFieldName(@NotNull ExecutableElement method) {
+    // setter are required to only take one parameter
+    if (method.getParameters().size() == 1) {
+      // check for overridden field name using @FieldName
+      FieldName fieldName = method.getAnnotation(FieldName.class);
+      if (fieldName != null && !fieldName.value().isEmpty()) {
+        return fieldName.value();
+      } else {
+        Matcher matcher = MUTATOR_PATTERN.matcher(method.getSimpleName());
+        if (matcher.matches()) {
+          return this.extractFieldName(matcher.group(1));
+        } else if (this.allowFluentMethods) {
+          return method.getSimpleName().toString();
+        }
+      }
+    }
+    // If we are unable to find a field name we return null to skip the method.
+    return null;
+  }
+
+  protected @NotNull String extractFieldName(@NotNull String methodName) {
+    // just make the first char of the method name lower case to follow the naming conventions
+    return Character.toLowerCase(methodName.charAt(0)) + methodName.substring(1);
+  }
+
+  /**
+   * A getter method and the field associated with it.
+   */
+  protected static class Property {
+
+    protected final ExecutableElement method;
+    protected final String fieldName;
+    protected final String fieldType;
+    protected final boolean optional;
+
+    public Property(@NotNull ExecutableElement method, @NotNull String fieldName, @NotNull String fieldType, boolean optional) {
+      this.method = method;
+      this.fieldName = fieldName;
+      this.fieldType = fieldType;
+      this.optional = optional;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ApiStatus.Internal
+public final class ElementUtility {
+
+  private ElementUtility() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static boolean isAnnotationPresent(@NotNull Element element, @NotNull String annotationName) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      // the annotation class might not be loadable, so compare the names
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public static @NotNull String typeName(@NotNull TypeMirror type) {
+    // TypeMirror.toString() includes type annotations on some jdk versions, which is not valid source code
+    switch (type.getKind()) {
+      case ARRAY:
+        return typeName(((ArrayType) type).getComponentType()) + "[]";
+      case DECLARED:
+        DeclaredType declaredType = (DeclaredType) type;
+        String name = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+        return declaredType.getTypeArguments().isEmpty() ? name : name + typeArguments(declaredType.getTypeArguments());
+      case TYPEVAR:
+        return ((TypeVariable) type).asElement().getSimpleName().toString();
+      case WILDCARD:
+        WildcardType wildcardType = (WildcardType) type;
+        if (wildcardType.getExtendsBound() != null) {
+          return "? extends " + typeName(wildcardType.getExtendsBound());
+        } else if (wildcardType.getSuperBound() != null) {
+          return "? super " + typeName(wildcardType.getSuperBound());
+        } else {
+          return "?";
+        }
+      case INTERSECTION:
+        return ((IntersectionType) type).getBounds().stream()
+          .map(ElementUtility::typeName)
+          .collect(Collectors.joining(" & "));
+      default:
+        // primitives, void and types which are not generated yet
+        return type.getKind().isPrimitive() || type.getKind() == TypeKind.VOID
+          ? type.getKind().name().toLowerCase()
+          : type.toString();
+    }
+  }
+
+  public static @NotNull String typeArguments(@NotNull List<? extends TypeMirror> arguments) {
+    return arguments.stream().map(ElementUtility::typeName).collect(Collectors.joining(", ", "<", ">"));
+  }
+
+  public static @NotNull String typeParameters(@NotNull List<? extends TypeParameterElement> parameters) {
+    if (parameters.isEmpty()) {
+      return "";
+    }
+    // declare the type parameters with their bounds, an object bound is always implicit
+    return parameters.stream().map(parameter -> {
+      List<String> bounds = parameter.getBounds().stream()
+        .map(ElementUtility::typeName)
+        .filter(bound -> !bound.equals("java.lang.Object"))
+        .collect(Collectors.toList());
+      return bounds.isEmpty()
+        ? parameter.getSimpleName().toString()
+        : parameter.getSimpleName() + " extends " + String.join(" & ", bounds);
+    }).collect(Collectors.joining(", ", "<", ">"));
+  }
+
+  public static @NotNull String typeVariables(@NotNull List<? extends TypeParameterElement> parameters) {
+    return parameters.isEmpty()
+      ? ""
+      : parameters.stream().map(parameter -> parameter.getSimpleName().toString()).collect(Collectors.joining(", ", "<", ">"));
+  }
+
+  public static @NotNull String stringLiteral(@NotNull String value) {
+    StringBuilder builder = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        default:
+          builder.append(c);
+          break;
+      }
+    }
+    return builder.append('"').toString();
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The source model of a class generated for a type annotated with {@code @Generate}.
+ */
+public class GeneratedClass {
+
+  protected final TypeElement type;
+  protected final String packageName;
+  protected final String simpleName;
+  protected final Map<String, Field> fields;
+  protected final List<String> members;
+  protected final List<Constructor> constructors;
+
+  public GeneratedClass(@NotNull TypeElement type, @NotNull String packageName, @NotNull String simpleName) {
+    this.type = type;
+    this.packageName = packageName;
+    this.simpleName = simpleName;
+    this.fields = new LinkedHashMap<>();
+    this.members = new ArrayList<>();
+    this.constructors = new ArrayList<>();
+  }
+
+  public @NotNull TypeElement getType() {
+    return this.type;
+  }
+
+  public @NotNull String getPackageName() {
+    return this.packageName;
+  }
+
+  public @NotNull String getSimpleName() {
+    return this.simpleName;
+  }
+
+  public @NotNull String getQualifiedName() {
+    return this.packageName.isEmpty() ? this.simpleName : this.packageName + '.' + this.simpleName;
+  }
+
+  public @NotNull Collection<Field> getFields() {
+    return this.fields.values();
+  }
+
+  public @NotNull List<String> getMembers() {
+    return this.members;
+  }
+
+  public @NotNull List<Constructor> getConstructors() {
+    return this.constructors;
+  }
+
+  public void addField(@NotNull String name, @NotNull String fieldType, boolean optional, boolean mutable) {
+    Field field = this.fields.computeIfAbsent(name, $ -> new Field(name, fieldType, optional));
+    // a setter for the field prevents the field from being final
+    field.mutable |= mutable;
+  }
+
+  public void addMember(@NotNull String member) {
+    this.members.add(member);
+  }
+
+  public boolean addConstructor(@NotNull Constructor constructor) {
+    for (Constructor existing : this.constructors) {
+      if (existing.getParameterTypes().equals(constructor.getParameterTypes())) {
+        // the constructor already exists
+        return false;
+      }
+    }
+    return this.constructors.add(constructor);
+  }
+
+  /**
+   * A field of the generated class holding the value of an associated getter or setter method.
+   */
+  public static class Field {
+
+    protected final String name;
+    protected final String fieldType;
+    protected final boolean optional;
+    protected boolean mutable;
+
+    public Field(@NotNull String name, @NotNull String fieldType, boolean optional) {
+      this.name = name;
+      this.fieldType = fieldType;
+      this.optional = optional;
+    }
+
+    public @NotNull String getName() {
+      return this.name;
+    }
+
+    public @NotNull String getFieldType() {
+      return this.fieldType;
+    }
+
+    public boolean isOptional() {
+      return this.optional;
+    }
+
+    public boolean isMutable() {
+      return this.mutable;
+    }
+  }
+
+  /**
+   * A constructor of the generated class and the optional factory method creating an instance using it.
+   */
+  public static class Constructor {
+
+    protected final List<String> parameterTypes;
+    protected final List<String> parameterNames;
+    protected final List<String> superArguments;
+    protected final Set<String> assignedFields;
+    protected final @Nullable FactoryMethod factoryMethod;
+
+    public Constructor(@NotNull List<String> parameterTypes, @NotNull List<String> parameterNames,
+                       @NotNull List<String> superArguments, @NotNull Set<String> assignedFields,
+                       @Nullable FactoryMethod factoryMethod) {
+      this.parameterTypes = parameterTypes;
+      this.parameterNames = parameterNames;
+      this.superArguments = superArguments;
+      this.assignedFields = assignedFields;
+      this.factoryMethod = factoryMethod;
+    }
+
+    public @NotNull List<String> getParameterTypes() {
+      return this.parameterTypes;
+    }
+
+    public @NotNull List<String> getParameterNames() {
+      return this.parameterNames;
+    }
+
+    public @NotNull List<String> getSuperArguments() {
+      return this.superArguments;
+    }
+
+    public @NotNull Set<String> getAssignedFields() {
+      return this.assignedFields;
+    }
+
+    public @Nullable FactoryMethod getFactoryMethod() {
+      return this.factoryMethod;
+    }
+  }
+
+  /**
+   * A static factory method which should be generated into a factory class for a constructor.
+   */
+  public static class FactoryMethod {
+
+    protected final String location;
+    protected final String method;
+
+    public FactoryMethod(@NotNull String location, @NotNull String method) {
+      this.location = location;
+      this.method = method;
+    }
+
+    public @NotNull String getLocation() {
+      return this.location;
+    }
+
+    public @NotNull String getMethod() {
+      return this.method;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Renders the source code of the generated classes and the factory classes.
+ */
+public class SourceGenerator {
+
+  public @NotNull String generateClass(@NotNull GeneratedClass generatedClass) {
+    TypeElement type = generatedClass.getType();
+    StringBuilder builder = this.appendPackage(new StringBuilder(), generatedClass.getPackageName())
+      .append("public class ")
+      .append(generatedClass.getSimpleName())
+      .append(ElementUtility.typeParameters(type.getTypeParameters()))
+      // add the element we are generating for as interface or super class
+      .append(type.getKind() == ElementKind.INTERFACE ? " implements " : " extends ")
+      .append(type.getQualifiedName())
+      .append(ElementUtility.typeVariables(type.getTypeParameters()))
+      .append(" {\n");
+    // fields can only be final if every constructor assigns them and no setter changes them
+    for (GeneratedClass.Field field : generatedClass.getFields()) {
+      boolean finalField = !field.isOptional()
+        && !field.isMutable()
+        && !generatedClass.getConstructors().isEmpty()
+        && generatedClass.getConstructors().stream().allMatch(ctor -> ctor.getAssignedFields().contains(field.getName()));
+      builder
+        .append(finalField ? "\n  private final " : "\n  private ")
+        .append(field.getFieldType())
+        .append(' ')
+        .append(field.getName())
+        .append(';');
+    }
+    builder.append('\n');
+    // constructors
+    for (GeneratedClass.Constructor constructor : generatedClass.getConstructors()) {
+      builder
+        .append("\n  public ")
+        .append(generatedClass.getSimpleName())
+        .append('(')
+        .append(this.joinParameters(constructor))
+        .append(") {\n");
+      if (!constructor.getSuperArguments().isEmpty()) {
+        builder.append("    super(").append(String.join(", ", constructor.getSuperArguments())).append(");\n");
+      }
+      for (String field : constructor.getAssignedFields()) {
+        builder.append("    this.").append(field).append(" = ").append(field).append(";\n");
+      }
+      builder.append("  }\n");
+    }
+    // methods
+    for (String member : generatedClass.getMembers()) {
+      builder.append('\n').append(member);
+    }
+    return builder.append("}\n").toString();
+  }
+
+  public @NotNull String generateFactoryClass(@NotNull String location, @NotNull Collection<GeneratedClass> generatedClasses) {
+    int separator = location.lastIndexOf('.');
+    StringBuilder builder = this.appendPackage(new StringBuilder(), separator == -1 ? "" : location.substring(0, separator))
+      .append("public class ")
+      .append(location.substring(separator + 1))
+      .append(" {\n");
+    // one factory method for each constructor of all types which requested it
+    Set<String> signatures = new HashSet<>();
+    for (GeneratedClass generatedClass : generatedClasses) {
+      TypeElement type = generatedClass.getType();
+      for (GeneratedClass.Constructor constructor : generatedClass.getConstructors()) {
+        GeneratedClass.FactoryMethod factoryMethod = constructor.getFactoryMethod();
+        if (factoryMethod == null
+          || !factoryMethod.getLocation().equals(location)
+          || !signatures.add(factoryMethod.getMethod() + constructor.getParameterTypes())) {
+          continue;
+        }
+        String typeParameters = ElementUtility.typeParameters(type.getTypeParameters());
+        builder
+          .append("\n  public static ")
+          .append(typeParameters.isEmpty() ? "" : typeParameters + ' ')
+          .append(type.getQualifiedName())
+          .append(ElementUtility.typeVariables(type.getTypeParameters()))
+          .append(' ')
+          .append(factoryMethod.getMethod())
+          .append('(')
+          .append(this.joinParameters(constructor))
+          .append(") {\n    return new ")
+          .append(generatedClass.getQualifiedName())
+          .append(ElementUtility.typeVariables(type.getTypeParameters()))
+          .append('(')
+          .append(String.join(", ", constructor.getParameterNames()))
+          .append(");\n  }\n");
+      }
+    }
+    return builder.append("}\n").toString();
+  }
+
+  protected @NotNull StringBuilder appendPackage(@NotNull StringBuilder builder, @NotNull String packageName) {
+    return packageName.isEmpty() ? builder : builder.append("package ").append(packageName).append(";\n\n");
+  }
+
+  protected @NotNull String joinParameters(@NotNull GeneratedClass.Constructor constructor) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < constructor.getParameterTypes().size(); i++) {
+      builder
+        .append(i == 0 ? "" : ", ")
+        .append(constructor.getParameterTypes().get(i))
+        .append(' ')
+        .append(constructor.getParameterNames().get(i));
+    }
+    return builder.toString();
+  }
+}
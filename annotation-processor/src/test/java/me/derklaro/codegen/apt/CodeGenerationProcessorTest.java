@@ -0,0 +1,157 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public class CodeGenerationProcessorTest {
+
+  @TempDir
+  Path directory;
+
+  private static Set<String> constructorSignatures(Class<?> type) {
+    return Arrays.stream(type.getConstructors())
+      .map(constructor -> Arrays.stream(constructor.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(", ")))
+      .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  @Test
+  void testCompilesWithoutWarnings() throws Exception {
+    TestCompilation compilation = TestCompilation.compile(this.directory, SampleSources.create());
+
+    Assertions.assertTrue(compilation.isSuccess(), () -> String.join("\n", compilation.getWarningsAndErrors()));
+    // the factory class must not be written in the last round, javac warns about that
+    Assertions.assertEquals(Collections.emptyList(), compilation.getWarningsAndErrors());
+  }
+
+  @Test
+  void testGettersAndSetters() throws Exception {
+    TestCompilation compilation = TestCompilation.compile(this.directory, SampleSources.create());
+    String source = compilation.generatedSource("demo.PersonImpl");
+
+    Assertions.assertTrue(source.contains("public class PersonImpl implements demo.Person {"));
+    Assertions.assertTrue(source.contains("\n  private int age;"));
+    Assertions.assertTrue(source.contains("\n  private final java.lang.String name;"));
+    Assertions.assertTrue(source.contains("\n  private java.lang.String mail;"));
+    Assertions.assertTrue(source.contains("public int getAge() {\n    return this.age;\n  }"));
+    Assertions.assertTrue(source.contains("public boolean isActive() {\n    return this.active;\n  }"));
+    Assertions.assertTrue(source.contains("public void setAge(int $1) {\n    this.age = $1;\n  }"));
+
+    try (URLClassLoader loader = compilation.newClassLoader()) {
+      Class<?> type = loader.loadClass("demo.PersonImpl");
+      Object person = type.getConstructor(String.class, boolean.class, String.class, String.class, int.class)
+        .newInstance("Jane", true, "jd", "jane@example.com", 30);
+      Assertions.assertEquals("Jane", type.getMethod("getName").invoke(person));
+      Assertions.assertEquals(true, type.getMethod("isActive").invoke(person));
+      Assertions.assertEquals(30, type.getMethod("getAge").invoke(person));
+
+      type.getMethod("setAge", int.class).invoke(person, 31);
+      Assertions.assertEquals(31, type.getMethod("getAge").invoke(person));
+    }
+  }
+
+  @Test
+  void testFluentSetter() throws Exception {
+    TestCompilation compilation = TestCompilation.compile(this.directory, SampleSources.createWithFluentSetter());
+    String source = compilation.generatedSource("demo.TagImpl");
+
+    Assertions.assertTrue(source.contains("public demo.Tag value(long $1) {\n    this.value = $1; return this;\n  }"));
+
+    try (URLClassLoader loader = compilation.newClassLoader()) {
+      Class<?> type = loader.loadClass("demo.TagImpl");
+      Object tag = type.getConstructor(long.class, String.class).newInstance(1L, "key");
+      Assertions.assertSame(tag, type.getMethod("value", long.class).invoke(tag, 2L));
+      Assertions.assertEquals(2L, type.getMethod("getValue").invoke(tag));
+    }
+  }
+
+  @Test
+  void testWrap() throws Exception {
+    TestCompilation compilation = TestCompilation.compile(this.directory, SampleSources.create());
+    String source = compilation.generatedSource("demo.PersonImpl");
+
+    // the field has the type of the wrapped value, the getter wraps it
+    Assertions.assertTrue(source.contains("\n  private final java.lang.String nick;"));
+    Assertions.assertTrue(source.contains("public java.util.Optional<java.lang.String> getNick() {\n"
+      + "    return java.util.Optional.ofNullable(nick);\n  }"));
+
+    try (URLClassLoader loader = compilation.newClassLoader()) {
+      Class<?> type = loader.loadClass("demo.PersonImpl");
+      Method getNick = type.getMethod("getNick");
+      Constructor<?> constructor = type.getConstructor(String.class, boolean.class, String.class, int.class);
+      Assertions.assertEquals(Optional.of("jd"), getNick.invoke(constructor.newInstance("Jane", true, "jd", 30)));
+      Assertions.assertEquals(Optional.empty(), getNick.invoke(constructor.newInstance("Jane", true, null, 30)));
+    }
+  }
+
+  @Test
+  void testConstructorOrder() throws Exception {
+    TestCompilation compilation = TestCompilation.compile(this.directory, SampleSources.create());
+
+    try (URLClassLoader loader = compilation.newClassLoader()) {
+      // the getters are collected in signature order per type, starting at the generated type, and are then reversed
+      Assertions.assertEquals(
+        new TreeSet<>(Arrays.asList("String, boolean, String, int", "String, boolean, String, String, int")),
+        constructorSignatures(loader.loadClass("demo.PersonImpl")));
+      Assertions.assertEquals(
+        new TreeSet<>(Arrays.asList("long, String")),
+        constructorSignatures(loader.loadClass("demo.TagImpl")));
+    }
+  }
+
+  @Test
+  void testFactory() throws Exception {
+    TestCompilation compilation = TestCompilation.compile(this.directory, SampleSources.create());
+    String source = compilation.generatedSource("demo.Factories");
+
+    // both types contribute to the same factory class, one method for each constructor
+    Assertions.assertTrue(source.contains("public static demo.Person person(java.lang.String name, boolean active, "
+      + "java.lang.String nick, int age) {\n    return new demo.PersonImpl(name, active, nick, age);\n  }"));
+    Assertions.assertTrue(source.contains("public static demo.Person person(java.lang.String name, boolean active, "
+      + "java.lang.String nick, java.lang.String mail, int age) {\n"
+      + "    return new demo.PersonImpl(name, active, nick, mail, age);\n  }"));
+    Assertions.assertTrue(source.contains("public static demo.Tag tag(long value, java.lang.String key) {\n"
+      + "    return new demo.TagImpl(value, key);\n  }"));
+
+    try (URLClassLoader loader = compilation.newClassLoader()) {
+      Object tag = loader.loadClass("demo.Factories").getMethod("tag", long.class, String.class).invoke(null, 1L, "key");
+      Assertions.assertEquals("demo.TagImpl", tag.getClass().getName());
+      Assertions.assertEquals("key", tag.getClass().getMethod("getKey").invoke(tag));
+    }
+  }
+}
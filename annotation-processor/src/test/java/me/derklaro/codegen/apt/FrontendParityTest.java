@@ -0,0 +1,127 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import me.derklaro.codegen.Compiler;
+import me.derklaro.codegen.generator.result.ClassResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the classes generated by the annotation processor with the classes generated by the spoon based compiler.
+ */
+public class FrontendParityTest {
+
+  @TempDir
+  Path directory;
+
+  private static String parameters(Executable executable) {
+    return Arrays.stream(executable.getParameterTypes()).map(Class::getName).collect(Collectors.joining(", ", "(", ")"));
+  }
+
+  private static List<String> describe(Class<?> type) {
+    // the modifiers of the members are not compared, the processor can only make fields final in some cases
+    Stream<String> fields = Arrays.stream(type.getDeclaredFields())
+      .filter(field -> !field.isSynthetic())
+      .map(field -> "field " + field.getType().getName() + ' ' + field.getName());
+    Stream<String> constructors = Arrays.stream(type.getDeclaredConstructors())
+      .map(constructor -> "constructor " + parameters(constructor));
+    Stream<String> methods = Arrays.stream(type.getDeclaredMethods())
+      .filter(method -> !method.isSynthetic() && !method.isBridge())
+      .map(method -> (Modifier.isStatic(method.getModifiers()) ? "static " : "method ")
+        + method.getReturnType().getName() + ' ' + method.getName() + parameters(method));
+    return Stream.of(fields, constructors, methods)
+      .flatMap(stream -> stream)
+      .collect(Collectors.toCollection(TreeSet::new))
+      .stream()
+      .collect(Collectors.toList());
+  }
+
+  @Test
+  void testGeneratedClassesMatch() throws Exception {
+    // the types are compiled without the processor for the spoon based generation
+    TestCompilation types = TestCompilation.compileWithoutProcessor(this.directory.resolve("types"), SampleSources.create());
+    Assertions.assertTrue(types.isSuccess(), () -> String.join("\n", types.getWarningsAndErrors()));
+    Collection<ClassResult> results = Compiler.createDefault()
+      .compile(new TestCompilerConfiguration(types.getSourceDirectory().toFile(), TestCompilation.annotationsPath().toFile()))
+      .classStack()
+      .getFullStack();
+    Map<String, byte[]> spoonClasses = new HashMap<>();
+    for (ClassResult result : results) {
+      spoonClasses.put(result.getPackage() + '.' + result.getName(), result.getBytecode());
+    }
+
+    TestCompilation compilation = TestCompilation.compile(this.directory.resolve("processor"), SampleSources.create());
+    Assertions.assertTrue(compilation.isSuccess(), () -> String.join("\n", compilation.getWarningsAndErrors()));
+
+    try (URLClassLoader processorLoader = compilation.newClassLoader();
+         GeneratedClassLoader spoonLoader = new GeneratedClassLoader(types, spoonClasses)) {
+      Assertions.assertEquals(new TreeSet<>(Arrays.asList("demo.Factories", "demo.PersonImpl", "demo.TagImpl")),
+        new TreeSet<>(spoonClasses.keySet()));
+      for (String className : spoonClasses.keySet()) {
+        Assertions.assertEquals(
+          describe(spoonLoader.loadClass(className)),
+          describe(processorLoader.loadClass(className)),
+          className);
+      }
+    }
+  }
+
+  /**
+   * Loads the classes generated by the spoon based compiler, the types they are generated from are compiled by javac.
+   */
+  private static final class GeneratedClassLoader extends URLClassLoader {
+
+    private final Map<String, byte[]> classes;
+
+    private GeneratedClassLoader(TestCompilation types, Map<String, byte[]> classes) throws Exception {
+      super(new URL[]{types.getClassesDirectory().toUri().toURL()}, FrontendParityTest.class.getClassLoader());
+      this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      byte[] bytecode = this.classes.get(name);
+      return bytecode == null ? super.findClass(name) : this.defineClass(name, bytecode, 0, bytecode.length);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import me.derklaro.codegen.Compiler;
+import me.derklaro.codegen.generator.result.ClassResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Checks that the classes generated concurrently are the same as the classes generated sequentially.
+ */
+public class ParallelGenerationTest {
+
+  private static final int MODELS = 24;
+
+  @TempDir
+  Path directory;
+
+  private static Map<String, String> createSources() {
+    Map<String, String> sources = SampleSources.create();
+    for (int i = 0; i < MODELS; i++) {
+      // every third model shares a factory, the others are generated independently
+      sources.put("demo.Model" + i, String.join("\n",
+        "package demo;",
+        "",
+        "import me.derklaro.codegen.annotations.*;",
+        "",
+        "@Generate",
+        "@Constructor(types = {Constructor.Type.NO_ARGS, Constructor.Type.ALL_ARGS})",
+        i % 3 == 0 ? "@Factory(location = \"demo.Models\", method = \"model" + i + "\")" : "",
+        "@ToString",
+        "@Equals",
+        "@HashCode",
+        "public interface Model" + i + " extends Named {",
+        "  long getId();",
+        "  void setId(long id);",
+        "  java.util.List<String> getValues();",
+        "  void setValues(@NonNull java.util.List<String> values);",
+        "}",
+        ""));
+      sources.put("demo.Util" + i, String.join("\n",
+        "package demo;",
+        "",
+        "import me.derklaro.codegen.annotations.NonNull;",
+        "",
+        "public class Util" + i + " {",
+        "  public String join(@NonNull String first, @NonNull String second) {",
+        "    return first + second;",
+        "  }",
+        "}",
+        ""));
+    }
+    return sources;
+  }
+
+  private static Map<String, byte[]> generate(TestCompilation types, int parallelism) throws Exception {
+    TestCompilerConfiguration configuration = new TestCompilerConfiguration(
+      types.getSourceDirectory().toFile(), TestCompilation.annotationsPath().toFile());
+    configuration.setParallelism(parallelism);
+    // the last result of a class is the one written
+    Map<String, byte[]> classes = new TreeMap<>();
+    for (ClassResult result : Compiler.createDefault().compile(configuration).classStack().getFullStack()) {
+      classes.put(result.getPackage() + '.' + result.getName(), result.getBytecode());
+    }
+    return classes;
+  }
+
+  @Test
+  void testParallelGenerationMatchesSequentialGeneration() throws Exception {
+    TestCompilation types = TestCompilation.compileWithoutProcessor(this.directory, createSources());
+    Assertions.assertTrue(types.isSuccess(), () -> String.join("\n", types.getWarningsAndErrors()));
+
+    Map<String, byte[]> expected = generate(types, 1);
+    Assertions.assertTrue(expected.containsKey("demo.Models"));
+    Assertions.assertTrue(expected.containsKey("demo.Util0"));
+    // run a few times, a race does not show up in every run
+    for (int run = 0; run < 3; run++) {
+      Map<String, byte[]> actual = generate(types, 4);
+      Assertions.assertEquals(expected.keySet(), actual.keySet());
+      for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+        Assertions.assertArrayEquals(entry.getValue(), actual.get(entry.getKey()), entry.getKey());
+      }
+    }
+  }
+}
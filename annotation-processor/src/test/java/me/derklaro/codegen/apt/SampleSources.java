@@ -0,0 +1,97 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The sources of the types generated by the tests, keyed by their class name.
+ */
+final class SampleSources {
+
+  private SampleSources() {
+    throw new UnsupportedOperationException();
+  }
+
+  static @NotNull Map<String, String> create() {
+    return create(false);
+  }
+
+  static @NotNull Map<String, String> createWithFluentSetter() {
+    // the spoon based generation does not support setters which return the instance
+    return create(true);
+  }
+
+  private static @NotNull Map<String, String> create(boolean fluentSetter) {
+    Map<String, String> sources = new LinkedHashMap<>();
+    sources.put("demo.Named", String.join("\n",
+      "package demo;",
+      "",
+      "public interface Named {",
+      "  String getName();",
+      "}",
+      ""));
+    sources.put("demo.Person", String.join("\n",
+      "package demo;",
+      "",
+      "import me.derklaro.codegen.annotations.*;",
+      "",
+      "@Generate",
+      "@Constructor(types = {Constructor.Type.REQUIRED_ARGS, Constructor.Type.ALL_ARGS})",
+      "@Factory(location = \"demo.Factories\", method = \"person\")",
+      "@ToString",
+      "@Equals",
+      "@HashCode",
+      "public interface Person extends Named {",
+      "  int getAge();",
+      "  void setAge(int age);",
+      "  @OptionalField",
+      "  String getMail();",
+      "  @Wrap(in = \"java.util.Optional.ofNullable(%s)\", returnType = \"java.lang.String\")",
+      "  java.util.Optional<String> getNick();",
+      "  boolean isActive();",
+      "}",
+      ""));
+    sources.put("demo.Tag", String.join("\n",
+      "package demo;",
+      "",
+      "import me.derklaro.codegen.annotations.*;",
+      "",
+      "@Generate",
+      "@Constructor(types = Constructor.Type.ALL_ARGS)",
+      "@Factory(location = \"demo.Factories\", method = \"tag\")",
+      "@Equals",
+      "public interface Tag {",
+      "  String getKey();",
+      "  long getValue();",
+      fluentSetter ? "  Tag value(long value);" : "",
+      "}",
+      ""));
+    return sources;
+  }
+}
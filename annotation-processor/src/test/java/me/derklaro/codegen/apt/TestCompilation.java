@@ -0,0 +1,145 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import me.derklaro.codegen.annotations.Generate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A javac compilation of test sources, optionally running the code generation processor.
+ */
+final class TestCompilation {
+
+  private final Path sourceDirectory;
+  private final Path generatedDirectory;
+  private final Path classesDirectory;
+  private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+  private final boolean success;
+
+  private TestCompilation(@NotNull Path directory, @NotNull Map<String, String> sources,
+                          @Nullable Processor processor) throws IOException {
+    this.sourceDirectory = directory.resolve("src");
+    this.generatedDirectory = directory.resolve("generated");
+    this.classesDirectory = directory.resolve("classes");
+    Files.createDirectories(this.generatedDirectory);
+    Files.createDirectories(this.classesDirectory);
+    // write the sources, keyed by their class name
+    List<File> sourceFiles = new ArrayList<>();
+    for (Map.Entry<String, String> entry : sources.entrySet()) {
+      Path file = this.sourceDirectory.resolve(entry.getKey().replace('.', '/') + ".java");
+      Files.createDirectories(file.getParent());
+      Files.write(file, entry.getValue().getBytes(StandardCharsets.UTF_8));
+      sourceFiles.add(file.toFile());
+    }
+    // compile against the annotations of this build
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(collector, null, StandardCharsets.UTF_8)) {
+      List<String> options = new ArrayList<>(Arrays.asList(
+        "-classpath", annotationsPath().toString(),
+        "-s", this.generatedDirectory.toString(),
+        "-d", this.classesDirectory.toString()));
+      if (processor == null) {
+        options.add("-proc:none");
+      }
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, collector, options, null,
+        fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+      if (processor != null) {
+        task.setProcessors(Collections.singleton(processor));
+      }
+      this.success = task.call();
+    }
+    this.diagnostics = collector.getDiagnostics();
+  }
+
+  static @NotNull Path annotationsPath() {
+    try {
+      return Paths.get(Generate.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    } catch (URISyntaxException exception) {
+      throw new IllegalStateException("Unable to locate the annotations", exception);
+    }
+  }
+
+  static @NotNull TestCompilation compile(@NotNull Path directory, @NotNull Map<String, String> sources) throws IOException {
+    return new TestCompilation(directory, sources, new CodeGenerationProcessor());
+  }
+
+  static @NotNull TestCompilation compileWithoutProcessor(@NotNull Path directory, @NotNull Map<String, String> sources)
+    throws IOException {
+    return new TestCompilation(directory, sources, null);
+  }
+
+  @NotNull Path getSourceDirectory() {
+    return this.sourceDirectory;
+  }
+
+  @NotNull Path getClassesDirectory() {
+    return this.classesDirectory;
+  }
+
+  boolean isSuccess() {
+    return this.success;
+  }
+
+  @NotNull List<String> getWarningsAndErrors() {
+    return this.diagnostics.stream()
+      .filter(diagnostic -> diagnostic.getKind() != Diagnostic.Kind.NOTE && diagnostic.getKind() != Diagnostic.Kind.OTHER)
+      .map(diagnostic -> diagnostic.getKind() + ": " + diagnostic.getMessage(null))
+      .collect(Collectors.toList());
+  }
+
+  @NotNull String generatedSource(@NotNull String className) throws IOException {
+    Path file = this.generatedDirectory.resolve(className.replace('.', '/') + ".java");
+    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+  }
+
+  @NotNull URLClassLoader newClassLoader() throws IOException {
+    return new URLClassLoader(new URL[]{this.classesDirectory.toUri().toURL()}, TestCompilation.class.getClassLoader());
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.apt;
+
+import javassist.ClassPool;
+import me.derklaro.codegen.Compiler;
+import me.derklaro.codegen.generator.result.ClassResultSink;
+import me.derklaro.codegen.processor.TypeProcessor;
+import me.derklaro.codegen.profiler.GenerationProfiler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A configuration of the spoon based compiler, generating the classes of the given sources.
+ */
+final class TestCompilerConfiguration implements Compiler.CompilerConfiguration {
+
+  private final Set<File> inputFiles;
+  private final Set<File> sourceClassPath;
+
+  private int languageLevel = 8;
+  private int parallelism = 1;
+  private boolean validateCode = true;
+
+  TestCompilerConfiguration(@NotNull File sourceDirectory, @NotNull File classPath) {
+    this.inputFiles = Collections.singleton(sourceDirectory);
+    this.sourceClassPath = Collections.singleton(classPath);
+  }
+
+  @Override
+  public int getLanguageLevel() {
+    return this.languageLevel;
+  }
+
+  @Override
+  public void setLanguageLevel(int languageLevel) {
+    this.languageLevel = languageLevel;
+  }
+
+  @Override
+  public boolean isValidateCode() {
+    return this.validateCode;
+  }
+
+  @Override
+  public void setValidateCode(boolean validateCode) {
+    this.validateCode = validateCode;
+  }
+
+  @Override
+  public @NotNull Set<File> getInputFiles() {
+    return this.inputFiles;
+  }
+
+  @Override
+  public @Nullable Set<File> getChangedFiles() {
+    return null;
+  }
+
+  @Override
+  public @Nullable File getCacheDirectory() {
+    return null;
+  }
+
+  @Override
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public boolean isPreScan() {
+    return false;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return 0;
+  }
+
+  @Override
+  public int getParseShards() {
+    return 1;
+  }
+
+  @Override
+  public boolean isVerifyDeterminism() {
+    return false;
+  }
+
+  @Override
+  public @Nullable ClassPool getSharedClassPool() {
+    return null;
+  }
+
+  @Override
+  public @Nullable ClassResultSink getClassResultSink() {
+    return null;
+  }
+
+  @Override
+  public @Nullable GenerationProfiler getProfiler() {
+    return null;
+  }
+
+  @Override
+  public @NotNull Set<File> getSourceClassPath() {
+    return this.sourceClassPath;
+  }
+
+  @Override
+  public @NotNull Set<TypeProcessor> getProcessors() {
+    return Collections.emptySet();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks;
+
+import javassist.NotFoundException;
+import me.derklaro.codegen.javaassist.CompilingClassPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookups of the {@link CompilingClassPath}: the first lookup compiling all sources, the lookups
+ * of the compiled classes and the lookups of classes which are not part of the sources. As the compiling class
+ * path is preferred over the parent pool, the latter happens for each class of the jvm used during the generation.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ClassPathBenchmark extends CorpusBenchmark {
+
+  private static final String[] FOREIGN_CLASSES = {
+    "java.lang.Object", "java.lang.String", "java.lang.Integer", "java.util.List", "java.util.Optional", "java.util.Objects"};
+
+  protected String[] sourceClassPathEntries;
+  protected CompilingClassPath compiledClassPath;
+  protected List<String> classNames;
+
+  @Override
+  protected void prepare() throws Exception {
+    this.sourceClassPathEntries = this.sourceClassPath.stream().map(File::getAbsolutePath).toArray(String[]::new);
+    this.classNames = new ArrayList<>(this.corpus.getGeneratedTypes());
+    this.classNames.addAll(this.corpus.getSupertypes());
+    // compile the sources once for the lookups of the compiled classes
+    this.compiledClassPath = new CompilingClassPath(this.inputFiles, this.sourceClassPathEntries);
+    this.compiledClassPath.openClassfile(this.classNames.get(0)).close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public InputStream firstLookup() throws NotFoundException {
+    return new CompilingClassPath(this.inputFiles, this.sourceClassPathEntries).openClassfile(this.classNames.get(0));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void compiledLookup(Blackhole blackhole) throws NotFoundException {
+    for (String className : this.classNames) {
+      blackhole.consume(this.compiledClassPath.openClassfile(className));
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void foreignLookup(Blackhole blackhole) {
+    for (String className : FOREIGN_CLASSES) {
+      blackhole.consume(this.compiledClassPath.find(className));
+    }
+  }
+}
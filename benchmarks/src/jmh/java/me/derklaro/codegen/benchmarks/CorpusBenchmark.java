@@ -0,0 +1,107 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks;
+
+import me.derklaro.codegen.annotations.Generate;
+import me.derklaro.codegen.benchmarks.corpus.CorpusSettings;
+import me.derklaro.codegen.benchmarks.corpus.SyntheticCorpus;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The base of all benchmarks running on a synthetic corpus, which is written once per trial. Larger corpora
+ * (up to {@value CorpusSettings#MAX_TYPES} types) can be benchmarked by overriding the parameters, for example
+ * using {@code -p typeCount=50000}.
+ */
+@State(Scope.Benchmark)
+public abstract class CorpusBenchmark {
+
+  @Param({"100", "1000"})
+  public int typeCount;
+
+  @Param({"8"})
+  public int fieldCount;
+
+  @Param({"2"})
+  public int hierarchyDepth;
+
+  protected SyntheticCorpus corpus;
+  protected Set<File> inputFiles;
+  protected Set<File> sourceClassPath;
+
+  @Setup
+  public void writeCorpus() throws Exception {
+    CorpusSettings settings = CorpusSettings.builder()
+      .typeCount(this.typeCount)
+      .fieldCount(this.fieldCount)
+      .hierarchyDepth(this.hierarchyDepth)
+      .build();
+    this.corpus = SyntheticCorpus.write(settings, Files.createTempDirectory("codegen-corpus"));
+    this.inputFiles = Collections.singleton(this.corpus.getSourceRoot().toFile());
+    // the sources only need the annotations, take them from the location they were loaded from
+    File annotations = Paths.get(Generate.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toFile();
+    this.sourceClassPath = Collections.singleton(annotations);
+    // let the benchmark prepare the state it needs from the corpus
+    this.prepare();
+  }
+
+  @TearDown
+  public void deleteCorpus() throws IOException {
+    try (Stream<Path> files = Files.walk(this.corpus.getSourceRoot())) {
+      // delete the deepest files first
+      Iterator<Path> iterator = files.sorted(Comparator.reverseOrder()).iterator();
+      while (iterator.hasNext()) {
+        Files.deleteIfExists(iterator.next());
+      }
+    }
+  }
+
+  /**
+   * Prepares the state of the benchmark after the corpus was written.
+   *
+   * @throws Exception if any exception occurs during the preparation.
+   */
+  protected void prepare() throws Exception {
+  }
+
+  protected @NotNull BenchmarkCompilerConfiguration createConfiguration(int parallelism) {
+    return new BenchmarkCompilerConfiguration(this.inputFiles, this.sourceClassPath, parallelism);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks;
+
+import javassist.ClassPool;
+import me.derklaro.codegen.Compiler;
+import me.derklaro.codegen.javaassist.CompilingClassPath;
+import me.derklaro.codegen.processor.defaults.GenerationTypeProcessor;
+import me.derklaro.codegen.stack.classes.DefaultClassStack;
+import me.derklaro.codegen.stack.generators.DefaultGeneratorStack;
+import me.derklaro.codegen.stack.generators.GeneratorStack;
+import me.derklaro.codegen.util.SourceIndex;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spoon.SpoonModelBuilder;
+import spoon.reflect.declaration.CtType;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the analysis of the types ({@link GenerationTypeProcessor#process(CtType)}) and the generation of
+ * the classes ({@link GenerationTypeProcessor#postProcess(GeneratorStack)}) separately, on a model which is
+ * built once per trial.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProcessorBenchmark extends CorpusBenchmark {
+
+  protected ClassPool parentPool;
+  protected CompilingClassPath compilingClassPath;
+  protected List<CtType<?>> types;
+
+  @Override
+  protected void prepare() throws Exception {
+    SpoonModelBuilder modelBuilder = Compiler.createDefault().provideModelBuilder(this.createConfiguration(1));
+    // the parent pool provides the jvm and annotation classes, like the parent pool of the compiler
+    this.parentPool = new ClassPool(true);
+    for (File file : this.sourceClassPath) {
+      this.parentPool.appendClassPath(file.getAbsolutePath());
+    }
+    // the sources are compiled once and shared between all pools of the trial
+    this.compilingClassPath = new CompilingClassPath(SourceIndex.create(this.inputFiles), modelBuilder);
+    this.types = new ArrayList<>(this.corpus.getGeneratedTypes().size());
+    for (String generatedType : this.corpus.getGeneratedTypes()) {
+      this.types.add(modelBuilder.getFactory().Type().get(generatedType));
+    }
+  }
+
+  protected @NotNull GenerationTypeProcessor processAll() {
+    // a fresh pool for each processor, the generation modifies the classes in the pool
+    ClassPool classPool = new ClassPool(this.parentPool);
+    classPool.childFirstLookup = true;
+    classPool.appendClassPath(this.compilingClassPath);
+    // process all types of the corpus
+    GenerationTypeProcessor processor = new GenerationTypeProcessor(classPool);
+    for (CtType<?> type : this.types) {
+      if (processor.shouldProcess(type)) {
+        processor.process(type);
+      }
+    }
+    return processor;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public GenerationTypeProcessor process() {
+    return this.processAll();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Measurement(iterations = 10)
+  public GeneratorStack postProcess(@NotNull ProcessedTypes processedTypes) throws Exception {
+    GeneratorStack stack = new DefaultGeneratorStack(new DefaultClassStack());
+    processedTypes.processor.postProcess(stack);
+    return stack;
+  }
+
+  @State(Scope.Thread)
+  public static class ProcessedTypes {
+
+    protected GenerationTypeProcessor processor;
+
+    @Setup(Level.Invocation)
+    public void process(@NotNull ProcessorBenchmark benchmark) {
+      this.processor = benchmark.processAll();
+    }
+  }
+}
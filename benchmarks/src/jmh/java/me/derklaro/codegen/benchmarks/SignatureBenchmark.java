@@ -0,0 +1,74 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks;
+
+import me.derklaro.codegen.Compiler;
+import me.derklaro.codegen.util.BytecodeUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import spoon.SpoonModelBuilder;
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BytecodeUtility#provideMethodSignature(CtMethod)} for all methods of the corpus.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignatureBenchmark extends CorpusBenchmark {
+
+  protected List<CtMethod<?>> methods;
+
+  @Override
+  protected void prepare() throws Exception {
+    SpoonModelBuilder modelBuilder = Compiler.createDefault().provideModelBuilder(this.createConfiguration(1));
+    // collect the methods of all types, including the supertypes
+    List<String> typeNames = new ArrayList<>(this.corpus.getGeneratedTypes());
+    typeNames.addAll(this.corpus.getSupertypes());
+    this.methods = new ArrayList<>();
+    for (String typeName : typeNames) {
+      this.methods.addAll(modelBuilder.getFactory().Type().get(typeName).getMethods());
+    }
+  }
+
+  @Benchmark
+  public void provideMethodSignature(Blackhole blackhole) {
+    for (CtMethod<?> method : this.methods) {
+      blackhole.consume(BytecodeUtility.provideMethodSignature(method));
+    }
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.corpus;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The settings of a synthetic source corpus. The same settings always produce the same corpus.
+ */
+public final class CorpusSettings {
+
+  public static final int MIN_TYPES = 100;
+  public static final int MAX_TYPES = 50_000;
+
+  private final int typeCount;
+  private final int fieldCount;
+  private final int hierarchyDepth;
+  private final double wrapDensity;
+  private final double invokeDensity;
+  private final double nonNullDensity;
+  private final int factoryFanIn;
+  private final int typesPerPackage;
+  private final long seed;
+
+  private CorpusSettings(@NotNull Builder builder) {
+    this.typeCount = builder.typeCount;
+    this.fieldCount = builder.fieldCount;
+    this.hierarchyDepth = builder.hierarchyDepth;
+    this.wrapDensity = builder.wrapDensity;
+    this.invokeDensity = builder.invokeDensity;
+    this.nonNullDensity = builder.nonNullDensity;
+    this.factoryFanIn = builder.factoryFanIn;
+    this.typesPerPackage = builder.typesPerPackage;
+    this.seed = builder.seed;
+  }
+
+  public static @NotNull Builder builder() {
+    return new Builder();
+  }
+
+  private static double checkDensity(@NotNull String name, double density) {
+    if (density < 0 || density > 1) {
+      throw new IllegalArgumentException(name + " must be between 0 and 1, got " + density);
+    }
+    return density;
+  }
+
+  /**
+   * Get the amount of {@code @Generate} types in the corpus.
+   *
+   * @return the amount of generated types.
+   */
+  public int getTypeCount() {
+    return this.typeCount;
+  }
+
+  /**
+   * Get the amount of fields of each generated type, including the fields declared by its supertypes.
+   *
+   * @return the amount of fields per type.
+   */
+  public int getFieldCount() {
+    return this.fieldCount;
+  }
+
+  /**
+   * Get the amount of interfaces each generated type extends transitively.
+   *
+   * @return the depth of the hierarchy of each type, {@code 0} if the types have no supertypes.
+   */
+  public int getHierarchyDepth() {
+    return this.hierarchyDepth;
+  }
+
+  /**
+   * Get the chance of a getter to be annotated with {@code @Wrap}.
+   *
+   * @return the density of wrapped getters.
+   */
+  public double getWrapDensity() {
+    return this.wrapDensity;
+  }
+
+  /**
+   * Get the chance of each field to get an {@code @Invoke} method next to its accessors.
+   *
+   * @return the density of invoke methods.
+   */
+  public double getInvokeDensity() {
+    return this.invokeDensity;
+  }
+
+  /**
+   * Get the chance of a reference typed field to have a setter with a {@code @NonNull} parameter, the
+   * same chance applies to the first parameter of each {@code @Invoke} method.
+   *
+   * @return the density of non-null parameters.
+   */
+  public double getNonNullDensity() {
+    return this.nonNullDensity;
+  }
+
+  /**
+   * Get the amount of types sharing the same factory class.
+   *
+   * @return the amount of types per factory, {@code 0} if no type has a factory.
+   */
+  public int getFactoryFanIn() {
+    return this.factoryFanIn;
+  }
+
+  /**
+   * Get the amount of generated types in each package.
+   *
+   * @return the amount of types per package.
+   */
+  public int getTypesPerPackage() {
+    return this.typesPerPackage;
+  }
+
+  /**
+   * Get the seed of the random decisions made while writing the corpus.
+   *
+   * @return the seed of the corpus.
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  @Override
+  public String toString() {
+    return "CorpusSettings{"
+      + "typeCount=" + this.typeCount
+      + ", fieldCount=" + this.fieldCount
+      + ", hierarchyDepth=" + this.hierarchyDepth
+      + ", wrapDensity=" + this.wrapDensity
+      + ", invokeDensity=" + this.invokeDensity
+      + ", nonNullDensity=" + this.nonNullDensity
+      + ", factoryFanIn=" + this.factoryFanIn
+      + ", typesPerPackage=" + this.typesPerPackage
+      + ", seed=" + this.seed
+      + '}';
+  }
+
+  public static final class Builder {
+
+    private int typeCount = 1000;
+    private int fieldCount = 8;
+    private int hierarchyDepth = 2;
+    private double wrapDensity = 0.1;
+    private double invokeDensity = 0.1;
+    private double nonNullDensity = 0.25;
+    private int factoryFanIn = 0;
+    private int typesPerPackage = 250;
+    private long seed = 1;
+
+    private Builder() {
+    }
+
+    public @NotNull Builder typeCount(int typeCount) {
+      if (typeCount < MIN_TYPES || typeCount > MAX_TYPES) {
+        throw new IllegalArgumentException("Type count must be between " + MIN_TYPES + " and " + MAX_TYPES + ", got " + typeCount);
+      }
+      this.typeCount = typeCount;
+      return this;
+    }
+
+    public @NotNull Builder fieldCount(int fieldCount) {
+      if (fieldCount < 1) {
+        throw new IllegalArgumentException("Each type needs at least one field, got " + fieldCount);
+      }
+      this.fieldCount = fieldCount;
+      return this;
+    }
+
+    public @NotNull Builder hierarchyDepth(int hierarchyDepth) {
+      if (hierarchyDepth < 0) {
+        throw new IllegalArgumentException("Hierarchy depth must not be negative, got " + hierarchyDepth);
+      }
+      this.hierarchyDepth = hierarchyDepth;
+      return this;
+    }
+
+    public @NotNull Builder wrapDensity(double wrapDensity) {
+      this.wrapDensity = checkDensity("Wrap density", wrapDensity);
+      return this;
+    }
+
+    public @NotNull Builder invokeDensity(double invokeDensity) {
+      this.invokeDensity = checkDensity("Invoke density", invokeDensity);
+      return this;
+    }
+
+    public @NotNull Builder nonNullDensity(double nonNullDensity) {
+      this.nonNullDensity = checkDensity("NonNull density", nonNullDensity);
+      return this;
+    }
+
+    public @NotNull Builder factoryFanIn(int factoryFanIn) {
+      if (factoryFanIn < 0) {
+        throw new IllegalArgumentException("Factory fan-in must not be negative, got " + factoryFanIn);
+      }
+      this.factoryFanIn = factoryFanIn;
+      return this;
+    }
+
+    public @NotNull Builder typesPerPackage(int typesPerPackage) {
+      if (typesPerPackage < 1) {
+        throw new IllegalArgumentException("Each package needs at least one type, got " + typesPerPackage);
+      }
+      this.typesPerPackage = typesPerPackage;
+      return this;
+    }
+
+    public @NotNull Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    public @NotNull CorpusSettings build() {
+      return new CorpusSettings(this);
+    }
+  }
+}
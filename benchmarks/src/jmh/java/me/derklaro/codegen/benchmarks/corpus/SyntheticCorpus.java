@@ -0,0 +1,252 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.corpus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * A deterministic corpus of synthetic {@code @Generate} types. Each type extends a chain of plain interfaces
+ * declaring a part of its fields and uses all type level annotations (constructor, toString, equals, hashCode
+ * and optionally a factory) to cover all generators of the default processors.
+ */
+public final class SyntheticCorpus {
+
+  private static final String ROOT_PACKAGE = "corpus";
+  private static final String FACTORY_PACKAGE = ROOT_PACKAGE + ".factories";
+  private static final String[] FIELD_TYPES = {
+    "int", "long", "double", "boolean", "java.lang.String", "java.lang.Integer", "java.util.List<java.lang.String>"};
+
+  private final Path sourceRoot;
+  private final CorpusSettings settings;
+  private final List<String> generatedTypes;
+  private final List<String> supertypes;
+
+  private SyntheticCorpus(@NotNull Path sourceRoot, @NotNull CorpusSettings settings) {
+    this.sourceRoot = sourceRoot;
+    this.settings = settings;
+    this.generatedTypes = new ArrayList<>(settings.getTypeCount());
+    this.supertypes = new ArrayList<>(settings.getTypeCount() * settings.getHierarchyDepth());
+  }
+
+  /**
+   * Writes the corpus of the given settings into the given source root. All existing files in the root are deleted.
+   *
+   * @param settings   the settings of the corpus.
+   * @param sourceRoot the source root to write the corpus to.
+   * @return the written corpus.
+   * @throws IOException if an I/O error occurs while writing the corpus.
+   */
+  public static @NotNull SyntheticCorpus write(@NotNull CorpusSettings settings, @NotNull Path sourceRoot) throws IOException {
+    deleteContents(sourceRoot);
+    SyntheticCorpus corpus = new SyntheticCorpus(sourceRoot, settings);
+    // one random for the whole corpus to make each type depend on the seed and its index only
+    Random random = new Random(settings.getSeed());
+    for (int index = 0; index < settings.getTypeCount(); index++) {
+      corpus.writeType(index, random);
+    }
+    return corpus;
+  }
+
+  /**
+   * Writes a corpus from the command line.
+   *
+   * @param args the source root, type count, field count, hierarchy depth, wrap density, invoke density,
+   *             non-null density, factory fan-in and seed of the corpus.
+   * @throws IOException if an I/O error occurs while writing the corpus.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 9) {
+      throw new IllegalArgumentException(
+        "Usage: <root> <types> <fields> <depth> <wrapDensity> <invokeDensity> <nonNullDensity> <factoryFanIn> <seed>");
+    }
+    CorpusSettings settings = CorpusSettings.builder()
+      .typeCount(Integer.parseInt(args[1]))
+      .fieldCount(Integer.parseInt(args[2]))
+      .hierarchyDepth(Integer.parseInt(args[3]))
+      .wrapDensity(Double.parseDouble(args[4]))
+      .invokeDensity(Double.parseDouble(args[5]))
+      .nonNullDensity(Double.parseDouble(args[6]))
+      .factoryFanIn(Integer.parseInt(args[7]))
+      .seed(Long.parseLong(args[8]))
+      .build();
+    SyntheticCorpus corpus = write(settings, Paths.get(args[0]));
+    System.out.println("Wrote " + corpus.getGeneratedTypes().size() + " types and " + corpus.getSupertypes().size()
+      + " supertypes to " + corpus.getSourceRoot().toAbsolutePath() + " using " + settings);
+  }
+
+  private static void deleteContents(@NotNull Path directory) throws IOException {
+    if (Files.exists(directory)) {
+      try (Stream<Path> files = Files.walk(directory)) {
+        // delete the deepest files first, the directory itself is kept
+        Iterator<Path> iterator = files.sorted(Comparator.reverseOrder()).iterator();
+        while (iterator.hasNext()) {
+          Path file = iterator.next();
+          if (!file.equals(directory)) {
+            Files.delete(file);
+          }
+        }
+      }
+    }
+  }
+
+  private static boolean isReferenceType(@NotNull String type) {
+    return type.indexOf('.') != -1;
+  }
+
+  private static @NotNull String erasure(@NotNull String type) {
+    int genericStart = type.indexOf('<');
+    return genericStart == -1 ? type : type.substring(0, genericStart);
+  }
+
+  /**
+   * Get the source root the corpus was written to.
+   *
+   * @return the source root of the corpus.
+   */
+  public @NotNull Path getSourceRoot() {
+    return this.sourceRoot;
+  }
+
+  /**
+   * Get the settings the corpus was written with.
+   *
+   * @return the settings of the corpus.
+   */
+  public @NotNull CorpusSettings getSettings() {
+    return this.settings;
+  }
+
+  /**
+   * Get the qualified names of all types annotated with {@code @Generate}, in the order they were written.
+   *
+   * @return the qualified names of the generated types.
+   */
+  public @NotNull @Unmodifiable List<String> getGeneratedTypes() {
+    return Collections.unmodifiableList(this.generatedTypes);
+  }
+
+  /**
+   * Get the qualified names of all plain interfaces extended by the generated types.
+   *
+   * @return the qualified names of the supertypes.
+   */
+  public @NotNull @Unmodifiable List<String> getSupertypes() {
+    return Collections.unmodifiableList(this.supertypes);
+  }
+
+  private void writeType(int index, @NotNull Random random) throws IOException {
+    String packageName = ROOT_PACKAGE + ".p" + index / this.settings.getTypesPerPackage();
+    String typeName = "Type" + index;
+    int depth = this.settings.getHierarchyDepth();
+    // the members of each level of the hierarchy, level 0 is the generated type itself
+    List<StringBuilder> levels = new ArrayList<>(depth + 1);
+    for (int level = 0; level <= depth; level++) {
+      levels.add(new StringBuilder());
+    }
+    for (int field = 0; field < this.settings.getFieldCount(); field++) {
+      StringBuilder members = levels.get(field % (depth + 1));
+      String fieldType = FIELD_TYPES[random.nextInt(FIELD_TYPES.length)];
+      String accessorName = "Field" + field;
+      // the wrapped value can only be passed to Optional if it is not a primitive
+      if (isReferenceType(fieldType) && random.nextDouble() < this.settings.getWrapDensity()) {
+        members.append("  @Wrap(in = \"java.util.Optional.ofNullable(%s)\", returnType = \"")
+          .append(erasure(fieldType)).append("\")\n")
+          .append("  java.util.Optional<").append(fieldType).append("> get").append(accessorName).append("();\n\n");
+      } else {
+        members.append("  ").append(fieldType).append(" get").append(accessorName).append("();\n\n");
+        if (isReferenceType(fieldType) && random.nextDouble() < this.settings.getNonNullDensity()) {
+          members.append("  void set").append(accessorName).append("(@NonNull ").append(fieldType).append(" value);\n\n");
+        }
+      }
+      // invoke methods take two parameters to not be mistaken for fluent setters
+      if (random.nextDouble() < this.settings.getInvokeDensity()) {
+        String nonNull = random.nextDouble() < this.settings.getNonNullDensity() ? "@NonNull " : "";
+        levels.get(0)
+          .append("  @Invoke(invocations = @Invoke.SingleInvoke(method = \"java.util.Objects.hashCode(param1)\"), ")
+          .append("returns = Invoke.ReturnValue.SELF)\n")
+          .append("  ").append(typeName).append(" touch").append(accessorName)
+          .append('(').append(nonNull).append("java.lang.Object first, java.lang.Object second);\n\n");
+      }
+    }
+    // write the supertypes, each level extends the next one
+    for (int level = 1; level <= depth; level++) {
+      String levelName = typeName + "Level" + level;
+      String superLevel = level == depth ? null : typeName + "Level" + (level + 1);
+      this.writeSource(packageName, levelName, "", superLevel, levels.get(level));
+      this.supertypes.add(packageName + '.' + levelName);
+    }
+    // write the generated type itself
+    StringBuilder annotations = new StringBuilder()
+      .append("@Generate\n")
+      .append("@Constructor(types = Constructor.Type.ALL_ARGS)\n")
+      .append("@ToString\n")
+      .append("@Equals\n")
+      .append("@HashCode\n");
+    int fanIn = this.settings.getFactoryFanIn();
+    if (fanIn > 0) {
+      annotations.append("@Factory(location = \"").append(FACTORY_PACKAGE).append(".Factory").append(index / fanIn)
+        .append("\", method = \"create").append(typeName).append("\")\n");
+    }
+    this.writeSource(packageName, typeName, annotations.toString(), depth == 0 ? null : typeName + "Level1", levels.get(0));
+    this.generatedTypes.add(packageName + '.' + typeName);
+  }
+
+  private void writeSource(@NotNull String packageName, @NotNull String typeName, @NotNull String annotations,
+                           @Nullable String superType, @NotNull CharSequence members) throws IOException {
+    StringBuilder source = new StringBuilder()
+      .append("package ").append(packageName).append(";\n\n")
+      .append("import me.derklaro.codegen.annotations.*;\n\n")
+      .append(annotations)
+      .append("public interface ").append(typeName);
+    if (superType != null) {
+      source.append(" extends ").append(superType);
+    }
+    // each member is followed by an empty line, except the last one
+    source.append(" {\n");
+    if (members.length() > 0) {
+      source.append('\n').append(members, 0, members.length() - 1);
+    }
+    source.append("}\n");
+    // write the type to the file matching its qualified name
+    Path file = this.sourceRoot.resolve(packageName.replace('.', '/')).resolve(typeName + ".java");
+    Files.createDirectories(file.getParent());
+    Files.write(file, source.toString().getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime;
+
+import me.derklaro.codegen.benchmarks.runtime.fixtures.PrimitiveFixture;
+import me.derklaro.codegen.benchmarks.runtime.fixtures.ReferenceFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the getters and setters of the generated classes against the baselines, called through the fixture
+ * interfaces. Records have no setters and are not part of this benchmark.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AccessorBenchmark {
+
+  @Param({RuntimeFixtures.GENERATED, RuntimeFixtures.HANDWRITTEN, RuntimeFixtures.LOMBOK_STYLE})
+  public String variant;
+
+  protected RuntimeFixtures fixtures;
+  protected PrimitiveFixture primitive;
+  protected ReferenceFixture reference;
+  protected int count;
+  protected String name;
+  protected Long version;
+
+  @Setup
+  public void compileFixtures() throws Exception {
+    FixtureShape primitiveShape = FixtureShape.of(PrimitiveFixture.class);
+    FixtureShape referenceShape = FixtureShape.of(ReferenceFixture.class);
+    this.fixtures = RuntimeFixtures.compile(false, primitiveShape, referenceShape);
+    this.primitive = (PrimitiveFixture) this.fixtures.newInstance(primitiveShape, this.variant);
+    this.reference = (ReferenceFixture) this.fixtures.newInstance(referenceShape, this.variant);
+    this.count = 42;
+    this.name = "name";
+    this.version = 42L;
+  }
+
+  @TearDown
+  public void deleteFixtures() throws IOException {
+    this.fixtures.close();
+  }
+
+  @Benchmark
+  public double primitiveGetter() {
+    return this.primitive.getScore();
+  }
+
+  @Benchmark
+  public String referenceGetter() {
+    return this.reference.getName();
+  }
+
+  @Benchmark
+  public void primitiveSetter() {
+    this.primitive.setCount(this.count);
+  }
+
+  @Benchmark
+  public void nullableSetter() {
+    this.reference.setVersion(this.version);
+  }
+
+  @Benchmark
+  public void nonNullSetter() {
+    this.reference.setName(this.name);
+  }
+}
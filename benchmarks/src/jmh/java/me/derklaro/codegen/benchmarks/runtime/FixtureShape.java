@@ -0,0 +1,136 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime;
+
+import me.derklaro.codegen.annotations.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The properties of a fixture interface, read from its getters and setters. The properties are sorted by their
+ * name, which is the order of the components and constructor parameters of the baselines.
+ */
+public final class FixtureShape {
+
+  private final Class<?> fixtureType;
+  private final List<Property> properties;
+
+  private FixtureShape(@NotNull Class<?> fixtureType, @NotNull List<Property> properties) {
+    this.fixtureType = fixtureType;
+    this.properties = properties;
+  }
+
+  /**
+   * Reads the shape of the given fixture interface.
+   *
+   * @param fixtureType the fixture interface to read.
+   * @return the shape of the fixture.
+   */
+  public static @NotNull FixtureShape of(@NotNull Class<?> fixtureType) {
+    Map<String, Property> properties = new TreeMap<>();
+    for (Method method : fixtureType.getMethods()) {
+      if (method.getName().startsWith("get") && method.getParameterCount() == 0) {
+        String name = propertyName(method);
+        properties.computeIfAbsent(name, $ -> new Property(name)).type = method.getGenericReturnType();
+      }
+    }
+    for (Method method : fixtureType.getMethods()) {
+      if (method.getName().startsWith("set") && method.getParameterCount() == 1) {
+        Property property = properties.get(propertyName(method));
+        if (property == null) {
+          throw new IllegalArgumentException("Setter " + method + " has no matching getter");
+        }
+        property.mutable = true;
+        property.nonNull = method.getParameters()[0].isAnnotationPresent(NonNull.class);
+      }
+    }
+    return new FixtureShape(fixtureType, new ArrayList<>(properties.values()));
+  }
+
+  private static @NotNull String propertyName(@NotNull Method method) {
+    return Character.toLowerCase(method.getName().charAt(3)) + method.getName().substring(4);
+  }
+
+  public @NotNull Class<?> getFixtureType() {
+    return this.fixtureType;
+  }
+
+  public @NotNull String getSimpleName() {
+    return this.fixtureType.getSimpleName();
+  }
+
+  public @NotNull @Unmodifiable List<Property> getProperties() {
+    return Collections.unmodifiableList(this.properties);
+  }
+
+  public static final class Property {
+
+    private final String name;
+    private Type type;
+    private boolean mutable;
+    private boolean nonNull;
+
+    private Property(@NotNull String name) {
+      this.name = name;
+    }
+
+    public @NotNull String getName() {
+      return this.name;
+    }
+
+    public @NotNull String getCapitalizedName() {
+      return Character.toUpperCase(this.name.charAt(0)) + this.name.substring(1);
+    }
+
+    /**
+     * Get the type of the property as written in a source file, including the type arguments.
+     *
+     * @return the source type of the property.
+     */
+    public @NotNull String getTypeName() {
+      return this.type.getTypeName();
+    }
+
+    public boolean isPrimitive() {
+      return this.type instanceof Class<?> && ((Class<?>) this.type).isPrimitive();
+    }
+
+    public boolean isMutable() {
+      return this.mutable;
+    }
+
+    public boolean isNonNull() {
+      return this.nonNull;
+    }
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Writes the sources of the baselines the generated classes are compared against:
+ * <ul>
+ *   <li>a class as written by hand (or generated by an ide), comparing the fields directly and hashing with 31.</li>
+ *   <li>a class in the style of the code lombok generates, comparing the getter results and hashing with 59.</li>
+ *   <li>a record, using the object methods provided by the jvm. Records require java 16 or newer.</li>
+ * </ul>
+ * The classes (not the records) implement the fixture interface and check non-null setter parameters.
+ */
+public final class FixtureSources {
+
+  public static final String BASELINE_PACKAGE = "me.derklaro.codegen.benchmarks.runtime.baselines";
+
+  private FixtureSources() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static @NotNull String handwritten(@NotNull FixtureShape shape, @NotNull String className) {
+    List<FixtureShape.Property> properties = shape.getProperties();
+    StringBuilder source = openClass(shape, className);
+    appendFields(source, properties);
+    appendConstructor(source, className, properties);
+    for (FixtureShape.Property property : properties) {
+      appendGetter(source, property);
+      if (property.isMutable()) {
+        source.append("  @Override\n")
+          .append("  public void set").append(property.getCapitalizedName())
+          .append('(').append(property.getTypeName()).append(' ').append(property.getName()).append(") {\n")
+          .append("    this.").append(property.getName()).append(" = ");
+        if (property.isNonNull()) {
+          source.append("java.util.Objects.requireNonNull(").append(property.getName())
+            .append(", \"").append(property.getName()).append("\");\n");
+        } else {
+          source.append(property.getName()).append(";\n");
+        }
+        source.append("  }\n\n");
+      }
+    }
+    // equals comparing the fields directly
+    source.append("  @Override\n")
+      .append("  public boolean equals(Object o) {\n")
+      .append("    if (this == o) {\n")
+      .append("      return true;\n")
+      .append("    }\n")
+      .append("    if (o == null || this.getClass() != o.getClass()) {\n")
+      .append("      return false;\n")
+      .append("    }\n")
+      .append("    ").append(className).append(" that = (").append(className).append(") o;\n")
+      .append("    return ");
+    for (int i = 0; i < properties.size(); i++) {
+      FixtureShape.Property property = properties.get(i);
+      String name = property.getName();
+      if (i > 0) {
+        source.append("\n      && ");
+      }
+      switch (property.getTypeName()) {
+        case "double":
+          source.append("Double.compare(this.").append(name).append(", that.").append(name).append(") == 0");
+          break;
+        case "float":
+          source.append("Float.compare(this.").append(name).append(", that.").append(name).append(") == 0");
+          break;
+        default:
+          if (property.isPrimitive()) {
+            source.append("this.").append(name).append(" == that.").append(name);
+          } else {
+            source.append("java.util.Objects.equals(this.").append(name).append(", that.").append(name).append(')');
+          }
+          break;
+      }
+    }
+    source.append(";\n")
+      .append("  }\n\n");
+    // hashCode combining the field hashes with 31
+    source.append("  @Override\n")
+      .append("  public int hashCode() {\n")
+      .append("    int result = 1;\n");
+    for (FixtureShape.Property property : properties) {
+      source.append("    result = 31 * result + ");
+      if (property.isPrimitive()) {
+        source.append(boxedTypeName(property.getTypeName())).append(".hashCode(this.").append(property.getName()).append(')');
+      } else {
+        source.append("java.util.Objects.hashCode(this.").append(property.getName()).append(')');
+      }
+      source.append(";\n");
+    }
+    source.append("    return result;\n")
+      .append("  }\n\n");
+    // toString concatenating the fields
+    source.append("  @Override\n")
+      .append("  public String toString() {\n")
+      .append("    return \"").append(className).append("{\"");
+    for (int i = 0; i < properties.size(); i++) {
+      String name = properties.get(i).getName();
+      source.append("\n      + \"").append(i == 0 ? "" : ", ").append(name).append("=\" + this.").append(name);
+    }
+    source.append("\n      + '}';\n")
+      .append("  }\n");
+    return source.append("}\n").toString();
+  }
+
+  public static @NotNull String lombokStyle(@NotNull FixtureShape shape, @NotNull String className) {
+    List<FixtureShape.Property> properties = shape.getProperties();
+    StringBuilder source = openClass(shape, className);
+    appendFields(source, properties);
+    appendConstructor(source, className, properties);
+    for (FixtureShape.Property property : properties) {
+      appendGetter(source, property);
+      if (property.isMutable()) {
+        String name = property.getName();
+        source.append("  @Override\n")
+          .append("  public void set").append(property.getCapitalizedName())
+          .append("(final ").append(property.getTypeName()).append(' ').append(name).append(") {\n");
+        if (property.isNonNull()) {
+          source.append("    if (").append(name).append(" == null) {\n")
+            .append("      throw new NullPointerException(\"").append(name).append(" is marked non-null but is null\");\n")
+            .append("    }\n");
+        }
+        source.append("    this.").append(name).append(" = ").append(name).append(";\n")
+          .append("  }\n\n");
+      }
+    }
+    // equals comparing the getter results, allowing subclasses through canEqual
+    source.append("  @Override\n")
+      .append("  public boolean equals(final Object o) {\n")
+      .append("    if (o == this) {\n")
+      .append("      return true;\n")
+      .append("    }\n")
+      .append("    if (!(o instanceof ").append(className).append(")) {\n")
+      .append("      return false;\n")
+      .append("    }\n")
+      .append("    final ").append(className).append(" other = (").append(className).append(") o;\n")
+      .append("    if (!other.canEqual((Object) this)) {\n")
+      .append("      return false;\n")
+      .append("    }\n");
+    for (FixtureShape.Property property : properties) {
+      String getter = "get" + property.getCapitalizedName() + "()";
+      String name = property.getName();
+      switch (property.getTypeName()) {
+        case "double":
+          source.append("    if (Double.compare(this.").append(getter).append(", other.").append(getter).append(") != 0) {\n");
+          break;
+        case "float":
+          source.append("    if (Float.compare(this.").append(getter).append(", other.").append(getter).append(") != 0) {\n");
+          break;
+        default:
+          if (property.isPrimitive()) {
+            source.append("    if (this.").append(getter).append(" != other.").append(getter).append(") {\n");
+          } else {
+            source.append("    final Object this$").append(name).append(" = this.").append(getter).append(";\n")
+              .append("    final Object other$").append(name).append(" = other.").append(getter).append(";\n")
+              .append("    if (this$").append(name).append(" == null ? other$").append(name).append(" != null : !this$")
+              .append(name).append(".equals(other$").append(name).append(")) {\n");
+          }
+          break;
+      }
+      source.append("      return false;\n")
+        .append("    }\n");
+    }
+    source.append("    return true;\n")
+      .append("  }\n\n")
+      .append("  protected boolean canEqual(final Object other) {\n")
+      .append("    return other instanceof ").append(className).append(";\n")
+      .append("  }\n\n");
+    // hashCode combining the getter results with 59
+    source.append("  @Override\n")
+      .append("  public int hashCode() {\n")
+      .append("    final int PRIME = 59;\n")
+      .append("    int result = 1;\n");
+    for (FixtureShape.Property property : properties) {
+      String getter = "this.get" + property.getCapitalizedName() + "()";
+      String local = "$" + property.getName();
+      switch (property.getTypeName()) {
+        case "long":
+          source.append("    final long ").append(local).append(" = ").append(getter).append(";\n")
+            .append("    result = result * PRIME + (int) (").append(local).append(" >>> 32 ^ ").append(local).append(");\n");
+          break;
+        case "double":
+          source.append("    final long ").append(local).append(" = Double.doubleToLongBits(").append(getter).append(");\n")
+            .append("    result = result * PRIME + (int) (").append(local).append(" >>> 32 ^ ").append(local).append(");\n");
+          break;
+        case "float":
+          source.append("    result = result * PRIME + Float.floatToIntBits(").append(getter).append(");\n");
+          break;
+        case "boolean":
+          source.append("    result = result * PRIME + (").append(getter).append(" ? 79 : 97);\n");
+          break;
+        default:
+          if (property.isPrimitive()) {
+            source.append("    result = result * PRIME + ").append(getter).append(";\n");
+          } else {
+            source.append("    final Object ").append(local).append(" = ").append(getter).append(";\n")
+              .append("    result = result * PRIME + (").append(local).append(" == null ? 43 : ").append(local).append(".hashCode());\n");
+          }
+          break;
+      }
+    }
+    source.append("    return result;\n")
+      .append("  }\n\n");
+    // toString concatenating the getter results
+    source.append("  @Override\n")
+      .append("  public String toString() {\n")
+      .append("    return \"").append(className).append("(\"");
+    for (int i = 0; i < properties.size(); i++) {
+      FixtureShape.Property property = properties.get(i);
+      source.append("\n      + \"").append(i == 0 ? "" : ", ").append(property.getName())
+        .append("=\" + this.get").append(property.getCapitalizedName()).append("()");
+    }
+    source.append("\n      + \")\";\n")
+      .append("  }\n");
+    return source.append("}\n").toString();
+  }
+
+  public static @NotNull String record(@NotNull FixtureShape shape, @NotNull String recordName) {
+    StringBuilder source = new StringBuilder()
+      .append("package ").append(BASELINE_PACKAGE).append(";\n\n")
+      .append("public record ").append(recordName).append('(');
+    List<FixtureShape.Property> properties = shape.getProperties();
+    for (int i = 0; i < properties.size(); i++) {
+      source.append(i == 0 ? "\n  " : ",\n  ").append(properties.get(i).getTypeName()).append(' ').append(properties.get(i).getName());
+    }
+    return source.append(") {\n}\n").toString();
+  }
+
+  private static @NotNull StringBuilder openClass(@NotNull FixtureShape shape, @NotNull String className) {
+    return new StringBuilder()
+      .append("package ").append(BASELINE_PACKAGE).append(";\n\n")
+      .append("public class ").append(className).append(" implements ").append(shape.getFixtureType().getName()).append(" {\n\n");
+  }
+
+  private static void appendFields(@NotNull StringBuilder source, @NotNull List<FixtureShape.Property> properties) {
+    for (FixtureShape.Property property : properties) {
+      source.append("  private ").append(property.isMutable() ? "" : "final ")
+        .append(property.getTypeName()).append(' ').append(property.getName()).append(";\n");
+    }
+    source.append('\n');
+  }
+
+  private static void appendConstructor(@NotNull StringBuilder source, @NotNull String className,
+                                        @NotNull List<FixtureShape.Property> properties) {
+    source.append("  public ").append(className).append('(');
+    for (int i = 0; i < properties.size(); i++) {
+      source.append(i == 0 ? "" : ", ").append(properties.get(i).getTypeName()).append(' ').append(properties.get(i).getName());
+    }
+    source.append(") {\n");
+    for (FixtureShape.Property property : properties) {
+      source.append("    this.").append(property.getName()).append(" = ").append(property.getName()).append(";\n");
+    }
+    source.append("  }\n\n");
+  }
+
+  private static void appendGetter(@NotNull StringBuilder source, @NotNull FixtureShape.Property property) {
+    source.append("  @Override\n")
+      .append("  public ").append(property.getTypeName()).append(" get").append(property.getCapitalizedName()).append("() {\n")
+      .append("    return this.").append(property.getName()).append(";\n")
+      .append("  }\n\n");
+  }
+
+  private static @NotNull String boxedTypeName(@NotNull String primitiveName) {
+    switch (primitiveName) {
+      case "int":
+        return "Integer";
+      case "char":
+        return "Character";
+      default:
+        return Character.toUpperCase(primitiveName.charAt(0)) + primitiveName.substring(1);
+    }
+  }
+}
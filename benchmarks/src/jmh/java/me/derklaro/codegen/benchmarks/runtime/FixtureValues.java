@@ -0,0 +1,92 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates the constructor arguments of the fixtures. The value of each argument depends on its type and position
+ * only, so two calls with the same parameter types return equal but distinct arguments.
+ */
+public final class FixtureValues {
+
+  private FixtureValues() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static @NotNull Object[] create(@NotNull Class<?>[] parameterTypes) {
+    Object[] arguments = new Object[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      arguments[i] = create(parameterTypes[i], i);
+    }
+    return arguments;
+  }
+
+  private static @NotNull Object create(@NotNull Class<?> type, int position) {
+    // boxed values are created outside of the cache range to not share instances between the arguments
+    int value = 1000 + position;
+    if (type == int.class) {
+      return value;
+    } else if (type == long.class) {
+      return (long) value << 32;
+    } else if (type == double.class) {
+      return value / 3D;
+    } else if (type == float.class) {
+      return value / 3F;
+    } else if (type == boolean.class) {
+      return position % 2 == 0;
+    } else if (type == char.class) {
+      return (char) ('a' + position % 26);
+    } else if (type == short.class) {
+      return (short) value;
+    } else if (type == byte.class) {
+      return (byte) position;
+    } else if (type == String.class) {
+      return "value-" + position;
+    } else if (type == Integer.class) {
+      return Integer.valueOf(value);
+    } else if (type == Long.class) {
+      return Long.valueOf(value);
+    } else if (type == Double.class) {
+      return Double.valueOf(value / 3D);
+    } else if (type == List.class) {
+      return new ArrayList<>(Arrays.asList("first-" + position, "second-" + position));
+    } else if (type == UUID.class) {
+      return new UUID(value, position);
+    } else if (type == BigDecimal.class) {
+      return BigDecimal.valueOf(value, 2);
+    } else if (type == LocalDate.class) {
+      return LocalDate.of(2021, 1 + position % 12, 1 + position % 28);
+    }
+    throw new IllegalArgumentException("Unsupported fixture property type " + type.getName());
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime;
+
+import me.derklaro.codegen.benchmarks.runtime.fixtures.PrimitiveFixture;
+import me.derklaro.codegen.benchmarks.runtime.fixtures.ReferenceFixture;
+import me.derklaro.codegen.benchmarks.runtime.fixtures.WideFixture;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the equals, hashCode and toString methods and the all args constructor of the generated classes
+ * against the baselines. The record baseline requires java 16 or newer and is therefore not part of the
+ * default parameters, it can be added using {@code -p variant=generated,handwritten,lombok,record}.
+ *
+ * <p>All variants are constructed using a method handle which spreads the boxed arguments over the constructor
+ * parameters, the overhead of the handle is the same for all variants.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectMethodsBenchmark {
+
+  @Param({"primitive", "reference", "wide"})
+  public String shape;
+
+  @Param({RuntimeFixtures.GENERATED, RuntimeFixtures.HANDWRITTEN, RuntimeFixtures.LOMBOK_STYLE})
+  public String variant;
+
+  protected RuntimeFixtures fixtures;
+  protected Object instance;
+  protected Object equalInstance;
+  protected MethodHandle constructor;
+  protected Object[] arguments;
+
+  protected static @NotNull FixtureShape provideShape(@NotNull String name) {
+    switch (name) {
+      case "primitive":
+        return FixtureShape.of(PrimitiveFixture.class);
+      case "reference":
+        return FixtureShape.of(ReferenceFixture.class);
+      case "wide":
+        return FixtureShape.of(WideFixture.class);
+      default:
+        throw new IllegalArgumentException("Unknown fixture shape " + name);
+    }
+  }
+
+  @Setup
+  public void compileFixtures() throws Exception {
+    FixtureShape fixtureShape = provideShape(this.shape);
+    this.fixtures = RuntimeFixtures.compile(RuntimeFixtures.RECORD.equals(this.variant), fixtureShape);
+    this.instance = this.fixtures.newInstance(fixtureShape, this.variant);
+    this.equalInstance = this.fixtures.newInstance(fixtureShape, this.variant);
+    this.constructor = this.fixtures.constructor(fixtureShape, this.variant);
+    this.arguments = this.fixtures.arguments(fixtureShape, this.variant);
+    // comparing unequal instances would only measure the first property
+    if (!this.instance.equals(this.equalInstance)) {
+      throw new IllegalStateException("Instances of " + this.instance.getClass().getName() + " with the same values are not equal");
+    }
+  }
+
+  @TearDown
+  public void deleteFixtures() throws IOException {
+    this.fixtures.close();
+  }
+
+  @Benchmark
+  public boolean equalsCall() {
+    return this.instance.equals(this.equalInstance);
+  }
+
+  @Benchmark
+  public int hashCodeCall() {
+    return this.instance.hashCode();
+  }
+
+  @Benchmark
+  public String toStringCall() {
+    return this.instance.toString();
+  }
+
+  @Benchmark
+  public Object constructorCall() throws Throwable {
+    return (Object) this.constructor.invokeExact(this.arguments);
+  }
+}
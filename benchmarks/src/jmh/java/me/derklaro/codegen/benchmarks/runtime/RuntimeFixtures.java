@@ -0,0 +1,265 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime;
+
+import me.derklaro.codegen.Compiler;
+import me.derklaro.codegen.annotations.Generate;
+import me.derklaro.codegen.benchmarks.BenchmarkCompilerConfiguration;
+import me.derklaro.codegen.generator.result.ClassResult;
+import me.derklaro.codegen.stack.generators.GeneratorStack;
+import org.jetbrains.annotations.NotNull;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The classes of the runtime benchmarks, compiled at runtime into a temporary directory. The implementations of the
+ * fixture interfaces are generated by codegen from the fixture sources (which are shipped as resources), the baselines
+ * are written by {@link FixtureSources} and compiled using the system java compiler. All classes are loaded by a child
+ * class loader of the benchmarks, so they implement the same fixture interfaces the benchmarks are calling.
+ */
+public final class RuntimeFixtures implements Closeable {
+
+  public static final String GENERATED = "generated";
+  public static final String HANDWRITTEN = "handwritten";
+  public static final String LOMBOK_STYLE = "lombok";
+  public static final String RECORD = "record";
+
+  private static final int RECORD_JAVA_VERSION = 16;
+
+  private final Path directory;
+  private final URLClassLoader classLoader;
+
+  private RuntimeFixtures(@NotNull Path directory, @NotNull URLClassLoader classLoader) {
+    this.directory = directory;
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Generates and compiles all variants of the given shapes.
+   *
+   * @param records if the record baselines should be compiled, which requires java {@value RECORD_JAVA_VERSION}.
+   * @param shapes  the shapes to compile.
+   * @return the compiled fixtures.
+   * @throws Exception if any exception occurs during the generation or compilation.
+   */
+  public static @NotNull RuntimeFixtures compile(boolean records, @NotNull FixtureShape... shapes) throws Exception {
+    if (records && javaVersion() < RECORD_JAVA_VERSION) {
+      throw new IllegalStateException("The record baselines require java " + RECORD_JAVA_VERSION + " or newer");
+    }
+    Path directory = Files.createTempDirectory("codegen-runtime");
+    Path classes = Files.createDirectories(directory.resolve("classes"));
+    File annotations = codeSource(Generate.class);
+    // generate the implementations of the fixtures from their sources
+    Path fixtureSources = directory.resolve("fixtures");
+    for (FixtureShape shape : shapes) {
+      String sourcePath = shape.getFixtureType().getName().replace('.', '/') + ".java";
+      Path target = fixtureSources.resolve(sourcePath);
+      Files.createDirectories(target.getParent());
+      try (InputStream inputStream = RuntimeFixtures.class.getClassLoader().getResourceAsStream(sourcePath)) {
+        if (inputStream == null) {
+          throw new IllegalStateException("Missing source of fixture " + shape.getFixtureType().getName());
+        }
+        Files.copy(inputStream, target);
+      }
+    }
+    GeneratorStack stack = Compiler.createDefault().compile(new BenchmarkCompilerConfiguration(
+      Collections.singleton(fixtureSources.toFile()), Collections.singleton(annotations), 1));
+    for (ClassResult result : stack.classStack()) {
+      result.writeToFile(classes.resolve(result.getOutputFile()));
+    }
+    // write and compile the baselines of the fixtures
+    Path baselineSources = Files.createDirectories(directory.resolve("baselines"));
+    List<File> sourceFiles = new ArrayList<>();
+    for (FixtureShape shape : shapes) {
+      sourceFiles.add(writeSource(baselineSources, variantName(shape, HANDWRITTEN),
+        FixtureSources.handwritten(shape, variantName(shape, HANDWRITTEN))));
+      sourceFiles.add(writeSource(baselineSources, variantName(shape, LOMBOK_STYLE),
+        FixtureSources.lombokStyle(shape, variantName(shape, LOMBOK_STYLE))));
+      if (records) {
+        sourceFiles.add(writeSource(baselineSources, variantName(shape, RECORD),
+          FixtureSources.record(shape, variantName(shape, RECORD))));
+      }
+    }
+    String classPath = Stream.of(codeSource(RuntimeFixtures.class), annotations)
+      .map(File::getAbsolutePath)
+      .collect(Collectors.joining(File.pathSeparator));
+    compileSources(sourceFiles, classes, classPath);
+    // load all classes in a child loader of the benchmarks
+    URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, RuntimeFixtures.class.getClassLoader());
+    return new RuntimeFixtures(directory, classLoader);
+  }
+
+  private static int javaVersion() {
+    String version = System.getProperty("java.specification.version");
+    return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+  }
+
+  private static @NotNull File codeSource(@NotNull Class<?> type) throws URISyntaxException {
+    return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toFile();
+  }
+
+  private static @NotNull String variantName(@NotNull FixtureShape shape, @NotNull String variant) {
+    switch (variant) {
+      case GENERATED:
+        return shape.getFixtureType().getName() + "Impl";
+      case HANDWRITTEN:
+        return shape.getSimpleName() + "Handwritten";
+      case LOMBOK_STYLE:
+        return shape.getSimpleName() + "LombokStyle";
+      case RECORD:
+        return shape.getSimpleName() + "Record";
+      default:
+        throw new IllegalArgumentException("Unknown fixture variant " + variant);
+    }
+  }
+
+  private static @NotNull File writeSource(@NotNull Path root, @NotNull String className, @NotNull String source) throws IOException {
+    Path file = root.resolve(className + ".java");
+    Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    return file.toFile();
+  }
+
+  private static void compileSources(@NotNull List<File> sourceFiles, @NotNull Path output, @NotNull String classPath) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("The runtime benchmarks must be run using a jdk to compile the baselines");
+    }
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      List<String> options = Arrays.asList("-d", output.toString(), "-classpath", classPath, "-nowarn");
+      boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+        fileManager.getJavaFileObjectsFromFiles(sourceFiles)).call();
+      if (!success) {
+        throw new IllegalStateException("Unable to compile the baselines: " + diagnostics.getDiagnostics().stream()
+          .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+          .map(Object::toString)
+          .collect(Collectors.joining(System.lineSeparator())));
+      }
+    }
+  }
+
+  /**
+   * Get the class of the given variant of a shape.
+   *
+   * @param shape   the shape to get the variant of.
+   * @param variant the name of the variant.
+   * @return the class of the variant.
+   * @throws ClassNotFoundException if the variant was not compiled.
+   */
+  public @NotNull Class<?> variantClass(@NotNull FixtureShape shape, @NotNull String variant) throws ClassNotFoundException {
+    String className = variantName(shape, variant);
+    return this.classLoader.loadClass(variant.equals(GENERATED) ? className : FixtureSources.BASELINE_PACKAGE + '.' + className);
+  }
+
+  /**
+   * Get the all args constructor of the given variant of a shape. The returned handle takes the arguments as an
+   * array, created using {@link #arguments(FixtureShape, String)}, and returns the created instance.
+   *
+   * @param shape   the shape to get the constructor of.
+   * @param variant the name of the variant.
+   * @return the constructor of the variant, spreading an object array over the parameters.
+   * @throws ReflectiveOperationException if the constructor is not accessible.
+   */
+  public @NotNull MethodHandle constructor(@NotNull FixtureShape shape, @NotNull String variant) throws ReflectiveOperationException {
+    Constructor<?> constructor = this.allArgsConstructor(shape, variant);
+    return MethodHandles.lookup().unreflectConstructor(constructor)
+      .asSpreader(Object[].class, constructor.getParameterCount())
+      .asType(MethodType.methodType(Object.class, Object[].class));
+  }
+
+  /**
+   * Creates new arguments for the all args constructor of the given variant of a shape.
+   *
+   * @param shape   the shape to create the arguments for.
+   * @param variant the name of the variant.
+   * @return the created arguments.
+   * @throws ReflectiveOperationException if the variant was not compiled.
+   */
+  public @NotNull Object[] arguments(@NotNull FixtureShape shape, @NotNull String variant) throws ReflectiveOperationException {
+    return FixtureValues.create(this.allArgsConstructor(shape, variant).getParameterTypes());
+  }
+
+  /**
+   * Creates a new instance of the given variant of a shape. All instances of the same variant are equal.
+   *
+   * @param shape   the shape to create the instance of.
+   * @param variant the name of the variant.
+   * @return the created instance.
+   * @throws ReflectiveOperationException if the instance could not be created.
+   */
+  public @NotNull Object newInstance(@NotNull FixtureShape shape, @NotNull String variant) throws ReflectiveOperationException {
+    return this.allArgsConstructor(shape, variant).newInstance(this.arguments(shape, variant));
+  }
+
+  private @NotNull Constructor<?> allArgsConstructor(@NotNull FixtureShape shape, @NotNull String variant) throws ReflectiveOperationException {
+    int properties = shape.getProperties().size();
+    for (Constructor<?> constructor : this.variantClass(shape, variant).getConstructors()) {
+      if (constructor.getParameterCount() == properties) {
+        return constructor;
+      }
+    }
+    throw new NoSuchMethodException("No all args constructor in variant " + variant + " of " + shape.getSimpleName());
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.classLoader.close();
+    try (Stream<Path> files = Files.walk(this.directory)) {
+      // delete the deepest files first
+      Iterator<Path> iterator = files.sorted(Comparator.reverseOrder()).iterator();
+      while (iterator.hasNext()) {
+        Files.deleteIfExists(iterator.next());
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime.fixtures;
+
+import me.derklaro.codegen.annotations.Constructor;
+import me.derklaro.codegen.annotations.Equals;
+import me.derklaro.codegen.annotations.Generate;
+import me.derklaro.codegen.annotations.HashCode;
+import me.derklaro.codegen.annotations.ToString;
+
+/**
+ * A fixture of the runtime benchmarks with primitive properties only.
+ */
+@Generate
+@Constructor(types = Constructor.Type.ALL_ARGS)
+@Equals(callSuper = false)
+@HashCode(callSuper = false)
+@ToString
+public interface PrimitiveFixture {
+
+  int getCount();
+
+  void setCount(int count);
+
+  long getId();
+
+  double getScore();
+
+  void setScore(double score);
+
+  float getRatio();
+
+  boolean getActive();
+
+  char getGrade();
+
+  short getLevel();
+
+  byte getFlags();
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime.fixtures;
+
+import me.derklaro.codegen.annotations.Constructor;
+import me.derklaro.codegen.annotations.Equals;
+import me.derklaro.codegen.annotations.Generate;
+import me.derklaro.codegen.annotations.HashCode;
+import me.derklaro.codegen.annotations.NonNull;
+import me.derklaro.codegen.annotations.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A fixture of the runtime benchmarks with reference properties only.
+ */
+@Generate
+@Constructor(types = Constructor.Type.ALL_ARGS)
+@Equals(callSuper = false)
+@HashCode(callSuper = false)
+@ToString
+public interface ReferenceFixture {
+
+  String getName();
+
+  void setName(@NonNull String name);
+
+  Integer getRank();
+
+  Long getVersion();
+
+  void setVersion(Long version);
+
+  Double getWeight();
+
+  List<String> getTags();
+
+  void setTags(@NonNull List<String> tags);
+
+  UUID getUniqueId();
+
+  BigDecimal getAmount();
+
+  LocalDate getDate();
+}
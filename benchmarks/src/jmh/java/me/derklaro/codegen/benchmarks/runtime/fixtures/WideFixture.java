@@ -0,0 +1,459 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.benchmarks.runtime.fixtures;
+
+import me.derklaro.codegen.annotations.Constructor;
+import me.derklaro.codegen.annotations.Equals;
+import me.derklaro.codegen.annotations.Generate;
+import me.derklaro.codegen.annotations.HashCode;
+import me.derklaro.codegen.annotations.ToString;
+
+/**
+ * A fixture of the runtime benchmarks with 208 properties, alternating between int and string values. The amount
+ * of properties is chosen to stay below the limit of 255 constructor parameter slots, which applies to records too.
+ */
+@Generate
+@Constructor(types = Constructor.Type.ALL_ARGS)
+@Equals(callSuper = false)
+@HashCode(callSuper = false)
+@ToString
+public interface WideFixture {
+
+  int getValue0();
+
+  String getValue1();
+
+  int getValue2();
+
+  String getValue3();
+
+  int getValue4();
+
+  String getValue5();
+
+  int getValue6();
+
+  String getValue7();
+
+  int getValue8();
+
+  String getValue9();
+
+  int getValue10();
+
+  String getValue11();
+
+  int getValue12();
+
+  String getValue13();
+
+  int getValue14();
+
+  String getValue15();
+
+  int getValue16();
+
+  String getValue17();
+
+  int getValue18();
+
+  String getValue19();
+
+  int getValue20();
+
+  String getValue21();
+
+  int getValue22();
+
+  String getValue23();
+
+  int getValue24();
+
+  String getValue25();
+
+  int getValue26();
+
+  String getValue27();
+
+  int getValue28();
+
+  String getValue29();
+
+  int getValue30();
+
+  String getValue31();
+
+  int getValue32();
+
+  String getValue33();
+
+  int getValue34();
+
+  String getValue35();
+
+  int getValue36();
+
+  String getValue37();
+
+  int getValue38();
+
+  String getValue39();
+
+  int getValue40();
+
+  String getValue41();
+
+  int getValue42();
+
+  String getValue43();
+
+  int getValue44();
+
+  String getValue45();
+
+  int getValue46();
+
+  String getValue47();
+
+  int getValue48();
+
+  String getValue49();
+
+  int getValue50();
+
+  String getValue51();
+
+  int getValue52();
+
+  String getValue53();
+
+  int getValue54();
+
+  String getValue55();
+
+  int getValue56();
+
+  String getValue57();
+
+  int getValue58();
+
+  String getValue59();
+
+  int getValue60();
+
+  String getValue61();
+
+  int getValue62();
+
+  String getValue63();
+
+  int getValue64();
+
+  String getValue65();
+
+  int getValue66();
+
+  String getValue67();
+
+  int getValue68();
+
+  String getValue69();
+
+  int getValue70();
+
+  String getValue71();
+
+  int getValue72();
+
+  String getValue73();
+
+  int getValue74();
+
+  String getValue75();
+
+  int getValue76();
+
+  String getValue77();
+
+  int getValue78();
+
+  String getValue79();
+
+  int getValue80();
+
+  String getValue81();
+
+  int getValue82();
+
+  String getValue83();
+
+  int getValue84();
+
+  String getValue85();
+
+  int getValue86();
+
+  String getValue87();
+
+  int getValue88();
+
+  String getValue89();
+
+  int getValue90();
+
+  String getValue91();
+
+  int getValue92();
+
+  String getValue93();
+
+  int getValue94();
+
+  String getValue95();
+
+  int getValue96();
+
+  String getValue97();
+
+  int getValue98();
+
+  String getValue99();
+
+  int getValue100();
+
+  String getValue101();
+
+  int getValue102();
+
+  String getValue103();
+
+  int getValue104();
+
+  String getValue105();
+
+  int getValue106();
+
+  String getValue107();
+
+  int getValue108();
+
+  String getValue109();
+
+  int getValue110();
+
+  String getValue111();
+
+  int getValue112();
+
+  String getValue113();
+
+  int getValue114();
+
+  String getValue115();
+
+  int getValue116();
+
+  String getValue117();
+
+  int getValue118();
+
+  String getValue119();
+
+  int getValue120();
+
+  String getValue121();
+
+  int getValue122();
+
+  String getValue123();
+
+  int getValue124();
+
+  String getValue125();
+
+  int getValue126();
+
+  String getValue127();
+
+  int getValue128();
+
+  String getValue129();
+
+  int getValue130();
+
+  String getValue131();
+
+  int getValue132();
+
+  String getValue133();
+
+  int getValue134();
+
+  String getValue135();
+
+  int getValue136();
+
+  String getValue137();
+
+  int getValue138();
+
+  String getValue139();
+
+  int getValue140();
+
+  String getValue141();
+
+  int getValue142();
+
+  String getValue143();
+
+  int getValue144();
+
+  String getValue145();
+
+  int getValue146();
+
+  String getValue147();
+
+  int getValue148();
+
+  String getValue149();
+
+  int getValue150();
+
+  String getValue151();
+
+  int getValue152();
+
+  String getValue153();
+
+  int getValue154();
+
+  String getValue155();
+
+  int getValue156();
+
+  String getValue157();
+
+  int getValue158();
+
+  String getValue159();
+
+  int getValue160();
+
+  String getValue161();
+
+  int getValue162();
+
+  String getValue163();
+
+  int getValue164();
+
+  String getValue165();
+
+  int getValue166();
+
+  String getValue167();
+
+  int getValue168();
+
+  String getValue169();
+
+  int getValue170();
+
+  String getValue171();
+
+  int getValue172();
+
+  String getValue173();
+
+  int getValue174();
+
+  String getValue175();
+
+  int getValue176();
+
+  String getValue177();
+
+  int getValue178();
+
+  String getValue179();
+
+  int getValue180();
+
+  String getValue181();
+
+  int getValue182();
+
+  String getValue183();
+
+  int getValue184();
+
+  String getValue185();
+
+  int getValue186();
+
+  String getValue187();
+
+  int getValue188();
+
+  String getValue189();
+
+  int getValue190();
+
+  String getValue191();
+
+  int getValue192();
+
+  String getValue193();
+
+  int getValue194();
+
+  String getValue195();
+
+  int getValue196();
+
+  String getValue197();
+
+  int getValue198();
+
+  String getValue199();
+
+  int getValue200();
+
+  String getValue201();
+
+  int getValue202();
+
+  String getValue203();
+
+  int getValue204();
+
+  String getValue205();
+
+  int getValue206();
+
+  String getValue207();
+}
@@ -25,9 +25,13 @@
 package me.derklaro.codegen;
 
 import javassist.ClassPool;
+import me.derklaro.codegen.cache.GenerationCache;
+import me.derklaro.codegen.generator.result.ClassResultSink;
 import me.derklaro.codegen.processor.TypeProcessor;
+import me.derklaro.codegen.profiler.GenerationProfiler;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import spoon.SpoonModelBuilder;
 
 import java.io.File;
@@ -64,6 +68,26 @@ public interface Compiler {
    */
   @NotNull ClassPool provideClassPool(@NotNull CompilerConfiguration compilerConfiguration) throws Exception;
 
+  /**
+   * Provides the class pool for the actual class/method/field generation which compiles the sources
+   * using the given model builder instead of a new one.
+   *
+   * @param compilerConfiguration the configuration of the compiler.
+   * @param modelBuilder          the model builder of the compilation.
+   * @return the created class pool.
+   * @throws Exception if an exception occurs during the class pool init.
+   */
+  @NotNull ClassPool provideClassPool(@NotNull CompilerConfiguration compilerConfiguration,
+                                      @NotNull SpoonModelBuilder modelBuilder) throws Exception;
+
+  /**
+   * Provides the cache of generated classes for this compiler to use.
+   *
+   * @param compilerConfiguration the configuration of the compiler.
+   * @return the created cache or {@code null} if the generation should not be cached.
+   */
+  @Nullable GenerationCache provideGenerationCache(@NotNull CompilerConfiguration compilerConfiguration);
+
   /**
    * Compiles/processes the files which are required to be compiled/processed.
    *
@@ -112,6 +136,94 @@ interface CompilerConfiguration {
      */
     @NotNull Set<File> getInputFiles();
 
+    /**
+     * Get the source files which changed since the last generation. Only the types declared
+     * in one of these files will be processed, all other input files are only used to resolve
+     * the processed types.
+     *
+     * @return the source files of the types to process, {@code null} to process all input files.
+     */
+    @Nullable Set<File> getChangedFiles();
+
+    /**
+     * Get the directory in which generated classes are cached, keyed by a structural fingerprint
+     * of the type they were generated from.
+     *
+     * @return the directory of the generation cache, {@code null} to disable the cache.
+     */
+    @Nullable File getCacheDirectory();
+
+    /**
+     * Get the amount of types the compiler should generate concurrently.
+     *
+     * @return the amount of types to generate concurrently, {@code 1} to generate all types sequentially.
+     */
+    int getParallelism();
+
+    /**
+     * Get weather or not the sources should be scanned lexically before building the model. If enabled only the
+     * files using the codegen annotations, the files declaring their supertypes and the files of types referenced
+     * by them are parsed, all other source files are only compiled if a class of them is needed during the
+     * generation. The scan is skipped if custom processors are configured, as they might process any type.
+     *
+     * @return if the sources should be scanned before building the model.
+     */
+    boolean isPreScan();
+
+    /**
+     * Get the maximum amount of source files whose types are analyzed with the same model. If set, the files to
+     * process are split into batches and each batch is analyzed with a model of only the batch files and the files
+     * they depend on, which bounds the memory needed for large source sets. The models are released before the
+     * classes are generated in any case.
+     *
+     * @return the maximum amount of files analyzed with one model, {@code 0} to analyze all files with one model.
+     */
+    int getBatchSize();
+
+    /**
+     * Get the amount of models which are built concurrently. If more than one shard is requested, the files to
+     * process are split into shards (or batches, if a batch size is set) which are parsed in parallel with the files
+     * they depend on. Types of other shards are resolved through the source index and the shared class pool, the
+     * shards are processed one after another in their order, so the result is the same as with a single model.
+     *
+     * @return the amount of models to build concurrently, {@code 1} to build the models one after another.
+     */
+    int getParseShards();
+
+    /**
+     * Get weather or not the compiler should verify that the generation is deterministic. If enabled all classes
+     * are generated twice and the compilation fails if the bytecode of any class differs between the two runs.
+     * The classes are only passed to the class result sink once they are verified.
+     *
+     * @return if the compiler should verify that the generation is deterministic.
+     */
+    boolean isVerifyDeterminism();
+
+    /**
+     * Get the class pool shared between compilations which is used as the parent of the class pool
+     * of this compilation. The shared pool must provide the system classes and all jar files of the
+     * source class path, directories of the source class path are added to the pool of each compilation.
+     * Classes of the shared pool are never modified by the compiler.
+     *
+     * @return the shared class pool or {@code null} if each compilation should create its own parent pool.
+     */
+    @Nullable ClassPool getSharedClassPool();
+
+    /**
+     * Get the sink which receives the generated classes as soon as they are generated. If a sink is
+     * provided the class stack of the compilation does not retain the bytecode of the classes.
+     *
+     * @return the sink for the generated classes or {@code null} if the classes should be kept in the class stack.
+     */
+    @Nullable ClassResultSink getClassResultSink();
+
+    /**
+     * Get the profiler which records the phases of the compilation.
+     *
+     * @return the profiler of the compilation or {@code null} if the compilation should not be profiled.
+     */
+    @Nullable GenerationProfiler getProfiler();
+
     /**
      * Get the class path of the classes which are added
      * to the runtime (such as dependencies).
@@ -25,26 +25,49 @@
 package me.derklaro.codegen;
 
 import javassist.ClassPool;
+import me.derklaro.codegen.cache.GenerationCache;
+import me.derklaro.codegen.generator.result.ClassResult;
+import me.derklaro.codegen.generator.result.ClassResultSink;
 import me.derklaro.codegen.javaassist.CompilingClassPath;
 import me.derklaro.codegen.processor.TypeProcessor;
 import me.derklaro.codegen.processor.defaults.GenerationTypeProcessor;
 import me.derklaro.codegen.processor.defaults.NonNullParameterProcessor;
+import me.derklaro.codegen.profiler.GenerationProfiler;
+import me.derklaro.codegen.profiler.ProfilePhase;
+import me.derklaro.codegen.spoon.CompilingModelBuilder;
 import me.derklaro.codegen.spoon.GlobalProcessor;
 import me.derklaro.codegen.spoon.RootProcessor;
 import me.derklaro.codegen.stack.classes.DefaultClassStack;
+import me.derklaro.codegen.stack.classes.StreamingClassStack;
 import me.derklaro.codegen.stack.generators.DefaultGeneratorStack;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
+import me.derklaro.codegen.util.SourceIndex;
+import me.derklaro.codegen.util.SourcePreScanner;
+import me.derklaro.codegen.util.SourceUtility;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import spoon.Launcher;
 import spoon.SpoonAPI;
 import spoon.SpoonModelBuilder;
 import spoon.compiler.Environment;
 
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
 
 final class DefaultCompiler implements Compiler {
 
@@ -52,8 +75,35 @@ final class DefaultCompiler implements Compiler {
     return files.stream().map(File::getAbsolutePath).toArray(String[]::new);
   }
 
+  private static @NotNull String provideClassPathIdentity(@NotNull Set<File> classPath) {
+    // the generation depends on the types on the class path, so a changed class path entry invalidates the cache.
+    // The content of a directory is not covered here, the fingerprints include the class files of the directories
+    return classPath.stream()
+      .map(file -> file.getAbsolutePath() + ':' + file.length() + ':' + (file.isFile() ? file.lastModified() : 0))
+      .sorted()
+      .collect(Collectors.joining(File.pathSeparator));
+  }
+
+  private static @NotNull List<File> provideClassDirectories(@NotNull Set<File> classPath) {
+    // keep the order of the class path, the first directory declaring a type wins
+    return classPath.stream().filter(File::isDirectory).collect(Collectors.toList());
+  }
+
   @Override
   public @NotNull SpoonModelBuilder provideModelBuilder(@NotNull CompilerConfiguration compilerConfiguration) {
+    return this.provideModelBuilder(compilerConfiguration, compilerConfiguration.getInputFiles());
+  }
+
+  private @NotNull CompilingModelBuilder provideModelBuilder(@NotNull CompilerConfiguration compilerConfiguration,
+                                                             @NotNull Set<File> inputSources) {
+    CompilingModelBuilder compiler = this.createModelBuilder(compilerConfiguration, inputSources);
+    // build the compiler instance
+    compiler.build();
+    return compiler;
+  }
+
+  private @NotNull CompilingModelBuilder createModelBuilder(@NotNull CompilerConfiguration compilerConfiguration,
+                                                            @NotNull Set<File> inputSources) {
     // add the default processor to the spoon api
     SpoonAPI spoon = new Launcher();
     spoon.addProcessor(GlobalProcessor.class.getCanonicalName());
@@ -61,46 +111,277 @@ final class DefaultCompiler implements Compiler {
     Environment environment = spoon.getEnvironment();
     environment.setNoClasspath(!compilerConfiguration.isValidateCode());
     environment.setComplianceLevel(compilerConfiguration.getLanguageLevel());
-    // create the actual spoon based compiler
-    SpoonModelBuilder compiler = spoon.createCompiler();
+    // create the actual spoon based compiler, which generates the classes of the sources while building the model
+    CompilingModelBuilder compiler = new CompilingModelBuilder(spoon.getFactory());
     compiler.setSourceClasspath(toPathArray(compilerConfiguration.getSourceClassPath()));
-    // add the input sources provided by the configuration
-    for (File file : compilerConfiguration.getInputFiles()) {
-      compiler.addInputSource(file);
-    }
-    // build the compiler instance
-    compiler.build();
+    // add the input sources, either provided by the configuration or found by the pre-scan,
+    // in a stable order so that the model does not depend on the order of the configured files
+    inputSources.stream()
+      .sorted(Comparator.comparing(File::getPath))
+      .forEachOrdered(compiler::addInputSource);
     return compiler;
   }
 
+  private @NotNull Set<File> provideInputSources(@NotNull CompilerConfiguration compilerConfiguration,
+                                                 @NotNull SourceIndex sourceIndex) {
+    // validated code must be complete, all types referenced by the parsed files must be parsed as well
+    return SourcePreScanner.scan(sourceIndex, compilerConfiguration.isValidateCode(), compilerConfiguration.getParallelism());
+  }
+
   @Override
   public @NotNull ClassPool provideClassPool(@NotNull CompilerConfiguration compilerConfiguration) throws Exception {
+    return this.provideClassPool(compilerConfiguration, this.provideModelBuilder(compilerConfiguration));
+  }
+
+  @Override
+  public @NotNull ClassPool provideClassPool(@NotNull CompilerConfiguration compilerConfiguration,
+                                             @NotNull SpoonModelBuilder modelBuilder) throws Exception {
+    SourceIndex sourceIndex = SourceIndex.create(compilerConfiguration.getInputFiles());
+    return this.provideClassPool(compilerConfiguration, new CompilingClassPath(sourceIndex, modelBuilder));
+  }
+
+  private @NotNull ClassPool provideClassPool(@NotNull CompilerConfiguration compilerConfiguration,
+                                              @NotNull CompilingClassPath compilingClassPath) throws Exception {
     String[] inputPaths = toPathArray(compilerConfiguration.getSourceClassPath());
-    // create pool
-    ClassPool classPool = ClassPool.getDefault();
-    classPool.appendPathList(String.join(File.pathSeparator, inputPaths));
-    classPool.appendClassPath(new CompilingClassPath(compilerConfiguration.getInputFiles(), inputPaths));
+    // the parent pool holds the read-only classes of the jvm and the class path
+    ClassPool sharedPool = compilerConfiguration.getSharedClassPool();
+    ClassPool parentPool = sharedPool;
+    if (parentPool == null) {
+      parentPool = new ClassPool(true);
+      parentPool.appendPathList(String.join(File.pathSeparator, inputPaths));
+    }
+    // create the pool for this compilation, it holds the compiled sources and all generated classes
+    // and prefers them over the classes of the parent pool
+    ClassPool classPool = new ClassPool(parentPool);
+    classPool.childFirstLookup = true;
+    classPool.appendClassPath(compilingClassPath);
+    // class directories may change between compilations and are therefore never part of a shared pool
+    if (sharedPool != null) {
+      for (File file : compilerConfiguration.getSourceClassPath()) {
+        if (file.isDirectory()) {
+          classPool.appendClassPath(file.getAbsolutePath());
+        }
+      }
+    }
     // done creation, nothing more to configure here
     return classPool;
   }
 
+  @Override
+  public @Nullable GenerationCache provideGenerationCache(@NotNull CompilerConfiguration compilerConfiguration) {
+    File cacheDirectory = compilerConfiguration.getCacheDirectory();
+    return cacheDirectory == null ? null : GenerationCache.fileSystem(cacheDirectory.toPath());
+  }
+
   @Override
   public @NotNull GeneratorStack compile(@NotNull CompilerConfiguration compilerConfiguration) throws Exception {
-    // create generator stack
-    GeneratorStack stack = new DefaultGeneratorStack(new DefaultClassStack());
-    // create the root processing units
-    ClassPool classPool = this.provideClassPool(compilerConfiguration);
-    SpoonModelBuilder modelBuilder = this.provideModelBuilder(compilerConfiguration);
+    GenerationProfiler profiler = compilerConfiguration.getProfiler();
+    if (profiler == null) {
+      profiler = GenerationProfiler.noop();
+    }
+    ClassResultSink sink = compilerConfiguration.getClassResultSink();
+    GenerationCache generationCache = this.provideGenerationCache(compilerConfiguration);
+    GeneratorStack stack;
+    if (!compilerConfiguration.isVerifyDeterminism()) {
+      stack = this.compile(compilerConfiguration, profiler, sink, generationCache);
+    } else {
+      // generate a reference without the cache, then the actual classes which are only streamed once verified
+      GeneratorStack reference = this.compile(compilerConfiguration, GenerationProfiler.noop(), null, null);
+      stack = this.compile(compilerConfiguration, profiler, null, generationCache);
+      verifyDeterminism(reference, stack);
+      if (sink != null) {
+        for (ClassResult result : stack.classStack()) {
+          sink.accept(result);
+        }
+      }
+    }
+    // the cache is never bounded otherwise
+    if (generationCache != null) {
+      generationCache.cleanup();
+    }
+    return stack;
+  }
+
+  private static void verifyDeterminism(@NotNull GeneratorStack reference, @NotNull GeneratorStack stack) {
+    Map<String, byte[]> expected = provideOutput(reference);
+    Map<String, byte[]> actual = provideOutput(stack);
+    // the same classes must be generated with the same bytecode
+    Set<String> classNames = new TreeSet<>(expected.keySet());
+    classNames.addAll(actual.keySet());
+    List<String> differences = new ArrayList<>();
+    for (String className : classNames) {
+      if (!Arrays.equals(expected.get(className), actual.get(className))) {
+        differences.add(className);
+      }
+    }
+    if (!differences.isEmpty()) {
+      throw new IllegalStateException("Generation is not deterministic, the output of two runs differs in: "
+        + String.join(", ", differences));
+    }
+  }
+
+  private static @NotNull Map<String, byte[]> provideOutput(@NotNull GeneratorStack stack) {
+    // the last result of a class is the one written, classes loaded from the cache are pushed last
+    Map<String, byte[]> output = new TreeMap<>();
+    for (ClassResult result : stack.classStack().getFullStack()) {
+      output.put(result.getPackage() + '.' + result.getName(), result.getBytecode());
+    }
+    return output;
+  }
+
+  private @NotNull GeneratorStack compile(@NotNull CompilerConfiguration compilerConfiguration,
+                                          @NotNull GenerationProfiler profiler, @Nullable ClassResultSink sink,
+                                          @Nullable GenerationCache generationCache) throws Exception {
+    // custom processors might process any type, the pre-scan only knows about the default processors.
+    // batches and shards are scanned as well, each of them is parsed with the files it depends on
+    int shards = Math.max(1, compilerConfiguration.getParseShards());
+    boolean batched = compilerConfiguration.getBatchSize() > 0 || shards > 1;
+    boolean preScan = !batched && compilerConfiguration.isPreScan() && compilerConfiguration.getProcessors().isEmpty();
+    SourceIndex sourceIndex = null;
+    Set<File> inputSources = compilerConfiguration.getInputFiles();
+    List<SourcePreScanner.Batch> batches = null;
+    if (preScan || batched) {
+      try (GenerationProfiler.Section ignored = profiler.start(ProfilePhase.PRE_SCAN, "sources")) {
+        sourceIndex = SourceIndex.create(compilerConfiguration.getInputFiles());
+        if (batched) {
+          batches = this.provideBatches(compilerConfiguration, sourceIndex, shards);
+        } else {
+          inputSources = this.provideInputSources(compilerConfiguration, sourceIndex);
+        }
+      }
+    }
+    CompilingClassPath compilingClassPath;
+    ClassPool classPool;
+    try (GenerationProfiler.Section ignored = profiler.start(ProfilePhase.CLASS_POOL, "javassist")) {
+      if (sourceIndex == null) {
+        sourceIndex = SourceIndex.create(compilerConfiguration.getInputFiles());
+      }
+      // the class path gets the classes the models of the analysis generated from their compilation units, so that
+      // the sources are parsed once and the models can be released before the classes are generated. Only the sources
+      // which are not part of any partial model are compiled on demand
+      compilingClassPath = new CompilingClassPath(sourceIndex, null, preScan || batched
+        ? () -> this.createModelBuilder(compilerConfiguration, compilerConfiguration.getInputFiles())
+        : null);
+      classPool = this.provideClassPool(compilerConfiguration, compilingClassPath);
+    }
     // provide the set of default processors we have
-    Set<TypeProcessor> processors = new HashSet<>(Arrays.asList(new GenerationTypeProcessor(classPool),
-      new NonNullParameterProcessor(classPool)));
+    int parallelism = compilerConfiguration.getParallelism();
+    // the processors post process in their order, which must be stable to get the same output
+    Set<File> sourceClassPath = compilerConfiguration.getSourceClassPath();
+    Set<TypeProcessor> processors = new LinkedHashSet<>(Arrays.asList(
+      new GenerationTypeProcessor(classPool, true, generationCache, compilerConfiguration.getLanguageLevel(),
+        provideClassPathIdentity(sourceClassPath), provideClassDirectories(sourceClassPath), parallelism),
+      new NonNullParameterProcessor(classPool, parallelism)));
     // add the custom processors from the configuration
     processors.addAll(compilerConfiguration.getProcessors());
-    // create our root processor instance
-    RootProcessor<?> processor = new GlobalProcessor(compilerConfiguration.getInputFiles(), stack, processors);
-    // post the root processor to the model builder
-    modelBuilder.process(Collections.singleton(processor));
+    // create generator stack, streaming the generated classes into the sink if there is one
+    GeneratorStack stack = new DefaultGeneratorStack(sink == null ? new DefaultClassStack() : new StreamingClassStack(sink), profiler);
+    // analyze the types, either all at once or batch by batch
+    if (batches == null) {
+      this.analyze(compilerConfiguration, inputSources, sourceIndex, compilerConfiguration.getChangedFiles(),
+        compilingClassPath, stack, processors);
+    } else if (shards == 1) {
+      for (SourcePreScanner.Batch batch : batches) {
+        this.analyze(compilerConfiguration, batch.getSources(), sourceIndex, batch.getFiles(), compilingClassPath, stack, processors);
+      }
+    } else {
+      this.analyzeSharded(compilerConfiguration, batches, sourceIndex, compilingClassPath, stack, processors, shards);
+    }
+    // all models are unreachable now, generate the classes from the plans of the processors
+    RootProcessor.postProcess(stack, processors);
     // return the create generator stack used by the processor to process the resources
     return stack;
   }
+
+  private void analyze(@NotNull CompilerConfiguration compilerConfiguration, @NotNull Set<File> inputSources,
+                       @NotNull SourceIndex sourceIndex, @Nullable Set<File> changedFiles,
+                       @NotNull CompilingClassPath compilingClassPath, @NotNull GeneratorStack stack,
+                       @NotNull Set<TypeProcessor> processors) {
+    // create the root processing units
+    SpoonModelBuilder modelBuilder = this.buildModel(compilerConfiguration, inputSources, compilingClassPath, stack.profiler());
+    this.analyze(modelBuilder, sourceIndex, changedFiles, stack, processors);
+  }
+
+  private void analyzeSharded(@NotNull CompilerConfiguration compilerConfiguration,
+                              @NotNull List<SourcePreScanner.Batch> shards, @NotNull SourceIndex sourceIndex,
+                              @NotNull CompilingClassPath compilingClassPath, @NotNull GeneratorStack stack,
+                              @NotNull Set<TypeProcessor> processors, int parallelShards) throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(parallelShards);
+    try {
+      // parse the next shards while the current one is processed, but never keep more models than needed for that
+      Deque<ForkJoinTask<SpoonModelBuilder>> parsingShards = new ArrayDeque<>(parallelShards);
+      int nextShard = 0;
+      for (SourcePreScanner.Batch shard : shards) {
+        while (nextShard < shards.size() && parsingShards.size() < parallelShards) {
+          Set<File> shardSources = shards.get(nextShard++).getSources();
+          parsingShards.offerLast(pool.submit(
+            () -> this.buildModel(compilerConfiguration, shardSources, compilingClassPath, stack.profiler())));
+        }
+        // the processors are not thread safe, the shards are processed one by one in their order
+        SpoonModelBuilder modelBuilder = this.joinModel(parsingShards.pollFirst());
+        this.analyze(modelBuilder, sourceIndex, shard.getFiles(), stack, processors);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private @NotNull SpoonModelBuilder buildModel(@NotNull CompilerConfiguration compilerConfiguration,
+                                                @NotNull Set<File> inputSources, @NotNull CompilingClassPath compilingClassPath,
+                                                @NotNull GenerationProfiler profiler) {
+    try (GenerationProfiler.Section ignored = profiler.start(ProfilePhase.MODEL_BUILD, "spoon")) {
+      CompilingModelBuilder modelBuilder = this.provideModelBuilder(compilerConfiguration, inputSources);
+      // keep the classes of the model, the class pool needs them once the model is released
+      Map<String, byte[]> compiledClasses = modelBuilder.getCompiledClasses();
+      if (compiledClasses != null) {
+        compilingClassPath.addCompiledClasses(compiledClasses);
+      }
+      return modelBuilder;
+    }
+  }
+
+  private @NotNull SpoonModelBuilder joinModel(@NotNull ForkJoinTask<SpoonModelBuilder> task) throws Exception {
+    try {
+      return task.get();
+    } catch (ExecutionException exception) {
+      // rethrow the original exception of the model build
+      if (exception.getCause() instanceof Exception) {
+        throw (Exception) exception.getCause();
+      }
+      throw exception;
+    }
+  }
+
+  private void analyze(@NotNull SpoonModelBuilder modelBuilder, @NotNull SourceIndex sourceIndex,
+                       @Nullable Set<File> changedFiles, @NotNull GeneratorStack stack,
+                       @NotNull Set<TypeProcessor> processors) {
+    // create our root processor instance, the processors are post processed once the model is released
+    RootProcessor<?> processor = new GlobalProcessor(sourceIndex, changedFiles, stack, processors, false);
+    // post the root processor to the model builder
+    modelBuilder.process(Collections.singleton(processor));
+  }
+
+  private @NotNull List<SourcePreScanner.Batch> provideBatches(@NotNull CompilerConfiguration compilerConfiguration,
+                                                               @NotNull SourceIndex sourceIndex, int shards) {
+    // custom processors might process any type, all files must be processed in that case
+    List<File> files;
+    if (compilerConfiguration.getProcessors().isEmpty()) {
+      files = new ArrayList<>(SourcePreScanner.findCandidates(sourceIndex, compilerConfiguration.getParallelism()));
+    } else {
+      files = new ArrayList<>(sourceIndex.getSourceFiles());
+      files.sort(Comparator.comparing(File::getPath));
+    }
+    // only the changed files must be processed, their dependencies are parsed anyway
+    Set<File> changedFiles = compilerConfiguration.getChangedFiles();
+    if (changedFiles != null) {
+      Set<File> canonicalFiles = changedFiles.stream().map(SourceUtility::canonicalFile).collect(Collectors.toSet());
+      files.removeIf(file -> !canonicalFiles.contains(SourceUtility.canonicalFile(file)));
+    }
+    // without a batch size the files are split evenly into the shards
+    int batchSize = compilerConfiguration.getBatchSize();
+    if (batchSize <= 0) {
+      batchSize = Math.max(1, (files.size() + shards - 1) / shards);
+    }
+    return SourcePreScanner.partition(sourceIndex, files, compilerConfiguration.isValidateCode(), batchSize);
+  }
 }
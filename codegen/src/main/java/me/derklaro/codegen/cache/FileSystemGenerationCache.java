@@ -0,0 +1,155 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.cache;
+
+import me.derklaro.codegen.generator.result.ClassResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+final class FileSystemGenerationCache implements GenerationCache {
+
+  private static final int VERSION = 1;
+  private static final String CLEANUP_MARKER = "last-cleanup";
+  private static final long CLEANUP_INTERVAL = TimeUnit.DAYS.toMillis(1);
+  private static final long MAX_UNUSED_TIME = TimeUnit.DAYS.toMillis(7);
+
+  private final Path directory;
+
+  public FileSystemGenerationCache(@NotNull Path directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public @Nullable ClassResult load(@NotNull String fingerprint) {
+    Path entry = this.resolveEntry(fingerprint);
+    if (!Files.isRegularFile(entry)) {
+      return null;
+    }
+    // a broken or outdated entry is handled like a missing entry
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+      if (in.readInt() != VERSION) {
+        return null;
+      }
+      String qualifiedName = in.readUTF();
+      byte[] bytecode = new byte[in.readInt()];
+      in.readFully(bytecode);
+      this.markUsed(entry);
+      return ClassResult.builder().packageClassName(qualifiedName).bytecode(bytecode).build();
+    } catch (IOException exception) {
+      return null;
+    }
+  }
+
+  @Override
+  public void store(@NotNull String fingerprint, @NotNull ClassResult result) throws IOException {
+    Path entry = this.resolveEntry(fingerprint);
+    Files.createDirectories(entry.getParent());
+    // write to a temporary file first so that concurrent builds never read a partially written entry
+    Path temporaryFile = Files.createTempFile(entry.getParent(), fingerprint, ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+        out.writeInt(VERSION);
+        out.writeUTF(result.getPackage().isEmpty() ? result.getName() : result.getPackage() + '.' + result.getName());
+        out.writeInt(result.getBytecode().length);
+        out.write(result.getBytecode());
+      }
+      try {
+        Files.move(temporaryFile, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException exception) {
+        Files.move(temporaryFile, entry, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  @Override
+  public void cleanup() {
+    Path marker = this.directory.resolve(CLEANUP_MARKER);
+    long now = System.currentTimeMillis();
+    try {
+      // only clean up once in a while, the cache is usually shared between many builds
+      if (!Files.isDirectory(this.directory)
+        || (Files.exists(marker) && now - Files.getLastModifiedTime(marker).toMillis() < CLEANUP_INTERVAL)) {
+        return;
+      }
+      // update the marker first so that concurrent builds do not clean up at the same time
+      Files.write(marker, new byte[0]);
+      try (DirectoryStream<Path> buckets = Files.newDirectoryStream(this.directory, Files::isDirectory)) {
+        for (Path bucket : buckets) {
+          this.cleanupBucket(bucket, now);
+        }
+      }
+    } catch (IOException exception) {
+      // the cleanup is retried by the next compilation
+    }
+  }
+
+  private void cleanupBucket(@NotNull Path bucket, long now) throws IOException {
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(bucket)) {
+      for (Path entry : entries) {
+        // temporary files are left over from crashed builds, they are never used
+        long maxAge = entry.getFileName().toString().endsWith(".tmp") ? CLEANUP_INTERVAL : MAX_UNUSED_TIME;
+        try {
+          if (now - Files.getLastModifiedTime(entry).toMillis() > maxAge) {
+            Files.deleteIfExists(entry);
+          }
+        } catch (IOException exception) {
+          // the entry is in use or was removed by a concurrent build
+        }
+      }
+    }
+  }
+
+  private void markUsed(@NotNull Path entry) {
+    try {
+      // the modification time of an entry is the time it was last used, it is updated at most once per cleanup interval
+      long now = System.currentTimeMillis();
+      if (now - Files.getLastModifiedTime(entry).toMillis() > CLEANUP_INTERVAL) {
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(now));
+      }
+    } catch (IOException exception) {
+      // the entry might be removed earlier than needed, which only costs a generation
+    }
+  }
+
+  private @NotNull Path resolveEntry(@NotNull String fingerprint) {
+    // split the entries into sub directories to keep the directories small
+    return this.directory.resolve(fingerprint.substring(0, 2)).resolve(fingerprint + ".bin");
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.cache;
+
+import me.derklaro.codegen.generator.result.ClassResult;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Represents a cache of generated classes keyed by a structural fingerprint of the type they were generated from.
+ */
+public interface GenerationCache {
+  /**
+   * Creates a new cache which stores the generated classes in the given directory. Classes which were
+   * not used for seven days are removed from the directory during the cleanup, at most once a day.
+   *
+   * @param directory the directory to store the generated classes in.
+   * @return the created cache.
+   */
+  static @NotNull GenerationCache fileSystem(@NotNull Path directory) {
+    return new FileSystemGenerationCache(directory);
+  }
+
+  /**
+   * Loads the generated class associated with the given fingerprint.
+   *
+   * @param fingerprint the fingerprint of the type the class was generated from.
+   * @return the cached class or {@code null} if no class is cached for the fingerprint.
+   */
+  @Nullable ClassResult load(@NotNull String fingerprint);
+
+  /**
+   * Stores the generated class associated with the given fingerprint.
+   *
+   * @param fingerprint the fingerprint of the type the class was generated from.
+   * @param result      the generated class to store.
+   * @throws IOException if an I/O error occurs while storing the class.
+   */
+  void store(@NotNull String fingerprint, @NotNull ClassResult result) throws IOException;
+
+  /**
+   * Removes the cached classes which were not used for a while. Called by the compiler after each compilation
+   * which used the cache, a failed cleanup must not fail the compilation.
+   */
+  default void cleanup() {
+  }
+}
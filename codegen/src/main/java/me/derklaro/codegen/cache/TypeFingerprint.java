@@ -0,0 +1,245 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.cache;
+
+import javassist.bytecode.ClassFile;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import spoon.reflect.code.CtExpression;
+import spoon.reflect.declaration.CtAnnotation;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtExecutable;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtModifiable;
+import spoon.reflect.declaration.CtParameter;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.CtTypeMember;
+import spoon.reflect.reference.CtTypeReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Creates structural fingerprints of types. A fingerprint only covers the parts of a type and its supertypes
+ * which are relevant for the generation (signatures, modifiers and annotations), so comment, formatting or
+ * method body changes do not change it. Supertypes which are not declared in the sources but in a class directory are
+ * identified by their class files, as the content of a directory is not covered by the identity of the class path.
+ */
+@ApiStatus.Internal
+public final class TypeFingerprint {
+
+  private static final String CODEGEN_VERSION = findCodegenVersion();
+  private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+  private TypeFingerprint() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static @NotNull String create(@NotNull CtType<?> type, @NotNull Object... settings) {
+    return create(Collections.emptySet(), type, settings);
+  }
+
+  public static @NotNull String create(@NotNull Collection<File> classDirectories, @NotNull CtType<?> type,
+                                       @NotNull Object... settings) {
+    StringBuilder builder = new StringBuilder(CODEGEN_VERSION);
+    // append the settings of the processor which are influencing the generation
+    for (Object setting : settings) {
+      builder.append('|').append(setting);
+    }
+    // walk the whole hierarchy of the type, visiting each type only once
+    Set<String> visitedTypes = new HashSet<>();
+    Deque<CtTypeReference<?>> processingQueue = new ArrayDeque<>();
+    processingQueue.push(type.getReference());
+    while (!processingQueue.isEmpty()) {
+      CtTypeReference<?> reference = processingQueue.pop();
+      if (!visitedTypes.add(reference.getQualifiedName())) {
+        continue;
+      }
+      builder.append("\ntype ").append(reference.getQualifiedName());
+      // types which are not declared in the sources are identified by their name and class file
+      CtType<?> processingType = reference.getDeclaration();
+      if (processingType == null) {
+        appendClassFile(builder, classDirectories, reference.getQualifiedName(), visitedTypes);
+      } else {
+        appendType(builder, processingType);
+        // push the super types to the queue
+        if (processingType.getSuperclass() != null) {
+          processingQueue.push(processingType.getSuperclass());
+        }
+        for (CtTypeReference<?> superInterface : processingType.getSuperInterfaces()) {
+          processingQueue.push(superInterface);
+        }
+      }
+    }
+    return sha256(builder.toString());
+  }
+
+  private static void appendType(@NotNull StringBuilder builder, @NotNull CtType<?> type) {
+    builder.append(' ').append(type.isInterface() ? "interface" : "class");
+    appendModifiers(builder, type);
+    appendAnnotations(builder, type);
+    type.getFormalCtTypeParameters().forEach(parameter -> builder.append(" <").append(parameter).append('>'));
+    builder.append(" extends ").append(type.getSuperclass());
+    type.getSuperInterfaces().forEach(superInterface -> builder.append(" implements ").append(superInterface));
+    // the members are appended in declaration order as the order influences the generated class
+    for (CtTypeMember member : type.getTypeMembers()) {
+      if (member instanceof CtField<?>) {
+        CtField<?> field = (CtField<?>) member;
+        builder.append("\n  field ").append(field.getSimpleName());
+        appendTypeReference(builder, field.getType());
+        appendModifiers(builder, field);
+        appendAnnotations(builder, field);
+      } else if (member instanceof CtExecutable<?>) {
+        CtExecutable<?> executable = (CtExecutable<?>) member;
+        builder.append("\n  executable ").append(executable.getSimpleName());
+        appendTypeReference(builder, executable.getType());
+        appendModifiers(builder, member);
+        appendAnnotations(builder, executable);
+        for (CtParameter<?> parameter : executable.getParameters()) {
+          builder.append("\n    parameter ").append(parameter.getSimpleName());
+          appendTypeReference(builder, parameter.getType());
+          appendAnnotations(builder, parameter);
+        }
+        executable.getThrownTypes().forEach(thrownType -> builder.append("\n    throws ").append(thrownType));
+      }
+    }
+  }
+
+  private static void appendClassFile(@NotNull StringBuilder builder, @NotNull Collection<File> classDirectories,
+                                      @NotNull String typeName, @NotNull Set<String> visitedTypes) {
+    for (File classDirectory : classDirectories) {
+      File file = new File(classDirectory, typeName.replace('.', File.separatorChar) + ".class");
+      if (file.isFile()) {
+        try {
+          byte[] content = Files.readAllBytes(file.toPath());
+          builder.append(" classfile ").append(sha256(content));
+          // the supertypes are only known from the class file, walk them as well
+          ClassFile classFile = new ClassFile(new DataInputStream(new ByteArrayInputStream(content)));
+          List<String> supertypes = new ArrayList<>();
+          supertypes.add(classFile.getSuperclass());
+          supertypes.addAll(Arrays.asList(classFile.getInterfaces()));
+          for (String supertype : supertypes) {
+            if (supertype != null && visitedTypes.add(supertype)) {
+              builder.append("\ntype ").append(supertype);
+              appendClassFile(builder, classDirectories, supertype, visitedTypes);
+            }
+          }
+        } catch (IOException exception) {
+          throw new UncheckedIOException("Unable to read class file " + file, exception);
+        }
+        // the first class directory containing the type wins, like on the class path
+        return;
+      }
+    }
+  }
+
+  private static void appendTypeReference(@NotNull StringBuilder builder, @Nullable CtTypeReference<?> reference) {
+    builder.append(' ').append(reference);
+    // the generated code for interface and class types differs (for example invokeinterface or invokevirtual)
+    if (reference != null && !reference.isPrimitive()) {
+      CtType<?> declaration = reference.getDeclaration();
+      if (declaration != null) {
+        builder.append(declaration.isInterface() ? "(interface)" : "(class)");
+      }
+    }
+  }
+
+  private static void appendModifiers(@NotNull StringBuilder builder, @NotNull CtModifiable modifiable) {
+    // sort the modifiers to prevent order related changes of the fingerprint
+    for (Object modifier : new TreeSet<>(modifiable.getModifiers())) {
+      builder.append(' ').append(modifier);
+    }
+  }
+
+  private static void appendAnnotations(@NotNull StringBuilder builder, @NotNull CtElement element) {
+    for (CtAnnotation<? extends Annotation> annotation : element.getAnnotations()) {
+      builder.append(" @").append(annotation.getAnnotationType().getQualifiedName()).append('(');
+      // sort the values by their name, the order of the values is not relevant
+      for (String name : new TreeSet<>(annotation.getValues().keySet())) {
+        CtExpression<?> value = annotation.getValue(name);
+        builder.append(name).append('=').append(value).append(',');
+      }
+      builder.append(')');
+    }
+  }
+
+  private static @NotNull String sha256(@NotNull String input) {
+    return sha256(input.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static @NotNull String sha256(byte @NotNull [] input) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(input);
+      // convert the digest to a hex string
+      char[] chars = new char[digest.length * 2];
+      for (int i = 0; i < digest.length; i++) {
+        chars[i * 2] = HEX_CHARS[(digest[i] >> 4) & 0xF];
+        chars[i * 2 + 1] = HEX_CHARS[digest[i] & 0xF];
+      }
+      return new String(chars);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException("SHA-256 is not supported by the jvm", exception);
+    }
+  }
+
+  private static @NotNull String findCodegenVersion() {
+    String version = TypeFingerprint.class.getPackage().getImplementationVersion();
+    if (version != null && !version.endsWith("-SNAPSHOT")) {
+      return version;
+    }
+    // snapshot or development build, use the modification time of the codegen artifact as well
+    CodeSource codeSource = TypeFingerprint.class.getProtectionDomain().getCodeSource();
+    if (codeSource != null && codeSource.getLocation() != null) {
+      try {
+        File location = new File(codeSource.getLocation().toURI());
+        return version + '@' + location.getName() + '@' + location.length() + '@' + location.lastModified();
+      } catch (URISyntaxException | IllegalArgumentException exception) {
+        // unable to resolve the location, fall through
+      }
+    }
+    return String.valueOf(version);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.generation;
+
+import javassist.CannotCompileException;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtMethod;
+import javassist.NotFoundException;
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.Descriptor;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import me.derklaro.codegen.generator.Generator;
+import me.derklaro.codegen.util.NonNullCheck;
+import me.derklaro.codegen.util.TypeDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A generator which emits the bytecode of its members directly instead of compiling java source code
+ * using the javassist compiler.
+ */
+public abstract class AbstractBytecodeGenerator implements Generator {
+
+  protected static final String MESSAGE_FORMAT_DESCRIPTOR = "(Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/String;";
+  protected static final String VALIDATE_DESCRIPTOR = "(Ljava/lang/Object;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+  protected @NotNull Bytecode newBytecode(@NotNull CtClass ctClass, int maxLocals) {
+    return new Bytecode(ctClass.getClassFile2().getConstPool(), 0, maxLocals);
+  }
+
+  protected void addMethod(@NotNull CtClass ctClass, @NotNull String name, @NotNull String descriptor,
+                           @NotNull Bytecode bytecode, boolean branches) throws CannotCompileException, BadBytecode {
+    this.addMethod(ctClass, AccessFlag.PUBLIC, name, descriptor, bytecode, branches);
+  }
+
+  protected void addMethod(@NotNull CtClass ctClass, int accessFlags, @NotNull String name, @NotNull String descriptor,
+                           @NotNull Bytecode bytecode, boolean branches) throws CannotCompileException, BadBytecode {
+    MethodInfo methodInfo = new MethodInfo(ctClass.getClassFile2().getConstPool(), name, descriptor);
+    methodInfo.setAccessFlags(accessFlags);
+    this.applyCode(ctClass, methodInfo, bytecode, branches);
+    ctClass.addMethod(CtMethod.make(methodInfo, ctClass));
+  }
+
+  protected void addConstructor(@NotNull CtClass ctClass, @NotNull String descriptor, @NotNull Bytecode bytecode)
+    throws CannotCompileException, BadBytecode, NotFoundException {
+    CtConstructor constructor = new CtConstructor(Descriptor.getParameterTypes(descriptor, ctClass.getClassPool()), ctClass);
+    this.applyCode(ctClass, constructor.getMethodInfo2(), bytecode, false);
+    ctClass.addConstructor(constructor);
+  }
+
+  protected void applyCode(@NotNull CtClass ctClass, @NotNull MethodInfo methodInfo, @NotNull Bytecode bytecode,
+                           boolean branches) throws BadBytecode {
+    CodeAttribute codeAttribute = bytecode.toCodeAttribute();
+    // the linear stack tracking of the bytecode is not aware of branches
+    codeAttribute.computeMaxStack();
+    methodInfo.setCodeAttribute(codeAttribute);
+    // code with branches requires a stack map on java 7+ class files
+    if (branches) {
+      methodInfo.rebuildStackMapIf6(ctClass.getClassPool(), ctClass.getClassFile2());
+    }
+  }
+
+  protected @Nullable FieldInfo findDeclaredField(@NotNull CtClass ctClass, @NotNull String name) {
+    // read the field from the class file directly, the fields might have been added without the javassist member cache
+    for (FieldInfo fieldInfo : ctClass.getClassFile2().getFields()) {
+      if (fieldInfo.getName().equals(name)) {
+        return fieldInfo;
+      }
+    }
+    return null;
+  }
+
+  protected @NotNull String provideSuperclassName(@NotNull CtClass ctClass) {
+    return ctClass.getClassFile2().getSuperclass();
+  }
+
+  protected int provideSlot(@NotNull List<TypeDescriptor> parameters, int index) {
+    // slot 0 holds this, long and double parameters take two slots
+    int slot = 1;
+    for (int i = 0; i < index; i++) {
+      slot += parameters.get(i).getSize();
+    }
+    return slot;
+  }
+
+  protected int provideMaxLocals(@NotNull List<TypeDescriptor> parameters) {
+    return this.provideSlot(parameters, parameters.size());
+  }
+
+  protected boolean addNonNullChecks(@NotNull Bytecode bytecode, @NotNull Map<Integer, NonNullCheck> configurations,
+                                     @NotNull List<TypeDescriptor> parameters) {
+    boolean branches = false;
+    // the checks were inserted one after another before the method, so the last check ran first
+    List<Map.Entry<Integer, NonNullCheck>> entries = new ArrayList<>(configurations.entrySet());
+    Collections.reverse(entries);
+    for (Map.Entry<Integer, NonNullCheck> entry : entries) {
+      int location = entry.getKey();
+      TypeDescriptor parameter = parameters.get(location - 1);
+      if (parameter.isPrimitive()) {
+        // primitive values can never be null
+        continue;
+      }
+      int slot = this.provideSlot(parameters, location - 1);
+      NonNullCheck configuration = entry.getValue();
+      switch (configuration.getHandler()) {
+        case CUSTOM:
+          // if ($n == null) throw new Exception(MessageFormat.format(message, new String[]{"n"}));
+          bytecode.addAload(slot);
+          bytecode.addOpcode(Opcode.IFNONNULL);
+          final int branchIndex = bytecode.currentPc();
+          bytecode.addIndex(0);
+          String exceptionType = configuration.getExceptionType();
+          bytecode.addNew(exceptionType);
+          bytecode.addOpcode(Opcode.DUP);
+          this.addMessageArguments(bytecode, configuration, location);
+          bytecode.addInvokestatic("java.text.MessageFormat", "format", MESSAGE_FORMAT_DESCRIPTOR);
+          bytecode.addInvokespecial(exceptionType, MethodInfo.nameInit, "(Ljava/lang/String;)V");
+          bytecode.addOpcode(Opcode.ATHROW);
+          // jump over the throw if the value is present
+          bytecode.write16bit(branchIndex, bytecode.currentPc() - branchIndex + 1);
+          branches = true;
+          break;
+        case GUAVA_PRECONDITIONS:
+          bytecode.addAload(slot);
+          this.addMessageArguments(bytecode, configuration, location);
+          bytecode.addInvokestatic("com.google.common.base.Preconditions", "checkNotNull", VALIDATE_DESCRIPTOR);
+          bytecode.addOpcode(Opcode.POP);
+          break;
+        case APACHE_VALIDATE:
+          bytecode.addAload(slot);
+          this.addMessageArguments(bytecode, configuration, location);
+          bytecode.addInvokestatic("org.apache.commons.lang3.Validate", "notNull", VALIDATE_DESCRIPTOR);
+          bytecode.addOpcode(Opcode.POP);
+          break;
+        default:
+          throw new UnsupportedOperationException("Unsupported non-null handler " + configuration.getHandler());
+      }
+    }
+    return branches;
+  }
+
+  protected void addMessageArguments(@NotNull Bytecode bytecode, @NotNull NonNullCheck configuration, int location) {
+    // the message and an array holding the location of the parameter as the only argument
+    bytecode.addLdc(configuration.getMessage());
+    bytecode.addIconst(1);
+    bytecode.addAnewarray("java.lang.String");
+    bytecode.addOpcode(Opcode.DUP);
+    bytecode.addIconst(0);
+    bytecode.addLdc(Integer.toString(location));
+    bytecode.addOpcode(Opcode.AASTORE);
+  }
+}
@@ -24,14 +24,20 @@
 
 package me.derklaro.codegen.generation;
 
+import javassist.CtClass;
 import javassist.CtNewConstructor;
 import javassist.NotFoundException;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
 import me.derklaro.codegen.annotations.Factory;
 import me.derklaro.codegen.annotations.OptionalField;
 import me.derklaro.codegen.generator.Generator;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
 import me.derklaro.codegen.util.BytecodeUtility;
 import me.derklaro.codegen.util.MethodFieldPair;
+import me.derklaro.codegen.util.TypeDescriptor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import spoon.reflect.declaration.CtConstructor;
@@ -39,17 +45,20 @@
 import spoon.reflect.declaration.CtType;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-public class ConstructorGenerator implements Generator {
+public class ConstructorGenerator extends AbstractBytecodeGenerator {
 
   protected static final Deque<MethodFieldPair> PAIR_EMPTY_DEQUE = new ArrayDeque<>();
   protected static final String OPTIONAL_ANNOTATION = OptionalField.class.getCanonicalName();
@@ -71,7 +80,7 @@ public ConstructorGenerator(CtType<?> type, Deque<MethodFieldPair> getterMethods
 
     Factory factory = type.getAnnotation(Factory.class);
     if (factory != null && !factory.location().isEmpty() && !factory.method().isEmpty()) {
-      this.factoryGenerator = new FactoryMethodGenerator(factory.location(), factory.method(),
+      this.factoryGenerator = new FactoryMethodGenerator(type, factory.location(), factory.method(),
         factory.overrideReturn(), new ArrayDeque<>(getterMethods));
     } else {
       this.factoryGenerator = null;
@@ -95,23 +104,26 @@ public ConstructorGenerator(CtType<?> type, Deque<MethodFieldPair> getterMethods
   public static @NotNull Collection<ConstructorGenerator> requiredArgs(@NotNull CtType<?> type,
                                                                        @NotNull Deque<MethodFieldPair> getterMethods,
                                                                        @Nullable Collection<? extends CtConstructor<?>> constructors) {
-    getterMethods.removeIf(pair -> BytecodeUtility.isAnnotationPresent(pair.getMethod(), OPTIONAL_ANNOTATION));
-    return allArgs(type, getterMethods, constructors);
+    // copy the methods, the following generators (for example all args constructors) need the optional ones too
+    Deque<MethodFieldPair> requiredMethods = new ArrayDeque<>(getterMethods);
+    requiredMethods.removeIf(pair -> pair.isAnnotationPresent(OPTIONAL_ANNOTATION));
+    return allArgs(type, requiredMethods, constructors);
   }
 
   public static @NotNull Collection<ConstructorGenerator> allArgs(@NotNull CtType<?> type,
                                                                   @NotNull Deque<MethodFieldPair> getterMethods,
                                                                   @Nullable Collection<? extends CtConstructor<?>> constructors) {
-    getterMethods.removeIf(pair -> pair.getMethod().getType().getQualifiedName().equals("void"));
+    Deque<MethodFieldPair> fieldMethods = new ArrayDeque<>(getterMethods);
+    fieldMethods.removeIf(pair -> pair.getMethodReturnType().equals("void"));
     // find all super constructors with the most amount of argument (all args constructors)
     Collection<? extends CtConstructor<?>> ctConstructors = findConstructors(constructors, false);
     if (ctConstructors != null && !ctConstructors.isEmpty()) {
       return ctConstructors.stream()
-        .map(ctConstructor -> new ConstructorGenerator(type, new ArrayDeque<>(getterMethods), ctConstructor))
+        .map(ctConstructor -> new ConstructorGenerator(type, new ArrayDeque<>(fieldMethods), ctConstructor))
         .collect(Collectors.toList());
     } else {
       // no super constructors, just generate one
-      return Collections.singleton(new ConstructorGenerator(type, new ArrayDeque<>(getterMethods), null));
+      return Collections.singleton(new ConstructorGenerator(type, new ArrayDeque<>(fieldMethods), null));
     }
   }
 
@@ -125,7 +137,7 @@ public ConstructorGenerator(CtType<?> type, Deque<MethodFieldPair> getterMethods
     return constructors.stream()
       .filter(Objects::nonNull)
       .distinct()
-      .collect(Collectors.collectingAndThen(Collectors.groupingBy(constructor -> constructor, Collectors.counting()),
+      .collect(Collectors.collectingAndThen(Collectors.groupingBy(constructor -> constructor, LinkedHashMap::new, Collectors.counting()),
         map -> {
           Integer parameterCount = (lestArguments
             ? map.values().stream().min(Comparator.naturalOrder())
@@ -137,7 +149,7 @@ public ConstructorGenerator(CtType<?> type, Deque<MethodFieldPair> getterMethods
             Map<Integer, Set<CtConstructor<?>>> countToConstructors = map.entrySet().stream()
               .collect(Collectors.groupingBy(
                 entry -> entry.getValue().intValue(),
-                Collectors.mapping(Map.Entry::getKey, Collectors.toSet())
+                Collectors.mapping(Map.Entry::getKey, Collectors.toCollection(LinkedHashSet::new))
               ));
             return countToConstructors.get(parameterCount);
           }
@@ -146,9 +158,9 @@ public ConstructorGenerator(CtType<?> type, Deque<MethodFieldPair> getterMethods
 
   @Override
   public void applyTo(@NotNull GeneratorStack stack) throws Exception {
+    // check if the constructor we want to create already exists
+    String desc = BytecodeUtility.provideVagueConstructorSignature(this.getterMethods);
     try {
-      // check if the constructor we want to create already exists
-      String desc = BytecodeUtility.provideVagueConstructorSignature(this.getterMethods);
       if (stack.getGeneratingClass().getConstructor(desc) != null) {
         // the constructor already exists
         return;
@@ -156,19 +168,73 @@ public void applyTo(@NotNull GeneratorStack stack) throws Exception {
     } catch (NotFoundException ignored) {
     }
     // no such constructor, make one
-    javassist.CtConstructor constructor = CtNewConstructor.make(String.format(
-      "public %s(%s) { %s }",
-      stack.getGeneratingClass().getSimpleName(),
-      this.joinParameterNames(this.getterMethods),
-      this.provideConstructorBody(this.getterMethods)
-    ), stack.getGeneratingClass());
-    stack.getGeneratingClass().addConstructor(constructor);
+    if (!this.emitConstructor(stack.getGeneratingClass(), desc)) {
+      // fall back to the compiler if the constructor is not plain field assignments
+      javassist.CtConstructor constructor = CtNewConstructor.make(String.format(
+        "public %s(%s) { %s }",
+        stack.getGeneratingClass().getSimpleName(),
+        this.joinParameterNames(this.getterMethods),
+        this.provideConstructorBody(this.getterMethods)
+      ), stack.getGeneratingClass());
+      stack.getGeneratingClass().addConstructor(constructor);
+    }
     // generate factory method if needed
     if (this.factoryGenerator != null) {
       this.factoryGenerator.applyTo(stack);
     }
   }
 
+  protected boolean emitConstructor(@NotNull CtClass ctClass, @NotNull String descriptor) throws Exception {
+    List<TypeDescriptor> parameters = this.getterMethods.stream()
+      .map(pair -> TypeDescriptor.of(pair.getReturnType()))
+      .collect(Collectors.toList());
+    // every parameter is assigned to a field which must be declared with exactly the same type in the class
+    int index = 0;
+    for (MethodFieldPair pair : this.getterMethods) {
+      FieldInfo field = this.findDeclaredField(ctClass, pair.getAssociatedFieldName());
+      if (field == null || !field.getDescriptor().equals(parameters.get(index++).getDescriptor())) {
+        return false;
+      }
+    }
+
+    Bytecode bytecode = this.newBytecode(ctClass, this.provideMaxLocals(parameters));
+    // super($n, ...); defaults to the no-args constructor of the super class like the compiler does
+    bytecode.addAload(0);
+    List<String> superParameterTypes = new ArrayList<>();
+    if (this.superParameters != null) {
+      for (Integer parameter : this.superParameters) {
+        TypeDescriptor type = parameters.get(parameter - 1);
+        type.addLoad(bytecode, this.provideSlot(parameters, parameter - 1));
+        superParameterTypes.add(type.getName());
+      }
+    }
+    String superDescriptor = BytecodeUtility.provideSignature("void", superParameterTypes);
+    if (!superParameterTypes.isEmpty() && !this.hasSuperConstructor(ctClass, superDescriptor)) {
+      // the compiler has to find a compatible constructor
+      return false;
+    }
+    bytecode.addInvokespecial(this.provideSuperclassName(ctClass), MethodInfo.nameInit, superDescriptor);
+    // this.field = $n;
+    index = 0;
+    for (MethodFieldPair pair : this.getterMethods) {
+      TypeDescriptor type = parameters.get(index);
+      bytecode.addAload(0);
+      type.addLoad(bytecode, this.provideSlot(parameters, index++));
+      bytecode.addPutfield(ctClass, pair.getAssociatedFieldName(), type.getDescriptor());
+    }
+    bytecode.addOpcode(Opcode.RETURN);
+    this.addConstructor(ctClass, descriptor, bytecode);
+    return true;
+  }
+
+  protected boolean hasSuperConstructor(@NotNull CtClass ctClass, @NotNull String descriptor) {
+    try {
+      return ctClass.getSuperclass().getConstructor(descriptor) != null;
+    } catch (NotFoundException exception) {
+      return false;
+    }
+  }
+
   protected @NotNull String joinParameterNames(@NotNull Deque<MethodFieldPair> getterMethods) {
     StringBuilder builder = new StringBuilder();
     // process the getter methods
@@ -210,7 +276,8 @@ public void applyTo(@NotNull GeneratorStack stack) throws Exception {
                                                                 @NotNull Deque<MethodFieldPair> methodFieldPairs) {
     // check if we have a constructor and if the constructors has parameters
     if (constructor != null && !constructor.getParameters().isEmpty()) {
-      Collection<Integer> superParameters = new HashSet<>();
+      // the indexes are passed to the super constructor in the order of its parameters
+      Collection<Integer> superParameters = new ArrayList<>();
       // find all parameters we need to add and their indexes
       for (CtParameter<?> parameter : constructor.getParameters()) {
         int index = this.getIndex(methodFieldPairs, parameter.getType().getQualifiedName(), parameter.getSimpleName());
@@ -25,18 +25,19 @@
 package me.derklaro.codegen.generation;
 
 import javassist.CtClass;
-import javassist.CtMethod;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.Opcode;
 import me.derklaro.codegen.annotations.Equals;
-import me.derklaro.codegen.generator.Generator;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
-import me.derklaro.codegen.util.BytecodeUtility;
 import me.derklaro.codegen.util.MethodFieldPair;
+import me.derklaro.codegen.util.TypeDescriptor;
 import org.jetbrains.annotations.NotNull;
-import spoon.reflect.declaration.CtElement;
 
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
 
-public class EqualsGenerator implements Generator {
+public class EqualsGenerator extends AbstractBytecodeGenerator {
 
   protected static final String EQUALS_EXCLUDE_ANNOTATION = Equals.Exclude.class.getCanonicalName();
 
@@ -52,63 +53,93 @@ public EqualsGenerator(boolean callSuper, boolean preventNullabilityIssues, @Not
 
   @Override
   public void applyTo(@NotNull GeneratorStack stack) throws Exception {
-    CtMethod method = CtMethod.make(String.format(
-      "public boolean equals(Object o) { %s }",
-      this.provideEqualsMethodBody(stack.getGeneratingClass(), this.getterMethods)
-    ), stack.getGeneratingClass());
-    stack.getGeneratingClass().addMethod(method);
+    CtClass ctClass = stack.getGeneratingClass();
+    // slot 0 is this, slot 1 the other object and slot 2 the casted other object
+    Bytecode bytecode = this.newBytecode(ctClass, 3);
+    this.provideEqualsInstructions(ctClass, bytecode, this.getterMethods);
+    this.addMethod(ctClass, "equals", "(Ljava/lang/Object;)Z", bytecode, true);
   }
 
-  protected @NotNull String provideEqualsMethodBody(@NotNull CtClass ctClass, @NotNull Deque<MethodFieldPair> getterMethods) {
-    StringBuilder builder = new StringBuilder();
+  protected void provideEqualsInstructions(@NotNull CtClass ctClass, @NotNull Bytecode bytecode,
+                                           @NotNull Deque<MethodFieldPair> getterMethods) {
     // check if the class is actually the current class
-    builder.append("if ($1 == $0) return true;");
+    bytecode.addAload(1);
+    bytecode.addAload(0);
+    this.addReturnIf(bytecode, Opcode.IF_ACMPNE, true);
     // check if the other object is null
-    builder.append("if ($1 == null) return false;");
+    bytecode.addAload(1);
+    this.addReturnIf(bytecode, Opcode.IFNONNULL, false);
     // check if both classes match
-    builder.append("if ($1.getClass() != $0.getClass()) return false;");
+    bytecode.addAload(1);
+    bytecode.addInvokevirtual("java.lang.Object", "getClass", "()Ljava/lang/Class;");
+    bytecode.addAload(0);
+    bytecode.addInvokevirtual("java.lang.Object", "getClass", "()Ljava/lang/Class;");
+    this.addReturnIf(bytecode, Opcode.IF_ACMPEQ, false);
     // cast the object
-    builder.append(ctClass.getName()).append(" that = (").append(ctClass.getName()).append(") $1;");
-    // next step: return
-    builder.append("return ");
-    // we need to remember if we processed at least one field
+    bytecode.addAload(1);
+    bytecode.addCheckcast(ctClass);
+    bytecode.addAstore(2);
+    // compare all fields, jumping to the false return if one of them does not match
+    List<Integer> falseBranches = new ArrayList<>();
     boolean processedOne = false;
-    // append all fields to the method
     while (!getterMethods.isEmpty()) {
       MethodFieldPair pair = getterMethods.pop();
       // check if the method is excluded
-      if (this.isExcluded(pair.getMethod())) {
+      if (this.isExcluded(pair)) {
         continue;
       }
       // processed
       processedOne = true;
-      // format the actual equals check using Objects.equals
-      // when nullability issues should be prevented
+      this.addBoxedGetterCall(ctClass, bytecode, pair, 0);
+      this.addBoxedGetterCall(ctClass, bytecode, pair, 2);
+      // use Objects.equals when nullability issues should be prevented
       if (this.preventNullabilityIssues) {
-        builder.append(String.format("java.util.Objects.equals(this.%s(), that.%s())",
-          pair.getMethod().getSimpleName(), pair.getMethod().getSimpleName()));
+        bytecode.addInvokestatic("java.util.Objects", "equals", "(Ljava/lang/Object;Ljava/lang/Object;)Z");
       } else {
-        builder.append(String.format("this.%s().equals(that.%s())",
-          pair.getMethod().getSimpleName(), pair.getMethod().getSimpleName()));
+        bytecode.addInvokevirtual("java.lang.Object", "equals", "(Ljava/lang/Object;)Z");
       }
-      // chain the calls
-      builder.append("&&");
+      bytecode.addOpcode(Opcode.IFEQ);
+      falseBranches.add(bytecode.currentPc());
+      bytecode.addIndex(0);
     }
-    // remove the last && if needed
-    if (processedOne) {
-      if (this.callSuper) {
-        builder.append("super.equals($1)");
-      } else {
-        builder.delete(builder.length() - 2, builder.length());
-      }
+    // all fields are equal, chain the super result if needed
+    if (processedOne && this.callSuper) {
+      bytecode.addAload(0);
+      bytecode.addAload(1);
+      bytecode.addInvokespecial(this.provideSuperclassName(ctClass), "equals", "(Ljava/lang/Object;)Z");
     } else {
-      // no fields to process, always equals
-      builder.append("true");
+      bytecode.addIconst(1);
+    }
+    bytecode.addOpcode(Opcode.IRETURN);
+    // the target of all failed field checks
+    if (!falseBranches.isEmpty()) {
+      for (Integer branchIndex : falseBranches) {
+        bytecode.write16bit(branchIndex, bytecode.currentPc() - branchIndex + 1);
+      }
+      bytecode.addIconst(0);
+      bytecode.addOpcode(Opcode.IRETURN);
     }
-    return builder.append(";").toString();
   }
 
-  protected boolean isExcluded(@NotNull CtElement element) {
-    return BytecodeUtility.isAnnotationPresent(element, EQUALS_EXCLUDE_ANNOTATION);
+  protected void addReturnIf(@NotNull Bytecode bytecode, int skipOpcode, boolean result) {
+    // the branch skips the return if the condition of the opcode holds
+    bytecode.addOpcode(skipOpcode);
+    int branchIndex = bytecode.currentPc();
+    bytecode.addIndex(0);
+    bytecode.addIconst(result ? 1 : 0);
+    bytecode.addOpcode(Opcode.IRETURN);
+    bytecode.write16bit(branchIndex, bytecode.currentPc() - branchIndex + 1);
+  }
+
+  protected void addBoxedGetterCall(@NotNull CtClass ctClass, @NotNull Bytecode bytecode, @NotNull MethodFieldPair pair,
+                                    int slot) {
+    bytecode.addAload(slot);
+    bytecode.addInvokevirtual(ctClass, pair.getMethodName(), pair.getMethodDescriptor());
+    // primitive values are compared as their boxed values
+    TypeDescriptor.of(pair.getMethodReturnType()).addBoxing(bytecode);
+  }
+
+  protected boolean isExcluded(@NotNull MethodFieldPair pair) {
+    return pair.isAnnotationPresent(EQUALS_EXCLUDE_ANNOTATION);
   }
 }
@@ -28,27 +28,51 @@
 import javassist.CtMethod;
 import javassist.NotFoundException;
 import javassist.bytecode.AccessFlag;
-import me.derklaro.codegen.generator.Generator;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
 import me.derklaro.codegen.generator.result.ClassResult;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
 import me.derklaro.codegen.util.BytecodeUtility;
 import me.derklaro.codegen.util.MethodFieldPair;
+import me.derklaro.codegen.util.SourceUtility;
+import me.derklaro.codegen.util.TypeDescriptor;
 import org.jetbrains.annotations.NotNull;
+import spoon.reflect.declaration.CtType;
 
+import java.io.File;
 import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-public class FactoryMethodGenerator implements Generator {
+public class FactoryMethodGenerator extends AbstractBytecodeGenerator {
 
+  protected final String typeName;
   protected final String classLocation;
   protected final String classMethod;
   protected final boolean overrideReturn;
   protected final Deque<MethodFieldPair> pairs;
+  protected final Set<File> origins;
+  protected final Set<File> supertypeOrigins;
 
-  public FactoryMethodGenerator(String classLocation, String classMethod, boolean overrideReturn, Deque<MethodFieldPair> pairs) {
+  public FactoryMethodGenerator(CtType<?> type, String classLocation, String classMethod, boolean overrideReturn,
+                                Deque<MethodFieldPair> pairs) {
+    this.typeName = type.getQualifiedName();
     this.classLocation = classLocation;
     this.classMethod = classMethod;
     this.overrideReturn = overrideReturn;
     this.pairs = pairs;
+    this.origins = new LinkedHashSet<>();
+    this.supertypeOrigins = new LinkedHashSet<>();
+    // collect the origins of the current type and the factory class (if it is declared in the sources) now,
+    // the model is no longer available during the generation
+    this.addOrigins(type);
+    CtType<?> factoryType = type.getFactory().Type().get(classLocation);
+    if (factoryType != null) {
+      this.addOrigins(factoryType);
+    }
   }
 
   @Override
@@ -57,8 +81,8 @@ public void applyTo(@NotNull GeneratorStack stack) throws Exception {
     CtClass factoryClass = BytecodeUtility.provideCtClass(stack.getGeneratingClass().getClassPool(), this.classLocation);
     // get or create the method
     CtMethod method;
+    String desc = BytecodeUtility.provideVagueMethodSignature(this.typeName, this.pairs);
     try {
-      String desc = BytecodeUtility.provideVagueMethodSignature(stack.getType().getQualifiedName(), this.pairs);
       method = factoryClass.getMethod(this.classMethod, desc);
       // check if the existing method is static
       if ((method.getMethodInfo().getAccessFlags() & AccessFlag.STATIC) == 0) {
@@ -66,15 +90,9 @@ public void applyTo(@NotNull GeneratorStack stack) throws Exception {
           this.classMethod, desc, this.classLocation));
       }
     } catch (NotFoundException exception) {
-      method = CtMethod.make(String.format(
-        "public static %s %s(%s) { return new %s($$); }",
-        stack.getType().getQualifiedName(),
-        this.classMethod,
-        this.provideParameters(this.pairs),
-        stack.getGeneratingClass().getName()
-      ), factoryClass);
-      factoryClass.addMethod(method);
-      stack.classStack().pushLast(ClassResult.builder()
+      this.emitFactoryMethod(factoryClass, stack.getGeneratingClass().getName(), desc);
+      // the factory class might already be in the stack with the methods of other types, replace it
+      stack.classStack().replace(this.provideOrigins(stack, ClassResult.builder())
         .packageClassName(this.classLocation)
         .bytecode(factoryClass.toBytecode())
         .build());
@@ -84,24 +102,44 @@ public void applyTo(@NotNull GeneratorStack stack) throws Exception {
     if (this.overrideReturn) {
       method.insertAfter(String.format("return new %s($$);", stack.getGeneratingClass().getName()));
       // only put in the map if we actually modified the class
-      stack.classStack().replace(ClassResult.builder()
+      stack.classStack().replace(this.provideOrigins(stack, ClassResult.builder())
         .packageClassName(this.classLocation)
         .bytecode(factoryClass.toBytecode())
         .build());
     }
   }
 
-  protected @NotNull String provideParameters(@NotNull Deque<MethodFieldPair> pairs) {
-    StringBuilder builder = new StringBuilder();
-    // process the getter methods
-    for (MethodFieldPair pair : pairs) {
-      // build the parameter
-      builder
-        .append(pair.getReturnType())
-        .append(" ")
-        .append(pair.getAssociatedFieldName())
-        .append(",");
+  protected void emitFactoryMethod(@NotNull CtClass factoryClass, @NotNull String className, @NotNull String desc)
+    throws Exception {
+    List<TypeDescriptor> parameters = this.pairs.stream()
+      .map(pair -> TypeDescriptor.of(pair.getReturnType()))
+      .collect(Collectors.toList());
+    // return new Class($$); the method is static, so there is no this in slot 0
+    Bytecode bytecode = this.newBytecode(factoryClass, this.provideMaxLocals(parameters) - 1);
+    bytecode.addNew(className);
+    bytecode.addOpcode(Opcode.DUP);
+    for (int i = 0; i < parameters.size(); i++) {
+      parameters.get(i).addLoad(bytecode, this.provideSlot(parameters, i) - 1);
+    }
+    bytecode.addInvokespecial(className, MethodInfo.nameInit, BytecodeUtility.provideVagueConstructorSignature(this.pairs));
+    bytecode.addOpcode(Opcode.ARETURN);
+    this.addMethod(factoryClass, AccessFlag.PUBLIC | AccessFlag.STATIC, this.classMethod, desc, bytecode, false);
+  }
+
+  protected @NotNull ClassResult.Builder provideOrigins(@NotNull GeneratorStack stack, @NotNull ClassResult.Builder builder) {
+    // the factory class is generated from all types which requested a factory method in it
+    stack.classStack().find(this.classLocation).ifPresent(result -> builder
+      .origins(result.getOrigins())
+      .supertypeOrigins(result.getSupertypeOrigins()));
+    // add the current type and the factory class
+    return builder.origins(this.origins).supertypeOrigins(this.supertypeOrigins);
+  }
+
+  protected void addOrigins(@NotNull CtType<?> type) {
+    File sourceFile = SourceUtility.provideSourceFile(type);
+    if (sourceFile != null) {
+      this.origins.add(sourceFile);
     }
-    return builder.substring(0, builder.length() - 1);
+    this.supertypeOrigins.addAll(SourceUtility.provideSupertypeFiles(type));
   }
 }
@@ -0,0 +1,120 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.generation;
+
+import javassist.CtClass;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.Opcode;
+import me.derklaro.codegen.generator.Generator;
+import me.derklaro.codegen.stack.generators.GeneratorStack;
+import me.derklaro.codegen.util.BytecodeUtility;
+import me.derklaro.codegen.util.NonNullCheck;
+import me.derklaro.codegen.util.TypeDescriptor;
+import org.jetbrains.annotations.NotNull;
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class FieldAccessorGenerator extends AbstractBytecodeGenerator {
+
+  protected final String methodName;
+  protected final String methodDescriptor;
+  protected final String fieldName;
+  protected final boolean setter;
+  protected final Map<Integer, NonNullCheck> nonNullConfigurations;
+
+  protected final TypeDescriptor returnType;
+  protected final List<TypeDescriptor> parameters;
+
+  public FieldAccessorGenerator(@NotNull CtMethod<?> method, @NotNull String fieldName, boolean setter) {
+    this(method, fieldName, setter, Collections.emptyMap());
+  }
+
+  public FieldAccessorGenerator(@NotNull CtMethod<?> method, @NotNull String fieldName, boolean setter,
+                                @NotNull Map<Integer, NonNullCheck> nonNullConfigurations) {
+    this(method, BytecodeUtility.provideMethodSignature(method), fieldName, setter, nonNullConfigurations);
+  }
+
+  public FieldAccessorGenerator(@NotNull CtMethod<?> method, @NotNull String methodDescriptor, @NotNull String fieldName,
+                                boolean setter, @NotNull Map<Integer, NonNullCheck> nonNullConfigurations) {
+    this.methodName = method.getSimpleName();
+    this.methodDescriptor = methodDescriptor;
+    this.fieldName = fieldName;
+    this.setter = setter;
+    this.nonNullConfigurations = nonNullConfigurations;
+    // precompute the descriptors of the method
+    this.returnType = TypeDescriptor.of(method.getType().getQualifiedName());
+    this.parameters = method.getParameters().stream()
+      .map(parameter -> TypeDescriptor.of(parameter.getType().getQualifiedName()))
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public void applyTo(@NotNull GeneratorStack stack) throws Exception {
+    CtClass ctClass = stack.getGeneratingClass();
+    // the field must match the accessed type, everything else needs the conversions of the compiler
+    FieldInfo field = this.findDeclaredField(ctClass, this.fieldName);
+    TypeDescriptor accessedType = this.setter ? this.parameters.get(0) : this.returnType;
+    if (field == null || !field.getDescriptor().equals(accessedType.getDescriptor()) || (this.setter && !this.returnType.isVoid())) {
+      this.provideCompilingGenerator().applyTo(stack);
+      return;
+    }
+
+    Bytecode bytecode = this.newBytecode(ctClass, this.provideMaxLocals(this.parameters));
+    boolean branches = this.addNonNullChecks(bytecode, this.nonNullConfigurations, this.parameters);
+    if (this.setter) {
+      // this.field = $1; return;
+      bytecode.addAload(0);
+      accessedType.addLoad(bytecode, 1);
+      bytecode.addPutfield(ctClass, this.fieldName, field.getDescriptor());
+      bytecode.addOpcode(Opcode.RETURN);
+    } else {
+      // return this.field;
+      bytecode.addAload(0);
+      bytecode.addGetfield(ctClass, this.fieldName, field.getDescriptor());
+      bytecode.addOpcode(accessedType.getReturnOpcode());
+    }
+    this.addMethod(ctClass, this.methodName, this.methodDescriptor, bytecode, branches);
+  }
+
+  protected @NotNull Generator provideCompilingGenerator() {
+    // the method body is compiled from source, followed by the non-null checks
+    List<String> parameterTypes = this.parameters.stream().map(TypeDescriptor::getName).collect(Collectors.toList());
+    MethodGenerator generator = new MethodGenerator(this.returnType.getName(), this.methodName, parameterTypes, this.setter
+      ? String.format("this.%s = $1;", this.fieldName)
+      : String.format("return this.%s;", this.fieldName));
+    return this.nonNullConfigurations.isEmpty()
+      ? generator
+      : stack -> {
+        generator.applyTo(stack);
+        new MethodNonNullParameterGenerator(this.methodName, this.methodDescriptor, parameterTypes,
+          this.nonNullConfigurations).applyTo(stack);
+      };
+  }
+}
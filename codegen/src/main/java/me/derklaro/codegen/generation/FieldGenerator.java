@@ -24,7 +24,9 @@
 
 package me.derklaro.codegen.generation;
 
+import javassist.CtClass;
 import javassist.CtField;
+import javassist.Modifier;
 import me.derklaro.codegen.annotations.OptionalField;
 import me.derklaro.codegen.generator.Generator;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
@@ -57,10 +59,20 @@ public FieldGenerator(String name, String fieldType, boolean optionalField) {
 
   @Override
   public void applyTo(@NotNull GeneratorStack stack) throws Exception {
-    CtField field = CtField.make(
-      String.format("private%s %s %s;", this.optionalField ? "" : " final", this.fieldType, this.name),
-      stack.getGeneratingClass()
-    );
-    stack.getGeneratingClass().addField(field);
+    CtClass ctClass = stack.getGeneratingClass();
+    CtClass type = ctClass.getClassPool().getOrNull(this.fieldType);
+    CtField field;
+    if (type != null) {
+      // create the field directly, the type is known to the pool
+      field = new CtField(type, this.name, ctClass);
+      field.setModifiers(this.optionalField ? Modifier.PRIVATE : Modifier.PRIVATE | Modifier.FINAL);
+    } else {
+      // let the compiler resolve the type, for example using the imported packages of the pool
+      field = CtField.make(
+        String.format("private%s %s %s;", this.optionalField ? "" : " final", this.fieldType, this.name),
+        ctClass
+      );
+    }
+    ctClass.addField(field);
   }
 }
@@ -24,18 +24,18 @@
 
 package me.derklaro.codegen.generation;
 
-import javassist.CtMethod;
+import javassist.CtClass;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.Opcode;
 import me.derklaro.codegen.annotations.HashCode;
-import me.derklaro.codegen.generator.Generator;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
-import me.derklaro.codegen.util.BytecodeUtility;
 import me.derklaro.codegen.util.MethodFieldPair;
+import me.derklaro.codegen.util.TypeDescriptor;
 import org.jetbrains.annotations.NotNull;
-import spoon.reflect.declaration.CtElement;
 
 import java.util.Deque;
 
-public class HashCodeGenerator implements Generator {
+public class HashCodeGenerator extends AbstractBytecodeGenerator {
 
   protected static final String HASH_CODE_EXCLUDE_ANNOTATION = HashCode.Exclude.class.getCanonicalName();
 
@@ -49,36 +49,72 @@ public HashCodeGenerator(boolean callSuper, @NotNull Deque<MethodFieldPair> gett
 
   @Override
   public void applyTo(@NotNull GeneratorStack stack) throws Exception {
-    CtMethod method = CtMethod.make(String.format(
-      "public int hashCode() { %s }",
-      this.provideMethodBody(this.getterMethods)
-    ), stack.getGeneratingClass());
-    stack.getGeneratingClass().addMethod(method);
+    CtClass ctClass = stack.getGeneratingClass();
+    // slot 0 is this, slot 1 the result
+    Bytecode bytecode = this.newBytecode(ctClass, 2);
+    this.provideMethodInstructions(ctClass, bytecode, this.getterMethods);
+    this.addMethod(ctClass, "hashCode", "()I", bytecode, false);
   }
 
-  protected @NotNull String provideMethodBody(@NotNull Deque<MethodFieldPair> getterMethods) {
-    StringBuilder builder = new StringBuilder();
-    // we need some more things if we want to call super
-    builder.append("int result = 1;");
+  protected void provideMethodInstructions(@NotNull CtClass ctClass, @NotNull Bytecode bytecode,
+                                           @NotNull Deque<MethodFieldPair> getterMethods) {
+    // int result = 1;
+    bytecode.addIconst(1);
+    bytecode.addIstore(1);
+    // result = (result * 59) + super.hashCode();
     if (this.callSuper) {
-      builder.append("result = (result * 59) + super.hashCode();");
+      this.addResultMultiplication(bytecode);
+      bytecode.addAload(0);
+      bytecode.addInvokespecial(this.provideSuperclassName(ctClass), "hashCode", "()I");
+      this.addResultAddition(bytecode);
     }
     // remove all fields which are excluded
-    getterMethods.removeIf(pair -> this.isExcluded(pair.getMethod()));
+    getterMethods.removeIf(this::isExcluded);
     // append the hashCode of the fields which are not excluded (if there are any)
     if (!getterMethods.isEmpty()) {
-      builder.append("result = (result * 59) + java.util.Objects.hashCode(");
-      for (MethodFieldPair pair : getterMethods) {
-        builder.append("this.").append(pair.getMethod().getSimpleName()).append("(),");
+      this.addResultMultiplication(bytecode);
+      if (getterMethods.size() == 1) {
+        // result = (result * 59) + Objects.hashCode(value);
+        this.addBoxedGetterCall(ctClass, bytecode, getterMethods.getFirst());
+        bytecode.addInvokestatic("java.util.Objects", "hashCode", "(Ljava/lang/Object;)I");
+      } else {
+        // result = (result * 59) + Objects.hash(values...);
+        bytecode.addIconst(getterMethods.size());
+        bytecode.addAnewarray("java.lang.Object");
+        int index = 0;
+        for (MethodFieldPair pair : getterMethods) {
+          bytecode.addOpcode(Opcode.DUP);
+          bytecode.addIconst(index++);
+          this.addBoxedGetterCall(ctClass, bytecode, pair);
+          bytecode.addOpcode(Opcode.AASTORE);
+        }
+        bytecode.addInvokestatic("java.util.Objects", "hash", "([Ljava/lang/Object;)I");
       }
-      // remove the last comma and close the statement
-      builder.delete(builder.length() - 1, builder.length()).append(");");
+      this.addResultAddition(bytecode);
     }
     // return the result
-    return builder.append("return result;").toString();
+    bytecode.addIload(1);
+    bytecode.addOpcode(Opcode.IRETURN);
   }
 
-  protected boolean isExcluded(@NotNull CtElement element) {
-    return BytecodeUtility.isAnnotationPresent(element, HASH_CODE_EXCLUDE_ANNOTATION);
+  protected void addResultMultiplication(@NotNull Bytecode bytecode) {
+    bytecode.addIload(1);
+    bytecode.addIconst(59);
+    bytecode.addOpcode(Opcode.IMUL);
+  }
+
+  protected void addResultAddition(@NotNull Bytecode bytecode) {
+    bytecode.addOpcode(Opcode.IADD);
+    bytecode.addIstore(1);
+  }
+
+  protected void addBoxedGetterCall(@NotNull CtClass ctClass, @NotNull Bytecode bytecode, @NotNull MethodFieldPair pair) {
+    bytecode.addAload(0);
+    bytecode.addInvokevirtual(ctClass, pair.getMethodName(), pair.getMethodDescriptor());
+    TypeDescriptor.of(pair.getMethodReturnType()).addBoxing(bytecode);
+  }
+
+  protected boolean isExcluded(@NotNull MethodFieldPair pair) {
+    return pair.isAnnotationPresent(HASH_CODE_EXCLUDE_ANNOTATION);
   }
 }
@@ -29,8 +29,6 @@
 import me.derklaro.codegen.stack.generators.GeneratorStack;
 import org.jetbrains.annotations.NotNull;
 import spoon.reflect.declaration.CtMethod;
-import spoon.reflect.declaration.CtParameter;
-import spoon.reflect.reference.CtTypeReference;
 
 import java.util.ArrayDeque;
 import java.util.Arrays;
@@ -40,16 +38,17 @@
 
 public class MethodGenerator implements Generator {
 
-  private final CtMethod<?> root;
-
+  private final String returnType;
   private final String name;
   private final String methodBody;
-  private final List<CtTypeReference<?>> parameters;
+  private final List<String> parameters;
 
   public MethodGenerator(@NotNull CtMethod<?> method) {
-    this.root = method;
+    this.returnType = method.getType().getQualifiedName();
     this.name = method.getSimpleName();
-    this.parameters = method.getParameters().stream().map(CtParameter::getType).collect(Collectors.toList());
+    this.parameters = method.getParameters().stream()
+      .map(parameter -> parameter.getType().getQualifiedName())
+      .collect(Collectors.toList());
 
     Invoke invoke = method.getAnnotation(Invoke.class);
     if (invoke != null) {
@@ -60,18 +59,28 @@ public MethodGenerator(@NotNull CtMethod<?> method) {
     }
   }
 
+  public MethodGenerator(@NotNull String returnType, @NotNull String name, @NotNull List<String> parameters,
+                         @NotNull String methodBody) {
+    this.returnType = returnType;
+    this.name = name;
+    this.parameters = parameters;
+    this.methodBody = methodBody;
+  }
+
   public MethodGenerator(@NotNull CtMethod<?> method, @NotNull String methodBody) {
-    this.root = method;
+    this.returnType = method.getType().getQualifiedName();
     this.name = method.getSimpleName();
     this.methodBody = methodBody;
-    this.parameters = method.getParameters().stream().map(CtParameter::getType).collect(Collectors.toList());
+    this.parameters = method.getParameters().stream()
+      .map(parameter -> parameter.getType().getQualifiedName())
+      .collect(Collectors.toList());
   }
 
   @Override
   public void applyTo(@NotNull GeneratorStack stack) throws Exception {
     javassist.CtMethod method = javassist.CtMethod.make(String.format(
       "public %s %s(%s) { %s }",
-      this.root.getType().getQualifiedName(),
+      this.returnType,
       this.name,
       this.formatParameters(this.parameters),
       this.methodBody
@@ -79,10 +88,10 @@ public void applyTo(@NotNull GeneratorStack stack) throws Exception {
     stack.getGeneratingClass().addMethod(method);
   }
 
-  protected @NotNull String formatParameters(@NotNull List<CtTypeReference<?>> parameters) {
+  protected @NotNull String formatParameters(@NotNull List<String> parameters) {
     StringBuilder stringBuilder = new StringBuilder();
     for (int i = 0; i < parameters.size(); i++) {
-      stringBuilder.append(parameters.get(i).getQualifiedName()).append(" param").append(i).append(",");
+      stringBuilder.append(parameters.get(i)).append(" param").append(i).append(",");
     }
     return stringBuilder.length() == 0 ? "" : stringBuilder.substring(0, stringBuilder.length() - 1);
   }
@@ -25,66 +25,80 @@
 package me.derklaro.codegen.generation;
 
 import javassist.NotFoundException;
-import me.derklaro.codegen.annotations.NonNull;
-import me.derklaro.codegen.generator.Generator;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.MethodInfo;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
 import me.derklaro.codegen.util.BytecodeUtility;
+import me.derklaro.codegen.util.NonNullCheck;
+import me.derklaro.codegen.util.TypeDescriptor;
 import org.jetbrains.annotations.NotNull;
 import spoon.reflect.declaration.CtMethod;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
-public class MethodNonNullParameterGenerator implements Generator {
+public class MethodNonNullParameterGenerator extends AbstractBytecodeGenerator {
 
-  protected final CtMethod<?> method;
-  protected final Map<Integer, NonNull> configurations;
+  protected final String methodName;
+  protected final String methodDescriptor;
+  protected final List<String> parameterTypes;
+  protected final Map<Integer, NonNullCheck> configurations;
 
-  public MethodNonNullParameterGenerator(CtMethod<?> method, Map<Integer, NonNull> configurations) {
-    this.method = method;
+  public MethodNonNullParameterGenerator(CtMethod<?> method, Map<Integer, NonNullCheck> configurations) {
+    this(method, BytecodeUtility.provideMethodSignature(method), configurations);
+  }
+
+  public MethodNonNullParameterGenerator(CtMethod<?> method, String methodDescriptor, Map<Integer, NonNullCheck> configurations) {
+    this(method.getSimpleName(), methodDescriptor, method.getParameters().stream()
+      .map(parameter -> parameter.getType().getQualifiedName())
+      .collect(Collectors.toList()), configurations);
+  }
+
+  public MethodNonNullParameterGenerator(String methodName, String methodDescriptor, List<String> parameterTypes,
+                                         Map<Integer, NonNullCheck> configurations) {
+    this.methodName = methodName;
+    this.methodDescriptor = methodDescriptor;
+    this.parameterTypes = parameterTypes;
     this.configurations = configurations;
   }
 
+  public @NotNull Map<Integer, NonNullCheck> getConfigurations() {
+    return this.configurations;
+  }
+
   @Override
   public void applyTo(@NotNull GeneratorStack stack) throws Exception {
+    javassist.CtMethod method;
     try {
       // get the method from the current stack class
-      javassist.CtMethod method = stack.getGeneratingClass().getMethod(
-        this.method.getSimpleName(), BytecodeUtility.provideMethodSignature(this.method));
-      for (Map.Entry<Integer, NonNull> entry : this.configurations.entrySet()) {
-        method.insertBefore(String.format("{ %s }", this.provideMethodBody(entry.getKey(), entry.getValue())));
-      }
+      method = stack.getGeneratingClass().getMethod(this.methodName, this.methodDescriptor);
     } catch (NotFoundException exception) {
       // unknown method (should not happen so notify)
       throw new IllegalStateException("Method which has parameter annotated with @NonNull is not present "
-        + this.method.getSimpleName());
+        + this.methodName);
     }
-  }
-
-  protected @NotNull String provideMethodBody(@NotNull Integer location, @NotNull NonNull configuration) {
-    switch (configuration.handler()) {
-      case CUSTOM:
-        return this.provideCustomMethodBody(location, configuration);
-      case GUAVA_PRECONDITIONS:
-        return this.provideGuavaMethodBody(location, configuration);
-      case APACHE_VALIDATE:
-        return this.provideApacheMethodBody(location, configuration);
-      default:
-        throw new UnsupportedOperationException("Unsupported non-null handler " + configuration.handler());
+    MethodInfo methodInfo = method.getMethodInfo();
+    CodeAttribute codeAttribute = methodInfo.getCodeAttribute();
+    if (codeAttribute == null) {
+      // abstract or native method, there is no code to check the parameters in
+      return;
+    }
+    List<TypeDescriptor> parameters = this.parameterTypes.stream()
+      .map(TypeDescriptor::of)
+      .collect(Collectors.toList());
+    // emit all checks at once instead of compiling and inserting them one by one
+    Bytecode bytecode = new Bytecode(methodInfo.getConstPool(), 0, codeAttribute.getMaxLocals());
+    boolean branches = this.addNonNullChecks(bytecode, this.configurations, parameters);
+    // insert the checks before the method, branches to the start of the method skip them
+    CodeIterator iterator = codeAttribute.iterator();
+    iterator.insertEx(bytecode.get());
+    codeAttribute.computeMaxStack();
+    if (branches) {
+      javassist.CtClass ctClass = stack.getGeneratingClass();
+      methodInfo.rebuildStackMapIf6(ctClass.getClassPool(), ctClass.getClassFile2());
     }
-  }
-
-  protected @NotNull String provideCustomMethodBody(@NotNull Integer location, @NotNull NonNull configuration) {
-    return String.format("if ($%d == null) { throw new %s(java.text.MessageFormat.format(\"%s\", new String[]{ \"%s\" })); }",
-      location, configuration.exception().getCanonicalName(), configuration.message(), location);
-  }
-
-  protected @NotNull String provideGuavaMethodBody(@NotNull Integer location, @NotNull NonNull configuration) {
-    return String.format("com.google.common.base.Preconditions.checkNotNull($%d, \"%s\", new String[]{ \"%d\" });",
-      location, configuration.message(), location);
-  }
-
-  protected @NotNull String provideApacheMethodBody(@NotNull Integer location, @NotNull NonNull configuration) {
-    return String.format("org.apache.commons.lang3.Validate.notNull($%d, \"%s\", new String[]{ \"%d\" });",
-      location, configuration.message(), location);
   }
 }
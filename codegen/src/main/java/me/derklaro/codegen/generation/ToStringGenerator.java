@@ -25,23 +25,24 @@
 package me.derklaro.codegen.generation;
 
 import javassist.CtClass;
-import javassist.CtMethod;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
 import me.derklaro.codegen.annotations.ToString;
-import me.derklaro.codegen.generator.Generator;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
-import me.derklaro.codegen.util.BytecodeUtility;
 import me.derklaro.codegen.util.MethodFieldPair;
+import me.derklaro.codegen.util.TypeDescriptor;
 import org.jetbrains.annotations.NotNull;
-import spoon.reflect.declaration.CtElement;
 
 import java.util.Deque;
 
-public class ToStringGenerator implements Generator {
+public class ToStringGenerator extends AbstractBytecodeGenerator {
 
   protected static final String TO_STRING_EXCLUDE_ANNOTATION = ToString.Exclude.class.getCanonicalName();
 
-  protected static final String JAVA_STRING_BUILDER = "new java.lang.StringBuilder(\"%s{\")";
-  protected static final String TO_STRING_HELPER = "com.google.common.base.MoreObjects.toStringHelper(%s)";
+  protected static final String STRING_BUILDER = "java.lang.StringBuilder";
+  protected static final String TO_STRING_HELPER = "com.google.common.base.MoreObjects$ToStringHelper";
+  protected static final String TO_STRING_HELPER_DESCRIPTOR = "Lcom/google/common/base/MoreObjects$ToStringHelper;";
 
   protected final boolean callSuper;
   protected final boolean useToStringHelper;
@@ -55,54 +56,77 @@ public ToStringGenerator(boolean callSuper, boolean useToStringHelper, @NotNull
 
   @Override
   public void applyTo(@NotNull GeneratorStack stack) throws Exception {
-    CtMethod method = CtMethod.make(String.format(
-      "public String toString() { %s }",
-      this.provideToStringInstructions(stack.getGeneratingClass(), this.getterMethods)
-    ), stack.getGeneratingClass());
-    stack.getGeneratingClass().addMethod(method);
+    CtClass ctClass = stack.getGeneratingClass();
+    Bytecode bytecode = this.newBytecode(ctClass, 1);
+    this.provideToStringInstructions(ctClass, bytecode, this.getterMethods);
+    this.addMethod(ctClass, "toString", "()Ljava/lang/String;", bytecode, false);
   }
 
-  protected @NotNull String provideToStringInstructions(@NotNull CtClass ctClass, @NotNull Deque<MethodFieldPair> getterMethods) {
-    StringBuilder stringBuilder = new StringBuilder("return ");
+  protected void provideToStringInstructions(@NotNull CtClass ctClass, @NotNull Bytecode bytecode,
+                                             @NotNull Deque<MethodFieldPair> getterMethods) {
     // add prefix if we use java StringBuilder or guava ToStringHelper
     if (this.useToStringHelper) {
-      stringBuilder.append(String.format(TO_STRING_HELPER, "this"));
+      bytecode.addAload(0);
+      bytecode.addInvokestatic("com.google.common.base.MoreObjects", "toStringHelper",
+        "(Ljava/lang/Object;)" + TO_STRING_HELPER_DESCRIPTOR);
     } else {
-      stringBuilder.append(String.format(JAVA_STRING_BUILDER, ctClass.getSimpleName()));
+      bytecode.addNew(STRING_BUILDER);
+      bytecode.addOpcode(Opcode.DUP);
+      bytecode.addLdc(ctClass.getSimpleName() + '{');
+      bytecode.addInvokespecial(STRING_BUILDER, MethodInfo.nameInit, "(Ljava/lang/String;)V");
     }
     // append all non-excluded methods
     while (!getterMethods.isEmpty()) {
       MethodFieldPair pair = getterMethods.pop();
       // check if the method is excluded
-      if (this.isExcluded(pair.getMethod())) {
+      if (this.isExcluded(pair)) {
         continue;
       }
+      TypeDescriptor type = TypeDescriptor.of(pair.getMethodReturnType());
+      String valueDescriptor = type.provideAppendDescriptor();
       // append to the builder
       if (this.useToStringHelper) {
-        stringBuilder.append(String.format(".add(\"%s\", this.%s())",
-          pair.getAssociatedFieldName(), pair.getMethod().getSimpleName()));
+        // the helper has no overloads for strings and char arrays
+        bytecode.addLdc(pair.getAssociatedFieldName());
+        this.addGetterCall(ctClass, bytecode, pair);
+        bytecode.addInvokevirtual(TO_STRING_HELPER, "add", "(Ljava/lang/String;"
+          + (valueDescriptor.length() == 1 ? valueDescriptor : "Ljava/lang/Object;") + ')' + TO_STRING_HELPER_DESCRIPTOR);
       } else {
-        stringBuilder.append(String.format(".append(\"%s=\").append(this.%s())",
-          pair.getAssociatedFieldName(), pair.getMethod().getSimpleName()));
+        this.addAppend(bytecode, pair.getAssociatedFieldName() + '=');
+        this.addGetterCall(ctClass, bytecode, pair);
+        bytecode.addInvokevirtual(STRING_BUILDER, "append", '(' + valueDescriptor + ")Ljava/lang/StringBuilder;");
         // only append a comma if there is more than one element left
         if (getterMethods.size() > 1) {
-          stringBuilder.append(".append(\", \")");
+          this.addAppend(bytecode, ", ");
         }
       }
     }
     // close the defining brackets
     if (!this.useToStringHelper) {
-      stringBuilder.append(".append(\"}\")");
+      this.addAppend(bytecode, "}");
       // include the super.toString result if enabled
       if (this.callSuper) {
-        stringBuilder.append(".append(super.toString())");
+        bytecode.addAload(0);
+        bytecode.addInvokespecial(this.provideSuperclassName(ctClass), "toString", "()Ljava/lang/String;");
+        bytecode.addInvokevirtual(STRING_BUILDER, "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;");
       }
     }
     // call toString() for both types
-    return stringBuilder.append(".toString();").toString();
+    bytecode.addInvokevirtual(this.useToStringHelper ? TO_STRING_HELPER : STRING_BUILDER, "toString", "()Ljava/lang/String;");
+    bytecode.addOpcode(Opcode.ARETURN);
   }
 
-  protected boolean isExcluded(@NotNull CtElement element) {
-    return BytecodeUtility.isAnnotationPresent(element, TO_STRING_EXCLUDE_ANNOTATION);
+  protected void addAppend(@NotNull Bytecode bytecode, @NotNull String value) {
+    bytecode.addLdc(value);
+    bytecode.addInvokevirtual(STRING_BUILDER, "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;");
+  }
+
+  protected void addGetterCall(@NotNull CtClass ctClass, @NotNull Bytecode bytecode, @NotNull MethodFieldPair pair) {
+    bytecode.addAload(0);
+    bytecode.addInvokevirtual(ctClass, pair.getMethodName(), pair.getMethodDescriptor());
+  }
+
+  protected boolean isExcluded(@NotNull MethodFieldPair pair) {
+    return pair.isAnnotationPresent(TO_STRING_EXCLUDE_ANNOTATION);
   }
 }
@@ -0,0 +1,133 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.generator;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * The result of the analysis of a type: everything needed to generate the class of the type without the spoon
+ * model. Plans only hold plain values, the model can therefore be released once all types are analyzed.
+ */
+public class GenerationPlan {
+
+  protected final String typeName;
+  protected final @Nullable String className;
+  protected final boolean interfaceType;
+  protected final @Nullable String group;
+  protected final Set<File> origins;
+  protected final Set<File> supertypeOrigins;
+  protected final Deque<Generator> generators;
+
+  /**
+   * Creates a new generation plan.
+   *
+   * @param typeName         the qualified name of the analyzed type.
+   * @param className        the qualified name of the class to generate or {@code null} if no class should be generated.
+   * @param interfaceType    if the analyzed type is an interface.
+   * @param group            the generation group of the type or {@code null} if the type can be generated independently.
+   * @param origins          the source files of the analyzed type.
+   * @param supertypeOrigins the source files of all supertypes of the analyzed type.
+   * @param generators       the generators to apply to the class, in order.
+   */
+  public GenerationPlan(@NotNull String typeName, @Nullable String className, boolean interfaceType, @Nullable String group,
+                        @NotNull Set<File> origins, @NotNull Set<File> supertypeOrigins, @NotNull Deque<Generator> generators) {
+    this.typeName = typeName;
+    this.className = className;
+    this.interfaceType = interfaceType;
+    this.group = group;
+    this.origins = Collections.unmodifiableSet(origins);
+    this.supertypeOrigins = Collections.unmodifiableSet(supertypeOrigins);
+    this.generators = generators;
+  }
+
+  /**
+   * Get the qualified name of the analyzed type.
+   *
+   * @return the qualified name of the analyzed type.
+   */
+  public @NotNull String getTypeName() {
+    return this.typeName;
+  }
+
+  /**
+   * Get the qualified name of the class to generate.
+   *
+   * @return the qualified name of the class to generate or {@code null} if no class should be generated.
+   */
+  public @Nullable String getClassName() {
+    return this.className;
+  }
+
+  /**
+   * Get if the analyzed type is an interface.
+   *
+   * @return if the analyzed type is an interface.
+   */
+  public boolean isInterfaceType() {
+    return this.interfaceType;
+  }
+
+  /**
+   * Get the generation group of the type. All types of the same group are generated sequentially.
+   *
+   * @return the generation group of the type or {@code null} if the type can be generated independently.
+   */
+  public @Nullable String getGroup() {
+    return this.group;
+  }
+
+  /**
+   * Get the source files of the analyzed type.
+   *
+   * @return the source files of the analyzed type.
+   */
+  public @NotNull Set<File> getOrigins() {
+    return this.origins;
+  }
+
+  /**
+   * Get the source files of all supertypes of the analyzed type.
+   *
+   * @return the source files of all supertypes of the analyzed type.
+   */
+  public @NotNull Set<File> getSupertypeOrigins() {
+    return this.supertypeOrigins;
+  }
+
+  /**
+   * Get the generators to apply to the class, in order.
+   *
+   * @return the generators to apply to the class.
+   */
+  public @NotNull Deque<Generator> getGenerators() {
+    return this.generators;
+  }
+}
@@ -28,7 +28,9 @@
 import org.jetbrains.annotations.NotNull;
 
 /**
- * Represents a generator for any possible type.
+ * Represents a generator for any possible type. Generators are part of the generation plan of a type, which is
+ * created before the spoon model is released. A generator must therefore only hold plain values (such as names
+ * and descriptors) and never reference elements of the model.
  */
 @FunctionalInterface
 public interface Generator {
@@ -0,0 +1,127 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.generator.result;
+
+import me.derklaro.codegen.profiler.GenerationProfiler;
+import me.derklaro.codegen.profiler.ProfilePhase;
+import me.derklaro.codegen.util.FileUtility;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class ChannelClassResultSink implements ClassResultSink {
+
+  private final Path outputDirectory;
+  private final GenerationProfiler profiler;
+  private final Semaphore inFlightWrites;
+  private final ExecutorService executorService;
+  private final Map<Path, CompletableFuture<Void>> pendingWrites = new ConcurrentHashMap<>();
+  private final Map<Path, byte[]> latestBytecode = new ConcurrentHashMap<>();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  public ChannelClassResultSink(@NotNull Path outputDirectory, int threads, int maxInFlight, @NotNull GenerationProfiler profiler) {
+    this.outputDirectory = outputDirectory;
+    this.profiler = profiler;
+    this.inFlightWrites = new Semaphore(Math.max(1, maxInFlight));
+    this.executorService = Executors.newFixedThreadPool(Math.max(1, threads));
+  }
+
+  @Override
+  public void accept(@NotNull ClassResult result) throws IOException {
+    this.rethrowFailure();
+    // wait until a write finished if there are too many classes waiting
+    try {
+      this.inFlightWrites.acquire();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a class write");
+    }
+    Path target = this.outputDirectory.resolve(result.getOutputFile());
+    byte[] bytecode = result.getBytecode();
+    this.latestBytecode.put(target, bytecode);
+    // writes to the same file are chained to ensure that the last accepted result wins
+    this.pendingWrites.compute(target, ($, previous) -> (previous == null
+      ? CompletableFuture.runAsync(() -> this.write(target, bytecode), this.executorService)
+      : previous.thenRunAsync(() -> this.write(target, bytecode), this.executorService))
+      .whenComplete((ignored, throwable) -> {
+        this.inFlightWrites.release();
+        if (throwable != null) {
+          this.failure.compareAndSet(null, throwable);
+        }
+      }));
+  }
+
+  private void write(@NotNull Path target, byte[] bytecode) {
+    // skip the write if a newer version of the class was accepted in the meantime, it will be written next
+    if (this.latestBytecode.get(target) == bytecode) {
+      String name = this.outputDirectory.relativize(target).toString();
+      try (GenerationProfiler.Section ignored = this.profiler.start(ProfilePhase.WRITE, name)) {
+        FileUtility.writeIfChanged(target, bytecode);
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      } finally {
+        this.latestBytecode.remove(target, bytecode);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      // wait for all writes to complete
+      CompletableFuture.allOf(this.pendingWrites.values().toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException exception) {
+      this.failure.compareAndSet(null, exception);
+    } finally {
+      this.executorService.shutdown();
+    }
+    this.rethrowFailure();
+  }
+
+  private void rethrowFailure() throws IOException {
+    Throwable throwable = this.failure.get();
+    // unwrap the exception of the write
+    while ((throwable instanceof CompletionException || throwable instanceof UncheckedIOException)
+      && throwable.getCause() != null) {
+      throwable = throwable.getCause();
+    }
+    if (throwable instanceof IOException) {
+      throw (IOException) throwable;
+    } else if (throwable != null) {
+      throw new IOException("Unable to write generated class", throwable);
+    }
+  }
+}
@@ -28,8 +28,11 @@
 import javassist.CtClass;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Set;
 
 /**
  * Represents a result of a processed class mapping it's name, package and new bytecode.
@@ -88,6 +91,23 @@ public interface ClassResult {
    */
   byte[] getBytecode();
 
+  /**
+   * Get the source files of the types this class was generated from. For most classes
+   * this is the file of the one processed type, factory classes are generated from all
+   * types which requested a factory method in them.
+   *
+   * @return the source files of the types this class was generated from.
+   */
+  @NotNull Set<File> getOrigins();
+
+  /**
+   * Get the source files of all supertypes of the types this class was generated from.
+   * A change to one of these files may change the generated class as well.
+   *
+   * @return the source files of all supertypes of the types this class was generated from.
+   */
+  @NotNull Set<File> getSupertypeOrigins();
+
   /**
    * Writes the bytecode to a file specified by {@link #getOutputFile()}.
    *
@@ -140,6 +160,24 @@ interface Builder {
      */
     @NotNull Builder bytecode(byte[] bytecode);
 
+    /**
+     * Adds the source files of the types the class was generated from.
+     *
+     * @param origins the source files of the types the class was generated from.
+     * @return the same instance of the class, for chaining.
+     * @see ClassResult#getOrigins()
+     */
+    @NotNull Builder origins(@NotNull Collection<File> origins);
+
+    /**
+     * Adds the source files of the supertypes of the types the class was generated from.
+     *
+     * @param supertypeOrigins the source files of the supertypes.
+     * @return the same instance of the class, for chaining.
+     * @see ClassResult#getSupertypeOrigins()
+     */
+    @NotNull Builder supertypeOrigins(@NotNull Collection<File> supertypeOrigins);
+
     /**
      * Builds a class result from the provided arguments.
      *
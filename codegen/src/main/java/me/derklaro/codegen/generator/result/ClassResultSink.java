@@ -0,0 +1,110 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.generator.result;
+
+import me.derklaro.codegen.profiler.GenerationProfiler;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Receives the generated classes as soon as they are pushed to a class stack.
+ *
+ * @see me.derklaro.codegen.stack.classes.StreamingClassStack
+ */
+public interface ClassResultSink extends Closeable {
+  /**
+   * Creates a new sink which writes all classes into the given output directory using file channels.
+   * The writes are executed concurrently, the amount of classes which are waiting to be written is
+   * bounded to keep the memory usage of the bytecode flat. Class files which already contain the same
+   * bytecode are left untouched, all other files are replaced atomically.
+   *
+   * @param outputDirectory the directory to write the classes to.
+   * @param threads         the amount of threads to write the classes with.
+   * @param maxInFlight     the maximum amount of classes which are waiting to be written.
+   * @return the created sink.
+   */
+  static @NotNull ClassResultSink channel(@NotNull Path outputDirectory, int threads, int maxInFlight) {
+    return channel(outputDirectory, threads, maxInFlight, GenerationProfiler.noop());
+  }
+
+  /**
+   * Creates a new sink which writes all classes into the given output directory using file channels,
+   * recording each write in the given profiler.
+   *
+   * @param outputDirectory the directory to write the classes to.
+   * @param threads         the amount of threads to write the classes with.
+   * @param maxInFlight     the maximum amount of classes which are waiting to be written.
+   * @param profiler        the profiler to record the writes in.
+   * @return the created sink.
+   * @see #channel(Path, int, int)
+   */
+  static @NotNull ClassResultSink channel(@NotNull Path outputDirectory, int threads, int maxInFlight,
+                                          @NotNull GenerationProfiler profiler) {
+    return new ChannelClassResultSink(outputDirectory, threads, maxInFlight, profiler);
+  }
+
+  /**
+   * Creates a new sink which writes all classes into the given jar file. The jar file is written when the sink is
+   * closed, an existing jar file with the same content is left untouched.
+   *
+   * @param jarFile the jar file to write the classes to.
+   * @return the created sink.
+   */
+  static @NotNull ClassResultSink jar(@NotNull Path jarFile) {
+    return jar(jarFile, GenerationProfiler.noop());
+  }
+
+  /**
+   * Creates a new sink which writes all classes into the given jar file, recording the write in the given profiler.
+   *
+   * @param jarFile  the jar file to write the classes to.
+   * @param profiler the profiler to record the write in.
+   * @return the created sink.
+   * @see #jar(Path)
+   */
+  static @NotNull ClassResultSink jar(@NotNull Path jarFile, @NotNull GenerationProfiler profiler) {
+    return new JarClassResultSink(jarFile, profiler);
+  }
+
+  /**
+   * Accepts the given class result. Results of the same class may be accepted multiple times, for example
+   * when a factory class is modified by multiple types. In this case the last accepted result wins.
+   *
+   * @param result the generated class.
+   * @throws IOException if a previous write failed or the sink is unable to accept the result.
+   */
+  void accept(@NotNull ClassResult result) throws IOException;
+
+  /**
+   * Waits for all accepted classes to be written and releases the resources of the sink.
+   *
+   * @throws IOException if the write of any accepted class failed.
+   */
+  @Override
+  void close() throws IOException;
+}
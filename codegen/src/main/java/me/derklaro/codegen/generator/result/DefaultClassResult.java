@@ -24,15 +24,18 @@
 
 package me.derklaro.codegen.generator.result;
 
+import me.derklaro.codegen.util.FileUtility;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
 
 final class DefaultClassResult implements ClassResult {
 
@@ -40,11 +43,20 @@ final class DefaultClassResult implements ClassResult {
   private final String packageName;
   private final Path outputFilePath;
   private final byte[] classByteCode;
+  private final Set<File> origins;
+  private final Set<File> supertypeOrigins;
 
   public DefaultClassResult(String className, String packageName, byte[] classByteCode) {
+    this(className, packageName, classByteCode, Collections.emptySet(), Collections.emptySet());
+  }
+
+  public DefaultClassResult(String className, String packageName, byte[] classByteCode,
+                            Set<File> origins, Set<File> supertypeOrigins) {
     this.className = className;
     this.packageName = packageName;
     this.classByteCode = classByteCode;
+    this.origins = Collections.unmodifiableSet(origins);
+    this.supertypeOrigins = Collections.unmodifiableSet(supertypeOrigins);
     this.outputFilePath = Paths.get(packageName.replace('.', File.separatorChar), className + ".class");
   }
 
@@ -68,6 +80,16 @@ public byte[] getBytecode() {
     return this.classByteCode;
   }
 
+  @Override
+  public @NotNull Set<File> getOrigins() {
+    return this.origins;
+  }
+
+  @Override
+  public @NotNull Set<File> getSupertypeOrigins() {
+    return this.supertypeOrigins;
+  }
+
   @Override
   public void writeToFile() throws IOException {
     this.writeToFile(this.outputFilePath);
@@ -75,7 +97,7 @@ public void writeToFile() throws IOException {
 
   @Override
   public void writeToFile(@NotNull Path path) throws IOException {
-    Files.write(this.outputFilePath, this.classByteCode, StandardOpenOption.CREATE);
+    FileUtility.writeIfChanged(path, this.classByteCode);
   }
 
   @Override
@@ -100,6 +122,8 @@ static final class DefaultClassResultBuilder implements ClassResult.Builder {
     private String className;
     private String packageName;
     private byte[] classByteCode;
+    private final Set<File> origins = new LinkedHashSet<>();
+    private final Set<File> supertypeOrigins = new LinkedHashSet<>();
 
     @Override
     public @NotNull Builder classPackage(@NotNull String packageName) {
@@ -135,12 +159,25 @@ static final class DefaultClassResultBuilder implements ClassResult.Builder {
       return this;
     }
 
+    @Override
+    public @NotNull Builder origins(@NotNull Collection<File> origins) {
+      this.origins.addAll(origins);
+      return this;
+    }
+
+    @Override
+    public @NotNull Builder supertypeOrigins(@NotNull Collection<File> supertypeOrigins) {
+      this.supertypeOrigins.addAll(supertypeOrigins);
+      return this;
+    }
+
     @Override
     public @NotNull ClassResult build() {
       if (this.packageName == null || this.className == null || this.classByteCode == null) {
         throw new IllegalStateException("Incomplete builder");
       } else {
-        return new DefaultClassResult(this.className, this.packageName, this.classByteCode);
+        return new DefaultClassResult(this.className, this.packageName, this.classByteCode,
+          new LinkedHashSet<>(this.origins), new LinkedHashSet<>(this.supertypeOrigins));
       }
     }
   }
@@ -0,0 +1,86 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.generator.result;
+
+import me.derklaro.codegen.profiler.GenerationProfiler;
+import me.derklaro.codegen.profiler.ProfilePhase;
+import me.derklaro.codegen.util.FileUtility;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+final class JarClassResultSink implements ClassResultSink {
+
+  // the same constant timestamp as used by gradle for reproducible archives
+  private static final long ENTRY_TIME = new GregorianCalendar(1980, Calendar.FEBRUARY, 1, 0, 0, 0).getTimeInMillis();
+
+  private final Path jarFile;
+  private final GenerationProfiler profiler;
+  // sorted to write the entries in a stable order
+  private final Map<String, byte[]> entries = new TreeMap<>();
+
+  public JarClassResultSink(@NotNull Path jarFile, @NotNull GenerationProfiler profiler) {
+    this.jarFile = jarFile;
+    this.profiler = profiler;
+  }
+
+  @Override
+  public synchronized void accept(@NotNull ClassResult result) {
+    // jar entries can not be replaced, so the classes are collected until the sink is closed
+    this.entries.put(result.getOutputFile().toString().replace(File.separatorChar, '/'), result.getBytecode());
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try (GenerationProfiler.Section ignored = this.profiler.start(ProfilePhase.WRITE, this.jarFile.getFileName().toString())) {
+      this.writeJar();
+    }
+    this.entries.clear();
+  }
+
+  private void writeJar() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+      for (Map.Entry<String, byte[]> entry : this.entries.entrySet()) {
+        JarEntry jarEntry = new JarEntry(entry.getKey());
+        jarEntry.setTime(ENTRY_TIME);
+        jarOutputStream.putNextEntry(jarEntry);
+        jarOutputStream.write(entry.getValue());
+        jarOutputStream.closeEntry();
+      }
+    }
+    // the jar is written deterministically, an unchanged jar is left untouched
+    FileUtility.writeIfChanged(this.jarFile, outputStream.toByteArray());
+  }
+}
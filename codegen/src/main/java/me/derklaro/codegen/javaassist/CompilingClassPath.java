@@ -26,134 +26,204 @@
 
 import javassist.ClassPath;
 import javassist.NotFoundException;
+import me.derklaro.codegen.spoon.CompilingModelBuilder;
+import me.derklaro.codegen.util.SourceIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import spoon.Launcher;
-import spoon.SpoonAPI;
+import spoon.SpoonModelBuilder;
+import spoon.compiler.Environment;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
- * An java assist classpath which compiles the source files if needed.
+ * An java assist classpath which compiles the source files if needed. All source files
+ * are compiled at once when the first class is requested and kept in memory afterwards.
+ * If the model builder only contains some of the source files, all source files are compiled
+ * using the fallback model builder once a class of another source file is requested.
+ * Classes which were already compiled while building a model can be added directly and
+ * are never compiled again.
  */
 public class CompilingClassPath implements ClassPath {
 
-  protected final Set<File> sourceFiles;
-  protected final String[] sourceClassPath;
-  protected volatile Path temporaryClassFolder;
+  protected final SourceIndex sourceIndex;
+  protected final SpoonModelBuilder modelBuilder;
+  protected volatile Map<String, byte[]> compiledClasses;
+  protected @Nullable Supplier<SpoonModelBuilder> fallbackModelBuilder;
+  protected boolean sourcesCompiled;
 
   public CompilingClassPath(@NotNull Set<File> sourceFiles, @NotNull String[] sourceClassPath) {
-    this.sourceFiles = sourceFiles;
-    this.sourceClassPath = sourceClassPath;
+    this(SourceIndex.create(sourceFiles), createModelBuilder(sourceFiles, sourceClassPath));
+  }
+
+  /**
+   * Creates a new compiling class path which compiles the sources of the given model builder.
+   *
+   * @param sourceFiles  the source files (or directories) of the classes to compile.
+   * @param modelBuilder the model builder which has all source files and the source class path configured.
+   */
+  public CompilingClassPath(@NotNull Set<File> sourceFiles, @NotNull SpoonModelBuilder modelBuilder) {
+    this(SourceIndex.create(sourceFiles), modelBuilder);
+  }
+
+  /**
+   * Creates a new compiling class path which compiles the sources of the given model builder.
+   *
+   * @param sourceIndex  the index of the source files of the classes to compile.
+   * @param modelBuilder the model builder which has all source files and the source class path configured.
+   */
+  public CompilingClassPath(@NotNull SourceIndex sourceIndex, @NotNull SpoonModelBuilder modelBuilder) {
+    this(sourceIndex, modelBuilder, null);
+  }
+
+  /**
+   * Creates a new compiling class path which compiles the sources of the given model builder.
+   *
+   * @param sourceIndex          the index of the source files of the classes to compile.
+   * @param modelBuilder         the model builder which has the source class path and some of the source files configured,
+   *                             {@code null} if all classes are either added or compiled by the fallback model builder.
+   * @param fallbackModelBuilder the supplier of a model builder with all source files of the index, called once a class of
+   *                             a source file is requested which is not part of the model builder.
+   */
+  public CompilingClassPath(@NotNull SourceIndex sourceIndex, @Nullable SpoonModelBuilder modelBuilder,
+                            @Nullable Supplier<SpoonModelBuilder> fallbackModelBuilder) {
+    this.sourceIndex = sourceIndex;
+    this.modelBuilder = modelBuilder;
+    this.fallbackModelBuilder = fallbackModelBuilder;
+  }
+
+  protected static @NotNull SpoonModelBuilder createModelBuilder(@NotNull Set<File> sourceFiles, @NotNull String[] sourceClassPath) {
+    Launcher launcher = new Launcher();
+    for (File sourceFile : sourceFiles) {
+      launcher.addInputResource(sourceFile.getAbsolutePath());
+    }
+    // env setup
+    Environment environment = launcher.getEnvironment();
+    environment.setNoClasspath(true);
+    environment.setAutoImports(false);
+    environment.setCommentEnabled(false);
+    environment.setSourceClasspath(sourceClassPath);
+    return launcher.getModelBuilder();
   }
 
   @Override
   public InputStream openClassfile(String classname) throws NotFoundException {
     // provide or compile the class if possible
-    Path outputPath = this.provideCompiledClass(classname);
-    if (outputPath == null) {
-      return null;
-    }
-    // try to open the compiled class
-    try {
-      return Files.newInputStream(outputPath);
-    } catch (IOException exception) {
-      // unable to compile the class
-      return null;
-    }
+    byte[] bytecode = this.provideCompiledClass(classname);
+    return bytecode == null ? null : new ByteArrayInputStream(bytecode);
   }
 
   @Override
   public URL find(String classname) {
     try {
       // provide or compile the class if possible
-      Path compiledClassPath = this.provideCompiledClass(classname);
-      return compiledClassPath == null ? null : compiledClassPath.toUri().toURL();
+      byte[] bytecode = this.provideCompiledClass(classname);
+      if (bytecode == null) {
+        return null;
+      }
+      // serve the class directly from memory
+      String path = classname.replace('.', '/') + ".class";
+      return new URL(null, "codegen-compiled:/" + path, new InMemoryStreamHandler(bytecode));
     } catch (NotFoundException | MalformedURLException exception) {
       // unable to compile the class
       return null;
     }
   }
 
-  protected @Nullable Path provideCompiledClass(@NotNull String classname) throws NotFoundException {
+  protected synchronized byte @Nullable [] provideCompiledClass(@NotNull String classname) throws NotFoundException {
+    // check if the class was already compiled (this includes nested classes)
+    if (this.compiledClasses != null && this.compiledClasses.containsKey(classname)) {
+      return this.compiledClasses.get(classname);
+    }
+    // only classes from the source files can be compiled
     File file = this.associateFile(classname);
     if (file == null) {
       throw new NotFoundException("Called openClassFile for unknown class");
     }
-    // compile the class file if needed
-    Path tempOutputPath = this.getTemporaryClassFolder().toAbsolutePath();
-    Path outputPath = tempOutputPath.resolve(classname.replace('.', '/') + ".class");
-    if (Files.exists(outputPath)) {
-      // the class is already compiled
-      return outputPath;
+    // compile all source files of the model builder once
+    if (!this.sourcesCompiled && this.modelBuilder != null) {
+      this.sourcesCompiled = true;
+      this.addCompiledClasses(this.compileSources());
     }
-    // compile the class
-    SpoonAPI spoonAPI = new Launcher();
-    // set the source class path for the compiler
-    spoonAPI.getEnvironment().setSourceClasspath(this.sourceClassPath);
-    // add all input files
-    for (File sourceFile : this.sourceFiles) {
-      spoonAPI.addInputResource(sourceFile.getAbsolutePath());
+    byte[] bytecode = this.compiledClasses == null ? null : this.compiledClasses.get(classname);
+    if (bytecode == null && this.fallbackModelBuilder != null) {
+      // the class is declared in a source file which is not part of the model, compile all source files
+      Map<String, byte[]> compiledClasses = this.compileSources(this.fallbackModelBuilder.get());
+      this.fallbackModelBuilder = null;
+      this.addCompiledClasses(compiledClasses);
+      bytecode = compiledClasses.get(classname);
     }
-    // specifically add the file we want to compile
-    spoonAPI.addInputResource(file.getAbsolutePath());
-    // env setup
-    spoonAPI.getEnvironment().setNoClasspath(true);
-    spoonAPI.getEnvironment().setAutoImports(false);
-    spoonAPI.getEnvironment().setShouldCompile(true);
-    spoonAPI.getEnvironment().setCommentEnabled(true);
-    spoonAPI.getEnvironment().setSourceClasspath(this.sourceClassPath);
-    spoonAPI.getEnvironment().setBinaryOutputDirectory(tempOutputPath.toString());
-    spoonAPI.getEnvironment().setSourceOutputDirectory(tempOutputPath.toFile());
-    spoonAPI.run();
-    // compilation done
-    return outputPath;
+    return bytecode;
   }
 
-  protected @Nullable File associateFile(@NotNull String className) {
-    String pathName = className.replace('.', File.separatorChar) + ".java";
-    for (File sourceFile : this.sourceFiles) {
-      if (sourceFile.isDirectory()) {
-        File result = this.associateFileRecursive(pathName, sourceFile);
-        if (result != null) {
-          return result;
-        }
-      } else if (sourceFile.getAbsolutePath().endsWith(pathName)) {
-        return sourceFile;
-      }
+  /**
+   * Adds the given compiled classes to this class path, classes which are already known are kept.
+   *
+   * @param classes the compiled classes mapped by their binary name.
+   */
+  public synchronized void addCompiledClasses(@NotNull Map<String, byte[]> classes) {
+    if (this.compiledClasses == null) {
+      this.compiledClasses = new HashMap<>();
     }
-    return null;
+    classes.forEach(this.compiledClasses::putIfAbsent);
   }
 
-  protected @Nullable File associateFileRecursive(@NotNull String pathName, @NotNull File directory) {
-    File[] files = directory.listFiles();
-    if (files != null && files.length > 0) {
-      for (File file : files) {
-        if (file.isDirectory()) {
-          File result = this.associateFileRecursive(pathName, file);
-          if (result != null) {
-            return result;
-          }
-        } else if (file.getAbsolutePath().endsWith(pathName)) {
-          return file;
+  protected @NotNull Map<String, byte[]> compileSources() {
+    return this.compileSources(this.modelBuilder);
+  }
+
+  protected @NotNull Map<String, byte[]> compileSources(@NotNull SpoonModelBuilder modelBuilder) {
+    // a built model already generated the classes from its compilation units
+    if (modelBuilder instanceof CompilingModelBuilder) {
+      Map<String, byte[]> compiledClasses = ((CompilingModelBuilder) modelBuilder).getCompiledClasses();
+      if (compiledClasses != null) {
+        return compiledClasses;
+      }
+    }
+    Path outputDirectory = this.createTempFolder();
+    try {
+      // compile the source files, spoon (jdt) is only able to write the classes to a directory
+      modelBuilder.setBinaryOutputDirectory(outputDirectory.toFile());
+      // compile the source files directly, there is no need to print the model
+      modelBuilder.compile(SpoonModelBuilder.InputType.FILES);
+      // read all compiled classes into memory
+      Map<String, byte[]> classes = new HashMap<>();
+      try (Stream<Path> files = Files.walk(outputDirectory)) {
+        Iterator<Path> iterator = files.filter(path -> path.toString().endsWith(".class")).iterator();
+        while (iterator.hasNext()) {
+          Path classFile = iterator.next();
+          String relativePath = outputDirectory.relativize(classFile).toString();
+          String className = relativePath.substring(0, relativePath.length() - 6).replace(File.separatorChar, '.');
+          classes.put(className, Files.readAllBytes(classFile));
         }
       }
+      return classes;
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Unable to read compiled classes", exception);
+    } finally {
+      this.deleteTempFolder(outputDirectory);
     }
-    return null;
   }
 
-  public Path getTemporaryClassFolder() {
-    if (this.temporaryClassFolder == null) {
-      this.temporaryClassFolder = this.createTempFolder();
-    }
-    return this.temporaryClassFolder;
+  protected @Nullable File associateFile(@NotNull String className) {
+    return this.sourceIndex.findSourceFile(className);
   }
 
   protected @NotNull Path createTempFolder() {
@@ -163,4 +233,39 @@ public Path getTemporaryClassFolder() {
       throw new RuntimeException("Unable to create temp directory", exception);
     }
   }
+
+  protected void deleteTempFolder(@NotNull Path folder) {
+    try (Stream<Path> files = Files.walk(folder)) {
+      // delete the deepest files first
+      Iterator<Path> iterator = files.sorted(Comparator.reverseOrder()).iterator();
+      while (iterator.hasNext()) {
+        Files.deleteIfExists(iterator.next());
+      }
+    } catch (IOException exception) {
+      // the directory is located in the temp directory and will be deleted eventually
+    }
+  }
+
+  protected static final class InMemoryStreamHandler extends URLStreamHandler {
+
+    private final byte[] content;
+
+    public InMemoryStreamHandler(byte[] content) {
+      this.content = content;
+    }
+
+    @Override
+    protected URLConnection openConnection(URL url) {
+      return new URLConnection(url) {
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public InputStream getInputStream() {
+          return new ByteArrayInputStream(InMemoryStreamHandler.this.content);
+        }
+      };
+    }
+  }
 }
@@ -26,21 +26,48 @@
 
 import javassist.ClassPool;
 import javassist.CtClass;
+import me.derklaro.codegen.generator.GenerationPlan;
 import me.derklaro.codegen.generator.Generator;
 import me.derklaro.codegen.generator.result.ClassResult;
+import me.derklaro.codegen.profiler.GenerationProfiler;
+import me.derklaro.codegen.profiler.ProfilePhase;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
+import me.derklaro.codegen.util.SourceUtility;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import spoon.reflect.declaration.CtType;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+/**
+ * A type processor which plans the generation of the processed types and generates the classes of the plans in the
+ * post event. The classes are provided from the plans by {@link #provideCtClass(GenerationPlan)}, which replaces the
+ * provider taking the type as the model might already be released in the post event. Subclasses still providing the
+ * class from the type get it requested while the plan is created, in {@link #providePlan(CtType, Deque)}.
+ *
+ * <p>If the types are generated concurrently each unit of types generates its classes in its own child pool of the
+ * class pool, as class pools are not thread-safe. Lookups of existing classes are delegated to the class pool, which
+ * only loads them synchronized. Processors which should generate concurrently must therefore create their classes
+ * in the pool given to {@link #provideCtClass(GenerationPlan, ClassPool)}.
+ */
 public abstract class AbstractTypeProcessor implements TypeProcessor {
 
   protected final ClassPool classPool;
+  protected final int parallelism;
   protected final Map<CtType<?>, Deque<Generator>> pendingGenerations;
+  protected final List<GenerationPlan> generationPlans;
+  protected final Map<GenerationPlan, CtClass> plannedClasses;
 
   /**
    * Creates a new type processor instance.
@@ -48,7 +75,18 @@ public abstract class AbstractTypeProcessor implements TypeProcessor {
    * @param classPool the class pool for post generation.
    */
   protected AbstractTypeProcessor(ClassPool classPool) {
-    this(classPool, new HashMap<>());
+    this(classPool, 1);
+  }
+
+  /**
+   * Creates a new type processor instance.
+   *
+   * @param classPool   the class pool for post generation.
+   * @param parallelism the amount of types to generate concurrently, {@code 1} to generate all types sequentially.
+   */
+  protected AbstractTypeProcessor(ClassPool classPool, int parallelism) {
+    // keep the types in the order they were processed in, to generate the classes in a stable order
+    this(classPool, new LinkedHashMap<>(), parallelism);
   }
 
   /**
@@ -58,40 +96,271 @@ protected AbstractTypeProcessor(ClassPool classPool) {
    * @param pendingGenerations the initial pending generations.
    */
   public AbstractTypeProcessor(ClassPool classPool, Map<CtType<?>, Deque<Generator>> pendingGenerations) {
+    this(classPool, pendingGenerations, 1);
+  }
+
+  /**
+   * Creates a new type processor instance.
+   *
+   * @param classPool          the class pool for post generation.
+   * @param pendingGenerations the initial pending generations.
+   * @param parallelism        the amount of types to generate concurrently, {@code 1} to generate all types sequentially.
+   */
+  public AbstractTypeProcessor(ClassPool classPool, Map<CtType<?>, Deque<Generator>> pendingGenerations, int parallelism) {
     this.classPool = classPool;
     this.pendingGenerations = pendingGenerations;
+    this.generationPlans = new ArrayList<>();
+    this.plannedClasses = new ConcurrentHashMap<>();
+    this.parallelism = Math.max(1, parallelism);
   }
 
   @Override
-  public void postProcess(@NotNull GeneratorStack stack) throws Exception {
-    // check if we have generations pending
+  public void completeAnalysis() {
+    // convert the pending generations to plans which are independent of the model
     for (Map.Entry<CtType<?>, Deque<Generator>> entry : this.pendingGenerations.entrySet()) {
-      // provide the current generation information to the stack
-      stack.setCurrentType(entry.getKey());
-      // try to provide a class from the type information
-      CtClass ctClass = this.provideCtClass(entry.getKey());
-      if (ctClass != null) {
-        // provide the class to the stack
-        stack.setGeneratingClass(ctClass);
-        // post the generators to the class
-        for (Generator generator : entry.getValue()) {
-          // post the stack to the generator
+      this.generationPlans.add(this.providePlan(entry.getKey(), entry.getValue()));
+    }
+    this.pendingGenerations.clear();
+  }
+
+  @Override
+  public void postProcess(@NotNull GeneratorStack stack) throws Exception {
+    // the analysis is only completed explicitly if the model is released before the post event
+    if (!this.pendingGenerations.isEmpty()) {
+      this.completeAnalysis();
+    }
+    try {
+      this.generate(stack);
+    } finally {
+      this.generationPlans.clear();
+      this.plannedClasses.clear();
+    }
+  }
+
+  protected void generate(@NotNull GeneratorStack stack) throws Exception {
+    if (this.parallelism == 1 || this.generationPlans.size() <= 1) {
+      // no need to spin up any threads
+      this.generate(stack, this.generationPlans);
+      return;
+    }
+    // types of the same group must be generated sequentially in the same unit
+    Map<Object, List<GenerationPlan>> units = new LinkedHashMap<>();
+    for (GenerationPlan plan : this.generationPlans) {
+      String group = plan.getGroup();
+      units.computeIfAbsent(group == null ? plan : group, $ -> new ArrayList<>()).add(plan);
+    }
+    // generate each unit with a forked stack
+    ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    try {
+      List<ForkJoinTask<GeneratorStack>> tasks = new ArrayList<>(units.size());
+      for (List<GenerationPlan> unit : units.values()) {
+        tasks.add(pool.submit(() -> {
+          GeneratorStack forkedStack = stack.fork();
+          // the generated classes are only known to the pool of the unit, their results are merged below.
+          // The pool has no class path itself, all other classes are still looked up in the parent
+          ClassPool unitPool = new ClassPool(this.classPool);
+          unitPool.childFirstLookup = true;
+          this.generate(forkedStack, unit, unitPool);
+          return forkedStack;
+        }));
+      }
+      // merge the results in the order of the units to keep the output deterministic
+      for (ForkJoinTask<GeneratorStack> task : tasks) {
+        GeneratorStack forkedStack = this.joinGeneration(task);
+        for (Generator generator : forkedStack) {
           stack.pushLast(generator);
-          stack.setCurrentGenerator(generator);
-          generator.applyTo(stack);
         }
-        // push the class result to the class stack
-        stack.classStack().pushLast(ClassResult.builder(ctClass).build());
+        for (ClassResult result : forkedStack.classStack()) {
+          stack.classStack().replace(result);
+        }
       }
+    } finally {
+      pool.shutdownNow();
     }
   }
 
   /**
-   * Provides a {@link CtClass} for the given spoon input type.
+   * Applies the generators of the given plans to the given stack.
+   *
+   * @param stack the stack to generate the classes with.
+   * @param plans the plans of the types to generate.
+   * @throws Exception if any exception occurs during the generation.
+   */
+  protected void generate(@NotNull GeneratorStack stack, @NotNull Collection<GenerationPlan> plans) throws Exception {
+    this.generate(stack, plans, this.classPool);
+  }
+
+  /**
+   * Applies the generators of the given plans to the given stack, generating the classes in the given class pool.
+   *
+   * @param stack     the stack to generate the classes with.
+   * @param plans     the plans of the types to generate.
+   * @param classPool the class pool to generate the classes in.
+   * @throws Exception if any exception occurs during the generation.
+   */
+  protected void generate(@NotNull GeneratorStack stack, @NotNull Collection<GenerationPlan> plans,
+                          @NotNull ClassPool classPool) throws Exception {
+    GenerationProfiler profiler = stack.profiler();
+    for (GenerationPlan plan : plans) {
+      String typeName = plan.getTypeName();
+      try (GenerationProfiler.Section ignored = profiler.start(ProfilePhase.GENERATE, typeName)) {
+        // provide the current generation information to the stack
+        stack.setCurrentPlan(plan);
+        // try to provide a class from the plan
+        CtClass ctClass = this.provideCtClass(plan, classPool);
+        if (ctClass != null) {
+          // provide the class to the stack
+          stack.setGeneratingClass(ctClass);
+          // post the generators to the class
+          for (Generator generator : plan.getGenerators()) {
+            // post the stack to the generator
+            stack.pushLast(generator);
+            stack.setCurrentGenerator(generator);
+            try (GenerationProfiler.Section ignored1 = profiler.start(ProfilePhase.GENERATOR, generator.getClass().getName())) {
+              generator.applyTo(stack);
+            }
+          }
+          // push the class result to the class stack
+          ClassResult.Builder builder;
+          try (GenerationProfiler.Section ignored1 = profiler.start(ProfilePhase.BYTECODE, typeName)) {
+            builder = ClassResult.builder(ctClass);
+          }
+          ClassResult result = builder.origins(plan.getOrigins()).supertypeOrigins(plan.getSupertypeOrigins()).build();
+          stack.classStack().pushLast(result);
+          // the class is frozen now and no longer needed in the pool
+          ctClass.detach();
+          // notify the processor about the generated class
+          this.handleGeneratedClass(plan, result);
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates the plan of the given analyzed type, copying all information needed for the generation from the model.
+   *
+   * @param type       the analyzed type.
+   * @param generators the generators to apply to the class of the type.
+   * @return the plan of the type.
+   */
+  @SuppressWarnings("deprecation")
+  protected @NotNull GenerationPlan providePlan(@NotNull CtType<?> type, @NotNull Deque<Generator> generators) {
+    File sourceFile = SourceUtility.provideSourceFile(type);
+    GenerationPlan plan = new GenerationPlan(
+      type.getQualifiedName(),
+      this.provideClassName(type),
+      type.isInterface(),
+      this.provideGenerationGroup(type),
+      sourceFile == null ? Collections.emptySet() : Collections.singleton(sourceFile),
+      SourceUtility.provideSupertypeFiles(type),
+      generators);
+    // the type is only available now, keep the class of processors still providing it from the type
+    try {
+      CtClass ctClass = this.provideCtClass(type);
+      if (ctClass != null) {
+        this.plannedClasses.put(plan, ctClass);
+      }
+    } catch (Exception exception) {
+      throw new RuntimeException("Unable to provide the class of " + type.getQualifiedName(), exception);
+    }
+    return plan;
+  }
+
+  /**
+   * Provides the qualified name of the class to generate from the given type.
+   *
+   * @param type the type to get the class name of.
+   * @return the qualified name of the class or {@code null} if no class should be generated from the type.
+   */
+  protected @Nullable String provideClassName(@NotNull CtType<?> type) {
+    return type.getQualifiedName();
+  }
+
+  /**
+   * Provides the generation group of the given type. All types of the same group are generated sequentially,
+   * which is required when the generators of the types are modifying the same class (for example a factory).
+   *
+   * @param type the type to get the group of.
+   * @return the group of the type or {@code null} if the type can be generated independently of all other types.
+   */
+  protected @Nullable String provideGenerationGroup(@NotNull CtType<?> type) {
+    return null;
+  }
+
+  protected @NotNull GeneratorStack joinGeneration(@NotNull ForkJoinTask<GeneratorStack> task) throws Exception {
+    try {
+      return task.get();
+    } catch (ExecutionException exception) {
+      // rethrow the original exception of the generation
+      if (exception.getCause() instanceof Exception) {
+        throw (Exception) exception.getCause();
+      }
+      throw exception;
+    }
+  }
+
+  /**
+   * Adds the source files of the given type and its supertypes to the builder of a class result.
+   *
+   * @param type    the type the class was generated from.
+   * @param builder the builder of the class result.
+   * @return the same builder as given, for chaining.
+   */
+  protected @NotNull ClassResult.Builder provideOrigins(@NotNull CtType<?> type, @NotNull ClassResult.Builder builder) {
+    File sourceFile = SourceUtility.provideSourceFile(type);
+    return builder
+      .origins(sourceFile == null ? Collections.emptySet() : Collections.singleton(sourceFile))
+      .supertypeOrigins(SourceUtility.provideSupertypeFiles(type));
+  }
+
+  /**
+   * Called after a class was generated from the given plan and pushed to the class stack.
+   *
+   * @param plan   the plan the class was generated from.
+   * @param result the generated class.
+   * @throws Exception if any exception occurs during the handling.
+   */
+  protected void handleGeneratedClass(@NotNull GenerationPlan plan, @NotNull ClassResult result) throws Exception {
+  }
+
+  /**
+   * Provides a {@link CtClass} for the given generation plan. By default this is the class provided by
+   * {@link #provideCtClass(CtType)} when the plan was created.
+   *
+   * @param plan the plan to get the ct-class for.
+   * @return the ct-class or null if the handler don't need the processing.
+   * @throws Exception if any exception occurs during the class providing.
+   */
+  protected @Nullable CtClass provideCtClass(@NotNull GenerationPlan plan) throws Exception {
+    return this.plannedClasses.remove(plan);
+  }
+
+  /**
+   * Provides a {@link CtClass} for the given generation plan in the given class pool, which is either the class pool
+   * of this processor or a child pool of it when generating concurrently. By default this is the class provided by
+   * {@link #provideCtClass(GenerationPlan)}.
+   *
+   * @param plan      the plan to get the ct-class for.
+   * @param classPool the class pool to create or copy the class into.
+   * @return the ct-class or null if the handler don't need the processing.
+   * @throws Exception if any exception occurs during the class providing.
+   */
+  protected @Nullable CtClass provideCtClass(@NotNull GenerationPlan plan, @NotNull ClassPool classPool) throws Exception {
+    return this.provideCtClass(plan);
+  }
+
+  /**
+   * Provides a {@link CtClass} for the given type. Only called by the default {@link #providePlan(CtType, Deque)}
+   * while the model is still available.
    *
    * @param type the type to get the ct-class for.
    * @return the ct-class or null if the handler don't need the processing.
    * @throws Exception if any exception occurs during the class providing.
+   * @deprecated the model is released before the classes are generated, override {@link #provideCtClass(GenerationPlan)}
+   * instead.
    */
-  protected abstract @Nullable CtClass provideCtClass(@NotNull CtType<?> type) throws Exception;
+  @Deprecated
+  protected @Nullable CtClass provideCtClass(@NotNull CtType<?> type) throws Exception {
+    return null;
+  }
 }
@@ -48,6 +48,15 @@ public interface TypeProcessor {
    */
   boolean process(@NotNull CtType<?> type);
 
+  /**
+   * Called after all types of a model have been posted to all handlers, before the post event. The default compiler
+   * releases the model between this call and the post event, the handler must not keep any reference to the model
+   * afterwards. Handlers keeping the model for the post event (without overriding this method) can only be used by
+   * root processors which post process the handlers directly, which is the default of the root processors.
+   */
+  default void completeAnalysis() {
+  }
+
   /**
    * Handles the post event after all types have been posted to all handlers.
    *
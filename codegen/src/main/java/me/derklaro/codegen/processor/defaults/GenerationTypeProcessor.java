@@ -27,8 +27,11 @@
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.NotFoundException;
+import me.derklaro.codegen.cache.GenerationCache;
+import me.derklaro.codegen.cache.TypeFingerprint;
 import me.derklaro.codegen.annotations.Constructor;
 import me.derklaro.codegen.annotations.Equals;
+import me.derklaro.codegen.annotations.Factory;
 import me.derklaro.codegen.annotations.FieldName;
 import me.derklaro.codegen.annotations.Generate;
 import me.derklaro.codegen.annotations.HashCode;
@@ -37,29 +40,39 @@
 import me.derklaro.codegen.annotations.Wrap;
 import me.derklaro.codegen.generation.ConstructorGenerator;
 import me.derklaro.codegen.generation.EqualsGenerator;
+import me.derklaro.codegen.generation.FieldAccessorGenerator;
 import me.derklaro.codegen.generation.FieldGenerator;
 import me.derklaro.codegen.generation.HashCodeGenerator;
 import me.derklaro.codegen.generation.MethodGenerator;
 import me.derklaro.codegen.generation.MethodNonNullParameterGenerator;
 import me.derklaro.codegen.generation.ToStringGenerator;
+import me.derklaro.codegen.generator.GenerationPlan;
 import me.derklaro.codegen.generator.Generator;
+import me.derklaro.codegen.generator.result.ClassResult;
 import me.derklaro.codegen.processor.AbstractTypeProcessor;
+import me.derklaro.codegen.stack.generators.GeneratorStack;
 import me.derklaro.codegen.util.BytecodeUtility;
 import me.derklaro.codegen.util.MethodFieldPair;
+import me.derklaro.codegen.util.TypeHierarchyCache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import spoon.reflect.declaration.CtConstructor;
-import spoon.reflect.declaration.CtInterface;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
-import spoon.reflect.declaration.ModifierKind;
 import spoon.reflect.reference.CtTypeReference;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.io.File;
+import java.io.IOException;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.regex.Matcher;
@@ -70,6 +83,7 @@ public class GenerationTypeProcessor extends AbstractTypeProcessor {
   protected static final String INVOKE_ANNOTATION = Invoke.class.getCanonicalName();
   protected static final String GENERATE_ANNOTATION = Generate.class.getCanonicalName();
   protected static final String GENERATE_EXCLUDE_ANNOTATION = Generate.Exclude.class.getCanonicalName();
+  protected static final String FACTORY_ANNOTATION = Factory.class.getCanonicalName();
 
   protected static final Set<Pattern> METHOD_NAMING_PATTERN = new CopyOnWriteArraySet<>(Arrays.asList(
     Pattern.compile("^get([A-Z].*)"), // getter
@@ -80,14 +94,39 @@ public class GenerationTypeProcessor extends AbstractTypeProcessor {
   protected static final Pattern MUTATOR_PATTERN = Pattern.compile("^set([A-Z].*)");
 
   protected final boolean allowFluentMethods;
+  protected final int languageLevel;
+  protected final String classPathIdentity;
+  protected final Collection<File> classDirectories;
+  protected final @Nullable GenerationCache generationCache;
+  protected final Map<String, String> fingerprints;
+  protected final List<ClassResult> cachedResults;
+  protected final TypeHierarchyCache hierarchyCache;
 
   public GenerationTypeProcessor(@NotNull ClassPool classPool) {
     this(classPool, true);
   }
 
   public GenerationTypeProcessor(ClassPool classPool, boolean allowFluentMethods) {
-    super(classPool);
+    this(classPool, allowFluentMethods, null, 0, "", 1);
+  }
+
+  public GenerationTypeProcessor(ClassPool classPool, boolean allowFluentMethods, @Nullable GenerationCache generationCache,
+                                 int languageLevel, @NotNull String classPathIdentity, int parallelism) {
+    this(classPool, allowFluentMethods, generationCache, languageLevel, classPathIdentity, Collections.emptySet(), parallelism);
+  }
+
+  public GenerationTypeProcessor(ClassPool classPool, boolean allowFluentMethods, @Nullable GenerationCache generationCache,
+                                 int languageLevel, @NotNull String classPathIdentity,
+                                 @NotNull Collection<File> classDirectories, int parallelism) {
+    super(classPool, parallelism);
     this.allowFluentMethods = allowFluentMethods;
+    this.languageLevel = languageLevel;
+    this.classPathIdentity = classPathIdentity;
+    this.classDirectories = classDirectories;
+    this.generationCache = generationCache;
+    this.fingerprints = new HashMap<>();
+    this.cachedResults = new ArrayList<>();
+    this.hierarchyCache = new TypeHierarchyCache();
   }
 
   @Override
@@ -97,108 +136,101 @@ public boolean shouldProcess(@NotNull CtType<?> type) {
 
   @Override
   public boolean process(@NotNull CtType<?> type) {
+    // skip the whole analysis if the class generated from the type is cached
+    if (this.generationCache != null && this.isCacheable(type)) {
+      String fingerprint = TypeFingerprint.create(this.classDirectories, type, this.getClass().getName(), this.allowFluentMethods,
+        this.languageLevel, this.classPathIdentity);
+      ClassResult cachedResult = this.generationCache.load(fingerprint);
+      if (cachedResult != null) {
+        this.cachedResults.add(this.provideOrigins(type, ClassResult.builder())
+          .classPackage(cachedResult.getPackage())
+          .className(cachedResult.getName())
+          .bytecode(cachedResult.getBytecode())
+          .build());
+        return true;
+      }
+      // remember the fingerprint to store the generated class later
+      this.fingerprints.put(type.getQualifiedName(), fingerprint);
+    }
     // processing data holders
     Set<String> visitedFields = new HashSet<>();
-    Set<String> methodDescriptors = new HashSet<>();
     Deque<MethodFieldPair> processedGetterMethods = new ArrayDeque<>();
     // store constructors of the class supertype
     Collection<? extends CtConstructor<?>> constructors = this.getSuperClassConstructors(type);
+    // the abstract methods of shared supertypes are only collected once per compilation
+    for (TypeHierarchyCache.MethodEntry entry : this.hierarchyCache.provideAbstractMethods(type)) {
+      if (entry.isExcluded()) {
+        // ignore excluded methods
+        continue;
+      }
+      CtMethod<?> method = entry.getMethod();
+      // the descriptor is computed once per method by the cache
+      String descriptor = entry.getDescriptor();
+      // check if we need a non-null parameter processor for the method
+      @Nullable MethodNonNullParameterGenerator generator = NonNullParameterProcessor.findConfigurations(method, descriptor);
+      // get the field name for the method name
+      String fieldName = this.associateSetterToFieldName(method);
+      if (fieldName != null) {
+        // it is a setter method.
+        // push the creation request to the associated queue
+        Deque<Generator> pendingGenerations = this.pendingGenerations.computeIfAbsent(type,
+          $ -> new ArrayDeque<>());
 
-    Deque<CtType<?>> processingQueue = new ArrayDeque<>();
-    processingQueue.push(type);
-
-    while (!processingQueue.isEmpty()) {
-      CtType<?> processingType = processingQueue.pop();
-      // processing of the methods
-      for (CtMethod<?> method : processingType.getMethods()) {
-        // check if the method is excluded from generation
-        Set<ModifierKind> modifiers = method.getModifiers();
-        if (!modifiers.contains(ModifierKind.ABSTRACT)) {
-          // ignore implemented methods
-          continue;
-        }
-        if (BytecodeUtility.isAnnotationPresent(method, GENERATE_EXCLUDE_ANNOTATION)) {
-          // ignore excluded methods
-          methodDescriptors.add(BytecodeUtility.provideMethodSignature(method));
-          continue;
+        // the accessor emits the non-null checks together with the method body
+        pendingGenerations.offerLast(new FieldAccessorGenerator(method, descriptor, fieldName, true,
+          generator == null ? Collections.emptyMap() : generator.getConfigurations()));
+        // push the field after the method because the field must be there before
+        // we can generate the method. The type of the field is the type of the setter parameter
+        // as the setter might be processed before the getter of the field
+        if (visitedFields.add(fieldName)) {
+          pendingGenerations.push(new FieldGenerator(fieldName, method.getParameters().get(0).getType(), method));
         }
-        // get the method descriptor and check if we already processed the method
-        if (!methodDescriptors.add(BytecodeUtility.provideMethodSignature(method))) {
-          continue;
-        }
-        // check if we need a non-null parameter processor for the method
-        @Nullable MethodNonNullParameterGenerator generator = NonNullParameterProcessor.findConfigurations(method);
-        // get the field name for the method name
-        String fieldName = this.associateSetterToFieldName(method);
-        if (fieldName != null) {
-          // it is a setter method.
-          // push the creation request to the associated queue
-          Deque<Generator> pendingGenerations = this.pendingGenerations.computeIfAbsent(type,
-            $ -> new ArrayDeque<>());
-
-          pendingGenerations.offerLast(new MethodGenerator(method, String.format("this.%s = $1;", fieldName)));
+        continue;
+      }
+      // try to associate the field name to a getter method
+      fieldName = this.associateGetterToFieldName(method);
+      boolean invokeAnnotationPresent = BytecodeUtility.isAnnotationPresent(method, INVOKE_ANNOTATION);
+      if (fieldName != null && !invokeAnnotationPresent && !method.getType().getQualifiedName().equals("void")) {
+        // it is a getter method
+        // push the creation request to the associated queue
+        Deque<Generator> pendingGenerations = this.pendingGenerations.computeIfAbsent(type,
+          $ -> new ArrayDeque<>());
+        // check if the method call should be wrapped
+        Wrap wrap = method.getAnnotation(Wrap.class);
+        if (wrap != null && !wrap.in().isEmpty() && !wrap.returnType().isEmpty()) {
+          // wrap the method call into the provided string pattern for the creation
+          pendingGenerations.offerLast(new MethodGenerator(method, String.format("return %s;",
+            String.format(wrap.in(), fieldName))));
           // push the field after the method because the field must be there before
           // we can compile the method
           if (visitedFields.add(fieldName)) {
-            pendingGenerations.push(new FieldGenerator(fieldName, method.getType(), method));
-          }
-          // add the non-null generator if needed
-          if (generator != null) {
-            pendingGenerations.offerLast(generator);
-          }
-          continue;
-        }
-        // try to associate the field name to a getter method
-        fieldName = this.associateGetterToFieldName(method);
-        boolean invokeAnnotationPresent = BytecodeUtility.isAnnotationPresent(method, INVOKE_ANNOTATION);
-        if (fieldName != null && !invokeAnnotationPresent && !method.getType().getQualifiedName().equals("void")) {
-          // it is a getter method
-          // push the creation request to the associated queue
-          Deque<Generator> pendingGenerations = this.pendingGenerations.computeIfAbsent(type,
-            $ -> new ArrayDeque<>());
-          // check if the method call should be wrapped
-          Wrap wrap = method.getAnnotation(Wrap.class);
-          if (wrap != null && !wrap.in().isEmpty() && !wrap.returnType().isEmpty()) {
-            // wrap the method call into the provided string pattern for the creation
-            pendingGenerations.offerLast(new MethodGenerator(method, String.format("return %s;",
-              String.format(wrap.in(), fieldName))));
-            // push the field after the method because the field must be there before
-            // we can compile the method
-            if (visitedFields.add(fieldName)) {
-              pendingGenerations.push(new FieldGenerator(fieldName, wrap.returnType(), method));
-            }
-            // save the getter method for post processing
-            processedGetterMethods.push(new MethodFieldPair(method, fieldName, wrap));
-          } else {
-            // plain return call
-            pendingGenerations.offerLast(new MethodGenerator(method, String.format("return this.%s;", fieldName)));
-            // push the field after the method because the field must be there before
-            // we can compile the method
-            if (visitedFields.add(fieldName)) {
-              pendingGenerations.push(new FieldGenerator(fieldName, method.getType(), method));
-            }
-            // save the getter method for post processing
-            processedGetterMethods.push(new MethodFieldPair(method, fieldName));
+            pendingGenerations.push(new FieldGenerator(fieldName, wrap.returnType(), method));
           }
+          // save the getter method for post processing
+          processedGetterMethods.push(new MethodFieldPair(method, descriptor, fieldName, wrap));
           // add the non-null generator if needed
           if (generator != null) {
             pendingGenerations.offerLast(generator);
           }
-        } else if (invokeAnnotationPresent) {
-          // the method is generated just using @Invoke, push the creation of it
-          this.pendingGenerations.computeIfAbsent(type, $ -> new ArrayDeque<>()).push(new MethodGenerator(method));
-          // add the non-null generator if needed
-          if (generator != null) {
-            this.pendingGenerations.computeIfAbsent(type, $ -> new ArrayDeque<>()).offerLast(generator);
+        } else {
+          // plain return call
+          pendingGenerations.offerLast(new FieldAccessorGenerator(method, descriptor, fieldName, false,
+            generator == null ? Collections.emptyMap() : generator.getConfigurations()));
+          // push the field after the method because the field must be there before
+          // we can generate the method
+          if (visitedFields.add(fieldName)) {
+            pendingGenerations.push(new FieldGenerator(fieldName, method.getType(), method));
           }
+          // save the getter method for post processing
+          processedGetterMethods.push(new MethodFieldPair(method, descriptor, fieldName, null));
+        }
+      } else if (invokeAnnotationPresent) {
+        // the method is generated just using @Invoke, push the creation of it
+        this.pendingGenerations.computeIfAbsent(type, $ -> new ArrayDeque<>()).push(new MethodGenerator(method));
+        // add the non-null generator if needed
+        if (generator != null) {
+          this.pendingGenerations.computeIfAbsent(type, $ -> new ArrayDeque<>()).offerLast(generator);
         }
-      }
-      // push the superclasses and interfaces to the stack
-      if (processingType.getSuperclass() != null) {
-        processingQueue.push(processingType.getSuperclass().getDeclaration());
-      }
-      for (CtTypeReference<?> superInterface : processingType.getSuperInterfaces()) {
-        processingQueue.push(superInterface.getDeclaration());
       }
     }
     // Generate the constructor if enabled
@@ -247,7 +279,51 @@ public boolean process(@NotNull CtType<?> type) {
   }
 
   @Override
-  protected @Nullable CtClass provideCtClass(@NotNull CtType<?> type) throws Exception {
+  public void completeAnalysis() {
+    super.completeAnalysis();
+    // the cached methods are elements of the model
+    this.hierarchyCache.clear();
+  }
+
+  @Override
+  public void postProcess(@NotNull GeneratorStack stack) throws Exception {
+    super.postProcess(stack);
+    // push the classes loaded from the cache to the class stack
+    for (ClassResult cachedResult : this.cachedResults) {
+      stack.classStack().pushLast(cachedResult);
+    }
+  }
+
+  @Override
+  protected void handleGeneratedClass(@NotNull GenerationPlan plan, @NotNull ClassResult result) {
+    String fingerprint = this.fingerprints.get(plan.getTypeName());
+    if (this.generationCache != null && fingerprint != null) {
+      try {
+        this.generationCache.store(fingerprint, result);
+      } catch (IOException exception) {
+        // the cache is optional, the class will just be generated again next time
+      }
+    }
+  }
+
+  @Override
+  protected @Nullable String provideGenerationGroup(@NotNull CtType<?> type) {
+    // all types with a factory in the same class must be generated sequentially
+    Factory factory = type.getAnnotation(Factory.class);
+    return factory == null || factory.location().isEmpty() ? null : factory.location();
+  }
+
+  protected boolean isCacheable(@NotNull CtType<?> type) {
+    // factory methods are generated into a class shared with other types, the class
+    // itself must not exist in the sources as the generation would extend it
+    String className = this.provideClassName(type);
+    return className != null
+      && !BytecodeUtility.isAnnotationPresent(type, FACTORY_ANNOTATION)
+      && type.getFactory().Type().get(className) == null;
+  }
+
+  @Override
+  protected @Nullable String provideClassName(@NotNull CtType<?> type) {
     Generate settings = type.getAnnotation(Generate.class);
     if (settings == null) {
       // The type is not a generation target
@@ -261,13 +337,27 @@ public boolean process(@NotNull CtType<?> type) {
       ? "Impl"
       : settings.classSuffix();
     // the class name is provided by the package, the name of the interface and the class suffix
-    String className = packageName + '.' + type.getSimpleName() + classSuffix;
+    return packageName + '.' + type.getSimpleName() + classSuffix;
+  }
+
+  @Override
+  protected @Nullable CtClass provideCtClass(@NotNull GenerationPlan plan) throws Exception {
+    return this.provideCtClass(plan, this.classPool);
+  }
+
+  @Override
+  protected @Nullable CtClass provideCtClass(@NotNull GenerationPlan plan, @NotNull ClassPool classPool) throws Exception {
+    String className = plan.getClassName();
+    if (className == null) {
+      // The type is not a generation target
+      return null;
+    }
     // We first try to use the existing class (if loaded) and we will fall back to creating
     // one when no class is available.
-    CtClass ctClass = BytecodeUtility.provideCtClass(this.classPool, className);
+    CtClass ctClass = BytecodeUtility.provideCtClass(classPool, className);
     // add the element we are generating for as interface or super class
-    CtClass superClass = this.getCtClass(type.getQualifiedName());
-    if (type instanceof CtInterface<?>) {
+    CtClass superClass = this.getCtClass(classPool, plan.getTypeName());
+    if (plan.isInterfaceType()) {
       ctClass.addInterface(superClass);
     } else {
       ctClass.setSuperclass(superClass);
@@ -346,10 +436,14 @@ public boolean process(@NotNull CtType<?> type) {
   }
 
   protected @NotNull CtClass getCtClass(@NotNull String name) {
+    return this.getCtClass(this.classPool, name);
+  }
+
+  protected @NotNull CtClass getCtClass(@NotNull ClassPool classPool, @NotNull String name) {
     // return the ct class if loaded or throw an exception
     // if the class is not available
     try {
-      return this.classPool.get(name);
+      return classPool.get(name);
     } catch (NotFoundException exception) {
       throw new RuntimeException("Missing class " + name);
     }
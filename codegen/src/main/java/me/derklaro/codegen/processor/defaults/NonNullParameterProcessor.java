@@ -26,17 +26,17 @@
 
 import javassist.ClassPool;
 import javassist.CtClass;
-import me.derklaro.codegen.annotations.NonNull;
 import me.derklaro.codegen.generation.MethodNonNullParameterGenerator;
+import me.derklaro.codegen.generator.GenerationPlan;
 import me.derklaro.codegen.processor.AbstractTypeProcessor;
 import me.derklaro.codegen.util.BytecodeUtility;
+import me.derklaro.codegen.util.NonNullCheck;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 
 import java.util.ArrayDeque;
-import java.util.HashMap;
 import java.util.Map;
 
 public class NonNullParameterProcessor extends AbstractTypeProcessor {
@@ -45,18 +45,21 @@ public NonNullParameterProcessor(ClassPool classPool) {
     super(classPool);
   }
 
+  public NonNullParameterProcessor(ClassPool classPool, int parallelism) {
+    super(classPool, parallelism);
+  }
+
   protected static @Nullable MethodNonNullParameterGenerator findConfigurations(@NotNull CtMethod<?> method) {
-    Map<Integer, NonNull> configurations = new HashMap<>();
-    for (int i = 0; i < method.getParameters().size(); i++) {
-      NonNull nonNull = method.getParameters().get(i).getAnnotation(NonNull.class);
-      if (nonNull != null) {
-        // the parameter is the index + 1
-        configurations.put(i + 1, nonNull);
-      }
-    }
+    Map<Integer, NonNullCheck> configurations = NonNullCheck.of(method);
     return configurations.isEmpty() ? null : new MethodNonNullParameterGenerator(method, configurations);
   }
 
+  protected static @Nullable MethodNonNullParameterGenerator findConfigurations(@NotNull CtMethod<?> method,
+                                                                                @NotNull String methodDescriptor) {
+    Map<Integer, NonNullCheck> configurations = NonNullCheck.of(method);
+    return configurations.isEmpty() ? null : new MethodNonNullParameterGenerator(method, methodDescriptor, configurations);
+  }
+
   @Override
   public boolean shouldProcess(@NotNull CtType<?> type) {
     return type.getMethods().stream().anyMatch(method -> !method.isAbstract());
@@ -79,7 +82,13 @@ public boolean process(@NotNull CtType<?> type) {
   }
 
   @Override
-  protected @Nullable CtClass provideCtClass(@NotNull CtType<?> type) {
-    return BytecodeUtility.getCtClassOrNull(this.classPool, type.getQualifiedName());
+  protected @Nullable CtClass provideCtClass(@NotNull GenerationPlan plan) {
+    return this.provideCtClass(plan, this.classPool);
+  }
+
+  @Override
+  protected @Nullable CtClass provideCtClass(@NotNull GenerationPlan plan, @NotNull ClassPool classPool) {
+    String className = plan.getClassName();
+    return className == null ? null : BytecodeUtility.getCtClassOrNull(classPool, className);
   }
 }
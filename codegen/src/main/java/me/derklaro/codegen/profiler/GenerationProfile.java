@@ -0,0 +1,242 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.profiler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable snapshot of the sections recorded by a {@link GenerationProfiler}.
+ */
+public final class GenerationProfile {
+
+  private static final Comparator<Entry> SLOWEST_FIRST = Comparator.comparingLong(Entry::getWallNanos).reversed()
+    .thenComparing(entry -> entry.getPhase().ordinal())
+    .thenComparing(Entry::getName);
+
+  private final List<Entry> entries;
+
+  public GenerationProfile(@NotNull List<Entry> entries) {
+    List<Entry> sortedEntries = new ArrayList<>(entries);
+    sortedEntries.sort(SLOWEST_FIRST);
+    this.entries = Collections.unmodifiableList(sortedEntries);
+  }
+
+  private static @NotNull String escapeJson(@NotNull String input) {
+    StringBuilder builder = new StringBuilder(input.length() + 2).append('"');
+    for (char c : input.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        builder.append('\\').append(c);
+      } else if (c < 0x20) {
+        builder.append(String.format("\\u%04x", (int) c));
+      } else {
+        builder.append(c);
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+  private static @NotNull String escapeHtml(@NotNull String input) {
+    return input.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+  }
+
+  private static @NotNull String formatMillis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000D);
+  }
+
+  /**
+   * Get all recorded entries, the slowest entry first.
+   *
+   * @return all recorded entries.
+   */
+  public @NotNull @Unmodifiable List<Entry> getEntries() {
+    return this.entries;
+  }
+
+  /**
+   * Get the recorded entries of the given phase, the slowest entry first.
+   *
+   * @param phase the phase to get the entries of.
+   * @return the recorded entries of the given phase.
+   */
+  public @NotNull @Unmodifiable List<Entry> getEntries(@NotNull ProfilePhase phase) {
+    return Collections.unmodifiableList(this.entries.stream()
+      .filter(entry -> entry.getPhase() == phase)
+      .collect(Collectors.toList()));
+  }
+
+  /**
+   * Get the summed up entries of all phases, ordered by the phase.
+   *
+   * @return the summed up entries of all phases.
+   */
+  public @NotNull @Unmodifiable List<Entry> getPhaseTotals() {
+    List<Entry> totals = new ArrayList<>();
+    for (ProfilePhase phase : ProfilePhase.values()) {
+      long count = 0;
+      long wallNanos = 0;
+      long allocatedBytes = 0;
+      for (Entry entry : this.getEntries(phase)) {
+        count += entry.getCount();
+        wallNanos += entry.getWallNanos();
+        allocatedBytes += entry.getAllocatedBytes();
+      }
+      if (count > 0) {
+        totals.add(new Entry(phase, phase.getId(), count, wallNanos, allocatedBytes));
+      }
+    }
+    return Collections.unmodifiableList(totals);
+  }
+
+  /**
+   * Get the wall time of all sections of the given phase.
+   *
+   * @param phase the phase to get the wall time of.
+   * @return the wall time of all sections of the phase in nanoseconds.
+   */
+  public long getWallNanos(@NotNull ProfilePhase phase) {
+    return this.getEntries(phase).stream().mapToLong(Entry::getWallNanos).sum();
+  }
+
+  /**
+   * Writes this profile as json to the given writer.
+   *
+   * @param writer the writer to write to.
+   * @throws IOException if an i/o error occurs during the write.
+   */
+  public void writeJson(@NotNull Writer writer) throws IOException {
+    writer.write("{\n  \"phases\": [");
+    this.writeJsonEntries(writer, this.getPhaseTotals());
+    writer.write("],\n  \"entries\": [");
+    this.writeJsonEntries(writer, this.entries);
+    writer.write("]\n}\n");
+  }
+
+  private void writeJsonEntries(@NotNull Writer writer, @NotNull List<Entry> entries) throws IOException {
+    for (int i = 0; i < entries.size(); i++) {
+      Entry entry = entries.get(i);
+      writer.write(i == 0 ? "\n    {" : ",\n    {");
+      writer.write("\"phase\": " + escapeJson(entry.getPhase().getId()));
+      writer.write(", \"name\": " + escapeJson(entry.getName()));
+      writer.write(", \"count\": " + entry.getCount());
+      writer.write(", \"wallNanos\": " + entry.getWallNanos());
+      writer.write(", \"allocatedBytes\": " + entry.getAllocatedBytes());
+      writer.write('}');
+    }
+    if (!entries.isEmpty()) {
+      writer.write("\n  ");
+    }
+  }
+
+  /**
+   * Writes this profile as html report to the given writer, listing the totals of each phase as well as
+   * the slowest types and generators.
+   *
+   * @param writer the writer to write to.
+   * @param limit  the maximum amount of types and generators to list.
+   * @throws IOException if an i/o error occurs during the write.
+   */
+  public void writeHtml(@NotNull Writer writer, int limit) throws IOException {
+    writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>Code generation profile</title>\n");
+    writer.write("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}"
+      + "td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}td:nth-child(2){text-align:left}</style>\n");
+    writer.write("</head>\n<body>\n<h1>Code generation profile</h1>\n");
+    this.writeHtmlTable(writer, "Phases", this.getPhaseTotals());
+    this.writeHtmlTable(writer, "Slowest types", this.getEntries(ProfilePhase.GENERATE).stream()
+      .limit(limit)
+      .collect(Collectors.toList()));
+    this.writeHtmlTable(writer, "Slowest type processing", this.getEntries(ProfilePhase.PROCESS).stream()
+      .limit(limit)
+      .collect(Collectors.toList()));
+    this.writeHtmlTable(writer, "Slowest generators", this.getEntries(ProfilePhase.GENERATOR).stream()
+      .limit(limit)
+      .collect(Collectors.toList()));
+    writer.write("</body>\n</html>\n");
+  }
+
+  private void writeHtmlTable(@NotNull Writer writer, @NotNull String title, @NotNull List<Entry> entries)
+    throws IOException {
+    writer.write("<h2>" + escapeHtml(title) + "</h2>\n<table>\n");
+    writer.write("<tr><th>Phase</th><th>Name</th><th>Count</th><th>Wall time (ms)</th><th>Allocated (bytes)</th></tr>\n");
+    for (Entry entry : entries) {
+      writer.write("<tr><td>" + escapeHtml(entry.getPhase().getId())
+        + "</td><td>" + escapeHtml(entry.getName())
+        + "</td><td>" + entry.getCount()
+        + "</td><td>" + formatMillis(entry.getWallNanos())
+        + "</td><td>" + entry.getAllocatedBytes()
+        + "</td></tr>\n");
+    }
+    writer.write("</table>\n");
+  }
+
+  /**
+   * The summed up recordings of all sections with the same phase and name.
+   */
+  public static final class Entry {
+
+    private final ProfilePhase phase;
+    private final String name;
+    private final long count;
+    private final long wallNanos;
+    private final long allocatedBytes;
+
+    public Entry(@NotNull ProfilePhase phase, @NotNull String name, long count, long wallNanos, long allocatedBytes) {
+      this.phase = phase;
+      this.name = name;
+      this.count = count;
+      this.wallNanos = wallNanos;
+      this.allocatedBytes = allocatedBytes;
+    }
+
+    public @NotNull ProfilePhase getPhase() {
+      return this.phase;
+    }
+
+    public @NotNull String getName() {
+      return this.name;
+    }
+
+    public long getCount() {
+      return this.count;
+    }
+
+    public long getWallNanos() {
+      return this.wallNanos;
+    }
+
+    public long getAllocatedBytes() {
+      return this.allocatedBytes;
+    }
+  }
+}
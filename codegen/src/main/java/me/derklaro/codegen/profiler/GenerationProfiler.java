@@ -0,0 +1,78 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.profiler;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a profiler which records the time and memory spent in the phases of a generation.
+ */
+public interface GenerationProfiler {
+  /**
+   * Get a profiler which records nothing.
+   *
+   * @return a profiler which records nothing.
+   */
+  static @NotNull GenerationProfiler noop() {
+    return NoopGenerationProfiler.INSTANCE;
+  }
+
+  /**
+   * Creates a new profiler which records the wall time, allocated bytes and count of all sections and
+   * emits a JFR event for each section if the running jvm supports it.
+   *
+   * @return the created profiler.
+   */
+  static @NotNull GenerationProfiler recording() {
+    return new RecordingGenerationProfiler();
+  }
+
+  /**
+   * Starts a new section in the given phase. The section must be closed by the thread which started it.
+   *
+   * @param phase the phase the section belongs to.
+   * @param name  the name of the section, for example the name of the processed type.
+   * @return the started section.
+   */
+  @NotNull Section start(@NotNull ProfilePhase phase, @NotNull String name);
+
+  /**
+   * Creates a snapshot of all sections recorded by this profiler so far.
+   *
+   * @return a snapshot of all sections recorded by this profiler.
+   */
+  @NotNull GenerationProfile snapshot();
+
+  /**
+   * Represents a running section of a profiler.
+   */
+  interface Section extends AutoCloseable {
+    /**
+     * Ends the section and records it.
+     */
+    @Override
+    void close();
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.profiler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * The phases of a generation recorded by a {@link GenerationProfiler}. The sections of a phase may
+ * contain sections of other phases, for example the generation of a type contains its generators.
+ */
+public enum ProfilePhase {
+  /**
+   * The lexical scan of the sources for the files to build the spoon model from.
+   */
+  PRE_SCAN,
+  /**
+   * The build of the spoon model from the sources.
+   */
+  MODEL_BUILD,
+  /**
+   * The setup of the class pool used for the generation.
+   */
+  CLASS_POOL,
+  /**
+   * The processing of a type by the type processors.
+   */
+  PROCESS,
+  /**
+   * The whole generation of a type, including its generators and bytecode.
+   */
+  GENERATE,
+  /**
+   * The application of a generator, named by the generator class.
+   */
+  GENERATOR,
+  /**
+   * The conversion of a generated class to bytecode.
+   */
+  BYTECODE,
+  /**
+   * The write of a generated class.
+   */
+  WRITE;
+
+  /**
+   * Get the phase with the given id.
+   *
+   * @param id the id of the phase.
+   * @return the phase with the given id.
+   * @throws IllegalArgumentException if no phase with the given id exists.
+   * @see #getId()
+   */
+  public static @NotNull ProfilePhase fromId(@NotNull String id) {
+    return ProfilePhase.valueOf(id.replace('-', '_').toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Get the id of this phase as used in reports, for example {@code model-build}.
+   *
+   * @return the id of this phase.
+   */
+  public @NotNull String getId() {
+    return this.name().replace('_', '-').toLowerCase(Locale.ROOT);
+  }
+}
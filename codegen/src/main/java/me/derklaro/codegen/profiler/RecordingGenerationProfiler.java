@@ -0,0 +1,132 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.profiler;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+final class RecordingGenerationProfiler implements GenerationProfiler {
+
+  // jfr is only available on newer java 8 builds, the event class must not be loaded if it is missing
+  private static final boolean JFR_AVAILABLE = isClassPresent("jdk.jfr.Event");
+  private static final com.sun.management.ThreadMXBean THREAD_BEAN = provideThreadBean();
+
+  private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+
+  private static boolean isClassPresent(@NotNull String name) {
+    try {
+      Class.forName(name, false, RecordingGenerationProfiler.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError exception) {
+      return false;
+    }
+  }
+
+  private static @Nullable com.sun.management.ThreadMXBean provideThreadBean() {
+    try {
+      java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        if (threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled()) {
+          return threadBean;
+        }
+      }
+    } catch (LinkageError error) {
+      // the jvm does not provide the com.sun.management api
+    }
+    return null;
+  }
+
+  private static long currentAllocatedBytes() {
+    return THREAD_BEAN == null ? 0 : THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  @Override
+  public @NotNull Section start(@NotNull ProfilePhase phase, @NotNull String name) {
+    Object event = JFR_AVAILABLE ? beginEvent(phase, name) : null;
+    long startAllocatedBytes = currentAllocatedBytes();
+    long startTime = System.nanoTime();
+    return () -> {
+      long wallNanos = System.nanoTime() - startTime;
+      long allocatedBytes = currentAllocatedBytes() - startAllocatedBytes;
+      this.recordings.computeIfAbsent(phase.name() + ':' + name, $ -> new Recording(phase, name))
+        .record(wallNanos, allocatedBytes);
+      if (event != null) {
+        commitEvent(event, allocatedBytes);
+      }
+    };
+  }
+
+  @Override
+  public @NotNull GenerationProfile snapshot() {
+    List<GenerationProfile.Entry> entries = new ArrayList<>(this.recordings.size());
+    for (Recording recording : this.recordings.values()) {
+      entries.add(new GenerationProfile.Entry(recording.phase, recording.name,
+        recording.count.sum(), recording.wallNanos.sum(), recording.allocatedBytes.sum()));
+    }
+    return new GenerationProfile(entries);
+  }
+
+  private static @NotNull Object beginEvent(@NotNull ProfilePhase phase, @NotNull String name) {
+    GenerationEvent event = new GenerationEvent();
+    event.phase = phase.getId();
+    event.name = name;
+    event.begin();
+    return event;
+  }
+
+  private static void commitEvent(@NotNull Object event, long allocatedBytes) {
+    GenerationEvent generationEvent = (GenerationEvent) event;
+    generationEvent.allocatedBytes = allocatedBytes;
+    generationEvent.commit();
+  }
+
+  private static final class Recording {
+
+    private final ProfilePhase phase;
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private Recording(@NotNull ProfilePhase phase, @NotNull String name) {
+      this.phase = phase;
+      this.name = name;
+    }
+
+    private void record(long wallNanos, long allocatedBytes) {
+      this.count.increment();
+      this.wallNanos.add(wallNanos);
+      this.allocatedBytes.add(allocatedBytes);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.spoon;
+
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.ClassFile;
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import spoon.compiler.SpoonFolder;
+import spoon.compiler.builder.JDTBuilder;
+import spoon.reflect.factory.Factory;
+import spoon.support.compiler.jdt.JDTBasedSpoonCompiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A model builder which generates the class files of the sources from the compilation units the model
+ * was built from. The units are already resolved and analysed by jdt, the class files are the same a
+ * compilation of the source files would produce without parsing the sources a second time.
+ */
+public class CompilingModelBuilder extends JDTBasedSpoonCompiler {
+
+  protected List<CompilationUnitDeclaration> compilationUnits = new ArrayList<>();
+  protected volatile Map<String, byte[]> compiledClasses;
+
+  /**
+   * Creates a new compiling model builder.
+   *
+   * @param factory the factory of the model to build.
+   */
+  public CompilingModelBuilder(@NotNull Factory factory) {
+    super(factory);
+  }
+
+  @Override
+  public boolean build(JDTBuilder builder) {
+    boolean result = super.build(builder);
+    // generate the class files once the model is built, the units are not needed afterwards
+    this.generateClasses();
+    return result;
+  }
+
+  protected void generateClasses() {
+    Map<String, byte[]> classes = new HashMap<>();
+    for (CompilationUnitDeclaration unit : this.compilationUnits) {
+      unit.generateCode();
+      for (ClassFile classFile : unit.compilationResult.getClassFiles()) {
+        classes.put(new String(CharOperation.concatWith(classFile.getCompoundName(), '.')), classFile.getBytes());
+      }
+    }
+    this.compilationUnits = new ArrayList<>();
+    this.compiledClasses = Collections.unmodifiableMap(classes);
+  }
+
+  @Override
+  protected CompilationUnitDeclaration[] buildUnits(JDTBuilder jdtBuilder, SpoonFolder sourcesFolder,
+                                                    String[] classpath, String debugMessagePrefix) {
+    CompilationUnitDeclaration[] units = super.buildUnits(jdtBuilder, sourcesFolder, classpath, debugMessagePrefix);
+    this.compilationUnits.addAll(Arrays.asList(units));
+    return units;
+  }
+
+  /**
+   * Get the class files of the sources of the model, mapped by their binary name.
+   *
+   * @return the compiled classes or {@code null} if the model was not built yet.
+   */
+  public @Nullable Map<String, byte[]> getCompiledClasses() {
+    return this.compiledClasses;
+  }
+}
@@ -25,8 +25,12 @@
 package me.derklaro.codegen.spoon;
 
 import me.derklaro.codegen.processor.TypeProcessor;
+import me.derklaro.codegen.profiler.GenerationProfiler;
+import me.derklaro.codegen.profiler.ProfilePhase;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
+import me.derklaro.codegen.util.SourceIndex;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import spoon.reflect.declaration.CtType;
 
 import java.io.File;
@@ -38,11 +42,28 @@ public GlobalProcessor(@NotNull Set<File> sources, @NotNull GeneratorStack stack
     super(sources, stack, typeProcessors);
   }
 
+  public GlobalProcessor(@NotNull Set<File> sources, @Nullable Set<File> changedFiles,
+                         @NotNull GeneratorStack stack, @NotNull Set<TypeProcessor> typeProcessors) {
+    super(sources, changedFiles, stack, typeProcessors);
+  }
+
+  public GlobalProcessor(@NotNull SourceIndex sourceIndex, @Nullable Set<File> changedFiles,
+                         @NotNull GeneratorStack stack, @NotNull Set<TypeProcessor> typeProcessors) {
+    super(sourceIndex, changedFiles, stack, typeProcessors);
+  }
+
+  public GlobalProcessor(@NotNull SourceIndex sourceIndex, @Nullable Set<File> changedFiles,
+                         @NotNull GeneratorStack stack, @NotNull Set<TypeProcessor> typeProcessors, boolean postProcess) {
+    super(sourceIndex, changedFiles, stack, typeProcessors, postProcess);
+  }
+
   @Override
   public void process(CtType<?> element) {
-    for (TypeProcessor handler : this.typeProcessors) {
-      if (handler.shouldProcess(element) && !handler.process(element)) {
-        throw new RuntimeException("Handler " + handler + " was unable to process " + element);
+    try (GenerationProfiler.Section ignored = this.generatorStack.profiler().start(ProfilePhase.PROCESS, element.getQualifiedName())) {
+      for (TypeProcessor handler : this.typeProcessors) {
+        if (handler.shouldProcess(element) && !handler.process(element)) {
+          throw new RuntimeException("Handler " + handler + " was unable to process " + element);
+        }
       }
     }
   }
@@ -26,12 +26,16 @@
 
 import me.derklaro.codegen.processor.TypeProcessor;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
+import me.derklaro.codegen.util.SourceIndex;
+import me.derklaro.codegen.util.SourceUtility;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import spoon.processing.AbstractProcessor;
 import spoon.reflect.declaration.CtType;
 
 import java.io.File;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * The parent processor for the generator.
@@ -41,8 +45,11 @@
 public abstract class RootProcessor<E extends CtType<?>> extends AbstractProcessor<E> {
 
   protected final Set<File> sources;
+  protected final SourceIndex sourceIndex;
+  protected final Set<File> changedFiles;
   protected final GeneratorStack generatorStack;
   protected final Set<TypeProcessor> typeProcessors;
+  protected final boolean postProcess;
 
   /**
    * Constructs a root processor object.
@@ -52,9 +59,55 @@
    * @param typeProcessors The handlers for all processing targets of this processor.
    */
   protected RootProcessor(@NotNull Set<File> sources, @NotNull GeneratorStack stack, @NotNull Set<TypeProcessor> typeProcessors) {
-    this.sources = sources;
+    this(sources, null, stack, typeProcessors);
+  }
+
+  /**
+   * Constructs a root processor object which only processes the types of the changed files.
+   *
+   * @param sources        the source files used for generation.
+   * @param changedFiles   the files of the types to process or {@code null} to process all types in the sources.
+   * @param stack          the generator stack this processor should use to call the registered processors.
+   * @param typeProcessors The handlers for all processing targets of this processor.
+   */
+  protected RootProcessor(@NotNull Set<File> sources, @Nullable Set<File> changedFiles,
+                          @NotNull GeneratorStack stack, @NotNull Set<TypeProcessor> typeProcessors) {
+    this(SourceIndex.create(sources), changedFiles, stack, typeProcessors);
+  }
+
+  /**
+   * Constructs a root processor object which only processes the types of the changed files.
+   *
+   * @param sourceIndex    the index of the source files used for generation.
+   * @param changedFiles   the files of the types to process or {@code null} to process all types in the sources.
+   * @param stack          the generator stack this processor should use to call the registered processors.
+   * @param typeProcessors The handlers for all processing targets of this processor.
+   */
+  protected RootProcessor(@NotNull SourceIndex sourceIndex, @Nullable Set<File> changedFiles,
+                          @NotNull GeneratorStack stack, @NotNull Set<TypeProcessor> typeProcessors) {
+    this(sourceIndex, changedFiles, stack, typeProcessors, true);
+  }
+
+  /**
+   * Constructs a root processor object which only processes the types of the changed files.
+   *
+   * @param sourceIndex    the index of the source files used for generation.
+   * @param changedFiles   the files of the types to process or {@code null} to process all types in the sources.
+   * @param stack          the generator stack this processor should use to call the registered processors.
+   * @param typeProcessors The handlers for all processing targets of this processor.
+   * @param postProcess    if the handlers should be post processed once all types are processed, if {@code false}
+   *                       the caller must post process the handlers once the model is released.
+   */
+  protected RootProcessor(@NotNull SourceIndex sourceIndex, @Nullable Set<File> changedFiles,
+                          @NotNull GeneratorStack stack, @NotNull Set<TypeProcessor> typeProcessors, boolean postProcess) {
+    this.sources = sourceIndex.getSources();
+    this.sourceIndex = sourceIndex;
+    this.changedFiles = changedFiles == null
+      ? null
+      : changedFiles.stream().map(SourceUtility::canonicalFile).collect(Collectors.toSet());
     this.generatorStack = stack;
     this.typeProcessors = typeProcessors;
+    this.postProcess = postProcess;
   }
 
   /**
@@ -69,24 +122,36 @@ protected RootProcessor(@NotNull Set<File> sources, @NotNull GeneratorStack stac
   @Override
   public boolean isToBeProcessed(E candidate) {
     File candidateLocation = candidate.getPosition().getCompilationUnit().getFile();
-    for (File source : this.sources) {
-      if (candidateLocation.equals(source)) {
-        // check if the candidate is the specific file
-        return true;
-      } else if (source.isDirectory() && candidateLocation.toString().startsWith(source.toString())) {
-        // check if the source is a directory and if the candidate is in the directory
-        return true;
-      }
+    // skip all candidates which did not change since the last generation
+    if (this.changedFiles != null && !this.changedFiles.contains(SourceUtility.canonicalFile(candidateLocation))) {
+      return false;
     }
-    // neither a specific source nor a directory source for the candidate
-    return false;
+    // check if the candidate is a specific source or located in a source directory
+    return this.sourceIndex.isOwned(candidateLocation);
   }
 
   @Override
   public void processingDone() {
     for (TypeProcessor handler : this.typeProcessors) {
+      // all types of the model are processed, the handlers must no longer depend on the model
+      handler.completeAnalysis();
+    }
+    if (this.postProcess) {
+      postProcess(this.generatorStack, this.typeProcessors);
+    }
+  }
+
+  /**
+   * Post processes the given handlers, generating the classes planned by them.
+   *
+   * @param stack          the generator stack to post to the handlers.
+   * @param typeProcessors the handlers to post process.
+   * @throws RuntimeException if any handler is unable to finish the generation.
+   */
+  public static void postProcess(@NotNull GeneratorStack stack, @NotNull Set<TypeProcessor> typeProcessors) {
+    for (TypeProcessor handler : typeProcessors) {
       try {
-        handler.postProcess(this.generatorStack);
+        handler.postProcess(stack);
       } catch (Exception exception) {
         throw new RuntimeException("Unable to finish generation in handler " + handler, exception);
       }
@@ -27,6 +27,9 @@
 import me.derklaro.codegen.generator.result.ClassResult;
 import me.derklaro.codegen.stack.MutableStack;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Optional;
 
 /**
  * Represents a stack of generated classes.
@@ -34,4 +37,11 @@
  * @see GeneratorStack#classStack()
  */
 public interface ClassStack extends MutableStack<ClassResult> {
+  /**
+   * Get the first class in this stack with the given fully qualified name.
+   *
+   * @param qualifiedName the fully qualified name of the class, without a leading dot for classes in the default package.
+   * @return the first class with the given name or an empty optional if the stack contains no such class.
+   */
+  @NotNull Optional<ClassResult> find(@NotNull String qualifiedName);
 }
@@ -26,10 +26,61 @@
 
 import me.derklaro.codegen.generator.result.ClassResult;
 import me.derklaro.codegen.stack.defaults.AbstractMutableStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 public class DefaultClassStack extends AbstractMutableStack<ClassResult> implements ClassStack {
 
-  public DefaultClassStack() {
-    super(() -> new ClassResult[0]);
+  // the index of the first result of each class, results are equal if their names are equal
+  protected final Map<String, Integer> nameIndex = new HashMap<>();
+
+  private static @NotNull String provideName(@NotNull ClassResult result) {
+    return result.getPackage().isEmpty() ? result.getName() : result.getPackage() + '.' + result.getName();
+  }
+
+  @Override
+  public @NotNull Optional<ClassResult> find(@NotNull String qualifiedName) {
+    this.lock.readLock().lock();
+    try {
+      Integer index = this.nameIndex.get(qualifiedName);
+      return index == null ? Optional.empty() : Optional.of(this.elements.get(index));
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  protected int indexOf(@NotNull ClassResult result) {
+    return this.nameIndex.getOrDefault(provideName(result), -1);
+  }
+
+  @Override
+  protected void handleInsert(int index, @NotNull ClassResult result) {
+    if (index == this.elements.size() - 1) {
+      // appended, no other index changed
+      this.nameIndex.putIfAbsent(provideName(result), index);
+    } else {
+      this.rebuildIndex();
+    }
+  }
+
+  @Override
+  protected void handleRemove(int index, @NotNull ClassResult result) {
+    this.rebuildIndex();
+  }
+
+  @Override
+  protected void handleReset() {
+    this.nameIndex.clear();
+  }
+
+  protected void rebuildIndex() {
+    this.nameIndex.clear();
+    for (int i = 0; i < this.elements.size(); i++) {
+      this.nameIndex.putIfAbsent(provideName(this.elements.get(i)), i);
+    }
   }
 }
@@ -0,0 +1,94 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.stack.classes;
+
+import me.derklaro.codegen.generator.result.ClassResult;
+import me.derklaro.codegen.generator.result.ClassResultSink;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+/**
+ * A class stack which passes every pushed class to a sink directly. The stack itself only keeps
+ * the name, package and origins of the classes, the bytecode of the retained results is empty.
+ */
+public class StreamingClassStack extends DefaultClassStack {
+
+  private static final byte[] EMPTY_BYTECODE = new byte[0];
+
+  protected final ClassResultSink sink;
+
+  public StreamingClassStack(@NotNull ClassResultSink sink) {
+    this.sink = sink;
+  }
+
+  @Override
+  public int pushFirst(@NotNull ClassResult result) {
+    return super.pushFirst(this.stream(result));
+  }
+
+  @Override
+  public int pushAt(int index, @NotNull ClassResult result) {
+    return super.pushAt(index, this.stream(result));
+  }
+
+  @Override
+  public int pushBefore(int index, @NotNull ClassResult result) {
+    return super.pushBefore(index, this.stream(result));
+  }
+
+  @Override
+  public int pushAfter(int index, @NotNull ClassResult result) {
+    return super.pushAfter(index, this.stream(result));
+  }
+
+  @Override
+  public int pushLast(@NotNull ClassResult result) {
+    return super.pushLast(this.stream(result));
+  }
+
+  @Override
+  public @NotNull Optional<ClassResult> replace(@NotNull ClassResult newValue) {
+    return super.replace(this.stream(newValue));
+  }
+
+  protected @NotNull ClassResult stream(@NotNull ClassResult result) {
+    try {
+      this.sink.accept(result);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    // release the bytecode, it is now owned by the sink
+    return ClassResult.builder()
+      .classPackage(result.getPackage())
+      .className(result.getName())
+      .bytecode(EMPTY_BYTECODE)
+      .origins(result.getOrigins())
+      .supertypeOrigins(result.getSupertypeOrigins())
+      .build();
+  }
+}
@@ -25,7 +25,6 @@
 package me.derklaro.codegen.stack.defaults;
 
 import me.derklaro.codegen.stack.MutableStack;
-import org.apache.commons.lang3.ArrayUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Optional;
@@ -33,54 +32,101 @@
 
 public abstract class AbstractMutableStack<T> extends AbstractStack<T> implements MutableStack<T> {
 
-  protected final Supplier<T[]> arrayCreator;
+  public AbstractMutableStack() {
+  }
 
+  /**
+   * Creates a new stack initially containing the elements of the supplied array.
+   *
+   * @param arrayCreator the supplier of the initial elements of the stack.
+   * @deprecated the stack is backed by a list, use {@link #AbstractMutableStack()} instead.
+   */
+  @Deprecated
   public AbstractMutableStack(@NotNull Supplier<T[]> arrayCreator) {
     super(arrayCreator.get());
-    this.arrayCreator = arrayCreator;
   }
 
   @Override
   public int remove(@NotNull T t) {
-    int index = ArrayUtils.indexOf(this.reference.get(), t);
-    if (index == -1) {
-      return -1;
-    } else {
-      this.reference.set(ArrayUtils.remove(this.reference.get(), index));
+    this.lock.writeLock().lock();
+    try {
+      int index = this.indexOf(t);
+      if (index != -1) {
+        this.elements.remove(index);
+        this.handleRemove(index, t);
+      }
       return index;
+    } finally {
+      this.lock.writeLock().unlock();
     }
   }
 
   @Override
   public @NotNull Optional<T> remove(int index) {
-    T[] array = this.reference.get();
-    if (array.length > index) {
-      T element = array[index];
-      this.reference.set(ArrayUtils.remove(this.reference.get(), index));
-      return Optional.of(element);
-    } else {
-      return Optional.empty();
+    this.lock.writeLock().lock();
+    try {
+      if (index >= 0 && this.elements.size() > index) {
+        T element = this.elements.remove(index);
+        this.handleRemove(index, element);
+        return Optional.of(element);
+      } else {
+        return Optional.empty();
+      }
+    } finally {
+      this.lock.writeLock().unlock();
     }
   }
 
   @Override
   public @NotNull Optional<T> replace(@NotNull T newValue) {
-    int index = ArrayUtils.indexOf(this.reference.get(), newValue);
-    if (index != -1) {
-      T[] array = this.reference.get();
-      T oldValue = array[index];
-      array[index] = newValue;
-
-      return Optional.of(oldValue);
-    } else {
-      this.pushLast(newValue);
-      return Optional.empty();
+    this.lock.writeLock().lock();
+    try {
+      int index = this.indexOf(newValue);
+      if (index != -1) {
+        return Optional.of(this.elements.set(index, newValue));
+      } else {
+        this.insert(this.elements.size(), newValue);
+        return Optional.empty();
+      }
+    } finally {
+      this.lock.writeLock().unlock();
     }
   }
 
   @Override
   public @NotNull MutableStack<T> reset() {
-    this.reference.set(this.arrayCreator.get());
-    return this;
+    this.lock.writeLock().lock();
+    try {
+      this.elements.clear();
+      this.handleReset();
+      return this;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Get the index of the first element which is equal to the given element. Called while holding the write lock.
+   *
+   * @param t the element to get the index of.
+   * @return the index of the element or {@code -1} if the stack does not contain the element.
+   */
+  protected int indexOf(@NotNull T t) {
+    return this.elements.indexOf(t);
+  }
+
+  /**
+   * Called while holding the write lock after the given element was removed from the given index.
+   *
+   * @param index the index the element was removed from.
+   * @param t     the removed element.
+   */
+  protected void handleRemove(int index, @NotNull T t) {
+  }
+
+  /**
+   * Called while holding the write lock after all elements were removed from the stack.
+   */
+  protected void handleReset() {
   }
 }
@@ -25,95 +25,148 @@
 package me.derklaro.codegen.stack.defaults;
 
 import me.derklaro.codegen.stack.Stack;
-import me.derklaro.codegen.util.ArrayUtility;
-import org.apache.commons.lang3.ArrayUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Unmodifiable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public abstract class AbstractStack<T> implements Stack<T> {
 
-  protected final AtomicReference<T[]> reference;
+  protected final List<T> elements;
+  protected final ReadWriteLock lock;
 
+  protected AbstractStack() {
+    this.elements = new ArrayList<>();
+    this.lock = new ReentrantReadWriteLock();
+  }
+
+  /**
+   * Creates a new stack initially containing the given elements. No insert handler is called for them.
+   *
+   * @param array the initial elements of the stack.
+   * @deprecated the stack is backed by a list, use {@link #AbstractStack()} instead.
+   */
+  @Deprecated
   protected AbstractStack(@NotNull T[] array) {
-    this.reference = new AtomicReference<>(array);
+    this();
+    this.elements.addAll(Arrays.asList(array));
   }
 
   @Override
   public int pushFirst(@NotNull T t) {
-    this.reference.set(ArrayUtils.addFirst(this.reference.get(), t));
-    return 0;
+    return this.insert(0, t);
   }
 
   @Override
   public int pushAt(int index, @NotNull T t) {
-    this.reference.set(ArrayUtility.addElementAt(this.reference.get(), t, index));
-    return index;
+    return this.insert(index, t);
   }
 
   @Override
   public int pushBefore(int index, @NotNull T t) {
-    this.reference.set(ArrayUtility.addElementAt(this.reference.get(), t, index - 1));
+    this.insert(index - 1, t);
     return index;
   }
 
   @Override
   public int pushAfter(int index, @NotNull T t) {
-    this.reference.set(ArrayUtility.addElementAt(this.reference.get(), t, index + 1));
+    this.insert(index + 1, t);
     return index;
   }
 
   @Override
   public int pushLast(@NotNull T t) {
-    this.reference.set(ArrayUtils.add(this.reference.get(), t));
-    return this.reference.get().length;
+    this.lock.writeLock().lock();
+    try {
+      this.elements.add(t);
+      this.handleInsert(this.elements.size() - 1, t);
+      return this.elements.size();
+    } finally {
+      this.lock.writeLock().unlock();
+    }
   }
 
   @Override
   public boolean has(int index) {
-    T[] array = this.reference.get();
-    return index >= 0 && array.length > index;
+    this.lock.readLock().lock();
+    try {
+      return index >= 0 && this.elements.size() > index;
+    } finally {
+      this.lock.readLock().unlock();
+    }
   }
 
   @Override
   public @NotNull Optional<T> at(int index) {
-    T[] array = this.reference.get();
-    if (array.length <= index) {
-      return Optional.empty();
-    } else {
-      return Optional.of(array[index]);
+    this.lock.readLock().lock();
+    try {
+      return index >= 0 && this.elements.size() > index ? Optional.of(this.elements.get(index)) : Optional.empty();
+    } finally {
+      this.lock.readLock().unlock();
     }
   }
 
   @Override
   public @NotNull Optional<T> first() {
-    T[] array = this.reference.get();
-    return array.length == 0 ? Optional.empty() : Optional.of(array[0]);
+    return this.at(0);
   }
 
   @Override
   public @NotNull Optional<T> last() {
-    T[] array = this.reference.get();
-    if (array.length == 0) {
-      return Optional.empty();
-    } else {
-      return Optional.of(array[array.length - 1]);
+    this.lock.readLock().lock();
+    try {
+      return this.elements.isEmpty() ? Optional.empty() : Optional.of(this.elements.get(this.elements.size() - 1));
+    } finally {
+      this.lock.readLock().unlock();
     }
   }
 
   @Override
   public @NotNull @Unmodifiable Collection<T> getFullStack() {
-    return Arrays.asList(this.reference.get());
+    return Collections.unmodifiableList(this.snapshot());
   }
 
   @NotNull
   @Override
   public Iterator<T> iterator() {
-    return ArrayUtility.newArrayIterator(this.reference.get());
+    // iterate over a snapshot to allow modifications of the stack during the iteration
+    return Collections.unmodifiableList(this.snapshot()).iterator();
+  }
+
+  protected int insert(int index, @NotNull T t) {
+    this.lock.writeLock().lock();
+    try {
+      this.elements.add(index, t);
+      this.handleInsert(index, t);
+      return index;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  protected @NotNull List<T> snapshot() {
+    this.lock.readLock().lock();
+    try {
+      return new ArrayList<>(this.elements);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Called while holding the write lock after the given element was inserted at the given index.
+   *
+   * @param index the index the element was inserted at.
+   * @param t     the inserted element.
+   */
+  protected void handleInsert(int index, @NotNull T t) {
   }
 }
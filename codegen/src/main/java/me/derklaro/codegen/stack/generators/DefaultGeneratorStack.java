@@ -25,8 +25,11 @@
 package me.derklaro.codegen.stack.generators;
 
 import javassist.CtClass;
+import me.derklaro.codegen.generator.GenerationPlan;
 import me.derklaro.codegen.generator.Generator;
+import me.derklaro.codegen.profiler.GenerationProfiler;
 import me.derklaro.codegen.stack.classes.ClassStack;
+import me.derklaro.codegen.stack.classes.DefaultClassStack;
 import me.derklaro.codegen.stack.defaults.AbstractMutableStack;
 import org.jetbrains.annotations.NotNull;
 import spoon.reflect.declaration.CtType;
@@ -37,15 +40,21 @@
 public class DefaultGeneratorStack extends AbstractMutableStack<Generator> implements GeneratorStack {
 
   protected final ClassStack classStack;
+  protected final GenerationProfiler profiler;
   protected final AtomicReference<Generator> currentGenerator;
+  protected final AtomicReference<GenerationPlan> currentDownstreamPlan;
   protected final AtomicReference<CtType<?>> currentDownstreamType;
   protected final AtomicReference<CtClass> currentDownstreamCtClass;
 
   public DefaultGeneratorStack(@NotNull ClassStack classStack) {
-    super(() -> new Generator[0]);
+    this(classStack, GenerationProfiler.noop());
+  }
 
+  public DefaultGeneratorStack(@NotNull ClassStack classStack, @NotNull GenerationProfiler profiler) {
     this.classStack = classStack;
+    this.profiler = profiler;
     this.currentGenerator = new AtomicReference<>();
+    this.currentDownstreamPlan = new AtomicReference<>();
     this.currentDownstreamType = new AtomicReference<>();
     this.currentDownstreamCtClass = new AtomicReference<>();
   }
@@ -55,6 +64,11 @@ public DefaultGeneratorStack(@NotNull ClassStack classStack) {
     return this.classStack;
   }
 
+  @Override
+  public @NotNull GenerationProfiler profiler() {
+    return this.profiler;
+  }
+
   @Override
   public @NotNull Generator current() {
     return Objects.requireNonNull(this.currentGenerator.get(), "Stack not initialized yet.");
@@ -66,11 +80,23 @@ public void setCurrentGenerator(@NotNull Generator generator) {
   }
 
   @Override
+  public @NotNull GenerationPlan getPlan() {
+    return Objects.requireNonNull(this.currentDownstreamPlan.get(), "Stack not initialized yet.");
+  }
+
+  @Override
+  public void setCurrentPlan(@NotNull GenerationPlan plan) {
+    this.currentDownstreamPlan.set(plan);
+  }
+
+  @Override
+  @Deprecated
   public @NotNull CtType<?> getType() {
-    return Objects.requireNonNull(this.currentDownstreamType.get(), "Stack not initialized yet.");
+    return Objects.requireNonNull(this.currentDownstreamType.get(), "No type set, use the plan of the type instead.");
   }
 
   @Override
+  @Deprecated
   public void setCurrentType(@NotNull CtType<?> type) {
     this.currentDownstreamType.set(type);
   }
@@ -84,4 +110,9 @@ public void setCurrentType(@NotNull CtType<?> type) {
   public void setGeneratingClass(@NotNull CtClass ctClass) {
     this.currentDownstreamCtClass.set(ctClass);
   }
+
+  @Override
+  public @NotNull GeneratorStack fork() {
+    return new DefaultGeneratorStack(new DefaultClassStack(), this.profiler);
+  }
 }
@@ -25,7 +25,9 @@
 package me.derklaro.codegen.stack.generators;
 
 import javassist.CtClass;
+import me.derklaro.codegen.generator.GenerationPlan;
 import me.derklaro.codegen.generator.Generator;
+import me.derklaro.codegen.profiler.GenerationProfiler;
 import me.derklaro.codegen.stack.MutableStack;
 import me.derklaro.codegen.stack.classes.ClassStack;
 import org.jetbrains.annotations.NotNull;
@@ -42,6 +44,13 @@ public interface GeneratorStack extends MutableStack<Generator> {
    */
   @NotNull ClassStack classStack();
 
+  /**
+   * Get the profiler which records the generation of this stack.
+   *
+   * @return the profiler of this stack.
+   */
+  @NotNull GenerationProfiler profiler();
+
   /**
    * Get the currently running generator.
    *
@@ -58,18 +67,39 @@ public interface GeneratorStack extends MutableStack<Generator> {
   void setCurrentGenerator(@NotNull Generator generator);
 
   /**
-   * Get the currently processing type.
+   * Get the plan of the currently processing type.
+   *
+   * @return the plan of the currently processing type.
+   * @throws NullPointerException if the stack has not yet started generating, so no plan is present.
+   */
+  @NotNull GenerationPlan getPlan();
+
+  /**
+   * Sets the plan of the type the stack is currently processing.
+   *
+   * @param plan the plan.
+   */
+  void setCurrentPlan(@NotNull GenerationPlan plan);
+
+  /**
+   * Get the currently processing type. The type is only present if the processor generating the class keeps the
+   * model until the post event and sets the type itself, the processors of codegen only set the plan of the type.
    *
    * @return the currently processing type.
-   * @throws NullPointerException if the stack has not yet started generating, so no type is present.
+   * @throws NullPointerException if no type was set.
+   * @deprecated the model is released before the classes are generated, use {@link #getPlan()} instead.
    */
+  @Deprecated
   @NotNull CtType<?> getType();
 
   /**
    * Sets the type the stack is currently processing.
    *
    * @param type the type.
+   * @deprecated the model is released before the classes are generated, use {@link #setCurrentPlan(GenerationPlan)}
+   * instead.
    */
+  @Deprecated
   void setCurrentType(@NotNull CtType<?> type);
 
   /**
@@ -86,4 +116,13 @@ public interface GeneratorStack extends MutableStack<Generator> {
    * @param ctClass the class.
    */
   void setGeneratingClass(@NotNull CtClass ctClass);
+
+  /**
+   * Creates a new, empty stack with a new class stack which is independent from this stack. Forked stacks
+   * are used to run generations concurrently, their results can be merged back into this stack afterwards.
+   * The forked stack records into the same profiler as this stack.
+   *
+   * @return the forked stack.
+   */
+  @NotNull GeneratorStack fork();
 }
@@ -31,6 +31,12 @@
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+/**
+ * Utilities for arrays, previously used by the array backed stacks.
+ *
+ * @deprecated the stacks are backed by lists, this class is unused and will be removed.
+ */
+@Deprecated
 @ApiStatus.Internal
 public final class ArrayUtility {
 
@@ -34,6 +34,8 @@
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtMethod;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.Collections;
@@ -62,7 +64,7 @@ private BytecodeUtility() {
 
   public static @NotNull CtClass provideCtClass(@NotNull ClassPool classPool, @NotNull String className) {
     try {
-      CtClass ctClass = classPool.get(className);
+      CtClass ctClass = copyToPool(classPool, classPool.get(className));
       // defrost to allow modification
       ctClass.defrost();
       return ctClass;
@@ -74,12 +76,25 @@ private BytecodeUtility() {
   public static @Nullable CtClass getCtClassOrNull(@NotNull ClassPool classPool, @NotNull String className) {
     CtClass ctClass = classPool.getOrNull(className);
     if (ctClass != null) {
+      ctClass = copyToPool(classPool, ctClass);
       // defrost to allow modification
       ctClass.defrost();
     }
     return ctClass;
   }
 
+  private static @NotNull CtClass copyToPool(@NotNull ClassPool classPool, @NotNull CtClass ctClass) {
+    if (ctClass.getClassPool() == classPool) {
+      return ctClass;
+    }
+    // the class is loaded by a parent pool which must never be modified, copy it to the given pool
+    try (InputStream inputStream = ctClass.getURL().openStream()) {
+      return classPool.makeClass(inputStream);
+    } catch (IOException | NotFoundException exception) {
+      throw new RuntimeException("Unable to copy class " + ctClass.getName(), exception);
+    }
+  }
+
   public static <E extends CtElement> boolean isAnnotationPresent(@NotNull E element, @NotNull String annotation) {
     for (CtAnnotation<? extends Annotation> ctAnnotation : element.getAnnotations()) {
       if (ctAnnotation.getAnnotationType().getQualifiedName().equals(annotation)) {
@@ -30,38 +30,80 @@
 import org.jetbrains.annotations.Nullable;
 import spoon.reflect.declaration.CtMethod;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
- * Represents a mapping of a method to a field name.
+ * Represents a mapping of a method to a field name. The information about the method is copied from the model
+ * when the pair is created, a pair holds no reference to the model.
  */
 @ApiStatus.Internal
-public class MethodFieldPair implements Map.Entry<CtMethod<?>, String> {
+public class MethodFieldPair implements Map.Entry<String, String> {
 
   protected final String returnType;
-  protected final CtMethod<?> method;
   protected final String associatedFieldName;
+  protected final @Nullable String methodName;
+  protected final @Nullable String methodDescriptor;
+  protected final @Nullable String methodReturnType;
+  protected final Set<String> methodAnnotations;
 
   public MethodFieldPair(CtMethod<?> method, String associatedFieldName) {
     this(method, associatedFieldName, null);
   }
 
   public MethodFieldPair(CtMethod<?> method, String associatedFieldName, @Nullable Wrap wrappingConfiguration) {
-    this.method = method;
-    this.associatedFieldName = associatedFieldName;
-    this.returnType = wrappingConfiguration != null
+    this(wrappingConfiguration != null
+      ? wrappingConfiguration.returnType()
+      : method.getType().getQualifiedName(), method, associatedFieldName);
+  }
+
+  public MethodFieldPair(CtMethod<?> method, String methodDescriptor, String associatedFieldName,
+                         @Nullable Wrap wrappingConfiguration) {
+    this(wrappingConfiguration != null
       ? wrappingConfiguration.returnType()
-      : method.getType().getQualifiedName();
+      : method.getType().getQualifiedName(), method, methodDescriptor, associatedFieldName);
   }
 
-  public MethodFieldPair(String returnType, CtMethod<?> method, String associatedFieldName) {
+  public MethodFieldPair(String returnType, @Nullable CtMethod<?> method, String associatedFieldName) {
+    this(returnType, method, method == null ? null : BytecodeUtility.provideMethodSignature(method), associatedFieldName);
+  }
+
+  public MethodFieldPair(String returnType, @Nullable CtMethod<?> method, @Nullable String methodDescriptor,
+                         String associatedFieldName) {
     this.returnType = returnType;
-    this.method = method;
     this.associatedFieldName = associatedFieldName;
+    if (method != null) {
+      this.methodName = method.getSimpleName();
+      this.methodDescriptor = methodDescriptor;
+      this.methodReturnType = method.getType().getQualifiedName();
+      this.methodAnnotations = method.getAnnotations().stream()
+        .map(annotation -> annotation.getAnnotationType().getQualifiedName())
+        .collect(Collectors.toCollection(HashSet::new));
+    } else {
+      this.methodName = null;
+      this.methodDescriptor = null;
+      this.methodReturnType = null;
+      this.methodAnnotations = Collections.emptySet();
+    }
+  }
+
+  public @NotNull String getMethodName() {
+    return this.requireMethod(this.methodName);
+  }
+
+  public @NotNull String getMethodDescriptor() {
+    return this.requireMethod(this.methodDescriptor);
   }
 
-  public @NotNull CtMethod<?> getMethod() {
-    return this.method;
+  public @NotNull String getMethodReturnType() {
+    return this.requireMethod(this.methodReturnType);
+  }
+
+  public boolean isAnnotationPresent(@NotNull String annotation) {
+    return this.methodAnnotations.contains(annotation);
   }
 
   public @NotNull String getAssociatedFieldName() {
@@ -73,8 +115,8 @@ public MethodFieldPair(String returnType, CtMethod<?> method, String associatedF
   }
 
   @Override
-  public CtMethod<?> getKey() {
-    return this.method;
+  public String getKey() {
+    return this.methodName;
   }
 
   @Override
@@ -86,4 +128,11 @@ public String getValue() {
   public String setValue(String value) {
     throw new UnsupportedOperationException("Class is read-only");
   }
+
+  private @NotNull String requireMethod(@Nullable String value) {
+    if (value == null) {
+      throw new IllegalStateException("Pair of field " + this.associatedFieldName + " is not associated with a method");
+    }
+    return value;
+  }
 }
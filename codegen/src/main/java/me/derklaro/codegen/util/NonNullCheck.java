@@ -0,0 +1,86 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.util;
+
+import me.derklaro.codegen.annotations.NonNull;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The configuration of a null check of a parameter, copied from a {@link NonNull} annotation. The annotations
+ * provided by the model are backed by the model, the check holds only the values of the annotation.
+ */
+@ApiStatus.Internal
+public class NonNullCheck {
+
+  protected final NonNull.Handler handler;
+  protected final String message;
+  protected final String exceptionType;
+
+  public NonNullCheck(@NotNull NonNull.Handler handler, @NotNull String message, @NotNull String exceptionType) {
+    this.handler = handler;
+    this.message = message;
+    this.exceptionType = exceptionType;
+  }
+
+  public static @NotNull NonNullCheck of(@NotNull NonNull configuration) {
+    return new NonNullCheck(configuration.handler(), configuration.message(), configuration.exception().getName());
+  }
+
+  /**
+   * Reads the null checks of the parameters of the given method, keyed by the location of the parameter starting at
+   * {@code 1}.
+   *
+   * @param method the method to read the null checks of.
+   * @return the null checks of the parameters, empty if no parameter is annotated with {@link NonNull}.
+   */
+  public static @NotNull Map<Integer, NonNullCheck> of(@NotNull CtMethod<?> method) {
+    Map<Integer, NonNullCheck> checks = new LinkedHashMap<>();
+    for (int i = 0; i < method.getParameters().size(); i++) {
+      NonNull nonNull = method.getParameters().get(i).getAnnotation(NonNull.class);
+      if (nonNull != null) {
+        // the parameter is the index + 1
+        checks.put(i + 1, of(nonNull));
+      }
+    }
+    return checks;
+  }
+
+  public @NotNull NonNull.Handler getHandler() {
+    return this.handler;
+  }
+
+  public @NotNull String getMessage() {
+    return this.message;
+  }
+
+  public @NotNull String getExceptionType() {
+    return this.exceptionType;
+  }
+}
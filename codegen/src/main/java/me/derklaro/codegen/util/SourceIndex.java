@@ -0,0 +1,181 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * An index of the source files of a compilation, built once to resolve the source file of
+ * a class and to check if a file belongs to the sources without walking the file system.
+ */
+public class SourceIndex {
+
+  protected final Set<File> sources;
+  protected final Set<File> roots;
+  protected final Set<File> ownedFiles;
+  protected final Map<String, File> classFiles;
+  protected final Map<String, List<File>> looseFiles;
+
+  protected SourceIndex(@NotNull Set<File> sources) {
+    this.sources = sources;
+    this.roots = new HashSet<>();
+    this.ownedFiles = new HashSet<>();
+    this.classFiles = new HashMap<>();
+    this.looseFiles = new HashMap<>();
+  }
+
+  /**
+   * Creates an index of the given source files, walking all source directories once.
+   *
+   * @param sources the source files and directories to index.
+   * @return the created index.
+   */
+  public static @NotNull SourceIndex create(@NotNull Set<File> sources) {
+    SourceIndex index = new SourceIndex(sources);
+    for (File source : sources) {
+      File canonicalSource = SourceUtility.canonicalFile(source);
+      if (canonicalSource.isDirectory()) {
+        index.indexRoot(canonicalSource);
+      } else {
+        // a single file, we can not know the root of the file without parsing it
+        index.ownedFiles.add(canonicalSource);
+        index.looseFiles.computeIfAbsent(canonicalSource.getName(), $ -> new ArrayList<>()).add(canonicalSource);
+      }
+    }
+    return index;
+  }
+
+  protected void indexRoot(@NotNull File root) {
+    this.roots.add(root);
+    // the qualified name of each class is provided by its path relative to the root
+    Path rootPath = root.toPath();
+    try (Stream<Path> files = Files.walk(rootPath, FileVisitOption.FOLLOW_LINKS)) {
+      Iterator<Path> iterator = files.filter(path -> path.toString().endsWith(".java")).iterator();
+      while (iterator.hasNext()) {
+        Path file = iterator.next();
+        String relativePath = rootPath.relativize(file).toString();
+        String className = relativePath.substring(0, relativePath.length() - 5).replace(File.separatorChar, '.');
+        // the first source wins if a class is present in multiple roots
+        this.classFiles.putIfAbsent(className, file.toFile());
+        this.ownedFiles.add(file.toFile());
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Unable to index source directory " + root, exception);
+    }
+  }
+
+  /**
+   * Finds the source file in which the class with the given name is declared.
+   *
+   * @param className the binary name of the class.
+   * @return the source file of the class or {@code null} if the class is not declared in the sources.
+   */
+  public @Nullable File findSourceFile(@NotNull String className) {
+    File file = this.findTopLevelSourceFile(className);
+    if (file == null) {
+      // nested classes are declared in the file of the top level class
+      int nestedIndex = className.indexOf('$');
+      if (nestedIndex > 0) {
+        file = this.findTopLevelSourceFile(className.substring(0, nestedIndex));
+      }
+    }
+    return file;
+  }
+
+  protected @Nullable File findTopLevelSourceFile(@NotNull String className) {
+    File file = this.classFiles.get(className);
+    if (file == null && !this.looseFiles.isEmpty()) {
+      // check if one of the single source files matches the class name
+      String pathName = className.replace('.', File.separatorChar) + ".java";
+      String fileName = pathName.substring(pathName.lastIndexOf(File.separatorChar) + 1);
+      for (File looseFile : this.looseFiles.getOrDefault(fileName, Collections.emptyList())) {
+        if (looseFile.getPath().endsWith(pathName)) {
+          return looseFile;
+        }
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Checks if the given file is one of the source files or is located in one of the source directories.
+   *
+   * @param file the file to check.
+   * @return {@code true} if the file belongs to the sources, {@code false} otherwise.
+   */
+  public boolean isOwned(@NotNull File file) {
+    File absoluteFile = file.getAbsoluteFile();
+    if (this.ownedFiles.contains(absoluteFile)) {
+      return true;
+    }
+    // the file might not be canonical or was not present when the index was created
+    File canonicalFile = SourceUtility.canonicalFile(absoluteFile);
+    if (this.ownedFiles.contains(canonicalFile)) {
+      return true;
+    }
+    for (File parent = canonicalFile.getParentFile(); parent != null; parent = parent.getParentFile()) {
+      if (this.roots.contains(parent)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get all source files of this index, the files in the source directories and the single source files.
+   *
+   * @return all source files of this index.
+   */
+  public @NotNull @Unmodifiable Set<File> getSourceFiles() {
+    return Collections.unmodifiableSet(this.ownedFiles);
+  }
+
+  /**
+   * Get the source files and directories this index was created from.
+   *
+   * @return the source files and directories this index was created from.
+   */
+  public @NotNull @Unmodifiable Set<File> getSources() {
+    return Collections.unmodifiableSet(this.sources);
+  }
+}
@@ -0,0 +1,477 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.util;
+
+import me.derklaro.codegen.annotations.Generate;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * A lexical scan of the source files which finds the files the generation depends on without parsing them. A
+ * file is a candidate if it mentions the annotation package of codegen and one of the annotations which mark a
+ * type for processing. The candidates are then extended by the files declaring their supertypes (transitively)
+ * and the files of all types referenced by them, so that the types of the candidates can be resolved.
+ */
+@ApiStatus.Internal
+public class SourcePreScanner {
+
+  private static final byte[] ANNOTATION_PACKAGE = Generate.class.getPackage().getName().getBytes(StandardCharsets.US_ASCII);
+  private static final byte[][] PROCESSED_ANNOTATIONS = {
+    "Generate".getBytes(StandardCharsets.US_ASCII),
+    "NonNull".getBytes(StandardCharsets.US_ASCII)
+  };
+  // the buffer each scanning thread reads the files into, it grows to the size of the largest file
+  private static final ThreadLocal<ByteBuffer> READ_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(16 * 1024));
+
+  protected final SourceIndex sourceIndex;
+  protected final boolean transitiveReferences;
+  protected final Map<File, SourceReferences> scannedFiles;
+
+  protected SourcePreScanner(@NotNull SourceIndex sourceIndex, boolean transitiveReferences) {
+    this.sourceIndex = sourceIndex;
+    this.transitiveReferences = transitiveReferences;
+    this.scannedFiles = new HashMap<>();
+  }
+
+  /**
+   * Scans all files of the given index and returns the files which must be parsed for the generation. Referenced
+   * files are followed transitively if requested, which is required if the parsed code is validated.
+   *
+   * @param sourceIndex          the index of the source files to scan.
+   * @param transitiveReferences if all types referenced by the returned files must be declared in the returned files.
+   * @param parallelism          the amount of files to scan concurrently.
+   * @return the files to parse, sorted by their path.
+   */
+  public static @NotNull Set<File> scan(@NotNull SourceIndex sourceIndex, boolean transitiveReferences, int parallelism) {
+    SourcePreScanner scanner = new SourcePreScanner(sourceIndex, transitiveReferences);
+    return scanner.collectDependencies(scanner.findCandidates(Math.max(1, parallelism)));
+  }
+
+  /**
+   * Finds the files of the given index which use the annotations processed by the default processors.
+   *
+   * @param sourceIndex the index of the source files to scan.
+   * @param parallelism the amount of files to scan concurrently.
+   * @return the files using the processed annotations, sorted by their path.
+   */
+  public static @NotNull List<File> findCandidates(@NotNull SourceIndex sourceIndex, int parallelism) {
+    return new SourcePreScanner(sourceIndex, false).findCandidates(Math.max(1, parallelism));
+  }
+
+  /**
+   * Splits the given files into batches of at most the given size. Each batch holds the files to process and the
+   * files which must be parsed to process them, so that each batch can be analyzed with its own (smaller) model.
+   *
+   * @param sourceIndex          the index of the source files.
+   * @param files                the files to process.
+   * @param transitiveReferences if all types referenced by the parsed files must be declared in the parsed files.
+   * @param batchSize            the maximum amount of files to process in one batch.
+   * @return the batches of the given files, in the order of the given files.
+   */
+  public static @NotNull List<Batch> partition(@NotNull SourceIndex sourceIndex, @NotNull List<File> files,
+                                               boolean transitiveReferences, int batchSize) {
+    // the scanner caches the references of the scanned files, it is shared by all batches
+    SourcePreScanner scanner = new SourcePreScanner(sourceIndex, transitiveReferences);
+    List<Batch> batches = new ArrayList<>();
+    for (int i = 0; i < files.size(); i += batchSize) {
+      List<File> batchFiles = files.subList(i, Math.min(files.size(), i + batchSize));
+      batches.add(new Batch(new LinkedHashSet<>(batchFiles), scanner.collectDependencies(batchFiles)));
+    }
+    return batches;
+  }
+
+  protected @NotNull List<File> findCandidates(int parallelism) {
+    List<File> files = new ArrayList<>(this.sourceIndex.getSourceFiles());
+    files.sort(Comparator.comparing(File::getPath));
+    if (parallelism == 1) {
+      return files.stream().filter(SourcePreScanner::isCandidate).collect(Collectors.toList());
+    }
+    // the parallel stream uses the pool it is started from
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      return pool.submit(() -> files.parallelStream().filter(SourcePreScanner::isCandidate).collect(Collectors.toList())).get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while scanning the sources", exception);
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw new IllegalStateException("Unable to scan the sources", exception.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  protected static boolean isCandidate(@NotNull File file) {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      // read the file into the buffer of the thread, most files are rejected after one pass over the bytes
+      ByteBuffer buffer = provideBuffer(channel.size());
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // read until the buffer is full or the end of the file is reached
+      }
+      buffer.flip();
+      if (indexOf(buffer, ANNOTATION_PACKAGE) < 0) {
+        return false;
+      }
+      for (byte[] annotation : PROCESSED_ANNOTATIONS) {
+        if (indexOf(buffer, annotation) >= 0) {
+          return true;
+        }
+      }
+      return false;
+    } catch (IOException exception) {
+      throw new UncheckedIOException("Unable to scan source file " + file, exception);
+    }
+  }
+
+  protected static @NotNull ByteBuffer provideBuffer(long size) {
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Source file is too large to scan: " + size + " bytes");
+    }
+    ByteBuffer buffer = READ_BUFFER.get();
+    if (buffer.capacity() < size) {
+      buffer = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE, Math.max(size, 2L * buffer.capacity())));
+      READ_BUFFER.set(buffer);
+    }
+    buffer.clear();
+    buffer.limit((int) size);
+    return buffer;
+  }
+
+  protected static int indexOf(@NotNull ByteBuffer buffer, byte @NotNull [] needle) {
+    int limit = buffer.limit() - needle.length;
+    byte first = needle[0];
+    for (int i = 0; i <= limit; i++) {
+      if (buffer.get(i) != first) {
+        continue;
+      }
+      // the first byte matches, compare the rest of the needle
+      int matched = 1;
+      while (matched < needle.length && buffer.get(i + matched) == needle[matched]) {
+        matched++;
+      }
+      if (matched == needle.length) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  protected @NotNull Set<File> collectDependencies(@NotNull List<File> candidates) {
+    Set<File> files = new HashSet<>(candidates);
+    Set<File> analyzedFiles = new HashSet<>();
+    Deque<File> processingQueue = new ArrayDeque<>(candidates);
+    while (!processingQueue.isEmpty()) {
+      File file = processingQueue.pop();
+      if (!analyzedFiles.add(file)) {
+        continue;
+      }
+      SourceReferences references = this.scanReferences(file);
+      // the members of the supertypes are part of the generated class, they must be resolvable as well
+      for (String supertype : references.supertypes) {
+        File supertypeFile = this.resolve(references, supertype);
+        if (supertypeFile != null) {
+          files.add(supertypeFile);
+          processingQueue.push(supertypeFile);
+        }
+      }
+      for (String reference : references.references) {
+        File referencedFile = this.resolve(references, reference);
+        if (referencedFile != null && files.add(referencedFile) && this.transitiveReferences) {
+          processingQueue.push(referencedFile);
+        }
+      }
+    }
+    // keep the order of the files stable between runs
+    return files.stream()
+      .sorted(Comparator.comparing(File::getPath))
+      .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  protected @Nullable File resolve(@NotNull SourceReferences references, @NotNull String name) {
+    int separator = name.indexOf('.');
+    if (separator > 0 && !Character.isUpperCase(name.charAt(0))) {
+      // a qualified name, the first capitalized part is the top level type
+      return this.sourceIndex.findSourceFile(name);
+    }
+    // nested types are declared in the file of the outer type
+    String simpleName = separator > 0 ? name.substring(0, separator) : name;
+    String importedName = references.imports.get(simpleName);
+    if (importedName != null) {
+      String importedType = SourceReferences.provideTypeName(importedName);
+      return this.sourceIndex.findSourceFile(importedType == null ? importedName : importedType);
+    }
+    File file = this.sourceIndex.findSourceFile(references.packageName.isEmpty()
+      ? simpleName
+      : references.packageName + '.' + simpleName);
+    if (file == null) {
+      for (String importedPackage : references.wildcardImports) {
+        file = this.sourceIndex.findSourceFile(importedPackage + '.' + simpleName);
+        if (file != null) {
+          break;
+        }
+      }
+    }
+    return file;
+  }
+
+  protected @NotNull SourceReferences scanReferences(@NotNull File file) {
+    SourceReferences references = this.scannedFiles.get(file);
+    if (references == null) {
+      try {
+        references = SourceReferences.read(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+      } catch (IOException exception) {
+        throw new UncheckedIOException("Unable to scan source file " + file, exception);
+      }
+      this.scannedFiles.put(file, references);
+    }
+    return references;
+  }
+
+  /**
+   * A batch of files to process, together with the files to parse for them.
+   */
+  public static final class Batch {
+
+    private final Set<File> files;
+    private final Set<File> sources;
+
+    private Batch(@NotNull Set<File> files, @NotNull Set<File> sources) {
+      this.files = files;
+      this.sources = sources;
+    }
+
+    /**
+     * Get the files of the types to process in this batch.
+     *
+     * @return the files of the types to process.
+     */
+    public @NotNull Set<File> getFiles() {
+      return this.files;
+    }
+
+    /**
+     * Get the files to parse to process the types of this batch, including the processed files.
+     *
+     * @return the files to parse, sorted by their path.
+     */
+    public @NotNull Set<File> getSources() {
+      return this.sources;
+    }
+  }
+
+  /**
+   * The type names referenced by a source file, read from its tokens. The names are not resolved yet.
+   */
+  protected static final class SourceReferences {
+
+    private final Map<String, String> imports = new HashMap<>();
+    private final List<String> wildcardImports = new ArrayList<>();
+    private final Set<String> supertypes = new LinkedHashSet<>();
+    private final Set<String> references = new LinkedHashSet<>();
+    private String packageName = "";
+
+    private static @NotNull SourceReferences read(@NotNull String source) {
+      SourceReferences references = new SourceReferences();
+      List<String> tokens = tokenize(source);
+      // the depth of type arguments in an extends or implements clause, -1 if not in such a clause
+      int supertypeDepth = -1;
+      for (int i = 0; i < tokens.size(); i++) {
+        String token = tokens.get(i);
+        switch (token) {
+          case "package":
+            i = references.readPackage(tokens, i + 1);
+            continue;
+          case "import":
+            i = references.readImport(tokens, i + 1);
+            continue;
+          case "extends":
+          case "implements":
+            supertypeDepth = 0;
+            continue;
+          case "<":
+            supertypeDepth = supertypeDepth < 0 ? -1 : supertypeDepth + 1;
+            continue;
+          case ">":
+            // closes the type parameters a bound was declared in
+            supertypeDepth = supertypeDepth <= 0 ? -1 : supertypeDepth - 1;
+            continue;
+          case "{":
+          case ";":
+          case "(":
+            supertypeDepth = -1;
+            continue;
+          default:
+            break;
+        }
+        if (isIdentifier(token) && (i == 0 || !tokens.get(i - 1).equals("."))) {
+          // read the whole qualified name starting at the identifier
+          StringBuilder name = new StringBuilder(token);
+          while (i + 2 < tokens.size() && tokens.get(i + 1).equals(".") && isIdentifier(tokens.get(i + 2))) {
+            name.append('.').append(tokens.get(i + 2));
+            i += 2;
+          }
+          String typeName = provideTypeName(name.toString());
+          if (typeName != null) {
+            references.references.add(typeName);
+            if (supertypeDepth == 0) {
+              references.supertypes.add(typeName);
+            }
+          }
+        }
+      }
+      return references;
+    }
+
+    private static @Nullable String provideTypeName(@NotNull String name) {
+      // types start with an upper case letter by convention, qualified names with the lower case package
+      String[] parts = name.split("\\.");
+      StringBuilder typeName = new StringBuilder();
+      for (String part : parts) {
+        if (typeName.length() > 0) {
+          typeName.append('.');
+        }
+        typeName.append(part);
+        if (Character.isUpperCase(part.charAt(0))) {
+          return typeName.toString();
+        }
+      }
+      return null;
+    }
+
+    private static boolean isIdentifier(@NotNull String token) {
+      return Character.isJavaIdentifierStart(token.charAt(0));
+    }
+
+    private static @NotNull List<String> tokenize(@NotNull String source) {
+      List<String> tokens = new ArrayList<>();
+      int length = source.length();
+      int i = 0;
+      while (i < length) {
+        char c = source.charAt(i);
+        if (Character.isWhitespace(c)) {
+          i++;
+        } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+          // line comment
+          int end = source.indexOf('\n', i);
+          i = end < 0 ? length : end + 1;
+        } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+          // block comment, including javadoc
+          int end = source.indexOf("*/", i + 2);
+          i = end < 0 ? length : end + 2;
+        } else if (source.startsWith("\"\"\"", i)) {
+          // text block
+          int end = source.indexOf("\"\"\"", i + 3);
+          while (end > 0 && source.charAt(end - 1) == '\\') {
+            end = source.indexOf("\"\"\"", end + 1);
+          }
+          i = end < 0 ? length : end + 3;
+        } else if (c == '"' || c == '\'') {
+          // string or char literal, skip escaped characters
+          i++;
+          while (i < length && source.charAt(i) != c && source.charAt(i) != '\n') {
+            i += source.charAt(i) == '\\' ? 2 : 1;
+          }
+          i++;
+        } else if (Character.isJavaIdentifierStart(c)) {
+          int start = i;
+          while (i < length && Character.isJavaIdentifierPart(source.charAt(i))) {
+            i++;
+          }
+          tokens.add(source.substring(start, i));
+        } else if (Character.isDigit(c)) {
+          // number literals are not interesting, but must not be read as identifiers
+          while (i < length && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_')) {
+            i++;
+          }
+        } else {
+          tokens.add(String.valueOf(c));
+          i++;
+        }
+      }
+      return tokens;
+    }
+
+    private int readPackage(@NotNull List<String> tokens, int start) {
+      StringBuilder name = new StringBuilder();
+      int i = start;
+      for (; i < tokens.size() && !tokens.get(i).equals(";"); i++) {
+        name.append(tokens.get(i));
+      }
+      this.packageName = name.toString();
+      return i;
+    }
+
+    private int readImport(@NotNull List<String> tokens, int start) {
+      int i = start;
+      boolean staticImport = i < tokens.size() && tokens.get(i).equals("static");
+      if (staticImport) {
+        i++;
+      }
+      StringBuilder name = new StringBuilder();
+      for (; i < tokens.size() && !tokens.get(i).equals(";"); i++) {
+        name.append(tokens.get(i));
+      }
+      String importedName = name.toString();
+      if (!staticImport && importedName.endsWith(".*")) {
+        this.wildcardImports.add(importedName.substring(0, importedName.length() - 2));
+        return i;
+      }
+      if (!staticImport) {
+        this.imports.put(importedName.substring(importedName.lastIndexOf('.') + 1), importedName);
+      }
+      // an imported type must be resolvable, even if it is not used
+      String typeName = provideTypeName(importedName);
+      if (typeName != null) {
+        this.references.add(typeName);
+      }
+      return i;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtTypeReference;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@ApiStatus.Internal
+public final class SourceUtility {
+
+  private SourceUtility() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static @NotNull File canonicalFile(@NotNull File file) {
+    try {
+      return file.getCanonicalFile();
+    } catch (IOException exception) {
+      // unable to resolve the file, use the absolute file instead
+      return file.getAbsoluteFile();
+    }
+  }
+
+  public static @Nullable File provideSourceFile(@NotNull CtType<?> type) {
+    SourcePosition position = type.getPosition();
+    // types which are not loaded from a source file (for example from the classpath) have no position
+    if (position.isValidPosition() && position.getFile() != null) {
+      return canonicalFile(position.getFile());
+    }
+    return null;
+  }
+
+  public static @NotNull Set<File> provideSupertypeFiles(@NotNull CtType<?> type) {
+    Set<File> files = new LinkedHashSet<>();
+    Set<String> visitedTypes = new HashSet<>();
+    Deque<CtType<?>> processingQueue = new ArrayDeque<>();
+    // walk the whole hierarchy of the type, visiting each type only once
+    pushSupertypes(type, processingQueue);
+    while (!processingQueue.isEmpty()) {
+      CtType<?> processingType = processingQueue.pop();
+      if (visitedTypes.add(processingType.getQualifiedName())) {
+        // add the source file of the type if there is one
+        File sourceFile = provideSourceFile(processingType);
+        if (sourceFile != null) {
+          files.add(sourceFile);
+        }
+        pushSupertypes(processingType, processingQueue);
+      }
+    }
+    return files;
+  }
+
+  private static void pushSupertypes(@NotNull CtType<?> type, @NotNull Deque<CtType<?>> processingQueue) {
+    if (type.getSuperclass() != null && type.getSuperclass().getDeclaration() != null) {
+      processingQueue.push(type.getSuperclass().getDeclaration());
+    }
+    for (CtTypeReference<?> superInterface : type.getSuperInterfaces()) {
+      if (superInterface.getDeclaration() != null) {
+        processingQueue.push(superInterface.getDeclaration());
+      }
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.util;
+
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.Opcode;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A java type with its precomputed descriptor and the instructions to load, return and box a value of it.
+ */
+@ApiStatus.Internal
+public final class TypeDescriptor {
+
+  private static final Map<String, TypeDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+
+  private final String name;
+  private final String descriptor;
+
+  private TypeDescriptor(@NotNull String name, @NotNull String descriptor) {
+    this.name = name;
+    this.descriptor = descriptor;
+  }
+
+  public static @NotNull TypeDescriptor of(@NotNull String typeName) {
+    return DESCRIPTORS.computeIfAbsent(typeName, name -> new TypeDescriptor(name,
+      BytecodeUtility.provideSignature(name, Collections.emptyList()).substring(2)));
+  }
+
+  public @NotNull String getName() {
+    return this.name;
+  }
+
+  public @NotNull String getDescriptor() {
+    return this.descriptor;
+  }
+
+  public boolean isPrimitive() {
+    return this.descriptor.length() == 1;
+  }
+
+  public boolean isVoid() {
+    return this.descriptor.equals("V");
+  }
+
+  public int getSize() {
+    // long and double values take two local variable slots
+    return this.isVoid() ? 0 : this.descriptor.equals("J") || this.descriptor.equals("D") ? 2 : 1;
+  }
+
+  public int getReturnOpcode() {
+    switch (this.descriptor) {
+      case "V":
+        return Opcode.RETURN;
+      case "J":
+        return Opcode.LRETURN;
+      case "F":
+        return Opcode.FRETURN;
+      case "D":
+        return Opcode.DRETURN;
+      case "Z":
+      case "B":
+      case "C":
+      case "S":
+      case "I":
+        return Opcode.IRETURN;
+      default:
+        return Opcode.ARETURN;
+    }
+  }
+
+  public void addLoad(@NotNull Bytecode bytecode, int slot) {
+    switch (this.descriptor) {
+      case "J":
+        bytecode.addLload(slot);
+        break;
+      case "F":
+        bytecode.addFload(slot);
+        break;
+      case "D":
+        bytecode.addDload(slot);
+        break;
+      case "Z":
+      case "B":
+      case "C":
+      case "S":
+      case "I":
+        bytecode.addIload(slot);
+        break;
+      default:
+        bytecode.addAload(slot);
+        break;
+    }
+  }
+
+  public void addBoxing(@NotNull Bytecode bytecode) {
+    if (this.isPrimitive() && !this.isVoid()) {
+      // box the primitive value using the valueOf method of the wrapper type
+      String wrapperType = this.provideWrapperType();
+      bytecode.addInvokestatic(wrapperType, "valueOf", '(' + this.descriptor + ")L" + wrapperType.replace('.', '/') + ';');
+    }
+  }
+
+  public @NotNull String provideAppendDescriptor() {
+    // the most specific overload of StringBuilder.append and ToStringHelper.add for the type
+    switch (this.descriptor) {
+      case "B":
+      case "S":
+        return "I";
+      case "Ljava/lang/String;":
+      case "[C":
+        return this.descriptor;
+      default:
+        return this.isPrimitive() ? this.descriptor : "Ljava/lang/Object;";
+    }
+  }
+
+  private @NotNull String provideWrapperType() {
+    switch (this.descriptor) {
+      case "Z":
+        return "java.lang.Boolean";
+      case "B":
+        return "java.lang.Byte";
+      case "C":
+        return "java.lang.Character";
+      case "S":
+        return "java.lang.Short";
+      case "I":
+        return "java.lang.Integer";
+      case "J":
+        return "java.lang.Long";
+      case "F":
+        return "java.lang.Float";
+      case "D":
+        return "java.lang.Double";
+      default:
+        throw new IllegalStateException("No wrapper type for " + this.name);
+    }
+  }
+}
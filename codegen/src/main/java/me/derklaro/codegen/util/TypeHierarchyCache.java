@@ -0,0 +1,169 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.util;
+
+import me.derklaro.codegen.annotations.Generate;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.ModifierKind;
+import spoon.reflect.reference.CtTypeReference;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of the flattened abstract methods and the method descriptors of the types of one compilation. Types
+ * sharing the same supertypes only analyze each supertype once, the descriptors are interned so that equal
+ * descriptors of different methods share the same string instance.
+ */
+@ApiStatus.Internal
+public class TypeHierarchyCache {
+
+  protected static final String GENERATE_EXCLUDE_ANNOTATION = Generate.Exclude.class.getCanonicalName();
+
+  protected final Map<CtType<?>, Map<String, MethodEntry>> methodTables;
+  protected final Map<CtMethod<?>, String> descriptors;
+  protected final Map<String, String> internedDescriptors;
+
+  public TypeHierarchyCache() {
+    this.methodTables = new IdentityHashMap<>();
+    this.descriptors = Collections.synchronizedMap(new IdentityHashMap<>());
+    this.internedDescriptors = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Get all abstract methods declared by the given type or any of its supertypes. A method overridden or redeclared
+   * in a subtype is only contained once, the method of the nearest type wins. The order of the methods matches a
+   * depth-first walk of the hierarchy, starting with the methods of the type itself followed by the methods of
+   * the interfaces (last declared first) and of the superclass.
+   *
+   * <p>This method is not thread-safe, it is only called while processing the types.
+   *
+   * @param type the type to get the abstract methods of.
+   * @return the abstract methods of the type and all supertypes, including the excluded ones.
+   */
+  public @Unmodifiable @NotNull Collection<MethodEntry> provideAbstractMethods(@NotNull CtType<?> type) {
+    return this.provideMethodTable(type).values();
+  }
+
+  /**
+   * Get the jvm descriptor of the given method, for example {@code (Ljava/lang/String;)V}. The descriptor is
+   * computed once per method.
+   *
+   * @param method the method to get the descriptor of.
+   * @return the interned descriptor of the method.
+   */
+  public @NotNull String provideDescriptor(@NotNull CtMethod<?> method) {
+    String descriptor = this.descriptors.get(method);
+    if (descriptor == null) {
+      // compute outside the lock, computing the same descriptor twice is fine
+      String signature = BytecodeUtility.provideMethodSignature(method);
+      descriptor = this.internedDescriptors.computeIfAbsent(signature, $ -> signature);
+      this.descriptors.put(method, descriptor);
+    }
+    return descriptor;
+  }
+
+  /**
+   * Removes all cached methods and descriptors, releasing all references to the model.
+   */
+  public void clear() {
+    this.methodTables.clear();
+    this.descriptors.clear();
+    this.internedDescriptors.clear();
+  }
+
+  protected @NotNull Map<String, MethodEntry> provideMethodTable(@NotNull CtType<?> type) {
+    Map<String, MethodEntry> table = this.methodTables.get(type);
+    if (table != null) {
+      return table;
+    }
+    // no computeIfAbsent as the tables of the supertypes are computed recursively
+    table = new LinkedHashMap<>();
+    for (CtMethod<?> method : type.getMethods()) {
+      if (method.getModifiers().contains(ModifierKind.ABSTRACT)) {
+        // the descriptor does not include the method name, methods with the same types must not be merged
+        String descriptor = this.provideDescriptor(method);
+        table.putIfAbsent(method.getSimpleName() + descriptor, new MethodEntry(method, descriptor,
+          BytecodeUtility.isAnnotationPresent(method, GENERATE_EXCLUDE_ANNOTATION)));
+      }
+    }
+    // the interfaces declared last are walked first, the superclass at the end
+    List<CtTypeReference<?>> supertypes = new ArrayList<>(type.getSuperInterfaces());
+    Collections.reverse(supertypes);
+    if (type.getSuperclass() != null) {
+      supertypes.add(type.getSuperclass());
+    }
+    for (CtTypeReference<?> supertype : supertypes) {
+      CtType<?> declaration = supertype.getDeclaration();
+      if (declaration != null) {
+        // methods of the subtype win over the methods of the supertypes
+        for (Map.Entry<String, MethodEntry> entry : this.provideMethodTable(declaration).entrySet()) {
+          table.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    table = Collections.unmodifiableMap(table);
+    this.methodTables.put(type, table);
+    return table;
+  }
+
+  /**
+   * An abstract method of a type hierarchy.
+   */
+  public static class MethodEntry {
+
+    protected final CtMethod<?> method;
+    protected final String descriptor;
+    protected final boolean excluded;
+
+    public MethodEntry(@NotNull CtMethod<?> method, @NotNull String descriptor, boolean excluded) {
+      this.method = method;
+      this.descriptor = descriptor;
+      this.excluded = excluded;
+    }
+
+    public @NotNull CtMethod<?> getMethod() {
+      return this.method;
+    }
+
+    public @NotNull String getDescriptor() {
+      return this.descriptor;
+    }
+
+    public boolean isExcluded() {
+      return this.excluded;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.cache;
+
+import me.derklaro.codegen.generator.result.ClassResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+public class FileSystemGenerationCacheTest {
+
+  private static final String USED = "aa01";
+  private static final String UNUSED = "aa02";
+
+  @TempDir
+  Path directory;
+
+  private GenerationCache cache;
+
+  private static ClassResult result(String name) {
+    return ClassResult.builder().packageClassName("demo." + name).bytecode(new byte[]{1, 2, 3}).build();
+  }
+
+  private static void setAge(Path file, long days) throws IOException {
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days)));
+  }
+
+  private Path entry(String fingerprint) {
+    return this.directory.resolve(fingerprint.substring(0, 2)).resolve(fingerprint + ".bin");
+  }
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.cache = GenerationCache.fileSystem(this.directory);
+    this.cache.store(USED, result("Used"));
+    this.cache.store(UNUSED, result("Unused"));
+  }
+
+  @Test
+  void testStoreAndLoad() {
+    ClassResult result = this.cache.load(USED);
+    Assertions.assertNotNull(result);
+    Assertions.assertEquals("demo", result.getPackage());
+    Assertions.assertEquals("Used", result.getName());
+    Assertions.assertArrayEquals(new byte[]{1, 2, 3}, result.getBytecode());
+    Assertions.assertNull(this.cache.load("ff00"));
+  }
+
+  @Test
+  void testCleanupRemovesUnusedEntries() throws IOException {
+    setAge(this.entry(USED), 3);
+    setAge(this.entry(UNUSED), 8);
+    this.cache.cleanup();
+
+    Assertions.assertNotNull(this.cache.load(USED));
+    Assertions.assertNull(this.cache.load(UNUSED));
+    Assertions.assertFalse(Files.exists(this.entry(UNUSED)));
+  }
+
+  @Test
+  void testLoadMarksEntryAsUsed() throws IOException {
+    setAge(this.entry(USED), 6);
+    Assertions.assertNotNull(this.cache.load(USED));
+
+    // the entry was used a day before it would have been removed
+    setAge(this.entry(UNUSED), 8);
+    this.cache.cleanup();
+    Assertions.assertNotNull(this.cache.load(USED));
+  }
+
+  @Test
+  void testCleanupRunsOncePerInterval() throws IOException {
+    this.cache.cleanup();
+    setAge(this.entry(UNUSED), 8);
+    this.cache.cleanup();
+    // not loaded to check it, that would mark the entry as used
+    Assertions.assertTrue(Files.exists(this.entry(UNUSED)));
+
+    // the next cleanup is due once the last one is older than a day
+    setAge(this.directory.resolve("last-cleanup"), 2);
+    this.cache.cleanup();
+    Assertions.assertFalse(Files.exists(this.entry(UNUSED)));
+  }
+
+  @Test
+  void testCleanupRemovesLeftOverTemporaryFiles() throws IOException {
+    Path temporaryFile = this.entry(USED).resolveSibling(USED + "123.tmp");
+    Files.write(temporaryFile, new byte[0]);
+    setAge(temporaryFile, 2);
+    this.cache.cleanup();
+
+    Assertions.assertFalse(Files.exists(temporaryFile));
+    Assertions.assertNotNull(this.cache.load(USED));
+  }
+}
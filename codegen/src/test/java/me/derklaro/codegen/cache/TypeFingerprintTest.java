@@ -0,0 +1,114 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.cache;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.Modifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import spoon.Launcher;
+import spoon.reflect.declaration.CtType;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+
+public class TypeFingerprintTest {
+
+  @TempDir
+  Path directory;
+
+  private Path classDirectory;
+  private CtType<?> type;
+
+  private void writeClass(String name, String superInterface, String... methods) throws Exception {
+    ClassPool classPool = new ClassPool(true);
+    CtClass ctClass = classPool.makeInterface(name);
+    if (superInterface != null) {
+      ctClass.addInterface(classPool.makeInterface(superInterface));
+    }
+    for (String methodName : methods) {
+      CtMethod method = new CtMethod(classPool.get("java.lang.String"), methodName, new CtClass[0], ctClass);
+      method.setModifiers(Modifier.PUBLIC | Modifier.ABSTRACT);
+      ctClass.addMethod(method);
+    }
+    ctClass.writeFile(this.classDirectory.toString());
+  }
+
+  private String fingerprint(Collection<File> classDirectories) {
+    return TypeFingerprint.create(classDirectories, this.type, "settings");
+  }
+
+  @BeforeEach
+  void setUp() throws Exception {
+    this.classDirectory = Files.createDirectories(this.directory.resolve("classes"));
+    this.writeClass("base.Root", null, "getId");
+    this.writeClass("base.Base", "base.Root", "getName");
+    // the source only knows the name of its supertype
+    Path source = this.directory.resolve("src").resolve("demo").resolve("Model.java");
+    Files.createDirectories(source.getParent());
+    Files.write(source, "package demo; public interface Model extends base.Base {}".getBytes(StandardCharsets.UTF_8));
+
+    Launcher launcher = new Launcher();
+    launcher.getEnvironment().setNoClasspath(true);
+    launcher.getEnvironment().setSourceClasspath(new String[]{this.classDirectory.toString()});
+    launcher.addInputResource(source.toString());
+    this.type = launcher.buildModel().getAllTypes().iterator().next();
+  }
+
+  @Test
+  void testUnchangedClassDirectoryKeepsFingerprint() throws Exception {
+    Collection<File> classDirectories = Collections.singleton(this.classDirectory.toFile());
+    String fingerprint = this.fingerprint(classDirectories);
+    this.writeClass("base.Base", "base.Root", "getName");
+    Assertions.assertEquals(fingerprint, this.fingerprint(classDirectories));
+  }
+
+  @Test
+  void testChangedSupertypeChangesFingerprint() throws Exception {
+    Collection<File> classDirectories = Collections.singleton(this.classDirectory.toFile());
+    String fingerprint = this.fingerprint(classDirectories);
+    String nameOnlyFingerprint = this.fingerprint(Collections.emptySet());
+    // a new abstract method of the supertype must be implemented by the generated class
+    this.writeClass("base.Base", "base.Root", "getName", "getDescription");
+    Assertions.assertNotEquals(fingerprint, this.fingerprint(classDirectories));
+    Assertions.assertEquals(nameOnlyFingerprint, this.fingerprint(Collections.emptySet()));
+  }
+
+  @Test
+  void testChangedIndirectSupertypeChangesFingerprint() throws Exception {
+    Collection<File> classDirectories = Collections.singleton(this.classDirectory.toFile());
+    String fingerprint = this.fingerprint(classDirectories);
+    this.writeClass("base.Root", null, "getId", "getVersion");
+    Assertions.assertNotEquals(fingerprint, this.fingerprint(classDirectories));
+  }
+}
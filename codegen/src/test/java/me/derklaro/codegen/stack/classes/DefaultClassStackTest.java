@@ -0,0 +1,78 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.stack.classes;
+
+import me.derklaro.codegen.generator.result.ClassResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DefaultClassStackTest {
+
+  private static ClassResult result(String qualifiedName, byte... bytecode) {
+    return ClassResult.builder().packageClassName(qualifiedName).bytecode(bytecode).build();
+  }
+
+  @Test
+  void testFind() {
+    ClassStack stack = new DefaultClassStack();
+    ClassResult first = result("demo.First");
+    ClassResult second = result("Second");
+    stack.pushLast(first);
+    stack.pushLast(second);
+
+    Assertions.assertSame(first, stack.find("demo.First").orElse(null));
+    // classes in the default package have no leading dot
+    Assertions.assertSame(second, stack.find("Second").orElse(null));
+    Assertions.assertFalse(stack.find(".Second").isPresent());
+    Assertions.assertFalse(stack.find("demo.Third").isPresent());
+  }
+
+  @Test
+  void testFindAfterModification() {
+    ClassStack stack = new DefaultClassStack();
+    ClassResult first = result("demo.First");
+    ClassResult second = result("demo.Second");
+    stack.pushLast(first);
+    stack.pushLast(second);
+
+    // the index of the other classes changes
+    ClassResult zero = result("demo.Zero");
+    stack.pushFirst(zero);
+    Assertions.assertSame(second, stack.find("demo.Second").orElse(null));
+    Assertions.assertSame(zero, stack.find("demo.Zero").orElse(null));
+
+    stack.remove(first);
+    Assertions.assertFalse(stack.find("demo.First").isPresent());
+    Assertions.assertSame(second, stack.find("demo.Second").orElse(null));
+
+    ClassResult replacement = result("demo.Second", (byte) 1);
+    stack.replace(replacement);
+    Assertions.assertSame(replacement, stack.find("demo.Second").orElse(null));
+    Assertions.assertEquals(2, stack.getFullStack().size());
+
+    stack.reset();
+    Assertions.assertFalse(stack.find("demo.Second").isPresent());
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public class SourcePreScannerTest {
+
+  private static final String CANDIDATE_HEADER = String.join("\n",
+    "package demo;",
+    "",
+    "import me.derklaro.codegen.annotations.Generate;",
+    "",
+    "@Generate",
+    "");
+
+  @TempDir
+  Path directory;
+
+  private void write(String className, String... lines) throws IOException {
+    Path file = this.directory.resolve(className.replace('.', File.separatorChar) + ".java");
+    Files.createDirectories(file.getParent());
+    Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void writeType(String className, String declaration) throws IOException {
+    this.write(className, "package demo;", "", declaration);
+  }
+
+  private Set<String> scan() {
+    SourceIndex index = SourceIndex.create(Collections.singleton(this.directory.toFile()));
+    return SourcePreScanner.scan(index, false, 1).stream()
+      .map(file -> this.directory.relativize(file.toPath()).toString().replace(File.separatorChar, '.'))
+      .map(name -> name.substring(0, name.length() - 5))
+      .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  @Test
+  void testFindCandidates() throws IOException {
+    this.write("demo.Candidate", CANDIDATE_HEADER, "public interface Candidate {}");
+    this.write("demo.Unrelated", "package demo;", "", "@Generate", "public interface Unrelated {}");
+    // larger than the initial read buffer, followed by a small file which must not see its bytes
+    char[] padding = new char[64 * 1024];
+    Arrays.fill(padding, ' ');
+    this.write("demo.Large", CANDIDATE_HEADER, new String(padding), "public interface Large {}");
+    this.write("demo.Small", "package demo;");
+
+    SourceIndex index = SourceIndex.create(Collections.singleton(this.directory.toFile()));
+    Assertions.assertEquals(
+      Arrays.asList("Candidate.java", "Large.java"),
+      SourcePreScanner.findCandidates(index, 1).stream().map(File::getName).collect(Collectors.toList()));
+    Assertions.assertEquals(
+      Arrays.asList("Candidate.java", "Large.java"),
+      SourcePreScanner.findCandidates(index, 4).stream().map(File::getName).collect(Collectors.toList()));
+  }
+
+  @Test
+  void testTextBlocksAreSkipped() throws IOException {
+    this.write("demo.Candidate", CANDIDATE_HEADER,
+      "public interface Candidate {",
+      "  String TEXT = \"\"\"",
+      "    class Fake extends Hidden {",
+      "      \\\"\"\" Hidden.run(); \\\"\"\"",
+      "    }",
+      "    \"\"\";",
+      "  Visible visible();",
+      "}");
+    this.writeType("demo.Hidden", "public interface Hidden {}");
+    this.writeType("demo.Visible", "public interface Visible {}");
+
+    Assertions.assertEquals(new TreeSet<>(Arrays.asList("demo.Candidate", "demo.Visible")), this.scan());
+  }
+
+  @Test
+  void testEscapesAreSkipped() throws IOException {
+    this.write("demo.Candidate", CANDIDATE_HEADER,
+      "public interface Candidate {",
+      "  String QUOTED = \"\\\"Hidden\\\\\";",
+      "  char QUOTE = '\\'';",
+      "  char SLASH = '\\\\';",
+      "  Visible visible();",
+      "}");
+    this.writeType("demo.Hidden", "public interface Hidden {}");
+    this.writeType("demo.Visible", "public interface Visible {}");
+
+    Assertions.assertEquals(new TreeSet<>(Arrays.asList("demo.Candidate", "demo.Visible")), this.scan());
+  }
+
+  @Test
+  void testNestedGenericsInExtendsClause() throws IOException {
+    this.write("demo.Candidate", CANDIDATE_HEADER,
+      "public interface Candidate<T extends Bound<T>> extends Base<java.util.Map<String, java.util.List<Argument>>>, Other {",
+      "}");
+    // the supertypes are followed transitively, the referenced types are not. The bounds of
+    // type parameters are followed like supertypes, which includes more files than needed but is safe
+    this.writeType("demo.Base", "public interface Base<T> extends BaseParent {}");
+    this.writeType("demo.BaseParent", "public interface BaseParent {}");
+    this.writeType("demo.Other", "public interface Other extends OtherParent {}");
+    this.writeType("demo.OtherParent", "public interface OtherParent {}");
+    this.writeType("demo.Argument", "public interface Argument extends ArgumentParent {}");
+    this.writeType("demo.ArgumentParent", "public interface ArgumentParent {}");
+    this.writeType("demo.Bound", "public interface Bound<T> extends BoundParent {}");
+    this.writeType("demo.BoundParent", "public interface BoundParent {}");
+
+    Assertions.assertEquals(new TreeSet<>(Arrays.asList(
+      "demo.Argument",
+      "demo.Base",
+      "demo.BaseParent",
+      "demo.Bound",
+      "demo.BoundParent",
+      "demo.Candidate",
+      "demo.Other",
+      "demo.OtherParent"
+    )), this.scan());
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import javassist.ClassPool;
+import javassist.NotFoundException;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A build service shared by all code generation tasks of a build. It keeps the class pools of the class path jars
+ * warm, which are reused by all tasks with the same class path jars, even across builds running in the same daemon.
+ * Javassist does not document its class pools as thread-safe and lookups through the pool of a compilation populate
+ * the class cache of its parent, so a pool is only borrowed by one compilation at a time. Compilations with the same
+ * jar files running at the same time get a pool each.
+ */
+public abstract class CodeGenerationService implements BuildService<CodeGenerationService.Parameters> {
+
+  protected static final Map<String, Deque<SoftReference<ClassPool>>> IDLE_POOLS = new LinkedHashMap<>(16, 0.75F, true);
+
+  /**
+   * Borrows a class pool holding the system classes and all jar files of the given class path. The pool is only
+   * created if no idle pool for the same jar files (by path, size and modification time) exists. The pool must be
+   * given back by closing the returned borrowed pool once the compilation is done.
+   *
+   * @param classPath the class path of the compilation.
+   * @return the borrowed class pool for the jar files of the class path.
+   * @throws NotFoundException if a jar file of the class path can not be opened.
+   */
+  public @NotNull BorrowedClassPool borrowSharedClassPool(@NotNull Set<File> classPath) throws NotFoundException {
+    Set<File> jarFiles = classPath.stream().filter(File::isFile).collect(Collectors.toSet());
+    // jar files are identified by their modification time, a changed jar results in a new pool
+    String key = jarFiles.stream()
+      .map(file -> file.getAbsolutePath() + ':' + file.length() + ':' + file.lastModified())
+      .sorted()
+      .collect(Collectors.joining(File.pathSeparator));
+    synchronized (IDLE_POOLS) {
+      Deque<SoftReference<ClassPool>> idlePools = IDLE_POOLS.get(key);
+      while (idlePools != null && !idlePools.isEmpty()) {
+        ClassPool classPool = idlePools.pollFirst().get();
+        if (classPool != null) {
+          return new BorrowedClassPool(key, classPool);
+        }
+      }
+    }
+    // no idle pool, all pools for the jar files are either borrowed or were collected by the gc
+    ClassPool classPool = new ClassPool(true);
+    for (File jarFile : jarFiles) {
+      classPool.appendClassPath(jarFile.getAbsolutePath());
+    }
+    return new BorrowedClassPool(key, classPool);
+  }
+
+  protected void returnSharedClassPool(@NotNull String key, @NotNull ClassPool classPool) {
+    synchronized (IDLE_POOLS) {
+      IDLE_POOLS.computeIfAbsent(key, $ -> new ArrayDeque<>()).offerFirst(new SoftReference<>(classPool));
+      // remove the pools which were collected by the gc
+      int idlePools = 0;
+      for (Iterator<Deque<SoftReference<ClassPool>>> iterator = IDLE_POOLS.values().iterator(); iterator.hasNext(); ) {
+        Deque<SoftReference<ClassPool>> pools = iterator.next();
+        pools.removeIf(poolReference -> poolReference.get() == null);
+        idlePools += pools.size();
+        if (pools.isEmpty()) {
+          iterator.remove();
+        }
+      }
+      // remove the least recently used pools
+      int maxPools = Math.max(1, this.getParameters().getMaxCachedClassPools().get());
+      for (Iterator<Deque<SoftReference<ClassPool>>> iterator = IDLE_POOLS.values().iterator(); idlePools > maxPools; ) {
+        Deque<SoftReference<ClassPool>> pools = iterator.next();
+        while (!pools.isEmpty() && idlePools > maxPools) {
+          pools.pollLast();
+          idlePools--;
+        }
+        if (pools.isEmpty()) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * A class pool borrowed from the service, which is given back to the service when closed.
+   */
+  public class BorrowedClassPool implements AutoCloseable {
+
+    protected final String key;
+    protected final ClassPool classPool;
+    protected boolean returned;
+
+    protected BorrowedClassPool(@NotNull String key, @NotNull ClassPool classPool) {
+      this.key = key;
+      this.classPool = classPool;
+    }
+
+    public @NotNull ClassPool getClassPool() {
+      return this.classPool;
+    }
+
+    @Override
+    public void close() {
+      // the pool must not be given back twice, it would be borrowed by two compilations afterwards
+      if (!this.returned) {
+        this.returned = true;
+        CodeGenerationService.this.returnSharedClassPool(this.key, this.classPool);
+      }
+    }
+  }
+
+  /**
+   * The parameters of the code generation service.
+   */
+  public interface Parameters extends BuildServiceParameters {
+    /**
+     * Get the maximum amount of class pools for different class paths to keep in memory.
+     *
+     * @return the maximum amount of class pools to keep in memory.
+     */
+    Property<Integer> getMaxCachedClassPools();
+  }
+}
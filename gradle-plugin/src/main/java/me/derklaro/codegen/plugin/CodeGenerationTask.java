@@ -26,64 +26,217 @@
 
 import me.derklaro.codegen.Compiler;
 import me.derklaro.codegen.generator.result.ClassResult;
+import me.derklaro.codegen.generator.result.ClassResultSink;
+import me.derklaro.codegen.profiler.GenerationProfile;
+import me.derklaro.codegen.profiler.GenerationProfiler;
+import me.derklaro.codegen.profiler.ProfilePhase;
 import me.derklaro.codegen.stack.generators.GeneratorStack;
-import org.gradle.api.Action;
+import me.derklaro.codegen.util.SourceUtility;
+import org.gradle.api.GradleException;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.NonNullApi;
+import org.gradle.api.Task;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileCollection;
-import org.gradle.api.file.FileCopyDetails;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.CompileClasspath;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Internal;
-import org.gradle.api.tasks.SourceTask;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.compile.AbstractCompile;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.InputChanges;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import javax.inject.Inject;
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @NonNullApi
-public class CodeGenerationTask extends AbstractCompile implements Action<FileCopyDetails> {
+@CacheableTask
+public abstract class CodeGenerationTask extends AbstractCompile {
 
-  protected final Set<Object> sources;
-  protected final Property<Boolean> validateCode;
-  protected final Set<String> generatedOutputFiles;
+  private static final int MAX_IN_FLIGHT_WRITES = 16;
+  private static final int PROFILE_REPORT_LIMIT = 50;
 
   public CodeGenerationTask() {
-    this.sources = new HashSet<>();
-    this.generatedOutputFiles = new HashSet<>();
-    this.validateCode = this.getProject().getObjects().property(Boolean.class).value(true);
+    this.getValidateCode().convention(true);
+    this.getParallelism().convention(1);
+    this.getPreScan().convention(false);
+    this.getBatchSize().convention(0);
+    this.getParseShards().convention(1);
+    this.getVerifyDeterminism().convention(false);
+    this.getProfile().convention(false);
+    // a profiled generation must actually run to record anything
+    this.getOutputs().upToDateWhen(new ProfilingSpec(false));
+    this.getOutputs().doNotCacheIf("Profiling is enabled", new ProfilingSpec(true));
   }
 
   @TaskAction
-  public void runGeneration() throws Exception {
-    // remove the destination directory
-    this.getProject().delete(this.getDestinationDir());
-    // run the compile
-    GeneratorStack stack = Compiler.createDefault().compile(new GradleCompilerConfiguration(this));
-    // write the generated classes into the destination directory
-    Path destinationDirectory = this.getDestinationDir().toPath();
+  public void runGeneration(@NotNull InputChanges inputChanges) throws Exception {
+    if (!this.getProfile().get()) {
+      this.generate(inputChanges, null);
+      return;
+    }
+    // record the generation and report it afterwards
+    GenerationProfiler profiler = GenerationProfiler.recording();
+    this.generate(inputChanges, profiler);
+    this.reportProfile(profiler.snapshot());
+  }
+
+  protected void generate(@NotNull InputChanges inputChanges, @Nullable GenerationProfiler profiler) throws Exception {
+    File destinationDirectoryFile = this.getDestinationDirectory().get().getAsFile();
+    Path destinationDirectory = destinationDirectoryFile.toPath();
+    File indexFile = this.getOriginIndexFile();
+    // write all classes into the output jar if requested
+    File outputJar = this.getOutputJar().getAsFile().getOrNull();
+    if (outputJar != null) {
+      this.getFileSystemOperations().delete(spec -> spec.delete(destinationDirectoryFile, indexFile));
+      try (ClassResultSink sink = ClassResultSink.jar(outputJar.toPath(), provideProfiler(profiler));
+           GradleCompilerConfiguration configuration = new GradleCompilerConfiguration(this, null, sink, profiler)) {
+        Compiler.createDefault().compile(configuration);
+      }
+      return;
+    }
+    // read the index of the last generation if we are able to run incrementally
+    GeneratedOriginIndex index = inputChanges.isIncremental() ? GeneratedOriginIndex.read(indexFile) : null;
+
+    Set<String> affectedOutputs;
+    Set<File> regenerateFiles;
+    if (index == null) {
+      // regenerate everything, all existing outputs which are not generated again are removed afterwards
+      // unchanged outputs are not rewritten to keep the incremental compilation of downstream tasks working
+      index = new GeneratedOriginIndex();
+      affectedOutputs = this.collectExistingOutputs(destinationDirectory);
+      regenerateFiles = null;
+    } else {
+      // collect the changed source files since the last generation
+      Set<File> changedFiles = new HashSet<>();
+      Set<File> removedFiles = new HashSet<>();
+      regenerateFiles = new HashSet<>();
+      for (FileChange change : inputChanges.getFileChanges(this.getSource())) {
+        if (change.getFileType() != FileType.DIRECTORY) {
+          File file = SourceUtility.canonicalFile(change.getFile());
+          changedFiles.add(file);
+          // removed files can not be regenerated
+          if (change.getChangeType() == ChangeType.REMOVED) {
+            removedFiles.add(file);
+          } else {
+            regenerateFiles.add(file);
+          }
+        }
+      }
+      // collect all outputs which need to be regenerated because of the changes
+      affectedOutputs = index.collectAffectedOutputs(changedFiles, regenerateFiles, removedFiles);
+      affectedOutputs.forEach(index::remove);
+    }
+    // run the compile, there is no need to parse the sources if no type needs to be regenerated
+    Collection<ClassResult> results = Collections.emptyList();
+    if (regenerateFiles == null || !regenerateFiles.isEmpty()) {
+      // the classes are written by the sink while the generation is still running
+      int parallelism = this.getParallelism().get();
+      try (ClassResultSink sink = ClassResultSink.channel(destinationDirectory, parallelism,
+        parallelism * MAX_IN_FLIGHT_WRITES, provideProfiler(profiler));
+           GradleCompilerConfiguration configuration = new GradleCompilerConfiguration(this, regenerateFiles, sink, profiler)) {
+        GeneratorStack stack = Compiler.createDefault().compile(configuration);
+        results = stack.classStack().getFullStack();
+      }
+    }
     // process the class result
-    for (ClassResult result : stack.classStack().getFullStack()) {
-      // create the parent directory (for the package if there is one)
-      Path outputDirectory = destinationDirectory.resolve(result.getPackage().replace('.', File.separatorChar));
-      // create the directory
-      Files.createDirectories(outputDirectory);
-      // get the name of the class in the output directory
-      Path fileTarget = outputDirectory.resolve(result.getName() + ".class");
-      // dump the class output into a new file in the directory
-      Files.write(fileTarget, result.getBytecode(), StandardOpenOption.CREATE);
-      // append the file target to the output files set for later use in the copy action
+    Set<String> writtenOutputs = new HashSet<>();
+    for (ClassResult result : results) {
+      // gradle always uses '/' instead of the system dependant separator char
+      String output = result.getOutputFile().toString().replace(File.separatorChar, '/');
+      writtenOutputs.add(output);
+      index.put(output, result.getOrigins(), result.getSupertypeOrigins());
+    }
+    // remove all affected outputs which were not generated again
+    for (String output : affectedOutputs) {
+      if (!writtenOutputs.contains(output)) {
+        Files.deleteIfExists(destinationDirectory.resolve(output.replace('/', File.separatorChar)));
+      }
+    }
+    // write the index for the next generation
+    index.write(indexFile);
+  }
+
+  protected void reportProfile(@NotNull GenerationProfile profile) throws IOException {
+    Path reportDirectory = this.getProfileReportDirectory().get().getAsFile().toPath();
+    Files.createDirectories(reportDirectory);
+    try (Writer writer = Files.newBufferedWriter(reportDirectory.resolve("profile.json"), StandardCharsets.UTF_8)) {
+      profile.writeJson(writer);
+    }
+    Path htmlReport = reportDirectory.resolve("profile.html");
+    try (Writer writer = Files.newBufferedWriter(htmlReport, StandardCharsets.UTF_8)) {
+      profile.writeHtml(writer, PROFILE_REPORT_LIMIT);
+    }
+    this.getLogger().lifecycle("Code generation profile written to {}", htmlReport.toUri());
+    // fail the build if any phase took longer than its budget
+    List<String> exceededBudgets = new ArrayList<>();
+    for (Map.Entry<String, Long> budget : this.getPhaseBudgets().get().entrySet()) {
+      ProfilePhase phase;
+      try {
+        phase = ProfilePhase.fromId(budget.getKey());
+      } catch (IllegalArgumentException exception) {
+        throw new InvalidUserDataException("Unknown code generation phase " + budget.getKey() + " in the phase budgets");
+      }
+      long wallMillis = TimeUnit.NANOSECONDS.toMillis(profile.getWallNanos(phase));
+      if (wallMillis > budget.getValue()) {
+        exceededBudgets.add(String.format("%s took %d ms (budget: %d ms)", phase.getId(), wallMillis, budget.getValue()));
+      }
+    }
+    if (!exceededBudgets.isEmpty()) {
+      throw new GradleException("Code generation exceeded its phase budgets: " + String.join(", ", exceededBudgets)
+        + ". See the report at " + htmlReport.toUri());
+    }
+  }
+
+  protected static @NotNull GenerationProfiler provideProfiler(@Nullable GenerationProfiler profiler) {
+    return profiler == null ? GenerationProfiler.noop() : profiler;
+  }
+
+  protected @NotNull Set<String> collectExistingOutputs(@NotNull Path destinationDirectory) throws IOException {
+    if (!Files.isDirectory(destinationDirectory)) {
+      return Collections.emptySet();
+    }
+    try (Stream<Path> files = Files.walk(destinationDirectory)) {
       // gradle always uses '/' instead of the system dependant separator char
-      this.generatedOutputFiles.add(destinationDirectory.relativize(fileTarget).toString().replace(File.separatorChar, '/'));
+      return files
+        .filter(Files::isRegularFile)
+        .map(file -> destinationDirectory.relativize(file).toString().replace(File.separatorChar, '/'))
+        .collect(Collectors.toSet());
     }
   }
 
@@ -97,40 +250,102 @@ public FileCollection getClasspath() {
   }
 
   @Override
-  public void setSource(@NotNull FileTree source) {
-    this.setSource((Object) source);
+  @InputFiles
+  @SkipWhenEmpty
+  @IgnoreEmptyDirectories
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public FileTree getSource() {
+    // the generated classes only depend on the location of a source relative to its source root
+    return super.getSource();
   }
 
-  @Override
-  public void setSource(@NotNull Object source) {
-    this.sources.clear();
-    this.sources.add(source);
+  public abstract @Internal ConfigurableFileCollection getSourceRoots();
 
-    super.setSource(source);
-  }
+  public abstract @Input Property<Boolean> getValidateCode();
 
-  @Override
-  public @NotNull SourceTask source(Object... sources) {
-    Collections.addAll(this.sources, sources);
-    return super.source(sources);
-  }
+  public abstract @Internal DirectoryProperty getCacheDirectory();
 
-  public @Internal Set<Object> getSources() {
-    return this.sources;
-  }
+  /**
+   * Get the jar file to write the generated classes to instead of the destination directory. The jar
+   * is always generated from all sources, unchanged types are usually taken from the generation cache.
+   *
+   * @return the jar file to write the generated classes to.
+   */
+  public abstract @Optional @OutputFile RegularFileProperty getOutputJar();
+
+  public abstract @Internal Property<Integer> getParallelism();
+
+  /**
+   * Get if the sources should be scanned for the files using the codegen annotations before parsing them. Only
+   * these files and the files they depend on are parsed, which speeds up the generation of large source sets
+   * with only a few generated types.
+   *
+   * @return if the sources should be scanned before parsing them.
+   */
+  public abstract @Internal Property<Boolean> getPreScan();
+
+  /**
+   * Get the maximum amount of source files analyzed with the same model. The files are split into batches which
+   * are parsed one after another with the files they depend on, bounding the memory needed for large source sets.
+   *
+   * @return the maximum amount of files analyzed with the same model, {@code 0} to analyze all files at once.
+   */
+  public abstract @Internal Property<Integer> getBatchSize();
+
+  /**
+   * Get the amount of models built concurrently. The sources are split into shards which are parsed in parallel,
+   * each with the files they depend on.
+   *
+   * @return the amount of models built concurrently, {@code 1} to parse the sources on one thread.
+   */
+  public abstract @Internal Property<Integer> getParseShards();
+
+  /**
+   * Get if all classes should be generated twice to verify that the generation is deterministic. The task fails
+   * if the bytecode of any class differs between the two runs.
+   *
+   * @return if the generation should be verified to be deterministic.
+   */
+  public abstract @Internal Property<Boolean> getVerifyDeterminism();
 
-  public @Input Property<Boolean> getValidateCode() {
-    return this.validateCode;
+  public abstract @Internal Property<CodeGenerationService> getGenerationService();
+
+  @Inject
+  protected abstract FileSystemOperations getFileSystemOperations();
+
+  public abstract @Input Property<Boolean> getProfile();
+
+  public abstract @Internal DirectoryProperty getProfileReportDirectory();
+
+  /**
+   * Get the maximum wall time in milliseconds of the phases of a profiled generation, keyed by the id of
+   * the phase. The build fails if any phase exceeds its budget.
+   *
+   * @return the budgets of the phases of a profiled generation.
+   * @see ProfilePhase#getId()
+   */
+  public abstract @Input MapProperty<String, Long> getPhaseBudgets();
+
+  public @LocalState File getOriginIndexFile() {
+    // local state is removed when the outputs are loaded from the build cache, forcing a full generation afterwards
+    return new File(this.getTemporaryDir(), "origins.bin");
   }
 
-  @Override
-  public void execute(@NotNull FileCopyDetails fileCopyDetails) {
-    if (this.generatedOutputFiles.contains(fileCopyDetails.getPath())
-      && this.getDestinationDir().toPath().relativize(fileCopyDetails.getFile().toPath()).startsWith("..")) {
-      // exclude duplicate files from the copy when the file already exists
-      // this is useful for factory methods which will duplicated in the final jar
-      // file if we don't exclude them
-      fileCopyDetails.exclude();
+  /**
+   * Checks if the profiling of a task is enabled or disabled. This class holds no reference to a task or the project,
+   * therefore it can be stored in the configuration cache.
+   */
+  private static final class ProfilingSpec implements Spec<Task> {
+
+    private final boolean enabled;
+
+    private ProfilingSpec(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(@NotNull Task task) {
+      return ((CodeGenerationTask) task).getProfile().get() == this.enabled;
     }
   }
 }
@@ -27,41 +27,99 @@
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
-import org.gradle.api.file.CopySpec;
+import org.gradle.api.file.ArchiveOperations;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.plugins.JavaPlugin;
-import org.gradle.api.plugins.JavaPluginConvention;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
+import org.gradle.jvm.tasks.Jar;
+import org.gradle.jvm.toolchain.JavaToolchainService;
 import org.jetbrains.annotations.NotNull;
 
+import javax.inject.Inject;
+import java.io.File;
+import java.util.Collections;
+
 public class CodeGeneratorRootPlugin implements Plugin<Project> {
 
-  protected Configuration classPath;
+  protected final ArchiveOperations archiveOperations;
+  protected final JavaToolchainService javaToolchainService;
+
+  @Inject
+  public CodeGeneratorRootPlugin(@NotNull ArchiveOperations archiveOperations, @NotNull JavaToolchainService javaToolchainService) {
+    this.archiveOperations = archiveOperations;
+    this.javaToolchainService = javaToolchainService;
+  }
 
   @Override
   public void apply(@NotNull Project project) {
     // apply the java plugin to get access to it's configuration
     project.getPlugins().apply(JavaPlugin.class);
     // find the main source set from the java plugin
-    SourceSet mainSourceSet = project.getConvention()
-      .getPlugin(JavaPluginConvention.class)
-      .getSourceSets()
+    SourceSet mainSourceSet = project.getExtensions()
+      .getByType(SourceSetContainer.class)
       .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
-    // configure the task
-    CodeGenerationTask task = project.getTasks().create("codeGen", CodeGenerationTask.class);
-    task.source(mainSourceSet.getAllJava());
-    task.conventionMapping("classpath", () -> this.classPath);
-    // set output directory of task
-    task.getDestinationDirectory().set(project.getLayout().getBuildDirectory().dir("codegen"));
-    // include the generated classes in the jar
-    ((CopySpec) project.getTasks().getByName(mainSourceSet.getJarTaskName()))
-      .from(task)
-      .eachFile(task);
-
-    project.afterEvaluate(evaluatedProject -> {
-      this.classPath = evaluatedProject.getConfigurations()
-        .getByName(mainSourceSet.getCompileClasspathConfigurationName())
-        .copyRecursive();
-      evaluatedProject.getDependencies().add(mainSourceSet.getImplementationConfigurationName(), project.files(task));
+    // register the service shared by all code generation tasks of the build
+    Provider<CodeGenerationService> service = project.getGradle().getSharedServices().registerIfAbsent(
+      "codeGenService", CodeGenerationService.class, spec -> {
+        spec.getParameters().getMaxCachedClassPools().set(8);
+        // limit the concurrent code generations to keep the memory usage in check
+        spec.getMaxParallelUsages().set(Runtime.getRuntime().availableProcessors());
+      });
+    // the generation cache is shared between all builds of the user by default, unused entries are removed after a week
+    File defaultCacheDirectory = new File(project.getGradle().getGradleUserHomeDir(), "caches/codegen-generation");
+    // configure the task lazily, only when it's actually needed in the build
+    TaskProvider<CodeGenerationTask> task = project.getTasks().register("codeGen", CodeGenerationTask.class, codeGen -> {
+      codeGen.getGenerationService().set(service);
+      codeGen.usesService(service);
+      codeGen.source(mainSourceSet.getAllJava());
+      codeGen.getSourceRoots().from(mainSourceSet.getAllJava().getSourceDirectories());
+      // the compile class path does not contain the generated classes, so there is no need to copy it
+      codeGen.setClasspath(project.getConfigurations().getByName(mainSourceSet.getCompileClasspathConfigurationName()));
+      codeGen.getCacheDirectory().convention(project.getLayout().dir(project.provider(() -> defaultCacheDirectory)));
+      // set output directory of task
+      codeGen.getDestinationDirectory().set(project.getLayout().getBuildDirectory().dir("codegen"));
+      codeGen.getProfileReportDirectory().convention(project.getLayout().getBuildDirectory().dir("reports/codegen"));
+    });
+    Provider<Directory> destinationDirectory = task.flatMap(CodeGenerationTask::getDestinationDirectory);
+    // make the generated classes visible to the compiler of the main source set
+    ConfigurableFileCollection generatedClasses = project.files(destinationDirectory).builtBy(task);
+    mainSourceSet.setCompileClasspath(mainSourceSet.getCompileClasspath().plus(generatedClasses));
+    // the generated classes are part of the main output, this includes them in the jar and the runtime class path
+    mainSourceSet.getOutput().dir(Collections.singletonMap("builtBy", task), destinationDirectory);
+    // add the output jar to the class paths if the classes are generated into a jar
+    Provider<RegularFile> outputJar = task.flatMap(CodeGenerationTask::getOutputJar);
+    Provider<Object> outputJarFiles = outputJar.<Object>map(Collections::singleton).orElse(Collections.emptySet());
+    mainSourceSet.setCompileClasspath(mainSourceSet.getCompileClasspath().plus(project.files(outputJarFiles).builtBy(task)));
+    mainSourceSet.setRuntimeClasspath(mainSourceSet.getRuntimeClasspath().plus(project.files(outputJarFiles).builtBy(task)));
+    // exclude the compiled classes from the jar which were replaced by a generated class
+    TaskProvider<Jar> jarTask = project.getTasks().named(mainSourceSet.getJarTaskName(), Jar.class, jar -> {
+      jar.eachFile(new GeneratedDuplicateFilter(destinationDirectory, outputJar));
+      // copy the content of the output jar into the jar, moving it out of the way of the duplicate filter first
+      jar.from(outputJar.<Object>map(this.archiveOperations::zipTree).orElse(Collections.emptySet()), spec -> {
+        spec.into(GeneratedDuplicateFilter.GENERATED_JAR_DIRECTORY);
+        spec.eachFile(new GeneratedJarEntryMover());
+      });
+      jar.dependsOn(task);
+    });
+    // the class data sharing class list of the generated classes, the archive is only created if a file is set
+    JavaPluginExtension javaExtension = project.getExtensions().getByType(JavaPluginExtension.class);
+    project.getTasks().register("codeGenClassList", GeneratedClassListTask.class, classList -> {
+      classList.getGeneratedClasses().from(generatedClasses, project.files(outputJarFiles).builtBy(task));
+      classList.getClassListFile().convention(project.getLayout().getBuildDirectory().file("codegen-cds/classes.lst"));
+      // the archive is created for the jar of the project, which contains the generated classes. The jar is
+      // only built and the runtime class path only resolved if an archive is requested. The archive file is
+      // an output of the task, mapping it directly would make the class path depend on the task itself
+      Configuration runtimeClasspath = project.getConfigurations().getByName(mainSourceSet.getRuntimeClasspathConfigurationName());
+      classList.getArchiveClasspath().from(project.provider(() -> classList.getArchiveFile().isPresent()
+        ? project.files(jarTask.flatMap(Jar::getArchiveFile), runtimeClasspath)
+        : Collections.emptySet()));
+      classList.getJavaLauncher().convention(this.javaToolchainService.launcherFor(javaExtension.getToolchain()));
     });
   }
 }
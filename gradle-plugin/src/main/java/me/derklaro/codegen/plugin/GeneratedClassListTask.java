@@ -0,0 +1,188 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.NonNullApi;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.process.ExecOperations;
+import org.jetbrains.annotations.NotNull;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Writes a class list for the class data sharing of the jvm which contains all generated classes, including the
+ * factory classes. The list can be used to create an application class data sharing archive, which lets the jvm
+ * map the generated classes at startup instead of loading and verifying them one by one. If an archive file is
+ * configured the archive is created as well, by running {@code java -Xshare:dump} with the archive class path.
+ * Archives can only be created by java 11 or newer, the application must be started with the same class path and
+ * {@code -XX:SharedArchiveFile} pointing to the archive.
+ */
+@NonNullApi
+public abstract class GeneratedClassListTask extends DefaultTask {
+
+  private static final String CLASS_FILE_SUFFIX = ".class";
+
+  protected static void collectDirectory(@NotNull Path directory, @NotNull Set<String> classNames) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.filter(Files::isRegularFile).forEach(file -> {
+        // the class list uses the internal names of the classes, which always use '/'
+        String path = directory.relativize(file).toString().replace(File.separatorChar, '/');
+        addClassName(path, classNames);
+      });
+    }
+  }
+
+  protected static void collectJar(@NotNull File jarFile, @NotNull Set<String> classNames) throws IOException {
+    try (JarFile jar = new JarFile(jarFile)) {
+      Enumeration<JarEntry> entries = jar.entries();
+      while (entries.hasMoreElements()) {
+        JarEntry entry = entries.nextElement();
+        if (!entry.isDirectory()) {
+          addClassName(entry.getName(), classNames);
+        }
+      }
+    }
+  }
+
+  protected static void addClassName(@NotNull String path, @NotNull Set<String> classNames) {
+    if (path.endsWith(CLASS_FILE_SUFFIX) && !path.startsWith("META-INF/")) {
+      String className = path.substring(0, path.length() - CLASS_FILE_SUFFIX.length());
+      // module and package descriptors are no classes which can be loaded
+      if (!className.endsWith("module-info") && !className.endsWith("package-info")) {
+        classNames.add(className);
+      }
+    }
+  }
+
+  @TaskAction
+  public void writeClassList() throws IOException {
+    // collect the generated classes, sorted to keep the class list stable
+    Set<String> classNames = new TreeSet<>();
+    for (File file : this.getGeneratedClasses().getFiles()) {
+      if (file.isDirectory()) {
+        collectDirectory(file.toPath(), classNames);
+      } else if (file.isFile() && file.getName().endsWith(".jar")) {
+        collectJar(file, classNames);
+      }
+    }
+    Path classListFile = this.getClassListFile().get().getAsFile().toPath();
+    Files.createDirectories(classListFile.getParent());
+    Files.write(classListFile, classNames, StandardCharsets.UTF_8);
+    // create the archive if requested
+    File archiveFile = this.getArchiveFile().getAsFile().getOrNull();
+    if (archiveFile != null) {
+      this.createArchive(classListFile.toFile(), archiveFile);
+    }
+  }
+
+  protected void createArchive(@NotNull File classListFile, @NotNull File archiveFile) throws IOException {
+    if (this.getArchiveClasspath().isEmpty()) {
+      throw new InvalidUserDataException("The class path of the class data sharing archive must not be empty");
+    }
+    Files.createDirectories(archiveFile.getParentFile().toPath());
+    // the jvm only archives classes loaded from jar files, the class path must match the one of the application
+    File executable = this.getJavaLauncher().get().getExecutablePath().getAsFile();
+    this.getExecOperations().exec(spec -> {
+      spec.setExecutable(executable);
+      spec.args(this.getJvmArgs().get());
+      spec.args(
+        "-Xshare:dump",
+        "-XX:SharedClassListFile=" + classListFile.getAbsolutePath(),
+        "-XX:SharedArchiveFile=" + archiveFile.getAbsolutePath(),
+        "-cp", this.getArchiveClasspath().getAsPath());
+    });
+  }
+
+  /**
+   * Get the directories and jar files containing the generated classes.
+   *
+   * @return the directories and jar files containing the generated classes.
+   */
+  public abstract @Classpath ConfigurableFileCollection getGeneratedClasses();
+
+  /**
+   * Get the file to write the class list to, one internal class name per line.
+   *
+   * @return the file to write the class list to.
+   */
+  public abstract @OutputFile RegularFileProperty getClassListFile();
+
+  /**
+   * Get the file to write the class data sharing archive to. No archive is created if the file is not set.
+   *
+   * @return the file to write the class data sharing archive to.
+   */
+  public abstract @Optional @OutputFile RegularFileProperty getArchiveFile();
+
+  /**
+   * Get the class path of the application to create the archive for. Only classes loaded from jar files
+   * are archived, this should therefore be the jar of the project and its runtime dependencies. The class
+   * path is only required if an archive file is set.
+   *
+   * @return the class path of the application.
+   */
+  public abstract @Optional @Classpath ConfigurableFileCollection getArchiveClasspath();
+
+  /**
+   * Get the extra arguments passed to the jvm which creates the archive, for example the garbage collector
+   * used by the application.
+   *
+   * @return the extra arguments passed to the jvm which creates the archive.
+   */
+  public abstract @Input ListProperty<String> getJvmArgs();
+
+  /**
+   * Get the launcher of the jvm which creates the archive. The archive can only be used by the same jvm build.
+   *
+   * @return the launcher of the jvm which creates the archive.
+   */
+  public abstract @Nested Property<JavaLauncher> getJavaLauncher();
+
+  @Inject
+  protected abstract ExecOperations getExecOperations();
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import org.gradle.api.Action;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Excludes the classes from a copy which are also generated into the output directory of the code generation.
+ * This class holds no reference to a task or the project, therefore it can be stored in the configuration cache.
+ */
+public class GeneratedDuplicateFilter implements Action<FileCopyDetails> {
+
+  /**
+   * The directory the entries of the output jar are copied into before they are moved to their actual path.
+   * This prevents the filter from excluding the generated classes instead of the compiled ones.
+   */
+  public static final String GENERATED_JAR_DIRECTORY = "META-INF/codegen-generated/";
+
+  protected final Provider<Directory> generationDirectory;
+  protected final Provider<RegularFile> generationJar;
+
+  // the names of the entries in the output jar, read once when the first file is copied
+  private transient Set<String> generatedEntries;
+
+  public GeneratedDuplicateFilter(@NotNull Provider<Directory> generationDirectory,
+                                  @NotNull Provider<RegularFile> generationJar) {
+    this.generationDirectory = generationDirectory;
+    this.generationJar = generationJar;
+  }
+
+  @Override
+  public void execute(@NotNull FileCopyDetails fileCopyDetails) {
+    if (this.generationJar.isPresent()) {
+      // the classes were written into the output jar, there is no need to access the file system
+      if (this.provideGeneratedEntries().contains(fileCopyDetails.getPath())) {
+        fileCopyDetails.exclude();
+      }
+      return;
+    }
+    File destinationDirectory = this.generationDirectory.get().getAsFile();
+    if (!destinationDirectory.toPath().relativize(fileCopyDetails.getFile().toPath()).startsWith("..")) {
+      // the file is one of the generated files
+      return;
+    }
+    if (new File(destinationDirectory, fileCopyDetails.getPath()).isFile()) {
+      // exclude duplicate files from the copy when the file was generated
+      // this is useful for factory methods which will duplicated in the final jar
+      // file if we don't exclude them
+      fileCopyDetails.exclude();
+    }
+  }
+
+  protected @NotNull Set<String> provideGeneratedEntries() {
+    if (this.generatedEntries == null) {
+      File jar = this.generationJar.get().getAsFile();
+      if (!jar.isFile()) {
+        this.generatedEntries = Collections.emptySet();
+      } else {
+        try (JarFile jarFile = new JarFile(jar)) {
+          Set<String> entries = new HashSet<>();
+          for (ZipEntry entry : Collections.list(jarFile.entries())) {
+            entries.add(entry.getName());
+          }
+          this.generatedEntries = entries;
+        } catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+      }
+    }
+    return this.generatedEntries;
+  }
+}
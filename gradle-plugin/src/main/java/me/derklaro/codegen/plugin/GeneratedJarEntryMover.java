@@ -0,0 +1,47 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import org.gradle.api.Action;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.file.RelativePath;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Moves the entries of the output jar from the directory they were copied into back to their actual path.
+ *
+ * @see GeneratedDuplicateFilter#GENERATED_JAR_DIRECTORY
+ */
+public class GeneratedJarEntryMover implements Action<FileCopyDetails> {
+
+  @Override
+  public void execute(@NotNull FileCopyDetails fileCopyDetails) {
+    String path = fileCopyDetails.getPath();
+    if (path.startsWith(GeneratedDuplicateFilter.GENERATED_JAR_DIRECTORY)) {
+      String actualPath = path.substring(GeneratedDuplicateFilter.GENERATED_JAR_DIRECTORY.length());
+      fileCopyDetails.setRelativePath(RelativePath.parse(true, actualPath));
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maps each generated output file of the code generation to the source files it was generated from.
+ */
+public class GeneratedOriginIndex {
+
+  protected static final int VERSION = 1;
+
+  protected final Map<String, Entry> entries = new TreeMap<>();
+
+  public static @Nullable GeneratedOriginIndex read(@NotNull File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    // read the index, an unreadable index results in a full generation
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      if (in.readInt() != VERSION) {
+        return null;
+      }
+      GeneratedOriginIndex index = new GeneratedOriginIndex();
+      for (int i = 0, size = in.readInt(); i < size; i++) {
+        String output = in.readUTF();
+        index.entries.put(output, new Entry(readFiles(in), readFiles(in)));
+      }
+      return index;
+    } catch (IOException exception) {
+      return null;
+    }
+  }
+
+  protected static @NotNull Set<File> readFiles(@NotNull DataInputStream in) throws IOException {
+    Set<File> files = new LinkedHashSet<>();
+    for (int i = 0, size = in.readInt(); i < size; i++) {
+      files.add(new File(in.readUTF()));
+    }
+    return files;
+  }
+
+  protected static void writeFiles(@NotNull DataOutputStream out, @NotNull Set<File> files) throws IOException {
+    out.writeInt(files.size());
+    for (File file : files) {
+      out.writeUTF(file.getPath());
+    }
+  }
+
+  public void write(@NotNull File file) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+      out.writeInt(VERSION);
+      out.writeInt(this.entries.size());
+      for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+        out.writeUTF(entry.getKey());
+        writeFiles(out, entry.getValue().origins);
+        writeFiles(out, entry.getValue().supertypeOrigins);
+      }
+    }
+  }
+
+  public void put(@NotNull String output, @NotNull Set<File> origins, @NotNull Set<File> supertypeOrigins) {
+    this.entries.put(output, new Entry(new LinkedHashSet<>(origins), new LinkedHashSet<>(supertypeOrigins)));
+  }
+
+  public void remove(@NotNull String output) {
+    this.entries.remove(output);
+  }
+
+  public @NotNull Set<String> getOutputs() {
+    return Collections.unmodifiableSet(this.entries.keySet());
+  }
+
+  /**
+   * Collects all outputs which are affected by the given changed source files. An output is affected if
+   * one of the types it was generated from or one of their supertypes changed. All types an affected output
+   * was generated from must be regenerated as well (for example all types contributing to a factory class),
+   * which may affect more outputs.
+   *
+   * @param changedFiles the source files which were added, modified or removed.
+   * @param regenerate   the source files to regenerate, all origins of affected outputs are added to it.
+   * @param removedFiles the source files which were removed and can therefore not be regenerated.
+   * @return all outputs affected by the changed source files.
+   */
+  public @NotNull Set<String> collectAffectedOutputs(@NotNull Set<File> changedFiles, @NotNull Set<File> regenerate,
+                                                     @NotNull Set<File> removedFiles) {
+    Set<String> affected = new HashSet<>();
+    boolean changed;
+    do {
+      changed = false;
+      for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+        Entry origin = entry.getValue();
+        if (!affected.contains(entry.getKey())
+          && (intersects(origin.origins, changedFiles)
+          || intersects(origin.supertypeOrigins, changedFiles)
+          || intersects(origin.origins, regenerate))) {
+          affected.add(entry.getKey());
+          // regenerate all types the output was generated from, if they still exist
+          for (File file : origin.origins) {
+            if (!removedFiles.contains(file) && regenerate.add(file)) {
+              changed = true;
+            }
+          }
+        }
+      }
+    } while (changed);
+    return affected;
+  }
+
+  protected static boolean intersects(@NotNull Collection<File> files, @NotNull Set<File> other) {
+    for (File file : files) {
+      if (other.contains(file)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected static final class Entry {
+
+    protected final Set<File> origins;
+    protected final Set<File> supertypeOrigins;
+
+    public Entry(@NotNull Set<File> origins, @NotNull Set<File> supertypeOrigins) {
+      this.origins = origins;
+      this.supertypeOrigins = supertypeOrigins;
+    }
+  }
+}
@@ -24,34 +24,70 @@
 
 package me.derklaro.codegen.plugin;
 
+import javassist.ClassPool;
+import javassist.NotFoundException;
 import me.derklaro.codegen.Compiler;
+import me.derklaro.codegen.generator.result.ClassResultSink;
 import me.derklaro.codegen.processor.TypeProcessor;
+import me.derklaro.codegen.profiler.GenerationProfiler;
 import org.gradle.api.JavaVersion;
-import org.gradle.api.file.SourceDirectorySet;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.Collections;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-public class GradleCompilerConfiguration implements Compiler.CompilerConfiguration {
+public class GradleCompilerConfiguration implements Compiler.CompilerConfiguration, AutoCloseable {
 
   private final Set<File> inputFiles;
   private final Set<File> sourceClassPath;
+  private final Set<File> changedFiles;
+  private final File cacheDirectory;
+  private final int parallelism;
+  private final boolean preScan;
+  private final int batchSize;
+  private final int parseShards;
+  private final boolean verifyDeterminism;
+  private final CodeGenerationService.BorrowedClassPool sharedClassPool;
+  private final ClassResultSink classResultSink;
+  private final GenerationProfiler profiler;
 
   private int languageLevel;
   private boolean validateCode;
 
-  protected GradleCompilerConfiguration(@NotNull CodeGenerationTask task) {
+  protected GradleCompilerConfiguration(@NotNull CodeGenerationTask task) throws NotFoundException {
+    this(task, null);
+  }
+
+  protected GradleCompilerConfiguration(@NotNull CodeGenerationTask task, @Nullable Set<File> changedFiles) throws NotFoundException {
+    this(task, changedFiles, null);
+  }
+
+  protected GradleCompilerConfiguration(@NotNull CodeGenerationTask task, @Nullable Set<File> changedFiles,
+                                        @Nullable ClassResultSink classResultSink) throws NotFoundException {
+    this(task, changedFiles, classResultSink, null);
+  }
+
+  protected GradleCompilerConfiguration(@NotNull CodeGenerationTask task, @Nullable Set<File> changedFiles,
+                                        @Nullable ClassResultSink classResultSink,
+                                        @Nullable GenerationProfiler profiler) throws NotFoundException {
     this.languageLevel = Integer.parseInt(JavaVersion.toVersion(task.getSourceCompatibility()).getMajorVersion());
     this.validateCode = task.getValidateCode().get();
-    this.inputFiles = task.getSources().stream()
-      .filter(source -> source instanceof SourceDirectorySet)
-      .map(source -> ((SourceDirectorySet) source).getSrcDirs())
-      .flatMap(Set::stream)
-      .collect(Collectors.toSet());
+    this.inputFiles = task.getSourceRoots().getFiles();
     this.sourceClassPath = task.getClasspath().getFiles();
+    this.changedFiles = changedFiles;
+    this.cacheDirectory = task.getCacheDirectory().getAsFile().getOrNull();
+    this.parallelism = task.getParallelism().get();
+    this.preScan = task.getPreScan().get();
+    this.batchSize = task.getBatchSize().get();
+    this.parseShards = task.getParseShards().get();
+    this.verifyDeterminism = task.getVerifyDeterminism().get();
+    this.classResultSink = classResultSink;
+    this.profiler = profiler;
+    // borrow the class pool of the class path jars from the shared service if available
+    CodeGenerationService service = task.getGenerationService().getOrNull();
+    this.sharedClassPool = service == null ? null : service.borrowSharedClassPool(this.sourceClassPath);
   }
 
   @Override
@@ -84,8 +120,66 @@ public void setValidateCode(boolean validateCode) {
     return this.sourceClassPath;
   }
 
+  @Override
+  public @Nullable Set<File> getChangedFiles() {
+    return this.changedFiles;
+  }
+
+  @Override
+  public @Nullable File getCacheDirectory() {
+    return this.cacheDirectory;
+  }
+
+  @Override
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  @Override
+  public boolean isPreScan() {
+    return this.preScan;
+  }
+
+  @Override
+  public int getBatchSize() {
+    return this.batchSize;
+  }
+
+  @Override
+  public int getParseShards() {
+    return this.parseShards;
+  }
+
+  @Override
+  public boolean isVerifyDeterminism() {
+    return this.verifyDeterminism;
+  }
+
+  @Override
+  public @Nullable ClassPool getSharedClassPool() {
+    return this.sharedClassPool == null ? null : this.sharedClassPool.getClassPool();
+  }
+
+  @Override
+  public @Nullable ClassResultSink getClassResultSink() {
+    return this.classResultSink;
+  }
+
+  @Override
+  public @Nullable GenerationProfiler getProfiler() {
+    return this.profiler;
+  }
+
   @Override
   public @NotNull Set<TypeProcessor> getProcessors() {
     return Collections.emptySet();
   }
+
+  @Override
+  public void close() {
+    // give the class pool back to the service, the next compilation can use it now
+    if (this.sharedClassPool != null) {
+      this.sharedClassPool.close();
+    }
+  }
 }
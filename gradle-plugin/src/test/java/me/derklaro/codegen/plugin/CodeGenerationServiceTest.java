@@ -0,0 +1,120 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import javassist.ClassPool;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+
+public class CodeGenerationServiceTest {
+
+  @TempDir
+  Path directory;
+
+  private Set<File> classPath;
+
+  private static CodeGenerationService createService(Project project, int maxCachedClassPools) {
+    return project.getGradle().getSharedServices().registerIfAbsent("codeGenService", CodeGenerationService.class,
+      spec -> spec.getParameters().getMaxCachedClassPools().set(maxCachedClassPools)).get();
+  }
+
+  @BeforeEach
+  void setUp() throws IOException {
+    // the idle pools are shared by all services of the jvm, every test uses its own class path
+    File jarFile = this.directory.resolve("library.jar").toFile();
+    try (JarOutputStream ignored = new JarOutputStream(Files.newOutputStream(jarFile.toPath()))) {
+      this.classPath = Collections.singleton(jarFile);
+    }
+  }
+
+  @Test
+  void testConcurrentBorrowersGetDifferentPools() throws Exception {
+    CodeGenerationService service = createService(ProjectBuilder.builder().build(), 8);
+
+    CodeGenerationService.BorrowedClassPool first = service.borrowSharedClassPool(this.classPath);
+    CodeGenerationService.BorrowedClassPool second = service.borrowSharedClassPool(this.classPath);
+    Assertions.assertNotSame(first.getClassPool(), second.getClassPool());
+
+    first.close();
+    second.close();
+  }
+
+  @Test
+  void testReturnedPoolIsReused() throws Exception {
+    CodeGenerationService service = createService(ProjectBuilder.builder().build(), 8);
+
+    ClassPool classPool;
+    try (CodeGenerationService.BorrowedClassPool borrowed = service.borrowSharedClassPool(this.classPath)) {
+      classPool = borrowed.getClassPool();
+    }
+    try (CodeGenerationService.BorrowedClassPool borrowed = service.borrowSharedClassPool(this.classPath)) {
+      Assertions.assertSame(classPool, borrowed.getClassPool());
+    }
+  }
+
+  @Test
+  void testPoolIsOnlyReturnedOnce() throws Exception {
+    CodeGenerationService service = createService(ProjectBuilder.builder().build(), 8);
+
+    CodeGenerationService.BorrowedClassPool borrowed = service.borrowSharedClassPool(this.classPath);
+    borrowed.close();
+    borrowed.close();
+
+    try (CodeGenerationService.BorrowedClassPool first = service.borrowSharedClassPool(this.classPath);
+         CodeGenerationService.BorrowedClassPool second = service.borrowSharedClassPool(this.classPath)) {
+      Assertions.assertSame(borrowed.getClassPool(), first.getClassPool());
+      Assertions.assertNotSame(first.getClassPool(), second.getClassPool());
+    }
+  }
+
+  @Test
+  void testIdlePoolsAreBounded() throws Exception {
+    CodeGenerationService service = createService(ProjectBuilder.builder().build(), 1);
+
+    CodeGenerationService.BorrowedClassPool first = service.borrowSharedClassPool(this.classPath);
+    CodeGenerationService.BorrowedClassPool second = service.borrowSharedClassPool(this.classPath);
+    first.close();
+    second.close();
+
+    // only the pool returned last is kept
+    try (CodeGenerationService.BorrowedClassPool borrowed = service.borrowSharedClassPool(this.classPath);
+         CodeGenerationService.BorrowedClassPool other = service.borrowSharedClassPool(this.classPath)) {
+      Assertions.assertSame(second.getClassPool(), borrowed.getClassPool());
+      Assertions.assertNotSame(first.getClassPool(), other.getClassPool());
+    }
+  }
+}
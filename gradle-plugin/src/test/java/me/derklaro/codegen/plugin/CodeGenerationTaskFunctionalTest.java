@@ -0,0 +1,115 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class CodeGenerationTaskFunctionalTest {
+
+  @TempDir
+  Path directory;
+
+  private static GradleTestProject createCachedProject(Path directory, Path buildCache) throws Exception {
+    // the build cache directory is outside the project, so that a relocated project uses the same cache
+    String settings = String.join("\n",
+      "rootProject.name = 'demo'",
+      "buildCache {",
+      "  local {",
+      "    directory = '" + buildCache.toAbsolutePath().toString().replace('\\', '/') + "'",
+      "  }",
+      "}",
+      "");
+    return new GradleTestProject(directory)
+      .file("settings.gradle", settings)
+      .file("build.gradle", GradleTestProject.buildScript())
+      .file("src/main/java/demo/Tag.java", GradleTestProject.generatedType("demo", "Tag"))
+      .file("src/main/java/demo/model/Label.java", GradleTestProject.generatedType("demo.model", "Label"));
+  }
+
+  private static void assertGenerated(Path directory) throws IOException {
+    Assertions.assertTrue(Files.isRegularFile(directory.resolve("build/codegen/demo/TagImpl.class")));
+    Assertions.assertTrue(Files.isRegularFile(directory.resolve("build/codegen/demo/model/LabelImpl.class")));
+  }
+
+  @Test
+  void testLoadedFromBuildCache() throws Exception {
+    Path buildCache = this.directory.resolve("build-cache");
+    GradleTestProject project = createCachedProject(this.directory.resolve("project"), buildCache);
+
+    BuildResult result = project.runner("codeGen", "--build-cache").build();
+    Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":codeGen").getOutcome());
+
+    // the outputs are removed, so the task is not up-to-date but loaded from the cache
+    result = project.runner("clean", "codeGen", "--build-cache").build();
+    Assertions.assertEquals(TaskOutcome.FROM_CACHE, result.task(":codeGen").getOutcome());
+    assertGenerated(project.getDirectory());
+  }
+
+  @Test
+  void testLoadedFromBuildCacheAfterRelocation() throws Exception {
+    Path buildCache = this.directory.resolve("build-cache");
+    GradleTestProject project = createCachedProject(this.directory.resolve("original"), buildCache);
+
+    BuildResult result = project.runner("codeGen", "--build-cache").build();
+    Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":codeGen").getOutcome());
+
+    // a copy of the project in another directory (such as another checkout) uses the cached outputs
+    GradleTestProject relocated = createCachedProject(this.directory.resolve("relocated/nested"), buildCache);
+    result = relocated.runner("codeGen", "--build-cache").build();
+    Assertions.assertEquals(TaskOutcome.FROM_CACHE, result.task(":codeGen").getOutcome());
+    assertGenerated(relocated.getDirectory());
+
+    // the relocated project is loaded from the cache after a clean as well
+    result = relocated.runner("clean", "codeGen", "--build-cache").build();
+    Assertions.assertEquals(TaskOutcome.FROM_CACHE, result.task(":codeGen").getOutcome());
+    assertGenerated(relocated.getDirectory());
+  }
+
+  @Test
+  void testParallelTasksWithSameClassPath() throws Exception {
+    GradleTestProject project = new GradleTestProject(this.directory)
+      .file("settings.gradle", "include 'first', 'second', 'third'\n");
+    // all projects have the same class path, so their tasks borrow class pools for the same jar files
+    for (String name : new String[]{"first", "second", "third"}) {
+      project
+        .file(name + "/build.gradle", GradleTestProject.buildScript())
+        .file(name + "/src/main/java/demo/" + name + "/Tag.java", GradleTestProject.generatedType("demo." + name, "Tag"));
+    }
+
+    BuildResult result = project.runner("codeGen", "--parallel", "--max-workers=3").build();
+    for (String name : new String[]{"first", "second", "third"}) {
+      Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":" + name + ":codeGen").getOutcome());
+      Assertions.assertTrue(Files.isRegularFile(this.directory.resolve(name + "/build/codegen/demo/" + name + "/TagImpl.class")));
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class GeneratedClassListTaskFunctionalTest {
+
+  @TempDir
+  Path directory;
+
+  private GradleTestProject createProject(String extraBuildScript) throws Exception {
+    return new GradleTestProject(this.directory)
+      .file("settings.gradle", "rootProject.name = 'demo'\n")
+      .file("build.gradle", GradleTestProject.buildScript() + extraBuildScript)
+      .file("src/main/java/demo/Tag.java", GradleTestProject.generatedType("demo", "Tag"));
+  }
+
+  @Test
+  void testClassListWithoutArchive() throws Exception {
+    // the dependency can not be resolved, the build fails if the runtime class path is resolved
+    GradleTestProject project = this.createProject(String.join("\n",
+      "dependencies {",
+      "  runtimeOnly 'me.derklaro.missing:missing:1.0'",
+      "}",
+      ""));
+
+    BuildResult result = project.runner("codeGenClassList").build();
+    Assertions.assertEquals(TaskOutcome.SUCCESS, result.task(":codeGenClassList").getOutcome());
+    // the jar is only needed for the archive
+    Assertions.assertNull(result.task(":jar"));
+    Assertions.assertEquals(
+      Collections.singletonList("demo/TagImpl"),
+      Files.readAllLines(this.directory.resolve("build/codegen-cds/classes.lst"), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testArchiveClasspathWiredWithArchive() throws Exception {
+    GradleTestProject project = this.createProject(String.join("\n",
+      "codeGenClassList {",
+      "  archiveFile = layout.buildDirectory.file('codegen-cds/classes.jsa')",
+      "}",
+      ""));
+
+    // only the task graph is checked, creating the archive depends on the jvm running the build
+    BuildResult result = project.runner("codeGenClassList", "--dry-run").build();
+    Assertions.assertTrue(result.getOutput().contains(":jar SKIPPED"), result.getOutput());
+    Assertions.assertTrue(result.getOutput().contains(":codeGenClassList SKIPPED"), result.getOutput());
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class GeneratedOriginIndexTest {
+
+  private static final File ANIMAL = new File("src/Animal.java");
+  private static final File DOG = new File("src/Dog.java");
+  private static final File CAT = new File("src/Cat.java");
+  private static final File TREE = new File("src/Tree.java");
+  private static final File FACTORY = new File("src/Factories.java");
+
+  private GeneratedOriginIndex index;
+
+  private static Set<File> files(File... files) {
+    return new HashSet<>(Arrays.asList(files));
+  }
+
+  private static Set<String> outputs(String... outputs) {
+    return new HashSet<>(Arrays.asList(outputs));
+  }
+
+  @BeforeEach
+  void setUp() {
+    this.index = new GeneratedOriginIndex();
+    this.index.put("a/DogImpl.class", files(DOG), files(ANIMAL));
+    this.index.put("a/CatImpl.class", files(CAT), files(ANIMAL));
+    this.index.put("a/TreeImpl.class", files(TREE), Collections.emptySet());
+  }
+
+  @Test
+  void testUnrelatedChangeAffectsNothingElse() {
+    Set<File> regenerate = files(TREE);
+    Set<String> affected = this.index.collectAffectedOutputs(files(TREE), regenerate, Collections.emptySet());
+
+    Assertions.assertEquals(outputs("a/TreeImpl.class"), affected);
+    Assertions.assertEquals(files(TREE), regenerate);
+  }
+
+  @Test
+  void testSupertypeChangeAffectsAllSubtypes() {
+    Set<File> regenerate = files(ANIMAL);
+    Set<String> affected = this.index.collectAffectedOutputs(files(ANIMAL), regenerate, Collections.emptySet());
+
+    Assertions.assertEquals(outputs("a/DogImpl.class", "a/CatImpl.class"), affected);
+    Assertions.assertEquals(files(ANIMAL, DOG, CAT), regenerate);
+  }
+
+  @Test
+  void testSharedFactoryRegeneratesAllContributors() {
+    // the factory class is generated from the dog and the tree, the cat output depends on the dog only
+    // through the factory, so it must not be affected
+    this.index.put("a/Factories.class", files(FACTORY, DOG, TREE), Collections.emptySet());
+
+    Set<File> regenerate = files(DOG);
+    Set<String> affected = this.index.collectAffectedOutputs(files(DOG), regenerate, Collections.emptySet());
+
+    Assertions.assertEquals(outputs("a/DogImpl.class", "a/Factories.class", "a/TreeImpl.class"), affected);
+    Assertions.assertEquals(files(DOG, FACTORY, TREE), regenerate);
+  }
+
+  @Test
+  void testSharedFactoryExpandsTransitively() {
+    // the tree contributes to a second factory together with the cat, a change of the dog reaches the cat
+    // through both factory classes
+    this.index.put("a/Factories.class", files(FACTORY, DOG, TREE), Collections.emptySet());
+    this.index.put("a/Plants.class", files(TREE, CAT), Collections.emptySet());
+
+    Set<File> regenerate = files(DOG);
+    Set<String> affected = this.index.collectAffectedOutputs(files(DOG), regenerate, Collections.emptySet());
+
+    Assertions.assertEquals(outputs("a/DogImpl.class", "a/Factories.class", "a/TreeImpl.class",
+      "a/Plants.class", "a/CatImpl.class"), affected);
+    Assertions.assertEquals(files(DOG, FACTORY, TREE, CAT), regenerate);
+  }
+
+  @Test
+  void testDeletedSourceIsNotRegenerated() {
+    this.index.put("a/Factories.class", files(FACTORY, DOG, TREE), Collections.emptySet());
+
+    // the removed file is changed but never added to the files to regenerate
+    Set<File> regenerate = new HashSet<>();
+    Set<String> affected = this.index.collectAffectedOutputs(files(DOG), regenerate, files(DOG));
+
+    Assertions.assertEquals(outputs("a/DogImpl.class", "a/Factories.class", "a/TreeImpl.class"), affected);
+    Assertions.assertEquals(files(FACTORY, TREE), regenerate);
+  }
+
+  @Test
+  void testDeletedSupertypeAffectsSubtypes() {
+    Set<File> regenerate = new HashSet<>();
+    Set<String> affected = this.index.collectAffectedOutputs(files(ANIMAL), regenerate, files(ANIMAL));
+
+    Assertions.assertEquals(outputs("a/DogImpl.class", "a/CatImpl.class"), affected);
+    Assertions.assertEquals(files(DOG, CAT), regenerate);
+  }
+
+  @Test
+  void testWriteAndRead(@TempDir Path directory) throws IOException {
+    File file = directory.resolve("index.bin").toFile();
+    this.index.write(file);
+
+    GeneratedOriginIndex read = GeneratedOriginIndex.read(file);
+    Assertions.assertNotNull(read);
+    Assertions.assertEquals(this.index.getOutputs(), read.getOutputs());
+
+    Set<File> regenerate = files(ANIMAL);
+    Assertions.assertEquals(outputs("a/DogImpl.class", "a/CatImpl.class"),
+      read.collectAffectedOutputs(files(ANIMAL), regenerate, Collections.emptySet()));
+  }
+
+  @Test
+  void testMissingIndex(@TempDir Path directory) {
+    Assertions.assertNull(GeneratedOriginIndex.read(directory.resolve("index.bin").toFile()));
+    // a directory is not a valid index either
+    Assertions.assertNull(GeneratedOriginIndex.read(directory.toFile()));
+  }
+
+  @Test
+  void testTruncatedIndex(@TempDir Path directory) throws IOException {
+    File file = directory.resolve("index.bin").toFile();
+    this.index.write(file);
+
+    byte[] content = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(content, content.length / 2));
+
+    Assertions.assertNull(GeneratedOriginIndex.read(file));
+  }
+
+  @Test
+  void testCorruptIndex(@TempDir Path directory) throws IOException {
+    File file = directory.resolve("index.bin").toFile();
+    Files.write(file.toPath(), new byte[]{0x13, 0x37});
+
+    Assertions.assertNull(GeneratedOriginIndex.read(file));
+  }
+
+  @Test
+  void testIndexOfOtherVersion(@TempDir Path directory) throws IOException {
+    File file = directory.resolve("index.bin").toFile();
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file.toPath()))) {
+      out.writeInt(GeneratedOriginIndex.VERSION + 1);
+      out.writeInt(0);
+    }
+
+    Assertions.assertNull(GeneratedOriginIndex.read(file));
+  }
+}
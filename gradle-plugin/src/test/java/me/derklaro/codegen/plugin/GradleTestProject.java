@@ -0,0 +1,111 @@
+/*
+ * This file is part of codegen, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 Pasqual Koschmieder and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package me.derklaro.codegen.plugin;
+
+import me.derklaro.codegen.annotations.Generate;
+import org.gradle.testkit.runner.GradleRunner;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A gradle build written into a directory, which is run with the plugin under test using the gradle test kit.
+ */
+final class GradleTestProject {
+
+  private final Path directory;
+
+  GradleTestProject(@NotNull Path directory) {
+    this.directory = directory;
+  }
+
+  static @NotNull String annotationsPath() throws URISyntaxException {
+    // the projects compile against the annotations of this build
+    File location = new File(Generate.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    return location.getAbsolutePath().replace(File.separatorChar, '/');
+  }
+
+  static @NotNull String buildScript() throws URISyntaxException {
+    return String.join("\n",
+      "plugins {",
+      "  id 'me.derklaro.codegen'",
+      "}",
+      "java {",
+      "  sourceCompatibility = JavaVersion.VERSION_1_8",
+      "  targetCompatibility = JavaVersion.VERSION_1_8",
+      "}",
+      "dependencies {",
+      "  implementation files('" + annotationsPath() + "')",
+      "}",
+      "codeGen {",
+      "  // keep the tests independent of the generation cache in the user home",
+      "  cacheDirectory = layout.buildDirectory.dir('generation-cache')",
+      "}",
+      "");
+  }
+
+  static @NotNull String generatedType(@NotNull String packageName, @NotNull String name) {
+    return String.join("\n",
+      "package " + packageName + ";",
+      "",
+      "import me.derklaro.codegen.annotations.*;",
+      "",
+      "@Generate",
+      "@Constructor(types = Constructor.Type.ALL_ARGS)",
+      "@Equals",
+      "@HashCode",
+      "@ToString",
+      "public interface " + name + " {",
+      "  String getKey();",
+      "  int getValue();",
+      "  void setValue(int value);",
+      "}",
+      "");
+  }
+
+  @NotNull Path getDirectory() {
+    return this.directory;
+  }
+
+  @NotNull GradleTestProject file(@NotNull String path, @NotNull String content) throws IOException {
+    Path file = this.directory.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return this;
+  }
+
+  @NotNull GradleRunner runner(@NotNull String... arguments) {
+    return GradleRunner.create()
+      .withProjectDir(this.directory.toFile())
+      .withPluginClasspath()
+      .withArguments(Arrays.asList(arguments));
+  }
+}